@@ -15,8 +15,11 @@
  */
 package com.vaadin.flow.component.grid;
 
+import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -24,6 +27,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -57,7 +62,59 @@ import elemental.json.JsonObject;
 public abstract class AbstractGridMultiSelectionModel<T>
         extends AbstractGridExtension<T> implements GridMultiSelectionModel<T> {
 
+    /**
+     * The selection when all items have been selected lazily: all the items
+     * except the ones with the given ids. The items are fetched from the data
+     * provider when the set is iterated.
+     */
+    private class AllExceptSelection extends AbstractSet<T>
+            implements Serializable {
+
+        private final Set<Object> excludedIds;
+
+        private AllExceptSelection(Set<Object> excludedIds) {
+            this.excludedIds = excludedIds;
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return fetchAllItems()
+                    .filter(item -> !excludedIds.contains(getItemId(item)));
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return stream().iterator();
+        }
+
+        @Override
+        public Spliterator<T> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(),
+                    Spliterator.DISTINCT);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(Integer.MAX_VALUE, stream().count());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean contains(Object item) {
+            return item != null && !excludedIds.contains(getItemId((T) item));
+        }
+    }
+
     private final Map<Object, T> selected;
+    /** The deselected items while all items are selected lazily */
+    private final Map<Object, T> excluded;
+    private boolean allSelected;
+    private boolean lazySelectAll;
     private final GridSelectionColumn selectionColumn;
     private SelectAllCheckboxVisibility selectAllCheckBoxVisibility;
 
@@ -71,6 +128,7 @@ public abstract class AbstractGridMultiSelectionModel<T>
     public AbstractGridMultiSelectionModel(Grid<T> grid) {
         super(grid);
         selected = new LinkedHashMap<>();
+        excluded = new LinkedHashMap<>();
         selectionColumn = new GridSelectionColumn(this::clientSelectAll,
                 this::clientDeselectAll);
         selectAllCheckBoxVisibility = SelectAllCheckboxVisibility.DEFAULT;
@@ -110,7 +168,11 @@ public abstract class AbstractGridMultiSelectionModel<T>
         }
 
         Set<T> oldSelection = getSelectedItems();
-        selected.put(getItemId(item), item);
+        if (allSelected) {
+            excluded.remove(getItemId(item));
+        } else {
+            selected.put(getItemId(item), item);
+        }
 
         fireSelectionEvent(new MultiSelectionEvent<>(getGrid(),
                 getGrid().asMultiSelect(), oldSelection, true));
@@ -121,12 +183,7 @@ public abstract class AbstractGridMultiSelectionModel<T>
             return;
         }
 
-        long size = getDataProviderSize();
-        selectionColumn.setSelectAllCheckboxState(
-                !isHierarchicalDataProvider() && size == selected.size());
-        selectionColumn.setSelectAllCheckboxIndeterminateState(
-                isHierarchicalDataProvider() ? selected.size() > 0
-                        : selected.size() > 0 && selected.size() < size);
+        updateSelectAllCheckboxState();
     }
 
     @Override
@@ -136,11 +193,19 @@ public abstract class AbstractGridMultiSelectionModel<T>
         }
 
         Set<T> oldSelection = getSelectedItems();
-        selected.remove(getItemId(item));
+        if (allSelected) {
+            excluded.put(getItemId(item), item);
+        } else {
+            selected.remove(getItemId(item));
+        }
 
         fireSelectionEvent(new MultiSelectionEvent<>(getGrid(),
                 getGrid().asMultiSelect(), oldSelection, true));
 
+        if (allSelected) {
+            updateSelectAllCheckboxState();
+            return;
+        }
         long size = getDataProviderSize();
         selectionColumn.setSelectAllCheckboxState(false);
         selectionColumn.setSelectAllCheckboxIndeterminateState(
@@ -155,6 +220,10 @@ public abstract class AbstractGridMultiSelectionModel<T>
          * ConcurrentModificationExceptions when changing the selection during
          * an iteration
          */
+        if (allSelected) {
+            return Collections.unmodifiableSet(
+                    new AllExceptSelection(new HashSet<>(excluded.keySet())));
+        }
         return Collections
                 .unmodifiableSet(new LinkedHashSet<>(selected.values()));
     }
@@ -169,15 +238,39 @@ public abstract class AbstractGridMultiSelectionModel<T>
      * over this Set and modifying the selection during iteration to avoid
      * ConcurrentModificationExceptions.
      *
+     * <p>
+     * When all items have been selected lazily, the ids are collected from
+     * all the selected items, which are fetched from the data provider on each
+     * call. This can be very slow with a large data set, so prefer
+     * {@link #getSelectedIds()}, which returns the ids without fetching any
+     * items.
+     *
      * @return An unmodifiable view of the selected item ids. Updates in the
      *         selection may or may not be directly reflected in the Set.
+     * @see #getSelectedIds()
      */
     protected Set<Object> getSelectedItemIds() {
+        if (allSelected) {
+            return Collections.unmodifiableSet(getSelectedItems().stream()
+                    .map(this::getItemId)
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
         return Collections.unmodifiableSet(this.selected.keySet());
     }
 
+    @Override
+    public SelectedIds getSelectedIds() {
+        if (allSelected) {
+            return new SelectedIds(excluded.keySet(), true);
+        }
+        return new SelectedIds(selected.keySet(), false);
+    }
+
     @Override
     public Optional<T> getFirstSelectedItem() {
+        if (allSelected) {
+            return getSelectedItems().stream().findFirst();
+        }
         return selected.values().stream().findFirst();
     }
 
@@ -208,6 +301,10 @@ public abstract class AbstractGridMultiSelectionModel<T>
 
     @Override
     public void selectAll() {
+        if (lazySelectAll) {
+            doSetAllSelected(true, false);
+            return;
+        }
         updateSelection(
                 (Set<T>) getGrid().getDataCommunicator().getDataProvider()
                         .fetch(getGrid().getDataCommunicator().buildQuery(0,
@@ -220,6 +317,10 @@ public abstract class AbstractGridMultiSelectionModel<T>
 
     @Override
     public void deselectAll() {
+        if (allSelected) {
+            doSetAllSelected(false, false);
+            return;
+        }
         updateSelection(Collections.emptySet(), getSelectedItems());
         selectionColumn.setSelectAllCheckboxState(false);
         selectionColumn.setSelectAllCheckboxIndeterminateState(false);
@@ -234,6 +335,9 @@ public abstract class AbstractGridMultiSelectionModel<T>
 
     @Override
     public boolean isSelected(T item) {
+        if (allSelected) {
+            return item != null && !excluded.containsKey(getItemId(item));
+        }
         return selected.containsKey(getItemId(item));
     }
 
@@ -366,6 +470,25 @@ public abstract class AbstractGridMultiSelectionModel<T>
         return selectionColumn.isDragSelect();
     }
 
+    @Override
+    public void setLazySelectAll(boolean lazySelectAll) {
+        this.lazySelectAll = lazySelectAll;
+        if (!lazySelectAll && allSelected) {
+            // keep the same selection, without the lazy state
+            Map<Object, T> allItems = mapItemsById(getSelectedItems().stream()
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+            allSelected = false;
+            excluded.clear();
+            selected.putAll(allItems);
+            updateSelectAllCheckboxState();
+        }
+    }
+
+    @Override
+    public boolean isLazySelectAll() {
+        return lazySelectAll;
+    }
+
     /**
      * Method for handling the firing of selection events.
      *
@@ -380,17 +503,11 @@ public abstract class AbstractGridMultiSelectionModel<T>
             // ignore event if the checkBox was meant to be hidden
             return;
         }
-        Stream<T> allItemsStream;
-        DataProvider<T, ?> dataProvider = getGrid().getDataCommunicator()
-                .getDataProvider();
-        if (dataProvider instanceof HierarchicalDataProvider) {
-            allItemsStream = fetchAllHierarchical(
-                    (HierarchicalDataProvider<T, ?>) dataProvider);
-        } else {
-            allItemsStream = dataProvider.fetch(getGrid().getDataCommunicator()
-                    .buildQuery(0, Integer.MAX_VALUE));
+        if (lazySelectAll) {
+            doSetAllSelected(true, true);
+            return;
         }
-        doUpdateSelection(allItemsStream.collect(Collectors.toSet()),
+        doUpdateSelection(fetchAllItems().collect(Collectors.toSet()),
                 Collections.emptySet(), true);
         selectionColumn.setSelectAllCheckboxState(true);
         selectionColumn.setSelectAllCheckboxIndeterminateState(false);
@@ -400,6 +517,23 @@ public abstract class AbstractGridMultiSelectionModel<T>
         return selectionColumn;
     }
 
+    /**
+     * Fetch all items from the data provider, using the current filter of the
+     * grid.
+     *
+     * @return all items in the data provider
+     */
+    private Stream<T> fetchAllItems() {
+        DataProvider<T, ?> dataProvider = getGrid().getDataCommunicator()
+                .getDataProvider();
+        if (dataProvider instanceof HierarchicalDataProvider) {
+            return fetchAllHierarchical(
+                    (HierarchicalDataProvider<T, ?>) dataProvider);
+        }
+        return dataProvider.fetch(getGrid().getDataCommunicator()
+                .buildQuery(0, Integer.MAX_VALUE));
+    }
+
     /**
      * Fetch all items from the given hierarchical data provider.
      *
@@ -443,6 +577,10 @@ public abstract class AbstractGridMultiSelectionModel<T>
             // ignore event if the checkBox was meant to be hidden
             return;
         }
+        if (allSelected) {
+            doSetAllSelected(false, true);
+            return;
+        }
         doUpdateSelection(Collections.emptySet(), getSelectedItems(), true);
         selectionColumn.setSelectAllCheckboxState(false);
         selectionColumn.setSelectAllCheckboxIndeterminateState(false);
@@ -463,13 +601,24 @@ public abstract class AbstractGridMultiSelectionModel<T>
     private void doUpdateSelection(Map<Object, T> addedItems,
             Map<Object, T> removedItems, boolean userOriginated) {
 
-        if (selected.keySet().containsAll(addedItems.keySet()) && Collections
-                .disjoint(selected.keySet(), removedItems.keySet())) {
+        if (allSelected) {
+            if (Collections.disjoint(excluded.keySet(), addedItems.keySet())
+                    && excluded.keySet().containsAll(removedItems.keySet())) {
+                return;
+            }
+        } else if (selected.keySet().containsAll(addedItems.keySet())
+                && Collections.disjoint(selected.keySet(),
+                        removedItems.keySet())) {
             return;
         }
         Set<T> oldSelection = getSelectedItems();
-        removedItems.keySet().forEach(selected::remove);
-        selected.putAll(addedItems);
+        if (allSelected) {
+            addedItems.keySet().forEach(excluded::remove);
+            excluded.putAll(removedItems);
+        } else {
+            removedItems.keySet().forEach(selected::remove);
+            selected.putAll(addedItems);
+        }
 
         sendSelectionUpdate(new LinkedHashSet<>(addedItems.values()),
                 getGrid()::doClientSideSelection);
@@ -479,6 +628,38 @@ public abstract class AbstractGridMultiSelectionModel<T>
         fireSelectionEvent(new MultiSelectionEvent<>(getGrid(),
                 getGrid().asMultiSelect(), oldSelection, userOriginated));
 
+        updateSelectAllCheckboxState();
+    }
+
+    /**
+     * Selects or deselects all items without fetching them, by only changing
+     * the selection state and refreshing the items loaded to the client.
+     */
+    private void doSetAllSelected(boolean select, boolean userOriginated) {
+        if (!select && !allSelected && selected.isEmpty()) {
+            return;
+        }
+        Set<T> oldSelection = getSelectedItems();
+        allSelected = select;
+        selected.clear();
+        excluded.clear();
+        // the selected state of all the items loaded to the client changes
+        getGrid().getDataCommunicator().reset();
+
+        fireSelectionEvent(new MultiSelectionEvent<>(getGrid(),
+                getGrid().asMultiSelect(), oldSelection, userOriginated));
+
+        selectionColumn.setSelectAllCheckboxState(select);
+        selectionColumn.setSelectAllCheckboxIndeterminateState(false);
+    }
+
+    private void updateSelectAllCheckboxState() {
+        if (allSelected) {
+            boolean partial = !excluded.isEmpty();
+            selectionColumn.setSelectAllCheckboxState(!partial);
+            selectionColumn.setSelectAllCheckboxIndeterminateState(partial);
+            return;
+        }
         long size = getDataProviderSize();
         selectionColumn.setSelectAllCheckboxState(
                 !isHierarchicalDataProvider() && size == selected.size());
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.grid;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.grid.dataview.GridLazyDataView.AsyncFetchCallback;
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.CallbackDataProvider.CountCallback;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.QuerySortOrder;
+
+/**
+ * Data provider for Grid that fetches the items asynchronously, outside of the
+ * session lock.
+ * <p>
+ * A fetch returns the items that have already been fetched for the requested
+ * range, and starts fetching the rest of the range that the client has
+ * requested for rendering, which the grid shows as placeholder rows
+ * meanwhile. Other queries, such as the ones of the data view, never start a
+ * fetch. The fetched items are applied with {@link UI#access}, after which the
+ * grid requests them again. Fetches for ranges that the grid no longer
+ * requests are cancelled. A fetch that returns fewer items than requested
+ * marks the end of the data, and the items after it are not fetched until
+ * the data is refreshed or the sort orders change.
+ *
+ * @param <T>
+ *            the type of the items in grid
+ * @author Vaadin Ltd
+ */
+class AsyncFetchDataProvider<T> extends AbstractBackEndDataProvider<T, Void> {
+
+    /**
+     * A fetch that has been started but has not been applied yet.
+     */
+    private static class PendingFetch implements Serializable {
+        private final int start;
+        private final int end;
+        private final transient CompletableFuture<?> future;
+
+        private PendingFetch(int start, int end, CompletableFuture<?> future) {
+            this.start = start;
+            this.end = end;
+            this.future = future;
+        }
+
+        private boolean covers(int start, int end) {
+            return this.start <= start && end <= this.end;
+        }
+
+        private boolean intersects(int start, int end) {
+            return this.start < end && start < this.end;
+        }
+
+        private void cancel() {
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private final Grid<T> grid;
+    private final AsyncFetchCallback<T> fetchCallback;
+    private final CountCallback<T, Void> countCallback;
+
+    /** The fetched items by their index, for the current sort orders */
+    private final Map<Integer, T> items = new HashMap<>();
+    private List<QuerySortOrder> sortOrders = Collections.emptyList();
+    private final List<PendingFetch> pendingFetches = new ArrayList<>();
+
+    /** The range of items requested by the client for rendering */
+    private int requestedStart;
+    private int requestedEnd;
+
+    /** The index after the last item returned by the back end */
+    private int dataEnd = Integer.MAX_VALUE;
+
+    AsyncFetchDataProvider(Grid<T> grid, AsyncFetchCallback<T> fetchCallback,
+            CountCallback<T, Void> countCallback) {
+        this.grid = Objects.requireNonNull(grid, "Grid cannot be null");
+        this.fetchCallback = Objects.requireNonNull(fetchCallback,
+                "Fetch callback cannot be null");
+        this.countCallback = Objects.requireNonNull(countCallback,
+                "Count callback cannot be null");
+    }
+
+    @Override
+    protected Stream<T> fetchFromBackEnd(Query<T, Void> query) {
+        final int offset = query.getOffset();
+        final int end = (int) Math.min((long) offset + query.getLimit(),
+                Integer.MAX_VALUE);
+        if (!query.getSortOrders().equals(sortOrders)) {
+            clear();
+            sortOrders = new ArrayList<>(query.getSortOrders());
+        }
+        final List<T> fetched = new ArrayList<>();
+        int index = offset;
+        while (index < end && items.containsKey(index)) {
+            fetched.add(items.get(index));
+            index++;
+        }
+        // only fetch the items that the client renders
+        final int fetchStart = Math.max(index, requestedStart);
+        final int fetchEnd = Math.min(Math.min(end, requestedEnd), dataEnd);
+        if (fetchStart < fetchEnd) {
+            fetchAsync(new Query<>(fetchStart, fetchEnd - fetchStart,
+                    query.getSortOrders(), query.getInMemorySorting(), null));
+        }
+        return fetched.stream();
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<T, Void> query) {
+        return countCallback.count(query);
+    }
+
+    @Override
+    public void refreshAll() {
+        clear();
+        super.refreshAll();
+    }
+
+    /**
+     * Cancels the fetches and drops the fetched items that are outside of the
+     * range requested by the client.
+     *
+     * @param start
+     *            the index of the first requested item
+     * @param length
+     *            the number of requested items
+     */
+    void setRequestedRange(int start, int length) {
+        final int end = (int) Math.min((long) start + length,
+                Integer.MAX_VALUE);
+        requestedStart = start;
+        requestedEnd = end;
+        for (Iterator<PendingFetch> it = pendingFetches.iterator(); it
+                .hasNext();) {
+            final PendingFetch fetch = it.next();
+            if (!fetch.intersects(start, end)) {
+                fetch.cancel();
+                it.remove();
+            }
+        }
+        items.keySet().removeIf(index -> index < start || index >= end);
+    }
+
+    private void fetchAsync(Query<T, Void> query) {
+        final int start = query.getOffset();
+        final int end = start + query.getLimit();
+        if (pendingFetches.stream().anyMatch(f -> f.covers(start, end))) {
+            return;
+        }
+        final UI ui = grid.getUI().orElseThrow(() -> new IllegalStateException(
+                "Grid must be attached to fetch items asynchronously."));
+        final CompletableFuture<List<T>> future = fetchCallback.fetch(query)
+                .toCompletableFuture();
+        final PendingFetch fetch = new PendingFetch(start, end, future);
+        pendingFetches.add(fetch);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                LoggerFactory.getLogger(AsyncFetchDataProvider.class).error(
+                        "Fetching items asynchronously failed",
+                        unwrap(error));
+            }
+            try {
+                ui.access(() -> {
+                    if (!pendingFetches.remove(fetch) || error != null) {
+                        // cancelled or refreshed while being fetched, or
+                        // failed, in which case the items are fetched again
+                        // when they are requested
+                        return;
+                    }
+                    for (int i = 0; i < result.size(); i++) {
+                        items.put(start + i, result.get(i));
+                    }
+                    if (start + result.size() < end) {
+                        dataEnd = Math.min(dataEnd, start + result.size());
+                    }
+                    grid.getDataCommunicator().reset();
+                });
+            } catch (UIDetachedException e) {
+                LoggerFactory.getLogger(AsyncFetchDataProvider.class).debug(
+                        "Grid UI was detached before items were fetched", e);
+            }
+        });
+    }
+
+    private void clear() {
+        pendingFetches.forEach(PendingFetch::cancel);
+        pendingFetches.clear();
+        items.clear();
+        dataEnd = Integer.MAX_VALUE;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException
+                && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+}
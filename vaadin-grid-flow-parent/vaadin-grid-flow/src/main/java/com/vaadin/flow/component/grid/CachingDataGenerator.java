@@ -0,0 +1,254 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.component.grid;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.vaadin.flow.component.grid.Grid.AbstractGridExtension;
+import com.vaadin.flow.component.grid.editor.EditorRenderer;
+import com.vaadin.flow.data.provider.CompositeDataGenerator;
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.renderer.ComponentDataGenerator;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.shared.Registration;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Composite data generator for Grid that can reuse the data generated for an
+ * item as long as the version of the item stays the same.
+ * <p>
+ * The cache is only used when a version provider is set. Generators that
+ * depend on state other than the item itself, such as the selection and
+ * details extensions, the editor and component renderers, are run for each
+ * item regardless of the cache. Other generators of that kind can be added
+ * with {@link #addUncachedDataGenerator(DataGenerator)}.
+ * <p>
+ * The cache is cleared when all data is destroyed, for example when the data
+ * communicator is reset. The data of the items sent before that is kept
+ * until the next time all data is destroyed, so that the items sent again
+ * right after a reset or a refresh can reuse their data.
+ *
+ * @param <T>
+ *            the type of the items in grid
+ * @author Vaadin Ltd
+ */
+class CachingDataGenerator<T> extends CompositeDataGenerator<T> {
+
+    /** The maximum number of items to keep the generated data for */
+    static final int MAX_CACHED_ITEMS = 1000;
+
+    /**
+     * The data generated for an item, together with the version of the item
+     * it was generated for.
+     */
+    private static class Entry implements Serializable {
+        private final Object version;
+        private final JsonObject data;
+
+        private Entry(Object version, JsonObject data) {
+            this.version = version;
+            this.data = data;
+        }
+    }
+
+    private final SerializableSupplier<DataProvider<T, ?>> dataProviderSupplier;
+
+    private final CompositeDataGenerator<T> uncachedGenerators = new CompositeDataGenerator<>();
+
+    private final Map<Object, Entry> cache = new LinkedHashMap<>(16, 0.75f,
+            true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+            return size() > MAX_CACHED_ITEMS;
+        }
+    };
+
+    /** The cache before all data was last destroyed */
+    private Map<Object, Entry> previousCache = new HashMap<>();
+
+    private ValueProvider<T, ?> versionProvider;
+
+    /** The data provider that the cached items belong to */
+    private DataProvider<T, ?> cachedDataProvider;
+
+    CachingDataGenerator(
+            SerializableSupplier<DataProvider<T, ?>> dataProviderSupplier) {
+        this.dataProviderSupplier = Objects.requireNonNull(
+                dataProviderSupplier, "Data provider supplier cannot be null");
+    }
+
+    @Override
+    public Registration addDataGenerator(DataGenerator<T> generator) {
+        if (isUncacheable(generator)) {
+            return uncachedGenerators.addDataGenerator(generator);
+        }
+        clearCache();
+        Registration registration = super.addDataGenerator(generator);
+        return () -> {
+            clearCache();
+            registration.remove();
+        };
+    }
+
+    /**
+     * Adds a data generator that is run each time an item is sent, even if the
+     * data of the item is cached.
+     *
+     * @param generator
+     *            the data generator to add
+     * @return a registration for removing the generator
+     */
+    Registration addUncachedDataGenerator(DataGenerator<T> generator) {
+        return uncachedGenerators.addDataGenerator(generator);
+    }
+
+    @Override
+    public void generateData(T item, JsonObject jsonObject) {
+        if (versionProvider == null) {
+            super.generateData(item, jsonObject);
+        } else {
+            JsonObject data = getCachedData(item);
+            for (String key : data.keys()) {
+                if (!jsonObject.hasKey(key)) {
+                    jsonObject.put(key, copyOf(data.get(key)));
+                }
+            }
+        }
+        uncachedGenerators.generateData(item, jsonObject);
+    }
+
+    @Override
+    public void refreshData(T item) {
+        if (versionProvider != null) {
+            final Object id = dataProviderSupplier.get().getId(item);
+            cache.remove(id);
+            previousCache.remove(id);
+        }
+        super.refreshData(item);
+        uncachedGenerators.refreshData(item);
+    }
+
+    @Override
+    public void destroyData(T item) {
+        super.destroyData(item);
+        uncachedGenerators.destroyData(item);
+    }
+
+    @Override
+    public void destroyAllData() {
+        // The rows that are sent again after a reset or refresh can reuse the
+        // data of the previous cache, the rest of it is dropped on the next
+        // call
+        previousCache = new HashMap<>(cache);
+        cache.clear();
+        super.destroyAllData();
+        uncachedGenerators.destroyAllData();
+    }
+
+    /**
+     * Sets the provider for the version of an item. The data generated for an
+     * item is reused until the version of the item changes. {@code null}
+     * disables the cache.
+     *
+     * @param versionProvider
+     *            the version provider, or {@code null} to disable the cache
+     */
+    void setVersionProvider(ValueProvider<T, ?> versionProvider) {
+        this.versionProvider = versionProvider;
+        clearCache();
+    }
+
+    ValueProvider<T, ?> getVersionProvider() {
+        return versionProvider;
+    }
+
+    /**
+     * Drops the data generated for all the items, so that it is generated
+     * again the next time the items are sent.
+     */
+    void clearCache() {
+        cache.clear();
+        previousCache.clear();
+        cachedDataProvider = null;
+    }
+
+    private JsonObject getCachedData(T item) {
+        DataProvider<T, ?> dataProvider = dataProviderSupplier.get();
+        if (dataProvider != cachedDataProvider) {
+            clearCache();
+            cachedDataProvider = dataProvider;
+        }
+        Object id = dataProvider.getId(item);
+        Object version = versionProvider.apply(item);
+        Entry entry = cache.get(id);
+        if (entry == null) {
+            entry = previousCache.remove(id);
+        }
+        if (entry == null || !Objects.equals(entry.version, version)) {
+            JsonObject data = Json.createObject();
+            super.generateData(item, data);
+            entry = new Entry(version, data);
+        }
+        cache.put(id, entry);
+        return entry.data;
+    }
+
+    /**
+     * Copies the objects and arrays of the cached data, so that the emitted
+     * item data doesn't share instances with the cache or other items. The
+     * values are copied structurally, strings, numbers, booleans and nulls are
+     * immutable and shared.
+     */
+    private static JsonValue copyOf(JsonValue value) {
+        switch (value.getType()) {
+        case OBJECT:
+            final JsonObject object = (JsonObject) value;
+            final JsonObject objectCopy = Json.createObject();
+            for (String key : object.keys()) {
+                objectCopy.put(key, copyOf(object.get(key)));
+            }
+            return objectCopy;
+        case ARRAY:
+            final JsonArray array = (JsonArray) value;
+            final JsonArray arrayCopy = Json.createArray();
+            for (int i = 0; i < array.length(); i++) {
+                arrayCopy.set(i, copyOf(array.get(i)));
+            }
+            return arrayCopy;
+        default:
+            return value;
+        }
+    }
+
+    private static boolean isUncacheable(DataGenerator<?> generator) {
+        // Composite generators may contain component generators, such as the
+        // ones created by component renderers
+        return generator instanceof ComponentDataGenerator
+                || generator instanceof CompositeDataGenerator
+                || generator instanceof AbstractGridExtension
+                || generator instanceof EditorRenderer;
+    }
+}
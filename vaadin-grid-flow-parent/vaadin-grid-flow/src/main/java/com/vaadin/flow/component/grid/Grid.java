@@ -1067,7 +1067,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
             Objects.requireNonNull(classNameGenerator,
                     "Class name generator can not be null");
             this.classNameGenerator = classNameGenerator;
-            getGrid().getDataCommunicator().reset();
+            getGrid().resetGeneratedData();
             return this;
         }
 
@@ -1093,7 +1093,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
             Objects.requireNonNull(partNameGenerator,
                     "Part name generator can not be null");
             this.partNameGenerator = partNameGenerator;
-            getGrid().getDataCommunicator().reset();
+            getGrid().resetGeneratedData();
             return this;
         }
 
@@ -1114,7 +1114,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
                     "Tooltip generator can not be null");
 
             grid.addTooltipElementToTooltipSlot();
-            getGrid().getDataCommunicator().reset();
+            getGrid().resetGeneratedData();
             return this;
         }
 
@@ -1405,7 +1405,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
 
     private final GridArrayUpdater arrayUpdater;
 
-    private final CompositeDataGenerator<T> gridDataGenerator;
+    private final CachingDataGenerator<T> gridDataGenerator;
     private final DataCommunicator<T> dataCommunicator;
 
     private int nextColumnId = 0;
@@ -1668,7 +1668,8 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
                         .orElseGet(() -> UpdateQueue::new));
         arrayUpdater.setUpdateQueueData(
                 new UpdateQueueData(getElement(), getUniqueKeyProperty()));
-        gridDataGenerator = new CompositeDataGenerator<>();
+        gridDataGenerator = new CachingDataGenerator<>(
+                () -> getDataCommunicator().getDataProvider());
         gridDataGenerator.addDataGenerator(this::generateUniqueKeyData);
         gridDataGenerator.addDataGenerator(this::generateStyleData);
         gridDataGenerator.addDataGenerator(this::generatePartData);
@@ -2878,6 +2879,51 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         return getLazyDataView();
     }
 
+    /**
+     * Supplies the grid with items that are fetched asynchronously, so that
+     * slow backend queries do not hold the session lock. Rows are shown as
+     * placeholders until their items have been fetched, and fetches for rows
+     * that are scrolled out of view are cancelled.
+     * <p>
+     * The fetched items are applied with {@code UI.access}, so server push
+     * should be enabled for the items to be shown as soon as they have been
+     * fetched. The count callback is called synchronously. Only the items in
+     * the range that the client renders are fetched. Other queries, such as
+     * the items of the data view or selecting all items, only return the
+     * items that have already been fetched. A fetch that returns fewer items
+     * than requested is treated as the end of the data, and the items after
+     * it are not fetched again until the data provider is refreshed or the
+     * sorting changes.
+     * <p>
+     * If the stage returned by the fetch callback completes exceptionally, the
+     * error is logged and the items are fetched again the next time they are
+     * requested. Errors that should be shown to the user must be handled in
+     * the returned stage.
+     * <p>
+     * The fetch callback can for example run a blocking query in an executor:
+     *
+     * <pre>
+     * grid.setItemsAsync(query -&gt; CompletableFuture.supplyAsync(
+     *         () -&gt; service.fetch(query.getOffset(), query.getLimit()),
+     *         executor), query -&gt; service.count());
+     * </pre>
+     *
+     * @param fetchCallback
+     *            function that starts fetching items from the back end for a
+     *            query, not {@code null}
+     * @param countCallback
+     *            function that returns the number of items in the back end,
+     *            not {@code null}
+     * @return the lazy data view that provides access to the data bound to the
+     *         grid
+     */
+    public GridLazyDataView<T> setItemsAsync(
+            GridLazyDataView.AsyncFetchCallback<T> fetchCallback,
+            CallbackDataProvider.CountCallback<T, Void> countCallback) {
+        return setItems(new AsyncFetchDataProvider<>(this, fetchCallback,
+                countCallback));
+    }
+
     /**
      * Gets the lazy data view for the grid. This data view should only be used
      * when the items are provided lazily from the backend with:
@@ -2885,6 +2931,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
      * <li>{@link #setItems(CallbackDataProvider.FetchCallback)}</li>
      * <li>{@link #setItems(CallbackDataProvider.FetchCallback, CallbackDataProvider.CountCallback)}</li>
      * <li>{@link #setItems(BackEndDataProvider)}</li>
+     * <li>{@link #setItemsAsync(GridLazyDataView.AsyncFetchCallback, CallbackDataProvider.CountCallback)}</li>
      * </ul>
      * If the items are not fetched lazily an exception is thrown. When the
      * items are in-memory, use {@link #getListDataView()} instead.
@@ -3668,6 +3715,11 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
                             + "reason this is not an option, increase the page size of the grid so that rendering "
                             + "every item at once doesn't result in a request for over 10 pages.");
         }
+        if (getDataCommunicator()
+                .getDataProvider() instanceof AsyncFetchDataProvider) {
+            ((AsyncFetchDataProvider<T>) getDataCommunicator()
+                    .getDataProvider()).setRequestedRange(start, length);
+        }
         getDataCommunicator().setRequestedRange(start, length);
     }
 
@@ -3941,7 +3993,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
          * the cells can be updated to the new enabled state. The enabled state
          * is passed as a property to the client via DataGenerators.
          */
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -3980,6 +4032,70 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         return gridDataGenerator.addDataGenerator(dataGenerator);
     }
 
+    /**
+     * Adds a data generator whose data depends on state other than the item
+     * itself, such as the hierarchy of the items. The generator is run each
+     * time an item is sent to the client, even if the data of the item is
+     * cached with {@link #setItemDataVersionProvider(ValueProvider)}.
+     *
+     * @param dataGenerator
+     *            the data generator to add, not {@code null}
+     * @return a registration that can be used to remove the data generator
+     */
+    protected Registration addUncachedDataGenerator(
+            DataGenerator<T> dataGenerator) {
+        Objects.requireNonNull(dataGenerator,
+                "Data generator cannot be null.");
+        return gridDataGenerator.addUncachedDataGenerator(dataGenerator);
+    }
+
+    /**
+     * Sets the provider for the version of an item, which enables caching the
+     * data generated for the items. The data generated for an item, such as
+     * the values of the renderers, the part names and the tooltips, is reused
+     * for as long as the item has the same id and version, instead of running
+     * all the data generators again each time the item is sent to the client,
+     * for example after {@link DataProvider#refreshAll()}.
+     * <p>
+     * The version must change whenever any of the data generated for the item
+     * would change, for example a timestamp or a revision number that is
+     * updated on each modification of the item. Refreshing a single item with
+     * {@link DataProvider#refreshItem(Object)} always generates its data
+     * again. Components rendered with a {@link ComponentRenderer}, the
+     * selection, the item details and the data added with
+     * {@link #addUncachedDataGenerator(DataGenerator)} are not cached.
+     * <p>
+     * The cache is disabled by default.
+     *
+     * @param versionProvider
+     *            the provider for the version of an item, or {@code null} to
+     *            disable the cache
+     */
+    public void setItemDataVersionProvider(
+            ValueProvider<T, ?> versionProvider) {
+        gridDataGenerator.setVersionProvider(versionProvider);
+    }
+
+    /**
+     * Gets the provider for the version of an item that is used for caching
+     * the data generated for the items.
+     *
+     * @return the version provider, or {@code null} if the cache is disabled
+     * @see #setItemDataVersionProvider(ValueProvider)
+     */
+    public ValueProvider<T, ?> getItemDataVersionProvider() {
+        return gridDataGenerator.getVersionProvider();
+    }
+
+    /**
+     * Drops the cached data of the items and resends them, after a change
+     * that affects the data generated for all items.
+     */
+    private void resetGeneratedData() {
+        gridDataGenerator.clearCache();
+        getDataCommunicator().reset();
+    }
+
     protected static int compareMaybeComparables(Object a, Object b) {
         if (hasCommonComparableBaseType(a, b)) {
             return compareComparables(a, b);
@@ -4189,7 +4305,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         Objects.requireNonNull(classNameGenerator,
                 "Class name generator can not be null");
         this.classNameGenerator = classNameGenerator;
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4213,7 +4329,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         Objects.requireNonNull(partNameGenerator,
                 "Part name generator can not be null");
         this.partNameGenerator = partNameGenerator;
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4365,6 +4481,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
     protected void setUniqueKeyProvider(
             ValueProvider<T, String> uniqueKeyProvider) {
         this.uniqueKeyProvider = uniqueKeyProvider;
+        gridDataGenerator.clearCache();
     }
 
     /**
@@ -4386,6 +4503,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         this.uniqueKeyProperty = uniqueKeyProperty;
         arrayUpdater.getUpdateQueueData()
                 .setUniqueKeyProperty(uniqueKeyProperty);
+        gridDataGenerator.clearCache();
     }
 
     protected GridArrayUpdater getArrayUpdater() {
@@ -4535,7 +4653,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
     public void setDropMode(GridDropMode dropMode) {
         getElement().setProperty("dropMode",
                 dropMode == null ? null : dropMode.getClientName());
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4560,7 +4678,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
      */
     public void setRowsDraggable(boolean rowsDraggable) {
         getElement().setProperty("rowsDraggable", rowsDraggable);
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4616,7 +4734,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
     public void setDropFilter(SerializablePredicate<T> dropFilter) {
         Objects.requireNonNull(dropFilter, "Drop filter can not be null");
         this.dropFilter = dropFilter;
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4636,7 +4754,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
     public void setDragFilter(SerializablePredicate<T> dragFilter) {
         Objects.requireNonNull(dragFilter, "Drag filter can not be null");
         this.dragFilter = dragFilter;
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4663,7 +4781,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         this.dragDataGenerators.keySet()
                 .forEach(t -> types.set(types.length(), t));
         this.getElement().setPropertyJson("__dragDataTypes", types);
-        getDataCommunicator().reset();
+        resetGeneratedData();
     }
 
     /**
@@ -4684,7 +4802,7 @@ public class Grid<T> extends Component implements HasStyle, HasSize,
         this.tooltipGenerator = Objects.requireNonNull(tooltipGenerator,
                 "Tooltip generator cannot be null");
         addTooltipElementToTooltipSlot();
-        this.dataCommunicator.reset();
+        resetGeneratedData();
     }
 
     private void addTooltipElementToTooltipSlot() {
@@ -15,6 +15,11 @@
  */
 package com.vaadin.flow.component.grid;
 
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import com.vaadin.flow.data.binder.Binder;
 import com.vaadin.flow.data.selection.MultiSelect;
 import com.vaadin.flow.data.selection.MultiSelectionListener;
@@ -49,7 +54,8 @@ public interface GridMultiSelectionModel<T>
          * never be shown.
          * <p>
          * <b>For lazy data, selecting all will result in to all rows being
-         * fetched from backend to application memory!</b>
+         * fetched from backend to application memory, unless lazy select all
+         * is enabled with {@link #setLazySelectAll(boolean)}!</b>
          */
         VISIBLE,
 
@@ -70,6 +76,68 @@ public interface GridMultiSelectionModel<T>
         DEFAULT;
     }
 
+    /**
+     * The ids of the selected items. The selection is either the listed ids
+     * only, or all the items except the listed ids when all the items have
+     * been selected with lazy select all.
+     * <p>
+     * Backends can use this to query the selected items, for example by
+     * turning it into an {@code IN} or a {@code NOT IN} condition.
+     *
+     * @see GridMultiSelectionModel#setLazySelectAll(boolean)
+     */
+    public static final class SelectedIds implements Serializable {
+
+        private final Set<Object> ids;
+        private final boolean allExcept;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param ids
+         *            the selected ids, or the deselected ids if
+         *            {@code allExcept} is {@code true}, not {@code null}
+         * @param allExcept
+         *            whether all the items except the given ids are selected
+         */
+        public SelectedIds(Set<Object> ids, boolean allExcept) {
+            this.ids = Collections.unmodifiableSet(new LinkedHashSet<>(ids));
+            this.allExcept = allExcept;
+        }
+
+        /**
+         * Gets whether all the items except the ids returned by
+         * {@link #getIds()} are selected.
+         *
+         * @return {@code true} if all the items except the listed ids are
+         *         selected, {@code false} if only the listed ids are selected
+         */
+        public boolean isAllExcept() {
+            return allExcept;
+        }
+
+        /**
+         * Gets the listed ids, which are the selected ids or the deselected ids
+         * depending on {@link #isAllExcept()}.
+         *
+         * @return an unmodifiable set of ids
+         */
+        public Set<Object> getIds() {
+            return ids;
+        }
+
+        /**
+         * Checks whether the item with the given id is selected.
+         *
+         * @param id
+         *            the item id
+         * @return {@code true} if the item is selected
+         */
+        public boolean isSelected(Object id) {
+            return allExcept != ids.contains(id);
+        }
+    }
+
     /**
      * Gets a wrapper to use this multiselection model as a multiselect in
      * {@link Binder}.
@@ -166,4 +234,55 @@ public interface GridMultiSelectionModel<T>
      *         <code>false</code> otherwise
      */
     boolean isDragSelect();
+
+    /**
+     * Sets whether selecting all items only marks all the items as selected,
+     * instead of fetching them from the data provider. While all the items are
+     * selected, deselected items are tracked by their ids.
+     * <p>
+     * With lazy select all, the items returned by
+     * {@link #getSelectedItems()} are fetched from the data provider, using
+     * the current filter of the grid, when they are iterated. The same applies
+     * to the values of the selection events, and to the added and removed
+     * items that selection listeners may request from them. Use
+     * {@link #getSelectedIds()} to access the selection without fetching the
+     * items.
+     * <p>
+     * The default value is {@code false}. The default implementation does not
+     * support lazy select all.
+     *
+     * @param lazySelectAll
+     *            {@code true} to select all items lazily, {@code false} to
+     *            fetch all items when selecting all
+     * @throws UnsupportedOperationException
+     *             if the selection model does not support lazy select all
+     */
+    default void setLazySelectAll(boolean lazySelectAll) {
+        throw new UnsupportedOperationException(
+                "Lazy select all is not supported by this selection model.");
+    }
+
+    /**
+     * Gets whether selecting all items only marks all the items as selected.
+     *
+     * @return {@code true} if lazy select all is enabled, {@code false}
+     *         otherwise
+     * @see #setLazySelectAll(boolean)
+     */
+    default boolean isLazySelectAll() {
+        return false;
+    }
+
+    /**
+     * Gets the ids of the selected items, without fetching any items.
+     * <p>
+     * The default implementation uses the items returned by
+     * {@link #getSelectedItems()} as their ids.
+     *
+     * @return the selected ids, not {@code null}
+     * @see #setLazySelectAll(boolean)
+     */
+    default SelectedIds getSelectedIds() {
+        return new SelectedIds(new LinkedHashSet<>(getSelectedItems()), false);
+    }
 }
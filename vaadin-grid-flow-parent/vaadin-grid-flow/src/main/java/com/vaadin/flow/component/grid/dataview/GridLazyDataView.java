@@ -16,6 +16,10 @@
 
 package com.vaadin.flow.component.grid.dataview;
 
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.data.provider.AbstractLazyDataView;
 import com.vaadin.flow.data.provider.BackEndDataProvider;
@@ -34,6 +38,34 @@ import com.vaadin.flow.data.provider.Query;
  */
 public class GridLazyDataView<T> extends AbstractLazyDataView<T> {
 
+    /**
+     * Callback for fetching items asynchronously, outside of the session lock.
+     *
+     * @param <T>
+     *            the type of the items in grid
+     * @see Grid#setItemsAsync(AsyncFetchCallback,
+     *      CallbackDataProvider.CountCallback)
+     */
+    @FunctionalInterface
+    public interface AsyncFetchCallback<T> extends Serializable {
+
+        /**
+         * Starts fetching the items for the given query. The returned stage
+         * is completed with the items once they have been fetched, and it is
+         * cancelled if the items are no longer needed, e.g. when the user has
+         * scrolled to another part of the grid.
+         * <p>
+         * The query must not be used to access the session or the UI.
+         *
+         * @param query
+         *            the query with the offset, limit and sort orders of the
+         *            items to fetch
+         * @return a stage that is completed with the fetched items, not
+         *         {@code null}
+         */
+        CompletionStage<List<T>> fetch(Query<T, Void> query);
+    }
+
     /**
      * Creates a new lazy data view for grid and verifies the passed data
      * provider is compatible with this data view implementation.
@@ -250,7 +250,8 @@ public class TreeGrid<T> extends Grid<T>
      * itemHasChildrenPath property
      */
     private void addItemHasChildrenPathGenerator() {
-        addDataGenerator((T item, JsonObject jsonObject) -> {
+        // whether an item has children isn't part of the item's version
+        addUncachedDataGenerator((T item, JsonObject jsonObject) -> {
             if (getDataCommunicator().hasChildren(item)) {
                 jsonObject.put("children", true);
             }
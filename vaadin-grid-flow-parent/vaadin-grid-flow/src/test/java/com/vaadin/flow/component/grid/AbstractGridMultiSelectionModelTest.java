@@ -18,11 +18,13 @@ package com.vaadin.flow.component.grid;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.grid.dataview.GridListDataView;
 import com.vaadin.flow.data.provider.*;
+import com.vaadin.flow.data.selection.MultiSelectionEvent;
 import com.vaadin.flow.dom.Element;
 import org.junit.Assert;
 import org.junit.Before;
@@ -446,6 +448,92 @@ public class AbstractGridMultiSelectionModelTest {
         Assert.assertFalse(columnElement.getProperty("dragSelect", false));
     }
 
+    @Test
+    public void lazySelectAll_selectAll_itemsNotFetched() {
+        grid.setSelectionMode(SelectionMode.MULTI);
+        AtomicInteger fullFetches = new AtomicInteger();
+        grid.setItems(query -> {
+            if (query.getLimit() == Integer.MAX_VALUE) {
+                fullFetches.incrementAndGet();
+            }
+            return Stream.of("foo", "bar", "baz").skip(query.getOffset())
+                    .limit(query.getLimit());
+        }, query -> 3);
+        GridMultiSelectionModel<String> model = (GridMultiSelectionModel<String>) grid
+                .getSelectionModel();
+        model.setLazySelectAll(true);
+
+        model.selectAll();
+
+        Assert.assertEquals(0, fullFetches.get());
+        Assert.assertTrue(model.isSelected("foo"));
+        Assert.assertTrue(model.getSelectedIds().isAllExcept());
+        Assert.assertTrue(model.getSelectedIds().getIds().isEmpty());
+        Assert.assertEquals(0, fullFetches.get());
+    }
+
+    @Test
+    public void lazySelectAll_deselectItem_itemExcluded() {
+        grid.setSelectionMode(SelectionMode.MULTI);
+        grid.setItems("foo", "bar", "baz");
+        Element columnElement = getGridSelectionColumn(grid).getElement();
+        GridMultiSelectionModel<String> model = (GridMultiSelectionModel<String>) grid
+                .getSelectionModel();
+        model.setLazySelectAll(true);
+        model.selectAll();
+
+        model.deselectFromClient("bar");
+
+        Assert.assertFalse(model.isSelected("bar"));
+        Assert.assertEquals(Set.of("bar"), model.getSelectedIds().getIds());
+        Assert.assertEquals(Set.of("foo", "baz"), model.getSelectedItems());
+        Assert.assertFalse((boolean) columnElement.getPropertyRaw("selectAll"));
+        Assert.assertTrue(
+                (boolean) columnElement.getPropertyRaw("_indeterminate"));
+
+        model.select("bar");
+        Assert.assertTrue(model.getSelectedIds().getIds().isEmpty());
+        Assert.assertTrue((boolean) columnElement.getPropertyRaw("selectAll"));
+    }
+
+    @Test
+    public void lazySelectAll_disabledWhileAllSelected_selectionMaterialized() {
+        grid.setSelectionMode(SelectionMode.MULTI);
+        grid.setItems("foo", "bar", "baz");
+        GridMultiSelectionModel<String> model = (GridMultiSelectionModel<String>) grid
+                .getSelectionModel();
+        model.setLazySelectAll(true);
+        model.selectAll();
+        model.deselect("bar");
+
+        model.setLazySelectAll(false);
+
+        Assert.assertFalse(model.getSelectedIds().isAllExcept());
+        Assert.assertEquals(Set.of("foo", "baz"),
+                model.getSelectedIds().getIds());
+        Assert.assertEquals(Set.of("foo", "baz"), model.getSelectedItems());
+    }
+
+    @Test
+    public void lazySelectAll_deselectAll_nothingSelected() {
+        grid.setSelectionMode(SelectionMode.MULTI);
+        grid.setItems("foo", "bar");
+        GridMultiSelectionModel<String> model = (GridMultiSelectionModel<String>) grid
+                .getSelectionModel();
+        model.setLazySelectAll(true);
+        model.selectAll();
+        Set<String> oldSelection = new HashSet<>();
+        grid.addSelectionListener(e -> oldSelection
+                .addAll(((MultiSelectionEvent<?, String>) e).getOldSelection()));
+
+        model.deselectAll();
+
+        Assert.assertEquals(Set.of("foo", "bar"), oldSelection);
+        Assert.assertTrue(model.getSelectedItems().isEmpty());
+        Assert.assertFalse(model.getSelectedIds().isAllExcept());
+        Assert.assertFalse(model.isSelected("foo"));
+    }
+
     @Test
     public void setFilterUsingDataView_serverSelectAll_selectionEventContainsFilteredValues() {
         grid.setSelectionMode(SelectionMode.MULTI);
@@ -18,7 +18,13 @@ package com.vaadin.flow.component.grid;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.junit.Assert;
@@ -29,6 +35,8 @@ import org.junit.rules.ExpectedException;
 import com.vaadin.flow.component.grid.dataview.GridListDataView;
 import com.vaadin.flow.data.provider.DataCommunicatorTest;
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.server.Command;
 import com.vaadin.tests.DataProviderListenersTest;
 
 public class GridTest {
@@ -132,6 +140,249 @@ public class GridTest {
         callSetRequestedRange(grid, 0, 600);
     }
 
+    @Test
+    public void setItemsAsync_itemsRequestedAgain_fetchStartedOnce() {
+        final Grid<String> grid = new Grid<>();
+        final DataCommunicatorTest.MockUI ui = new DataCommunicatorTest.MockUI();
+        ui.add(grid);
+        final List<Query<String, Void>> queries = new ArrayList<>();
+        grid.setItemsAsync(query -> {
+            queries.add(query);
+            return new CompletableFuture<>();
+        }, query -> 100);
+
+        callSetRequestedRange(grid, 0, 50);
+        fakeClientCommunication(ui);
+        grid.getDataCommunicator().reset();
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(1, queries.size());
+        Assert.assertEquals(0, queries.get(0).getOffset());
+    }
+
+    @Test
+    public void setItemsAsync_scrollAway_pendingFetchCancelled() {
+        final Grid<String> grid = new Grid<>();
+        final DataCommunicatorTest.MockUI ui = new DataCommunicatorTest.MockUI();
+        ui.add(grid);
+        final List<CompletableFuture<List<String>>> fetches = new ArrayList<>();
+        grid.setItemsAsync(query -> {
+            final CompletableFuture<List<String>> fetch = new CompletableFuture<>();
+            fetches.add(fetch);
+            return fetch;
+        }, query -> 1000);
+
+        callSetRequestedRange(grid, 0, 50);
+        fakeClientCommunication(ui);
+        callSetRequestedRange(grid, 500, 50);
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(2, fetches.size());
+        Assert.assertTrue(fetches.get(0).isCancelled());
+        Assert.assertFalse(fetches.get(1).isCancelled());
+    }
+
+    @Test
+    public void setItemsAsync_fetchCompleted_itemsShownInGrid() {
+        final Grid<String> grid = new Grid<>();
+        final AccessQueueUI ui = new AccessQueueUI();
+        ui.add(grid);
+        final List<CompletableFuture<List<String>>> fetches = new ArrayList<>();
+        grid.setItemsAsync(query -> {
+            final CompletableFuture<List<String>> fetch = new CompletableFuture<>();
+            fetches.add(fetch);
+            return fetch;
+        }, query -> 50);
+
+        callSetRequestedRange(grid, 0, 50);
+        fakeClientCommunication(ui);
+        fetches.get(0).complete(createItems(0, 50));
+        Assert.assertEquals(0, grid.getLazyDataView().getItems().count());
+        ui.runPendingAccess();
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(createItems(0, 50), grid.getLazyDataView()
+                .getItems().collect(Collectors.toList()));
+        Assert.assertEquals(1, fetches.size());
+    }
+
+    @Test
+    public void setItemsAsync_shortResult_restNotFetchedUntilRefresh() {
+        final Grid<String> grid = new Grid<>();
+        final AccessQueueUI ui = new AccessQueueUI();
+        ui.add(grid);
+        final List<CompletableFuture<List<String>>> fetches = new ArrayList<>();
+        grid.setItemsAsync(query -> {
+            final CompletableFuture<List<String>> fetch = new CompletableFuture<>();
+            fetches.add(fetch);
+            return fetch;
+        }, query -> 50);
+
+        callSetRequestedRange(grid, 0, 50);
+        fakeClientCommunication(ui);
+        fetches.get(0).complete(createItems(0, 20));
+        ui.runPendingAccess();
+        fakeClientCommunication(ui);
+        grid.getDataCommunicator().reset();
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(1, fetches.size());
+        Assert.assertEquals(20, grid.getLazyDataView().getItems().count());
+
+        grid.getDataProvider().refreshAll();
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(2, fetches.size());
+    }
+
+    @Test
+    public void setItemsAsync_fetchFailed_noItemsAndFetchedAgainOnRequest() {
+        final Grid<String> grid = new Grid<>();
+        final AccessQueueUI ui = new AccessQueueUI();
+        ui.add(grid);
+        final List<CompletableFuture<List<String>>> fetches = new ArrayList<>();
+        grid.setItemsAsync(query -> {
+            final CompletableFuture<List<String>> fetch = new CompletableFuture<>();
+            fetches.add(fetch);
+            return fetch;
+        }, query -> 50);
+
+        callSetRequestedRange(grid, 0, 50);
+        fakeClientCommunication(ui);
+        fetches.get(0)
+                .completeExceptionally(new IllegalStateException("Failed"));
+        ui.runPendingAccess();
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(0, grid.getLazyDataView().getItems().count());
+        Assert.assertEquals(1, fetches.size());
+
+        grid.getDataCommunicator().reset();
+        fakeClientCommunication(ui);
+
+        Assert.assertEquals(2, fetches.size());
+    }
+
+    @Test
+    public void setItemsAsync_dataViewItems_noFetchStarted() {
+        final Grid<String> grid = new Grid<>();
+        final DataCommunicatorTest.MockUI ui = new DataCommunicatorTest.MockUI();
+        ui.add(grid);
+        final List<Query<String, Void>> queries = new ArrayList<>();
+        grid.setItemsAsync(query -> {
+            queries.add(query);
+            return new CompletableFuture<>();
+        }, query -> 100);
+
+        Assert.assertEquals(0, grid.getLazyDataView().getItems().count());
+        Assert.assertTrue(queries.isEmpty());
+    }
+
+    @Test
+    public void itemDataVersionProvider_refreshAll_dataNotGeneratedAgain() {
+        final List<String> generated = new ArrayList<>();
+        final Grid<String> grid = createGridWithPartNames(generated);
+        grid.setItemDataVersionProvider(item -> 1);
+
+        refreshAll(grid);
+        refreshAll(grid);
+
+        Assert.assertEquals(Arrays.asList("a", "b"), generated);
+    }
+
+    @Test
+    public void itemDataVersionProvider_versionChanged_dataGeneratedAgain() {
+        final List<String> generated = new ArrayList<>();
+        final Grid<String> grid = createGridWithPartNames(generated);
+        final List<String> changed = new ArrayList<>();
+        grid.setItemDataVersionProvider(changed::contains);
+
+        refreshAll(grid);
+        changed.add("b");
+        refreshAll(grid);
+
+        Assert.assertEquals(Arrays.asList("a", "b", "b"), generated);
+    }
+
+    @Test
+    public void itemDataVersionProvider_removed_dataGeneratedAgain() {
+        final List<String> generated = new ArrayList<>();
+        final Grid<String> grid = createGridWithPartNames(generated);
+        grid.setItemDataVersionProvider(item -> 1);
+        grid.setItemDataVersionProvider(null);
+
+        refreshAll(grid);
+        refreshAll(grid);
+
+        Assert.assertNull(grid.getItemDataVersionProvider());
+        Assert.assertEquals(Arrays.asList("a", "b", "a", "b"), generated);
+    }
+
+    @Test
+    public void itemDataVersionProvider_uncachedGenerator_runOnEachRefresh() {
+        final List<String> generated = new ArrayList<>();
+        final Grid<String> grid = createGridWithPartNames(new ArrayList<>());
+        grid.addUncachedDataGenerator((item, json) -> generated.add(item));
+        grid.setItemDataVersionProvider(item -> 1);
+
+        refreshAll(grid);
+        refreshAll(grid);
+
+        Assert.assertEquals(Arrays.asList("a", "b", "a", "b"), generated);
+    }
+
+    private Grid<String> createGridWithPartNames(List<String> generated) {
+        final Grid<String> grid = new Grid<>();
+        final DataCommunicatorTest.MockUI ui = new DataCommunicatorTest.MockUI();
+        ui.add(grid);
+        grid.setItems("a", "b");
+        grid.setPartNameGenerator(item -> {
+            generated.add(item);
+            return item;
+        });
+        callSetRequestedRange(grid, 0, 50);
+        fakeClientCommunication(ui);
+        generated.clear();
+        return grid;
+    }
+
+    private void refreshAll(Grid<String> grid) {
+        grid.getDataProvider().refreshAll();
+        fakeClientCommunication(
+                (DataCommunicatorTest.MockUI) grid.getUI().get());
+    }
+
+    private static List<String> createItems(int start, int end) {
+        return IntStream.range(start, end).mapToObj(String::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * UI that queues the access commands until they are run explicitly, like
+     * when the session lock is released.
+     */
+    private static class AccessQueueUI extends DataCommunicatorTest.MockUI {
+        private final List<Command> pendingAccess = new ArrayList<>();
+
+        @Override
+        public Future<Void> access(Command command) {
+            pendingAccess.add(command);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        private void runPendingAccess() {
+            final List<Command> commands = new ArrayList<>(pendingAccess);
+            pendingAccess.clear();
+            commands.forEach(Command::execute);
+        }
+    }
+
+    private void fakeClientCommunication(DataCommunicatorTest.MockUI ui) {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        ui.getInternals().getStateTree().collectChanges(ignore -> {
+        });
+    }
+
     private void callSetRequestedRange(Grid<String> grid, int start,
             int length) {
         try {
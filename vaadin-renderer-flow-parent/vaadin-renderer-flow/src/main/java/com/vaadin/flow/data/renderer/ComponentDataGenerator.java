@@ -15,6 +15,13 @@
  */
 package com.vaadin.flow.data.renderer;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.Component;
@@ -48,6 +55,11 @@ public class ComponentDataGenerator<T>
     private String nodeIdPropertyName;
     private Element container;
 
+    /** Detached components that can be updated to render another item */
+    private final Deque<Component> pool = new ArrayDeque<>();
+    /** The keys of the items with a rendered component, when pooling */
+    private final Set<String> renderedItemKeys = new HashSet<>();
+
     /**
      * Creates a new generator.
      *
@@ -92,6 +104,9 @@ public class ComponentDataGenerator<T>
                         componentRenderer.getClass().getName());
             }
             registerRenderedComponent(itemKey, renderedComponent);
+            if (componentRenderer.getComponentPoolSize() > 0) {
+                renderedItemKeys.add(itemKey);
+            }
 
             nodeId = renderedComponent.getElement().getNode().getId();
         }
@@ -99,8 +114,38 @@ public class ComponentDataGenerator<T>
         jsonObject.put(nodeIdPropertyName, nodeId);
     }
 
+    @Override
+    public void destroyData(T item) {
+        String itemKey = getItemKey(item);
+        Component component = getRenderedComponent(itemKey);
+        super.destroyData(item);
+        renderedItemKeys.remove(itemKey);
+        release(component);
+    }
+
+    @Override
+    public void destroyAllData() {
+        List<Component> components = new ArrayList<>();
+        for (String itemKey : renderedItemKeys) {
+            Component component = getRenderedComponent(itemKey);
+            if (component != null) {
+                components.add(component);
+            }
+        }
+        super.destroyAllData();
+        renderedItemKeys.clear();
+        components.forEach(this::release);
+    }
+
     @Override
     protected Component createComponent(T item) {
+        // the pool size may have been changed since the components were
+        // pooled, drop the ones that no longer fit
+        trimPool(componentRenderer.getComponentPoolSize());
+        Component pooled = pool.poll();
+        if (pooled != null) {
+            return updateComponent(pooled, item);
+        }
         Component c = componentRenderer.createComponent(item);
         if (c == null) {
             c = new Text("");
@@ -113,6 +158,30 @@ public class ComponentDataGenerator<T>
         return componentRenderer.updateComponent(currentComponent, item);
     }
 
+    /**
+     * Keeps the given component, which has been removed from the container,
+     * for rendering another item if there is room in the pool.
+     */
+    private void release(Component component) {
+        int poolSize = componentRenderer.getComponentPoolSize();
+        trimPool(poolSize);
+        if (component != null && pool.size() < poolSize
+                && component.getElement().getParent() == null) {
+            pool.push(component);
+        }
+    }
+
+    private void trimPool(int poolSize) {
+        if (poolSize == 0) {
+            // pooling has been disabled
+            pool.clear();
+            return;
+        }
+        while (pool.size() > poolSize) {
+            pool.poll();
+        }
+    }
+
     @Override
     protected String getItemKey(T item) {
         if (keyMapper == null) {
@@ -55,6 +55,7 @@ public class ComponentRenderer<COMPONENT extends Component, SOURCE>
     private SerializableFunction<SOURCE, COMPONENT> componentFunction;
     private SerializableBiFunction<Component, SOURCE, Component> componentUpdateFunction;
     private SerializableBiConsumer<COMPONENT, SOURCE> itemConsumer;
+    private int componentPoolSize;
 
     /**
      * Creates a new ComponentRenderer that uses the componentSupplier to
@@ -156,6 +157,42 @@ public class ComponentRenderer<COMPONENT extends Component, SOURCE>
         return owner;
     }
 
+    /**
+     * Sets the maximum number of components to keep for reuse when the items
+     * they render are no longer rendered, for example when the items are
+     * scrolled out of view in a grid. Instead of creating a new component
+     * with {@link #createComponent(Object)}, a pooled component is passed to
+     * {@link #updateComponent(Component, Object)} to render another item.
+     * <p>
+     * Pooling is useful only when the components can be updated for another
+     * item, that is, when an update function has been given with
+     * {@link #ComponentRenderer(SerializableFunction, SerializableBiFunction)}
+     * or {@link #updateComponent(Component, Object)} has been overridden to
+     * return the same instance. The pool is disabled by default.
+     *
+     * @param componentPoolSize
+     *            the maximum number of pooled components, {@code 0} to
+     *            disable pooling
+     */
+    public void setComponentPoolSize(int componentPoolSize) {
+        if (componentPoolSize < 0) {
+            throw new IllegalArgumentException(
+                    "Component pool size cannot be negative.");
+        }
+        this.componentPoolSize = componentPoolSize;
+    }
+
+    /**
+     * Gets the maximum number of components to keep for reuse.
+     *
+     * @return the maximum number of pooled components, {@code 0} when pooling
+     *         is disabled
+     * @see #setComponentPoolSize(int)
+     */
+    public int getComponentPoolSize() {
+        return componentPoolSize;
+    }
+
     @Override
     public Rendering<SOURCE> render(Element owner,
             DataKeyMapper<SOURCE> keyMapper, String rendererName) {
@@ -16,6 +16,7 @@
  */
 package com.vaadin.flow.data.renderer;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -64,6 +65,19 @@ import elemental.json.JsonObject;
 @JsModule("./lit-renderer.ts")
 public class LitRenderer<SOURCE> extends Renderer<SOURCE> {
 
+    /**
+     * A property of the items, with the name that is sent to the client.
+     */
+    private static class Property<SOURCE> implements Serializable {
+        private final String key;
+        private final ValueProvider<SOURCE, ?> provider;
+
+        private Property(String key, ValueProvider<SOURCE, ?> provider) {
+            this.key = key;
+            this.provider = provider;
+        }
+    }
+
     static {
         UsageStatistics.markAsUsed("flow-components/LitRenderer", null);
     }
@@ -75,6 +89,12 @@ public class LitRenderer<SOURCE> extends Renderer<SOURCE> {
     private final Map<String, ValueProvider<SOURCE, ?>> valueProviders = new HashMap<>();
     private final Map<String, SerializableBiConsumer<SOURCE, JsonArray>> clientCallables = new HashMap<>();
 
+    /**
+     * The value providers with the namespaced property names, built once when
+     * the properties are first generated
+     */
+    private List<Property<SOURCE>> properties;
+
     private final String ALPHANUMERIC_REGEX = "^[a-zA-Z0-9]+$";
 
     private LitRenderer(String templateExpression) {
@@ -246,20 +266,35 @@ public class LitRenderer<SOURCE> extends Renderer<SOURCE> {
         return new DataGenerator<SOURCE>() {
             @Override
             public void generateData(SOURCE item, JsonObject jsonObject) {
-                valueProviders.forEach((key, provider) -> {
-                    jsonObject.put(
-                            // Prefix the property name with a LitRenderer
-                            // instance specific namespace to avoid property
-                            // name clashes.
-                            // Fixes https://github.com/vaadin/flow/issues/8629
-                            // in LitRenderer
-                            propertyNamespace + key,
-                            JsonSerializer.toJson(provider.apply(item)));
-                });
+                List<Property<SOURCE>> properties = getProperties();
+                if (properties.isEmpty()
+                        || jsonObject.hasKey(properties.get(0).key)) {
+                    // The same renderer is used in several places, such as
+                    // in multiple columns of a grid, and the properties have
+                    // already been generated for the item
+                    return;
+                }
+                for (Property<SOURCE> property : properties) {
+                    jsonObject.put(property.key, ValueConverters
+                            .toJson(property.provider.apply(item)));
+                }
             }
         };
     }
 
+    private List<Property<SOURCE>> getProperties() {
+        if (properties == null) {
+            List<Property<SOURCE>> list = new ArrayList<>();
+            // Prefix the property name with a LitRenderer instance specific
+            // namespace to avoid property name clashes.
+            // Fixes https://github.com/vaadin/flow/issues/8629 in LitRenderer
+            valueProviders.forEach((name, provider) -> list
+                    .add(new Property<>(propertyNamespace + name, provider)));
+            properties = list;
+        }
+        return properties;
+    }
+
     /**
      * Makes a property available to the template expression. Each property is
      * referenced inside the template by using the {@code ${item.property}}
@@ -302,6 +337,7 @@ public class LitRenderer<SOURCE> extends Renderer<SOURCE> {
         Objects.requireNonNull(property);
         Objects.requireNonNull(provider);
         valueProviders.put(property, provider);
+        properties = null;
         return this;
     }
 
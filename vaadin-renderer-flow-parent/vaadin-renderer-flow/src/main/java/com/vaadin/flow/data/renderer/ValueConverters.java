@@ -0,0 +1,156 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.renderer;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.internal.JsonSerializer;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/**
+ * Converts the values of renderer properties to JSON, producing the same
+ * result as {@link JsonSerializer#toJson(Object)}.
+ * <p>
+ * The converter is chosen once for each value type: strings, booleans and
+ * boxed primitive numbers are converted directly, and the properties of beans
+ * are read with the getters that are looked up once for each bean type. Other
+ * values are converted with {@link JsonSerializer}.
+ *
+ * @author Vaadin Ltd
+ */
+final class ValueConverters {
+
+    private static final Function<Object, JsonValue> STRING = value -> Json
+            .create((String) value);
+
+    private static final Function<Object, JsonValue> BOOLEAN = value -> Json
+            .create((Boolean) value);
+
+    private static final Function<Object, JsonValue> NUMBER = value -> Json
+            .create(((Number) value).doubleValue());
+
+    private static final Function<Object, JsonValue> DEFAULT = JsonSerializer::toJson;
+
+    private static final ClassValue<Function<Object, JsonValue>> CONVERTERS = new ClassValue<>() {
+        @Override
+        protected Function<Object, JsonValue> computeValue(Class<?> type) {
+            return createConverter(type);
+        }
+    };
+
+    /**
+     * Reads the properties of beans of one type with the getters of the type.
+     */
+    private static class BeanConverter implements Function<Object, JsonValue> {
+        private final Class<?> type;
+        private final List<String> names = new ArrayList<>();
+        private final List<Method> getters = new ArrayList<>();
+
+        private BeanConverter(Class<?> type) throws IntrospectionException {
+            this.type = type;
+            BeanInfo info = Introspector.getBeanInfo(type);
+            for (PropertyDescriptor descriptor : info
+                    .getPropertyDescriptors()) {
+                Method getter = descriptor.getReadMethod();
+                if (!"class".equals(descriptor.getName()) && getter != null) {
+                    names.add(descriptor.getName());
+                    getters.add(getter);
+                }
+            }
+        }
+
+        @Override
+        public JsonValue apply(Object bean) {
+            JsonObject json = Json.createObject();
+            try {
+                for (int i = 0; i < names.size(); i++) {
+                    json.put(names.get(i), toJson(getters.get(i).invoke(bean)));
+                }
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Could not serialize object "
+                        + "of type " + type + " to JsonValue.", e);
+            }
+            return json;
+        }
+    }
+
+    private ValueConverters() {
+    }
+
+    /**
+     * Converts the given value to JSON.
+     *
+     * @param value
+     *            the value to convert, may be {@code null}
+     * @return the JSON representation of the value
+     */
+    static JsonValue toJson(Object value) {
+        if (value == null) {
+            return Json.createNull();
+        }
+        return CONVERTERS.get(value.getClass()).apply(value);
+    }
+
+    private static Function<Object, JsonValue> createConverter(Class<?> type) {
+        if (type == String.class) {
+            return STRING;
+        }
+        if (type == Boolean.class) {
+            return BOOLEAN;
+        }
+        if (type == Integer.class || type == Long.class || type == Double.class
+                || type == Float.class || type == Short.class
+                || type == Byte.class) {
+            return NUMBER;
+        }
+        if (!isPlainBean(type)) {
+            return DEFAULT;
+        }
+        try {
+            return new BeanConverter(type);
+        } catch (IntrospectionException e) {
+            // let the serializer report the failure
+            return DEFAULT;
+        }
+    }
+
+    private static boolean isPlainBean(Class<?> type) {
+        // JDK types, records and the types with a dedicated JSON
+        // representation are left to the serializer
+        String name = type.getName();
+        return !name.startsWith("java.") && !name.startsWith("javax.")
+                && !type.isArray() && !type.isEnum() && !type.isRecord()
+                && !type.isPrimitive() && !Enum.class.isAssignableFrom(type)
+                && !Number.class.isAssignableFrom(type)
+                && !Collection.class.isAssignableFrom(type)
+                && !Map.class.isAssignableFrom(type)
+                && !JsonValue.class.isAssignableFrom(type)
+                && !Component.class.isAssignableFrom(type);
+    }
+}
@@ -222,4 +222,77 @@ public class ComponentRendererTest {
                 updatedComponent);
     }
 
+    @Test
+    public void componentPoolSize_itemDestroyed_componentReusedForNextItem() {
+        List<String> createdItems = new ArrayList<>();
+        List<String> updatedItems = new ArrayList<>();
+        ComponentDataGenerator<String> generator = createPoolingGenerator(1,
+                createdItems, updatedItems);
+        generator.generateData("first", Json.createObject());
+
+        generator.destroyData("first");
+        generator.generateData("second", Json.createObject());
+
+        Assert.assertEquals(List.of("first"), createdItems);
+        Assert.assertEquals(List.of("second"), updatedItems);
+    }
+
+    @Test
+    public void componentPoolSize_poolFull_newComponentCreated() {
+        List<String> createdItems = new ArrayList<>();
+        List<String> updatedItems = new ArrayList<>();
+        ComponentDataGenerator<String> generator = createPoolingGenerator(1,
+                createdItems, updatedItems);
+        generator.generateData("first", Json.createObject());
+        generator.generateData("second", Json.createObject());
+
+        generator.destroyAllData();
+        generator.generateData("third", Json.createObject());
+        generator.generateData("fourth", Json.createObject());
+
+        Assert.assertEquals(List.of("first", "second", "fourth"),
+                createdItems);
+        Assert.assertEquals(List.of("third"), updatedItems);
+    }
+
+    @Test
+    public void componentPoolSize_disabled_pooledComponentNotReused() {
+        List<String> createdItems = new ArrayList<>();
+        List<String> updatedItems = new ArrayList<>();
+        ComponentDataGenerator<String> generator = createPoolingGenerator(1,
+                createdItems, updatedItems);
+        generator.generateData("first", Json.createObject());
+        generator.destroyData("first");
+
+        generator.getComponentRenderer().setComponentPoolSize(0);
+        generator.generateData("second", Json.createObject());
+
+        Assert.assertEquals(List.of("first", "second"), createdItems);
+        Assert.assertTrue(updatedItems.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void componentPoolSize_negative_throws() {
+        new ComponentRenderer<TestDiv, String>(item -> new TestDiv())
+                .setComponentPoolSize(-1);
+    }
+
+    private ComponentDataGenerator<String> createPoolingGenerator(
+            int poolSize, List<String> createdItems,
+            List<String> updatedItems) {
+        ComponentRenderer<TestDiv, String> renderer = new ComponentRenderer<>(
+                item -> {
+                    createdItems.add(item);
+                    return new TestDiv();
+                }, (component, item) -> {
+                    updatedItems.add(item);
+                    return component;
+                });
+        renderer.setComponentPoolSize(poolSize);
+        ComponentDataGenerator<String> generator = new ComponentDataGenerator<>(
+                renderer, item -> item);
+        generator.setContainer(new Element("div"));
+        generator.setNodeIdPropertyName("nodeid");
+        return generator;
+    }
 }
@@ -15,12 +15,22 @@
  */
 package com.vaadin.flow.data.renderer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.provider.KeyMapper;
+import com.vaadin.flow.dom.Element;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
 public class LitRendererTest {
 
     @Before
@@ -72,4 +82,29 @@ public class LitRendererTest {
         Assert.assertTrue(renderer.getValueProviders().size() == 2);
     }
 
+    @Test
+    public void rendererUsedTwice_propertiesGeneratedOnce() {
+        List<String> rendered = new ArrayList<>();
+        LitRenderer<String> renderer = LitRenderer.<String> of("<div></div>")
+                .withProperty("name", item -> {
+                    rendered.add(item);
+                    return item;
+                });
+        KeyMapper<String> keyMapper = new KeyMapper<>();
+        DataGenerator<String> first = renderer
+                .render(new Element("div"), keyMapper).getDataGenerator()
+                .get();
+        DataGenerator<String> second = renderer
+                .render(new Element("div"), keyMapper).getDataGenerator()
+                .get();
+
+        JsonObject json = Json.createObject();
+        first.generateData("foo", json);
+        second.generateData("foo", json);
+
+        Assert.assertEquals(Arrays.asList("foo"), rendered);
+        Assert.assertEquals("foo", json
+                .getString(renderer.getPropertyNamespace() + "name"));
+    }
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.data.renderer;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.internal.JsonSerializer;
+
+import elemental.json.JsonValue;
+
+public class ValueConvertersTest {
+
+    public static class Address {
+        private String street = "Street";
+
+        public String getStreet() {
+            return street;
+        }
+    }
+
+    public static class Person {
+        private String name = "Name";
+        private int age = 42;
+        private boolean active = true;
+        private Address address = new Address();
+
+        public String getName() {
+            return name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public Address getAddress() {
+            return address;
+        }
+    }
+
+    public enum Status {
+        ACTIVE
+    }
+
+    @Test
+    public void toJson_sameAsJsonSerializer() {
+        for (Object value : Arrays.asList(null, "text", true, 1, 2L, 3.5d,
+                4.5f, (short) 5, (byte) 6, Status.ACTIVE,
+                Arrays.asList("a", "b"), new Person())) {
+            assertSameJson(value);
+        }
+    }
+
+    @Test
+    public void toJson_beanConvertedAgain_sameJson() {
+        assertSameJson(new Person());
+        assertSameJson(new Person());
+    }
+
+    private static void assertSameJson(Object value) {
+        JsonValue expected = JsonSerializer.toJson(value);
+        JsonValue actual = ValueConverters.toJson(value);
+        Assert.assertEquals(String.valueOf(value), expected.toJson(),
+                actual.toJson());
+    }
+}
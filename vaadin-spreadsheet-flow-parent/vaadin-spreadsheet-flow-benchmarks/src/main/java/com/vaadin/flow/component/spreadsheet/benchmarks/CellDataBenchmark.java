@@ -0,0 +1,86 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.CellValueManager;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+
+/**
+ * Measures creating the client side data of all the cells of a sheet, which
+ * formats the values and evaluates the formulas of the cells.
+ *
+ * @author Vaadin Ltd.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CellDataBenchmark {
+
+    /**
+     * Cell value manager that gives access to the cell data of any cell.
+     */
+    private static class BenchmarkCellValueManager extends CellValueManager {
+
+        BenchmarkCellValueManager(Spreadsheet spreadsheet) {
+            super(spreadsheet);
+        }
+
+        void createCellData(Row row, Blackhole blackhole) {
+            for (Cell cell : row) {
+                blackhole.consume(createCellDataForCell(cell));
+            }
+        }
+    }
+
+    @Param({ "10000", "100000" })
+    public int cells;
+
+    private Spreadsheet spreadsheet;
+    private BenchmarkCellValueManager valueManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        UI.setCurrent(new UI());
+        final Workbook workbook = WorkbookGenerator.generate(cells, 10);
+        spreadsheet = new Spreadsheet(workbook);
+        valueManager = new BenchmarkCellValueManager(spreadsheet);
+    }
+
+    @Benchmark
+    public void createCellData(Blackhole blackhole) {
+        // formula values are cached by the evaluator after the first round
+        spreadsheet.getFormulaEvaluator().clearAllCachedResultValues();
+        for (Row row : spreadsheet.getActiveSheet()) {
+            valueManager.createCellData(row, blackhole);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
+
+/**
+ * Measures scrolling through a sheet, which loads and sends the cells that
+ * come into view, evaluating their formulas and conditional formatting. The
+ * view is moved down by a screenful on every invocation, and the client side
+ * cache is cleared when the end of the sheet is reached.
+ * <p>
+ * The size of the cell data sent to the client side per scroll is reported as
+ * the <code>payload</code> secondary result.
+ *
+ * @author Vaadin Ltd.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SheetScrollBenchmark {
+
+    private static final int VISIBLE_ROWS = 40;
+    private static final int VISIBLE_COLUMNS = 15;
+
+    /**
+     * Spreadsheet that can be scrolled without a client side.
+     */
+    private static class ScrollableSpreadsheet extends Spreadsheet {
+
+        ScrollableSpreadsheet(Workbook workbook) {
+            super(workbook);
+        }
+
+        void scroll(int firstRow, int lastRow) {
+            onSheetScroll(firstRow, 1, lastRow, VISIBLE_COLUMNS);
+        }
+    }
+
+    /**
+     * Secondary results of the benchmark.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+        public long payload;
+    }
+
+    @Param({ "10000", "100000", "1000000" })
+    public int cells;
+
+    @Param({ "10", "500" })
+    public int styles;
+
+    private ScrollableSpreadsheet spreadsheet;
+
+    private int rows;
+    private int firstRow;
+    private long payloadSize;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        UI.setCurrent(new UI());
+        spreadsheet = new ScrollableSpreadsheet(
+                WorkbookGenerator.generate(cells, styles));
+        spreadsheet.setMetricsListener((phase, nanos, payload) -> {
+            if (phase == MetricsPhase.SHEET_SCROLL) {
+                payloadSize += payload;
+            }
+        });
+        rows = spreadsheet.getActiveSheet().getLastRowNum() + 1;
+        firstRow = 1;
+    }
+
+    @Benchmark
+    public void scroll(Payload payload) {
+        if (firstRow + VISIBLE_ROWS > rows) {
+            firstRow = 1;
+            spreadsheet.getCellValueManager().clearCachedContent();
+        }
+        payloadSize = 0;
+        spreadsheet.scroll(firstRow, firstRow + VISIBLE_ROWS - 1);
+        payload.payload += payloadSize;
+        firstRow += VISIBLE_ROWS;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+
+/**
+ * Measures loading a workbook into a new Spreadsheet, which converts the cell
+ * styles of the workbook to CSS, styles the cells of the active sheet and
+ * creates the conditional formatting rules.
+ *
+ * @author Vaadin Ltd.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpreadsheetLoadBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    public int cells;
+
+    @Param({ "10", "500" })
+    public int styles;
+
+    private Workbook workbook;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        UI.setCurrent(new UI());
+        workbook = WorkbookGenerator.generate(cells, styles);
+    }
+
+    @Benchmark
+    public Spreadsheet load() {
+        return new Spreadsheet(workbook);
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.benchmarks;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.ComparisonOperator;
+import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.PatternFormatting;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Generates workbooks for the benchmarks. The generated sheet has a header
+ * row, and rows where every fourth column is a formula referencing the cells
+ * on its left, every fourth column is text and the rest are numbers. The
+ * cells cycle through the given number of cell styles with different fonts,
+ * fills and borders, and the number columns have conditional formatting.
+ *
+ * @author Vaadin Ltd.
+ */
+public final class WorkbookGenerator {
+
+    private static final IndexedColors[] COLORS = { IndexedColors.LIGHT_BLUE,
+            IndexedColors.LIGHT_GREEN, IndexedColors.LIGHT_YELLOW,
+            IndexedColors.LIGHT_ORANGE, IndexedColors.GREY_25_PERCENT };
+
+    private static final BorderStyle[] BORDERS = { BorderStyle.NONE,
+            BorderStyle.THIN, BorderStyle.MEDIUM, BorderStyle.DASHED,
+            BorderStyle.DOUBLE };
+
+    private WorkbookGenerator() {
+    }
+
+    /**
+     * Generates a workbook with a single sheet.
+     *
+     * @param rows
+     *            Number of rows, excluding the header row
+     * @param columns
+     *            Number of columns
+     * @param styles
+     *            Number of distinct cell styles, 1 or more
+     * @return the generated workbook
+     */
+    public static Workbook generate(int rows, int columns, int styles) {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final Sheet sheet = workbook.createSheet("Data");
+        final CellStyle[] cellStyles = createStyles(workbook, styles);
+
+        final Row header = sheet.createRow(0);
+        for (int c = 0; c < columns; c++) {
+            header.createCell(c).setCellValue("Column " + (c + 1));
+        }
+        for (int r = 1; r <= rows; r++) {
+            final Row row = sheet.createRow(r);
+            for (int c = 0; c < columns; c++) {
+                final Cell cell = row.createCell(c);
+                if (c % 4 == 3) {
+                    cell.setCellFormula(formula(r, c));
+                } else if (c % 4 == 2) {
+                    cell.setCellValue("Item " + r + "-" + c);
+                } else {
+                    cell.setCellValue(r * 31 + c * 7);
+                }
+                cell.setCellStyle(cellStyles[(r + c) % cellStyles.length]);
+            }
+        }
+        addConditionalFormatting(sheet, rows, columns);
+        return workbook;
+    }
+
+    /**
+     * Generates a workbook with about the given number of cells, in 20
+     * columns.
+     *
+     * @param cells
+     *            Number of cells
+     * @param styles
+     *            Number of distinct cell styles, 1 or more
+     * @return the generated workbook
+     */
+    public static Workbook generate(int cells, int styles) {
+        final int columns = 20;
+        return generate(Math.max(1, cells / columns), columns, styles);
+    }
+
+    private static String formula(int row, int column) {
+        final String left = CellReference.convertNumToColString(column - 1);
+        final String first = CellReference.convertNumToColString(column - 3);
+        return "SUM(" + first + (row + 1) + ":" + left + (row + 1) + ")*2";
+    }
+
+    private static CellStyle[] createStyles(Workbook workbook, int count) {
+        final CellStyle[] styles = new CellStyle[Math.max(1, count)];
+        for (int i = 0; i < styles.length; i++) {
+            final CellStyle style = workbook.createCellStyle();
+            final Font font = workbook.createFont();
+            font.setBold(i % 2 == 0);
+            font.setItalic(i % 3 == 0);
+            font.setFontHeightInPoints((short) (10 + i % 5));
+            style.setFont(font);
+            style.setFillForegroundColor(
+                    COLORS[i % COLORS.length].getIndex());
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            final BorderStyle border = BORDERS[i % BORDERS.length];
+            style.setBorderTop(border);
+            style.setBorderLeft(border);
+            style.setBorderRight(border);
+            style.setBorderBottom(border);
+            styles[i] = style;
+        }
+        return styles;
+    }
+
+    private static void addConditionalFormatting(Sheet sheet, int rows,
+            int columns) {
+        final SheetConditionalFormatting formatting = sheet
+                .getSheetConditionalFormatting();
+        final ConditionalFormattingRule rule = formatting
+                .createConditionalFormattingRule(ComparisonOperator.GT,
+                        "5000");
+        final PatternFormatting fill = rule.createPatternFormatting();
+        fill.setFillBackgroundColor(IndexedColors.ROSE.getIndex());
+        fill.setFillPattern(PatternFormatting.SOLID_FOREGROUND);
+        final CellRangeAddress[] ranges = new CellRangeAddress[] {
+                new CellRangeAddress(1, rows, 0, Math.min(1, columns - 1)) };
+        formatting.addConditionalFormatting(ranges, rule);
+    }
+}
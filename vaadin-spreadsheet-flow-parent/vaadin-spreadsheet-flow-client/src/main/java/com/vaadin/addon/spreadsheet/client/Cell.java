@@ -201,8 +201,12 @@ public class Cell {
     }
 
     protected void updateClassName() {
-        element.setClassName(
-                SheetWidget.toKey(col, row) + " cell " + cellStyle);
+        final String className = SheetWidget.toKey(col, row) + " cell "
+                + cellStyle;
+        // reused cells often keep their class name, e.g. when scrolling back
+        if (!className.equals(element.getClassName())) {
+            element.setClassName(className);
+        }
     }
 
     public String getCellStyle() {
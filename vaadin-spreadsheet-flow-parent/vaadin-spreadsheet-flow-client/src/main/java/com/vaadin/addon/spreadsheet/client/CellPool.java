@@ -0,0 +1,93 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.addon.spreadsheet.client;
+
+import java.util.ArrayList;
+
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Style.Display;
+
+/**
+ * Pool of the cells that have been scrolled out of view. Released cells are
+ * hidden but kept in their pane, so that they can be shown again in another
+ * position by only updating their class names and contents, instead of
+ * creating new elements and attaching them to the DOM.
+ */
+class CellPool {
+
+    static final int DEFAULT_SIZE = 1000;
+
+    private final SheetWidget sheetWidget;
+
+    private final ArrayList<Cell> cells = new ArrayList<Cell>();
+
+    private int maxSize = DEFAULT_SIZE;
+
+    CellPool(SheetWidget sheetWidget) {
+        this.sheetWidget = sheetWidget;
+    }
+
+    /**
+     * Returns a cell for the given position, reusing a released cell if there
+     * is one. The cell element is made a child of the given pane element.
+     */
+    Cell obtain(int col, int row, CellData cellData, Element paneElement) {
+        if (cells.isEmpty()) {
+            Cell cell = new Cell(sheetWidget, col, row, cellData);
+            paneElement.appendChild(cell.getElement());
+            return cell;
+        }
+        Cell cell = cells.remove(cells.size() - 1);
+        DivElement element = cell.getElement();
+        if (element.getParentElement() != paneElement) {
+            paneElement.appendChild(element);
+        }
+        cell.update(col, row, cellData);
+        element.getStyle().clearDisplay();
+        return cell;
+    }
+
+    /**
+     * Hides the given cell and keeps it for reuse, or removes it from the DOM
+     * if the pool is full.
+     */
+    void release(Cell cell) {
+        if (cells.size() < maxSize) {
+            // the popup button may be moved to another cell while this cell
+            // is in the pool
+            cell.removePopupButton();
+            cell.getElement().getStyle().setDisplay(Display.NONE);
+            cells.add(cell);
+        } else {
+            cell.getElement().removeFromParent();
+        }
+    }
+
+    /**
+     * Removes all the pooled cells from the DOM.
+     */
+    void clear() {
+        for (Cell cell : cells) {
+            cell.getElement().removeFromParent();
+        }
+        cells.clear();
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        while (cells.size() > this.maxSize) {
+            cells.remove(cells.size() - 1).getElement().removeFromParent();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.addon.spreadsheet.client;
+
+import java.io.Serializable;
+
+/**
+ * Array of numbers stored as runs of equal values, used for the row heights
+ * of a sheet. The server side sends the row heights as runs, so keeping them
+ * as runs makes the memory used depend on the number of rows that differ from
+ * their neighbours instead of the number of rows in the sheet.
+ */
+@SuppressWarnings("serial")
+public class RunLengthArray implements Serializable {
+
+    /** Exclusive end index of each run, in ascending order */
+    private int[] ends;
+    /** Value of each run */
+    private float[] values;
+    private int runCount;
+
+    /**
+     * Creates an array from runs encoded as pairs of a run length and the
+     * value of the run, <code>[count, value, count, value, ...]</code>.
+     *
+     * @param runs
+     *            the encoded runs
+     */
+    public RunLengthArray(float[] runs) {
+        final int pairs = runs.length / 2;
+        ends = new int[Math.max(4, pairs)];
+        values = new float[ends.length];
+        int end = 0;
+        for (int i = 0; i < pairs; i++) {
+            final int count = (int) runs[i * 2];
+            if (count <= 0) {
+                continue;
+            }
+            end += count;
+            ends[runCount] = end;
+            values[runCount] = runs[i * 2 + 1];
+            runCount++;
+        }
+    }
+
+    /**
+     * @return the number of items
+     */
+    public int length() {
+        return runCount == 0 ? 0 : ends[runCount - 1];
+    }
+
+    /**
+     * @param index
+     *            Index of the item, 0-based
+     * @return the value of the item
+     * @throws IndexOutOfBoundsException
+     *             if the index is not within the array
+     */
+    public float get(int index) {
+        checkIndex(index);
+        return values[findRun(index)];
+    }
+
+    /**
+     * Sets the value of an item, splitting the run that contains it.
+     *
+     * @param index
+     *            Index of the item, 0-based
+     * @param value
+     *            New value
+     * @throws IndexOutOfBoundsException
+     *             if the index is not within the array
+     */
+    public void set(int index, float value) {
+        checkIndex(index);
+        final int run = findRun(index);
+        if (values[run] == value) {
+            return;
+        }
+        final int start = run == 0 ? 0 : ends[run - 1];
+        final int end = ends[run];
+        final float oldValue = values[run];
+        final boolean left = index > start;
+        final boolean right = index + 1 < end;
+        final int added = (left ? 1 : 0) + (right ? 1 : 0);
+        ensureCapacity(runCount + added);
+        System.arraycopy(ends, run + 1, ends, run + 1 + added,
+                runCount - run - 1);
+        System.arraycopy(values, run + 1, values, run + 1 + added,
+                runCount - run - 1);
+        int i = run;
+        if (left) {
+            ends[i] = index;
+            values[i] = oldValue;
+            i++;
+        }
+        ends[i] = index + 1;
+        values[i] = value;
+        if (right) {
+            ends[i + 1] = end;
+            values[i + 1] = oldValue;
+        }
+        runCount += added;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index " + index
+                    + " is out of bounds for length " + length() + ".");
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ends.length) {
+            final int newCapacity = Math.max(capacity, ends.length * 2);
+            final int[] newEnds = new int[newCapacity];
+            final float[] newValues = new float[newCapacity];
+            System.arraycopy(ends, 0, newEnds, 0, runCount);
+            System.arraycopy(values, 0, newValues, 0, runCount);
+            ends = newEnds;
+            values = newValues;
+        }
+    }
+
+    /**
+     * @return the index of the run containing the given item
+     */
+    private int findRun(int index) {
+        int low = 0;
+        int high = runCount - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (ends[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -22,6 +22,9 @@ import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationHandle;
 import com.google.gwt.canvas.client.Canvas;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptException;
@@ -259,8 +262,17 @@ public class SheetWidget extends Panel {
 
     private final VLazyExecutor scrollHandler;
 
+    /**
+     * Pending callback for updating the headers and overlays after scroll
+     * events, so that the DOM is written once per animation frame.
+     */
+    private AnimationHandle scrollFrameHandle;
+
     private VLazyExecutor requester;
 
+    /** Cells that have been scrolled out of view, kept for reuse */
+    private final CellPool cellPool = new CellPool(this);
+
     SheetJsniUtil jsniUtil = GWT.create(SheetJsniUtil.class);
 
     private boolean touchMode;
@@ -638,6 +650,10 @@ public class SheetWidget extends Panel {
         hyperlinkTooltip.hide();
         resizeTooltip.hide();
         copyPasteBox.onDestroy();
+        if (scrollFrameHandle != null) {
+            scrollFrameHandle.cancel();
+            scrollFrameHandle = null;
+        }
     }
 
     protected void requestCells() {
@@ -686,6 +702,17 @@ public class SheetWidget extends Panel {
         });
     }
 
+    /**
+     * Sets the maximum number of cells that are kept for reuse after they
+     * have been scrolled out of view.
+     *
+     * @param cellPoolSize
+     *            maximum number of pooled cells, 0 to disable pooling
+     */
+    public void setCellPoolSize(int cellPoolSize) {
+        cellPool.setMaxSize(cellPoolSize);
+    }
+
     public void relayoutSheet(boolean triggerRequest) {
         updateSheetStyles();
         int scrollTop = topFrozenPanelHeight + sheet.getScrollTop();
@@ -699,7 +726,7 @@ public class SheetWidget extends Panel {
                 while ((lastRowIndex - firstRowIndex + 1) < rows.size()) {
                     ArrayList<Cell> row = rows.remove(rows.size() - 1);
                     for (Cell cell : row) {
-                        cell.getElement().removeFromParent();
+                        cellPool.release(cell);
                     }
                     rowHeaders.remove(rowHeaders.size() - 1).removeFromParent();
                 }
@@ -709,8 +736,7 @@ public class SheetWidget extends Panel {
                 for (ArrayList<Cell> row : rows) {
                     while ((lastColumnIndex - firstColumnIndex + 1) < row
                             .size()) {
-                        row.remove(row.size() - 1).getElement()
-                                .removeFromParent();
+                        cellPool.release(row.remove(row.size() - 1));
                     }
                 }
                 while ((lastColumnIndex - firstColumnIndex + 1) < colHeaders
@@ -1005,6 +1031,7 @@ public class SheetWidget extends Panel {
             row.clear();
         }
         rows.clear();
+        cellPool.clear();
     }
 
     /** For internal use. May be removed at a later time. */
@@ -1023,10 +1050,20 @@ public class SheetWidget extends Panel {
 
     protected void onSheetScroll(Event event) {
         scrollHandler.trigger();
-        moveHeadersToMatchScroll();
-        updateOverflownMergedCellSizes();
-        refreshAlwaysVisibleCellCommentOverlays();
-        refreshPopupButtonOverlays();
+        if (scrollFrameHandle == null) {
+            scrollFrameHandle = AnimationScheduler.get()
+                    .requestAnimationFrame(new AnimationCallback() {
+
+                        @Override
+                        public void execute(double timestamp) {
+                            scrollFrameHandle = null;
+                            moveHeadersToMatchScroll();
+                            updateOverflownMergedCellSizes();
+                            refreshAlwaysVisibleCellCommentOverlays();
+                            refreshPopupButtonOverlays();
+                        }
+                    }, getElement());
+        }
     }
 
     /**
@@ -2916,9 +2953,7 @@ public class SheetWidget extends Panel {
         for (int i = firstRowIndex; i <= lastRowIndex; i++) {
             ArrayList<Cell> row = new ArrayList<Cell>(lastColumnIndex);
             for (int j = firstColumnIndex; j <= lastColumnIndex; j++) {
-                Cell cell = new Cell(this, j, i);
-                sheet.appendChild(cell.getElement());
-                row.add(cell);
+                row.add(cellPool.obtain(j, i, null, sheet));
             }
             rows.add(row);
         }
@@ -2929,9 +2964,7 @@ public class SheetWidget extends Panel {
                 : 1; v <= lastRowIndex; v++) {
             ArrayList<Cell> row = new ArrayList<Cell>();
             for (int h = 1; h <= horizontalSplitPosition; h++) {
-                Cell cell = new Cell(this, h, v);
-                bottomLeftPane.appendChild(cell.getElement());
-                row.add(cell);
+                row.add(cellPool.obtain(h, v, null, bottomLeftPane));
             }
             bottomLeftRows.add(row);
         }
@@ -2943,9 +2976,7 @@ public class SheetWidget extends Panel {
             for (int h = horizontalSplitPosition > 0
                     ? horizontalSplitPosition + 1
                     : 1; h <= lastColumnIndex; h++) {
-                Cell cell = new Cell(this, h, v);
-                topRightPane.appendChild(cell.getElement());
-                row.add(cell);
+                row.add(cellPool.obtain(h, v, null, topRightPane));
             }
             topRightRows.add(row);
         }
@@ -2954,16 +2985,14 @@ public class SheetWidget extends Panel {
     private void createTopLeftPaneCells() {
         for (int v = 1; v <= verticalSplitPosition; v++) {
             for (int h = 1; h <= horizontalSplitPosition; h++) {
-                Cell cell = new Cell(this, h, v);
-                topLeftPane.appendChild(cell.getElement());
-                topLeftCells.add(cell);
+                topLeftCells.add(cellPool.obtain(h, v, null, topLeftPane));
             }
         }
     }
 
     private void clearListOfCells(ArrayList<Cell> row) {
         for (Cell cell : row) {
-            cell.getElement().removeFromParent();
+            cellPool.release(cell);
         }
         row.clear();
     }
@@ -3065,18 +3094,18 @@ public class SheetWidget extends Panel {
                     cell = row.get(c - c1);
                     cell.update(c, r, getCellData(c, r));
                 } else {
-                    cell = new Cell(this, c, r, getCellData(c, r));
-                    paneElement.appendChild(cell.getElement());
+                    cell = cellPool.obtain(c, r, getCellData(c, r),
+                            paneElement);
                     row.add(c - c1, cell);
                 }
             }
             while (row.size() > (c2 - c1 + 1)) {
-                row.remove(row.size() - 1).getElement().removeFromParent();
+                cellPool.release(row.remove(row.size() - 1));
             }
         }
         while (rows.size() > r2 - r1 + 1) {
             for (Cell cell : rows.remove(rows.size() - 1)) {
-                cell.getElement().removeFromParent();
+                cellPool.release(cell);
             }
         }
         updateOverflows(false);
@@ -3108,7 +3137,7 @@ public class SheetWidget extends Panel {
                     } else {
                         // remove row
                         for (Cell cell : row) {
-                            cell.getElement().removeFromParent();
+                            cellPool.release(cell);
                         }
                         iterator.remove();
                         continue;
@@ -3126,7 +3155,7 @@ public class SheetWidget extends Panel {
                     } else {
                         // remove row
                         for (Cell cell : row) {
-                            cell.getElement().removeFromParent();
+                            cellPool.release(cell);
                         }
                         iterator.remove();
                         continue;
@@ -3151,7 +3180,7 @@ public class SheetWidget extends Panel {
                             tempCols.add(cell);
                         } else {
                             // remove cell
-                            cell.getElement().removeFromParent();
+                            cellPool.release(cell);
                             cells.remove();
                             continue;
                         }
@@ -3167,7 +3196,7 @@ public class SheetWidget extends Panel {
                             tempCols.add(cell);
                         } else {
                             // remove cell
-                            cell.getElement().removeFromParent();
+                            cellPool.release(cell);
                             cells.remove();
                             continue;
                         }
@@ -3186,10 +3215,8 @@ public class SheetWidget extends Panel {
                 // add new cells if required
                 while (lastC < c2) {
                     lastC++;
-                    Cell cell = new Cell(this, lastC, rIndex,
-                            getCellData(lastC, rIndex));
-                    paneElement.appendChild(cell.getElement());
-                    row.add(cell);
+                    row.add(cellPool.obtain(lastC, rIndex,
+                            getCellData(lastC, rIndex), paneElement));
                 }
             } else if (hScrollDiff < 0) {
                 // add moved cells to collection
@@ -3199,10 +3226,8 @@ public class SheetWidget extends Panel {
                 // add new cells if required
                 while (firstC > c1) {
                     firstC--;
-                    Cell cell = new Cell(this, firstC, rIndex,
-                            getCellData(firstC, rIndex));
-                    paneElement.appendChild(cell.getElement());
-                    row.add(0, cell);
+                    row.add(0, cellPool.obtain(firstC, rIndex,
+                            getCellData(firstC, rIndex), paneElement));
                 }
             }
         }
@@ -3223,9 +3248,8 @@ public class SheetWidget extends Panel {
                 ArrayList<Cell> row = new ArrayList<Cell>(c2 - c1 + 1);
                 lastR++;
                 for (int i = c1; i <= c2; i++) {
-                    Cell cell = new Cell(this, i, lastR, getCellData(i, lastR));
-                    row.add(cell);
-                    paneElement.appendChild(cell.getElement());
+                    row.add(cellPool.obtain(i, lastR, getCellData(i, lastR),
+                            paneElement));
                 }
                 rows.add(row);
             }
@@ -3235,10 +3259,8 @@ public class SheetWidget extends Panel {
                 row.ensureCapacity(c2 - c1 + 1);
                 firstR--;
                 for (int i = c1; i <= c2; i++) {
-                    Cell cell = new Cell(this, i, firstR,
-                            getCellData(i, firstR));
-                    row.add(cell);
-                    paneElement.appendChild(cell.getElement());
+                    row.add(cellPool.obtain(i, firstR, getCellData(i, firstR),
+                            paneElement));
                 }
                 rows.add(0, row);
             }
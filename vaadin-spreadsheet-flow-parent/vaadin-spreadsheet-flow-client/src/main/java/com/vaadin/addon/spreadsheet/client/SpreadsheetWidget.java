@@ -103,7 +103,7 @@ public class SpreadsheetWidget extends Composite implements SheetHandler,
     private float defRowH;
     private int defColW;
 
-    private float[] rowH;
+    private RunLengthArray rowH;
     private int[] colW;
 
     /** 1-based */
@@ -1433,7 +1433,7 @@ public class SpreadsheetWidget extends Composite implements SheetHandler,
                     hiddenRowIndexes.add(index);
                 }
             }
-            rowH[index - 1] = size;
+            rowH.set(index - 1, size);
         }
         sheetWidget.relayoutSheet(false);
         if (mergedRegions != null) {
@@ -1555,6 +1555,10 @@ public class SpreadsheetWidget extends Composite implements SheetHandler,
         this.columnBufferSize = columnBufferSize;
     }
 
+    public void setCellPoolSize(int cellPoolSize) {
+        sheetWidget.setCellPoolSize(cellPoolSize);
+    }
+
     public void setRows(int rows) {
         this.rows = rows;
     }
@@ -1571,7 +1575,7 @@ public class SpreadsheetWidget extends Composite implements SheetHandler,
         sheetWidget.setRowGroupingData(data);
     }
 
-    public void setRowH(float[] rowH) {
+    public void setRowH(RunLengthArray rowH) {
         this.rowH = rowH;
     }
 
@@ -1760,8 +1764,8 @@ public class SpreadsheetWidget extends Composite implements SheetHandler,
     @Override
     public float getRowHeight(int row) {
         // doesn't take hidden rows into account! (but height is 0 for those)
-        if (rowH.length >= row) {
-            return rowH[row - 1];
+        if (rowH.length() >= row) {
+            return rowH.get(row - 1);
         } else {
             return defRowH;
         }
@@ -1805,7 +1809,7 @@ public class SpreadsheetWidget extends Composite implements SheetHandler,
 
     @Override
     public int getDefinedRows() {
-        return rowH.length;
+        return rowH.length();
     }
 
     @Override
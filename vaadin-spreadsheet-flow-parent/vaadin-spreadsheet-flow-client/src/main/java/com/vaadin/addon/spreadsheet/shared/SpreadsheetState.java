@@ -15,6 +15,7 @@ import java.util.Set;
 
 import com.vaadin.addon.spreadsheet.client.MergedRegion;
 import com.vaadin.addon.spreadsheet.client.OverlayInfo;
+import com.vaadin.addon.spreadsheet.client.RunLengthArray;
 import com.vaadin.shared.annotations.DelegateToWidget;
 import com.vaadin.shared.ui.TabIndexState;
 
@@ -27,6 +28,9 @@ public class SpreadsheetState extends TabIndexState {
     @DelegateToWidget
     public int columnBufferSize = 200;
 
+    @DelegateToWidget
+    public int cellPoolSize = 1000;
+
     @DelegateToWidget
     public int rows;
 
@@ -54,7 +58,7 @@ public class SpreadsheetState extends TabIndexState {
     public int defColW;
 
     @DelegateToWidget
-    public float[] rowH;
+    public RunLengthArray rowH;
     @DelegateToWidget
     public int[] colW;
 
@@ -12,6 +12,7 @@ import com.vaadin.addon.spreadsheet.client.CellData;
 import com.vaadin.addon.spreadsheet.client.MergedRegion;
 import com.vaadin.addon.spreadsheet.client.OverlayInfo;
 import com.vaadin.addon.spreadsheet.client.PopupButtonState;
+import com.vaadin.addon.spreadsheet.client.RunLengthArray;
 import com.vaadin.addon.spreadsheet.client.SpreadsheetActionDetails;
 import com.vaadin.addon.spreadsheet.shared.GroupingData;
 
@@ -22,6 +23,11 @@ import elemental.json.impl.JsonUtil;
 
 public class Parser {
 
+    // flags of the compact cell data payload
+    private static final int COMPACT_LOCKED = 1;
+    private static final int COMPACT_NEEDS_MEASURE = 2;
+    private static final int COMPACT_PERCENTAGE = 4;
+
     public static List<PopupButtonState> parseListOfPopupButtons(String raw) {
         return parseArrayJstype(raw, PopupButtonState::new);
     }
@@ -73,6 +79,37 @@ public class Parser {
         return ret;
     }
 
+    /**
+     * Parses an array encoded as runs of equal values,
+     * <code>[count, value, count, value, ...]</code>.
+     */
+    public static RunLengthArray parseRunLengthArrayFloat(String raw) {
+        return new RunLengthArray(parseArrayFloat(raw));
+    }
+
+    /**
+     * Parses an array encoded as runs of equal values, see
+     * {@link #parseRunLengthArrayFloat(String)}, to a plain array.
+     */
+    public static int[] parseRunLengthArrayInt(String raw) {
+        ArrayList<Double> runs = parseArrayListDouble(raw);
+        int length = 0;
+        for (int i = 0; i + 1 < runs.size(); i += 2) {
+            length += runs.get(i).intValue();
+        }
+        int[] ret = new int[length];
+        int start = 0;
+        for (int i = 0; i + 1 < runs.size(); i += 2) {
+            int end = start + runs.get(i).intValue();
+            int value = runs.get(i + 1).intValue();
+            for (int j = start; j < end; j++) {
+                ret[j] = value;
+            }
+            start = end;
+        }
+        return ret;
+    }
+
     private static ArrayList<Double> parseArrayListDouble(String raw) {
         return parseArray(raw, o -> toDouble(o));
     }
@@ -95,9 +132,67 @@ public class Parser {
     }
 
     public static ArrayList<CellData> parseArraylistOfCellData(String raw) {
+        if (raw != null && raw.startsWith("{")) {
+            return parseCompactCellData(raw);
+        }
         return parseArrayJstype(raw, () -> new CellData());
     }
 
+    /**
+     * Decodes the columnar cell data payload created by the server side
+     * <code>CompactCellData</code>.
+     */
+    private static ArrayList<CellData> parseCompactCellData(String raw) {
+        ArrayList<CellData> cells = new ArrayList<>();
+        JsonObject payload = JsonUtil.parse(raw);
+        if (!payload.hasKey("r")) {
+            return cells;
+        }
+        JsonArray strings = payload.getArray("s");
+        JsonArray rows = payload.getArray("r");
+        JsonArray cols = payload.getArray("c");
+        JsonArray values = getOptionalArray(payload, "v");
+        JsonArray formulaValues = getOptionalArray(payload, "f");
+        JsonArray originalValues = getOptionalArray(payload, "o");
+        JsonArray cellStyles = getOptionalArray(payload, "st");
+        JsonArray flags = getOptionalArray(payload, "b");
+        int row = 0;
+        int col = 0;
+        for (int i = 0; i < rows.length(); i++) {
+            CellData cell = new CellData();
+            row += (int) rows.getNumber(i);
+            col += (int) cols.getNumber(i);
+            cell.row = row;
+            cell.col = col;
+            cell.value = getString(strings, values, i);
+            cell.formulaValue = getString(strings, formulaValues, i);
+            cell.originalValue = getString(strings, originalValues, i);
+            String cellStyle = getString(strings, cellStyles, i);
+            if (cellStyle != null) {
+                cell.cellStyle = cellStyle;
+            }
+            int flag = flags == null ? 0 : (int) flags.getNumber(i);
+            cell.locked = (flag & COMPACT_LOCKED) != 0;
+            cell.needsMeasure = (flag & COMPACT_NEEDS_MEASURE) != 0;
+            cell.isPercentage = (flag & COMPACT_PERCENTAGE) != 0;
+            cells.add(cell);
+        }
+        return cells;
+    }
+
+    private static JsonArray getOptionalArray(JsonObject object, String key) {
+        return object.hasKey(key) ? object.getArray(key) : null;
+    }
+
+    private static String getString(JsonArray strings, JsonArray indexes,
+            int i) {
+        if (indexes == null) {
+            return null;
+        }
+        int index = (int) indexes.getNumber(i);
+        return index < 0 ? null : strings.getString(index);
+    }
+
     public static ArrayList<SpreadsheetActionDetails> parseArraylistSpreadsheetActionDetails(
             String raw) {
         return parseArrayJstype(raw, () -> new SpreadsheetActionDetails());
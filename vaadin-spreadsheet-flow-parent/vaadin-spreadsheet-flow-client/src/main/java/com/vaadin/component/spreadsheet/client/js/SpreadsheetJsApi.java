@@ -74,7 +74,8 @@ public class SpreadsheetJsApi {
     private void delegateToWidget(SpreadsheetConnector connector,
             StateChangeEvent sce) {
         for (String propertyName : new String[] { "rowBufferSize",
-                "columnBufferSize", "rows", "cols", "colGroupingData",
+                "columnBufferSize", "cellPoolSize", "rows", "cols",
+                "colGroupingData",
                 "rowGroupingData", "colGroupingMax", "rowGroupingMax",
                 "colGroupingInversed", "rowGroupingInversed", "defRowH",
                 "defColW", "rowH", "colW", "cellStyleToCSSStyle",
@@ -100,6 +101,8 @@ public class SpreadsheetJsApi {
                     w.setRowBufferSize(s.rowBufferSize);
                 if ("columnBufferSize".equals(propertyName))
                     w.setColumnBufferSize(s.columnBufferSize);
+                if ("cellPoolSize".equals(propertyName))
+                    w.setCellPoolSize(s.cellPoolSize);
                 if ("rows".equals(propertyName))
                     w.setRows(s.rows);
                 if ("cols".equals(propertyName))
@@ -224,6 +227,10 @@ public class SpreadsheetJsApi {
         getState().columnBufferSize = columnBufferSize;
     }
 
+    public void setCellPoolSize(int cellPoolSize) {
+        getState().cellPoolSize = cellPoolSize;
+    }
+
     public void setRows(int rows) {
         getState().rows = rows;
     }
@@ -267,11 +274,11 @@ public class SpreadsheetJsApi {
     }
 
     public void setRowH(String rowH) {
-        getState().rowH = Parser.parseArrayFloat(rowH);
+        getState().rowH = Parser.parseRunLengthArrayFloat(rowH);
     }
 
     public void setColW(String colW) {
-        getState().colW = Parser.parseArrayInt(colW);
+        getState().colW = Parser.parseRunLengthArrayInt(colW);
     }
 
     public void setReload(boolean reload) {
@@ -1,7 +1,6 @@
 package com.vaadin.component.spreadsheet.client.js;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -117,6 +116,12 @@ public class SpreadsheetJsApiTest {
         assertEquals(100, sharedState.columnBufferSize);
     }
 
+    @Test
+    public void should_updateState_when_setCellPoolSize_isCalled() {
+        api.setCellPoolSize(100);
+        assertEquals(100, sharedState.cellPoolSize);
+    }
+
     @Test
     public void should_updateState_when_setRows_isCalled() {
         api.setRows(100);
@@ -179,14 +184,17 @@ public class SpreadsheetJsApiTest {
 
     @Test
     public void should_updateState_when_setRowH_isCalled() {
-        api.setRowH("[0]");
-        assertTrue(Arrays.equals(new float[] { 0 }, sharedState.rowH));
+        api.setRowH("[2, 15.5, 1, 0]");
+        assertEquals(3, sharedState.rowH.length());
+        assertEquals(15.5f, sharedState.rowH.get(0), 0);
+        assertEquals(15.5f, sharedState.rowH.get(1), 0);
+        assertEquals(0f, sharedState.rowH.get(2), 0);
     }
 
     @Test
     public void should_updateState_when_setColW_isCalled() {
-        api.setColW("[0]");
-        assertArrayEquals(new int[] { 0 }, sharedState.colW);
+        api.setColW("[1, 0, 2, 64]");
+        assertArrayEquals(new int[] { 0, 64, 64 }, sharedState.colW);
     }
 
     @Test
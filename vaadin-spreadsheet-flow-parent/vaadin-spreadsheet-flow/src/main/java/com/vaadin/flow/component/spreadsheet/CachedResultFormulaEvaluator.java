@@ -0,0 +1,113 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.util.Map;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * A {@link FormulaEvaluator} that uses the cached formula results of the
+ * given cells of a sheet instead of evaluating them again. Used for
+ * formatting the cells evaluated by {@link ParallelFormulaEvaluator}. All
+ * other calls are delegated to the given evaluator.
+ *
+ * @author Vaadin Ltd.
+ */
+class CachedResultFormulaEvaluator implements FormulaEvaluator {
+
+    private final FormulaEvaluator delegate;
+    private final Sheet sheet;
+    private final CellKeySet evaluatedCells;
+
+    /**
+     * @param delegate
+     *            Evaluator to use for all other cells
+     * @param sheet
+     *            Sheet of the evaluated cells
+     * @param evaluatedCells
+     *            Cells that have an up to date cached formula result
+     */
+    CachedResultFormulaEvaluator(FormulaEvaluator delegate, Sheet sheet,
+            CellKeySet evaluatedCells) {
+        this.delegate = delegate;
+        this.sheet = sheet;
+        this.evaluatedCells = evaluatedCells;
+    }
+
+    private boolean isEvaluated(Cell cell) {
+        return cell.getSheet() == sheet
+                && cell.getCellType() == CellType.FORMULA
+                && evaluatedCells.contains(cell.getColumnIndex() + 1,
+                        cell.getRowIndex() + 1);
+    }
+
+    @Override
+    public CellType evaluateFormulaCell(Cell cell) {
+        if (cell != null && isEvaluated(cell)) {
+            return cell.getCachedFormulaResultType();
+        }
+        return delegate.evaluateFormulaCell(cell);
+    }
+
+    @Override
+    public void clearAllCachedResultValues() {
+        delegate.clearAllCachedResultValues();
+    }
+
+    @Override
+    public void notifySetFormula(Cell cell) {
+        delegate.notifySetFormula(cell);
+    }
+
+    @Override
+    public void notifyDeleteCell(Cell cell) {
+        delegate.notifyDeleteCell(cell);
+    }
+
+    @Override
+    public void notifyUpdateCell(Cell cell) {
+        delegate.notifyUpdateCell(cell);
+    }
+
+    @Override
+    public void evaluateAll() {
+        delegate.evaluateAll();
+    }
+
+    @Override
+    public CellValue evaluate(Cell cell) {
+        return delegate.evaluate(cell);
+    }
+
+    @Override
+    public Cell evaluateInCell(Cell cell) {
+        return delegate.evaluateInCell(cell);
+    }
+
+    @Override
+    public void setupReferencedWorkbooks(
+            Map<String, FormulaEvaluator> workbooks) {
+        delegate.setupReferencedWorkbooks(workbooks);
+    }
+
+    @Override
+    public void setIgnoreMissingWorkbooks(boolean ignore) {
+        delegate.setIgnoreMissingWorkbooks(ignore);
+    }
+
+    @Override
+    public void setDebugEvaluationOutputForNextEval(boolean value) {
+        delegate.setDebugEvaluationOutputForNextEval(value);
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * A set of cell coordinates, used for the server side bookkeeping of the cells
+ * that have been sent to the client. Coordinates are packed into a single
+ * <code>long</code> (see {@link #key(int, int)}) and stored in an open
+ * addressing hash table, so that no key objects are allocated when cells are
+ * added, looked up or removed. The string keys used by the client side (see
+ * {@link SpreadsheetUtil#toKey(int, int)}) are only created when needed.
+ * <p>
+ * Each key can have a <code>long</code> value attached to it, e.g. a
+ * signature of the content sent for the cell. The value of a key added
+ * without a value is <code>0</code>.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class CellKeySet implements Serializable {
+
+    /** Marks an empty slot; not a valid key as row indexes are 1-based */
+    private static final long EMPTY = 0L;
+
+    static final int MIN_CAPACITY = 16;
+
+    private long[] table = new long[MIN_CAPACITY];
+    private long[] values = new long[MIN_CAPACITY];
+    private int size;
+
+    /**
+     * Packs the given cell coordinates into a key.
+     *
+     * @param col
+     *            Column index, 1-based
+     * @param row
+     *            Row index, 1-based
+     * @return the key of the cell
+     */
+    static long key(int col, int row) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param key
+     *            Key created with {@link #key(int, int)}
+     * @return the column index of the key, 1-based
+     */
+    static int getColumn(long key) {
+        return (int) key;
+    }
+
+    /**
+     * @param key
+     *            Key created with {@link #key(int, int)}
+     * @return the row index of the key, 1-based
+     */
+    static int getRow(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * Adds the cell with the given coordinates.
+     *
+     * @param col
+     *            Column index, 1-based
+     * @param row
+     *            Row index, 1-based
+     * @return <code>true</code> if the cell was not already in the set
+     */
+    boolean add(int col, int row) {
+        return add(key(col, row));
+    }
+
+    boolean add(long key) {
+        int index = indexOf(key);
+        if (table[index] == key) {
+            return false;
+        }
+        insert(index, key, 0);
+        return true;
+    }
+
+    /**
+     * Adds the given key if it is not in the set, and sets its value.
+     *
+     * @param key
+     *            Key created with {@link #key(int, int)}
+     * @param value
+     *            Value for the key
+     */
+    void put(long key, long value) {
+        int index = indexOf(key);
+        if (table[index] == key) {
+            values[index] = value;
+        } else {
+            insert(index, key, value);
+        }
+    }
+
+    /**
+     * @param key
+     *            Key created with {@link #key(int, int)}
+     * @return the value of the key, or <code>0</code> if the key is not in
+     *         the set or has no value
+     */
+    long get(long key) {
+        int index = indexOf(key);
+        return table[index] == key ? values[index] : 0;
+    }
+
+    private void insert(int index, long key, long value) {
+        table[index] = key;
+        values[index] = value;
+        size++;
+        // keep the load factor at or below 0.5
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    /**
+     * @param col
+     *            Column index, 1-based
+     * @param row
+     *            Row index, 1-based
+     * @return <code>true</code> if the cell is in the set
+     */
+    boolean contains(int col, int row) {
+        return contains(key(col, row));
+    }
+
+    boolean contains(long key) {
+        return table[indexOf(key)] == key;
+    }
+
+    /**
+     * Removes the cell with the given coordinates.
+     *
+     * @param col
+     *            Column index, 1-based
+     * @param row
+     *            Row index, 1-based
+     * @return <code>true</code> if the cell was in the set
+     */
+    boolean remove(int col, int row) {
+        return remove(key(col, row));
+    }
+
+    boolean remove(long key) {
+        int index = indexOf(key);
+        if (table[index] != key) {
+            return false;
+        }
+        deleteSlot(index);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all keys matching the given filter.
+     *
+     * @param filter
+     *            Filter for the keys to remove
+     * @param removed
+     *            Called for each removed key, may be <code>null</code>
+     */
+    void removeIf(LongPredicate filter, LongConsumer removed) {
+        final long[] matching = new long[size];
+        int count = 0;
+        for (long key : table) {
+            if (key != EMPTY && filter.test(key)) {
+                matching[count++] = key;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            remove(matching[i]);
+            if (removed != null) {
+                removed.accept(matching[i]);
+            }
+        }
+    }
+
+    /**
+     * Calls the given action for each key in the set, in no particular order.
+     * The set must not be modified by the action.
+     *
+     * @param action
+     *            Action to call with each key
+     */
+    void forEach(LongConsumer action) {
+        for (long key : table) {
+            if (key != EMPTY) {
+                action.accept(key);
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (table.length > MIN_CAPACITY) {
+            table = new long[MIN_CAPACITY];
+            values = new long[MIN_CAPACITY];
+        } else {
+            Arrays.fill(table, EMPTY);
+            Arrays.fill(values, 0);
+        }
+        size = 0;
+    }
+
+    /**
+     * @return the slot of the given key, or the empty slot where it would be
+     *         inserted
+     */
+    private int indexOf(long key) {
+        final int mask = table.length - 1;
+        int index = hash(key) & mask;
+        while (table[index] != EMPTY && table[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * @return the hash of the given key, package-private for testing probe
+     *         sequences
+     */
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Empties the given slot and shifts back any following keys that would
+     * otherwise become unreachable.
+     */
+    private void deleteSlot(int index) {
+        final int mask = table.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (table[next] != EMPTY) {
+            int ideal = hash(table[next]) & mask;
+            // move the key to the gap if its ideal slot is not within
+            // (gap, next] in probing order
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = EMPTY;
+        values[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldTable = table;
+        long[] oldValues = values;
+        table = new long[capacity];
+        values = new long[capacity];
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != EMPTY) {
+                int index = indexOf(oldTable[i]);
+                table[index] = oldTable[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -9,7 +9,11 @@
 package com.vaadin.flow.component.spreadsheet;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -41,6 +45,69 @@ import com.vaadin.flow.component.spreadsheet.command.CellValueCommand;
 @SuppressWarnings("serial")
 public class CellSelectionShifter implements Serializable {
 
+    /**
+     * A formula split into the cell references matched by
+     * {@link CellSelectionShifter#rowShiftPattern} and the text between them,
+     * so that it can be shifted to any number of cells without matching and
+     * parsing the references again.
+     */
+    private static class FormulaTemplate {
+        /** Text before each reference, followed by the text after the last */
+        private final List<String> texts = new ArrayList<>();
+        /** Column part of each reference, including a possible '$' */
+        private final List<String> columns = new ArrayList<>();
+        /** Row part of each reference, including a possible '$' */
+        private final List<String> rows = new ArrayList<>();
+        private final List<Integer> columnIndexes = new ArrayList<>();
+        private final List<Integer> rowIndexes = new ArrayList<>();
+
+        private FormulaTemplate(String formula) {
+            Matcher matcher = rowShiftPattern.matcher(formula);
+            int lastEnd = 0;
+            while (matcher.find()) {
+                String reference = matcher.group();
+                int rowStart = reference.startsWith("$") ? 1 : 0;
+                while (Character.isLetter(reference.charAt(rowStart))) {
+                    rowStart++;
+                }
+                String column = reference.substring(0, rowStart);
+                String row = reference.substring(rowStart);
+                texts.add(formula.substring(lastEnd, matcher.start()));
+                columns.add(column);
+                rows.add(row);
+                columnIndexes.add(SpreadsheetUtil
+                        .getColHeaderIndex(column.replace("$", "")));
+                rowIndexes.add(Integer.parseInt(row.replace("$", "")));
+                lastEnd = matcher.end();
+            }
+            texts.add(formula.substring(lastEnd));
+        }
+
+        /**
+         * Builds the formula with the relative references moved by the given
+         * number of columns and rows.
+         */
+        private String shift(int columnDiff, int rowDiff) {
+            StringBuilder newFormula = new StringBuilder();
+            for (int i = 0; i < columns.size(); i++) {
+                newFormula.append(texts.get(i));
+                String column = columns.get(i);
+                String row = rows.get(i);
+                // if column or row has a '$' reference it shouldn't change
+                if (columnDiff != 0 && !column.startsWith("$")) {
+                    column = SpreadsheetUtil
+                            .getColHeader(columnIndexes.get(i) + columnDiff);
+                }
+                if (rowDiff != 0 && !row.startsWith("$")) {
+                    row = Integer.toString(rowIndexes.get(i) + rowDiff);
+                }
+                newFormula.append(column).append(row);
+            }
+            newFormula.append(texts.get(columns.size()));
+            return newFormula.toString();
+        }
+    }
+
     private static final org.slf4j.Logger LOGGER = LoggerFactory
             .getLogger(CellSelectionShifter.class);
 
@@ -53,6 +120,18 @@ public class CellSelectionShifter implements Serializable {
 
     private final Spreadsheet spreadsheet;
 
+    /**
+     * Parsed formulas of the shifted cells while a fill is in progress, null
+     * otherwise
+     */
+    private transient Map<String, FormulaTemplate> formulaTemplates;
+
+    /**
+     * Cells whose style is sent to the client side at the end of the fill in
+     * progress, null when not filling
+     */
+    private transient List<Cell> styledCells;
+
     /**
      * Creates a new CellShifter and ties it to the given Spreadsheet
      *
@@ -86,36 +165,42 @@ public class CellSelectionShifter implements Serializable {
                 // store values
                 CellValueCommand command = new CellShiftValuesCommand(
                         spreadsheet, false);
-                if (c1 != paintedCellRange.getFirstColumn() + 1) {
-                    // shift left
-                    changedCellRangeAddress = new CellRangeAddress(r1 - 1,
-                            r2 - 1, c1 - 1,
-                            paintedCellRange.getFirstColumn() - 1);
-                    command.captureCellRangeValues(changedCellRangeAddress);
-                    shiftColumnsLeftInSelection(c1);
-                    spreadsheet.updateMarkedCells();
-                } else if (c2 != paintedCellRange.getLastColumn() + 1) {
-                    // shift right
-                    changedCellRangeAddress = new CellRangeAddress(r1 - 1,
-                            r2 - 1, paintedCellRange.getLastColumn() + 1,
-                            c2 - 1);
-                    command.captureCellRangeValues(changedCellRangeAddress);
-                    shiftColumnsRightInSelection(c2);
-                    spreadsheet.updateMarkedCells();
-                } else if (r1 != paintedCellRange.getFirstRow() + 1) {
-                    // shift top
-                    changedCellRangeAddress = new CellRangeAddress(r1 - 1,
-                            paintedCellRange.getFirstRow() - 1, c1 - 1, c2 - 1);
-                    command.captureCellRangeValues(changedCellRangeAddress);
-                    shiftRowsUpInSelection(r1);
-                    spreadsheet.updateMarkedCells();
-                } else if (r2 != paintedCellRange.getLastRow() + 1) {
-                    // shift bottom
-                    changedCellRangeAddress = new CellRangeAddress(
-                            paintedCellRange.getLastRow() + 1, r2 - 1, c1 - 1,
-                            c2 - 1);
-                    command.captureCellRangeValues(changedCellRangeAddress);
-                    shiftRowsDownInSelection(r2);
+                beginFill();
+                try {
+                    if (c1 != paintedCellRange.getFirstColumn() + 1) {
+                        // shift left
+                        changedCellRangeAddress = new CellRangeAddress(r1 - 1,
+                                r2 - 1, c1 - 1,
+                                paintedCellRange.getFirstColumn() - 1);
+                        command.captureCellRangeValues(changedCellRangeAddress);
+                        shiftColumnsLeftInSelection(c1);
+                    } else if (c2 != paintedCellRange.getLastColumn() + 1) {
+                        // shift right
+                        changedCellRangeAddress = new CellRangeAddress(r1 - 1,
+                                r2 - 1, paintedCellRange.getLastColumn() + 1,
+                                c2 - 1);
+                        command.captureCellRangeValues(changedCellRangeAddress);
+                        shiftColumnsRightInSelection(c2);
+                    } else if (r1 != paintedCellRange.getFirstRow() + 1) {
+                        // shift top
+                        changedCellRangeAddress = new CellRangeAddress(r1 - 1,
+                                paintedCellRange.getFirstRow() - 1, c1 - 1,
+                                c2 - 1);
+                        command.captureCellRangeValues(changedCellRangeAddress);
+                        shiftRowsUpInSelection(r1);
+                    } else if (r2 != paintedCellRange.getLastRow() + 1) {
+                        // shift bottom
+                        changedCellRangeAddress = new CellRangeAddress(
+                                paintedCellRange.getLastRow() + 1, r2 - 1,
+                                c1 - 1, c2 - 1);
+                        command.captureCellRangeValues(changedCellRangeAddress);
+                        shiftRowsDownInSelection(r2);
+                    }
+                } finally {
+                    endFill();
+                }
+                if (changedCellRangeAddress != null) {
+                    // all filled cells are sent to the client at once
                     spreadsheet.updateMarkedCells();
                 }
                 CellRangeAddress newPaintedCellRange = spreadsheet
@@ -171,8 +256,7 @@ public class CellSelectionShifter implements Serializable {
                 || shiftedCell.getCellType() == CellType.BLANK) {
             newCell.setBlank();
         }
-        spreadsheet.getSpreadsheetStyleFactory().cellStyleUpdated(newCell,
-                true);
+        cellStyleUpdated(newCell);
         switch (shiftedCell.getCellType()) {
         case FORMULA:
             shiftFormula(shiftedCell, newCell);
@@ -281,65 +365,16 @@ public class CellSelectionShifter implements Serializable {
      */
     private void shiftFormula(Cell shiftedCell, Cell newCell) {
         try {
+            FormulaTemplate template = getFormulaTemplate(
+                    shiftedCell.getCellFormula());
             if (shiftedCell.getColumnIndex() != newCell.getColumnIndex()) {
                 // shift column indexes
                 int collDiff = newCell.getColumnIndex()
                         - shiftedCell.getColumnIndex();
-                Matcher matcher = rowShiftPattern
-                        .matcher(shiftedCell.getCellFormula());
-                String originalFormula = shiftedCell.getCellFormula();
-                StringBuilder newFormula = new StringBuilder();
-                int lastEnd = 0;
-                while (matcher.find()) {
-                    String s = matcher.group();
-                    String replacement;
-                    if (!s.startsWith("$")) {
-                        String oldIndexString = s.replaceAll("[$]{0,1}\\d+",
-                                "");
-
-                        int columnIndex = SpreadsheetUtil
-                                .getColHeaderIndex(oldIndexString);
-                        columnIndex += collDiff;
-                        replacement = s.replace(oldIndexString,
-                                SpreadsheetUtil.getColHeader(columnIndex));
-                    } else {
-                        // if column has a '$' reference shouldn't change
-                        replacement = s;
-                    }
-                    newFormula.append(originalFormula.substring(lastEnd,
-                            matcher.start()));
-                    newFormula.append(replacement);
-                    lastEnd = matcher.end();
-                }
-                newFormula.append(originalFormula.substring(lastEnd));
-                newCell.setCellFormula(newFormula.toString());
+                newCell.setCellFormula(template.shift(collDiff, 0));
             } else { // shift row indexes
                 int rowDiff = newCell.getRowIndex() - shiftedCell.getRowIndex();
-                Matcher matcher = rowShiftPattern
-                        .matcher(shiftedCell.getCellFormula());
-                String originalFormula = shiftedCell.getCellFormula();
-                StringBuilder newFormula = new StringBuilder();
-                int lastEnd = 0;
-                while (matcher.find()) {
-                    String s = matcher.group();
-                    String rowString = s.replaceAll("[$]{0,1}[a-zA-Z]+", "");
-                    String replacement;
-                    if (!rowString.startsWith("$")) {
-                        int row = Integer.parseInt(rowString);
-                        row += rowDiff;
-                        replacement = s.replace(rowString,
-                                Integer.toString(row));
-                    } else {
-                        // if row has a '$' reference shouldn't change
-                        replacement = s;
-                    }
-                    newFormula.append(originalFormula.substring(lastEnd,
-                            matcher.start()));
-                    newFormula.append(replacement);
-                    lastEnd = matcher.end();
-                }
-                newFormula.append(originalFormula.substring(lastEnd));
-                newCell.setCellFormula(newFormula.toString());
+                newCell.setCellFormula(template.shift(0, rowDiff));
             }
         } catch (Exception e) {
             LOGGER.debug(e.getMessage(), e);
@@ -432,41 +467,13 @@ public class CellSelectionShifter implements Serializable {
         Workbook workbook = spreadsheet.getWorkbook();
         final Sheet activeSheet = workbook
                 .getSheetAt(workbook.getActiveSheetIndex());
-        for (int shiftedRowIndex = r1; shiftedRowIndex <= r2; shiftedRowIndex++) {
-            final Row shiftedRow = activeSheet.getRow(shiftedRowIndex - 1);
-            int newRowIndex = r2 + 1 + (shiftedRowIndex - r1);
-            while (newRowIndex <= newLastRow) {
-                if (shiftedRow != null) {
-                    Row newRow = activeSheet.getRow(newRowIndex - 1);
-                    if (newRow == null) {
-                        newRow = activeSheet.createRow(newRowIndex - 1);
-                    }
-                    for (int c = c1; c <= c2; c++) {
-                        Double sequenceIncrement = getColumnSequenceIncrement(c,
-                                r1, r2);
-                        Cell shiftedCell = shiftedRow.getCell(c - 1);
-                        Cell newCell = newRow.getCell(c - 1);
-                        if (shiftedCell != null) {
-                            if (newCell == null) {
-                                newCell = newRow.createCell(c - 1);
-                            }
-                            shiftCellValue(shiftedCell, newCell, false,
-                                    sequenceIncrement);
-                        } else if (newCell != null) {
-                            // update style to 0
-                            newCell.setCellStyle(null);
-                            spreadsheet.getSpreadsheetStyleFactory()
-                                    .cellStyleUpdated(newCell, true);
-                            newCell.setCellValue((String) null);
-                            getCellValueManager().cellDeleted(newCell);
-                        }
-                    }
-                } else {
-                    getCellValueManager().removeCells(newRowIndex, c1,
-                            newRowIndex, c2, true);
-                }
-                newRowIndex += r2 - r1 + 1;
-            }
+        final Double[] sequenceIncrements = getColumnSequenceIncrements(c1, c2,
+                r1, r2);
+        final int height = r2 - r1 + 1;
+        for (int newRowIndex = r2 + 1; newRowIndex <= newLastRow; newRowIndex++) {
+            int shiftedRowIndex = r1 + (newRowIndex - r2 - 1) % height;
+            fillRow(activeSheet, shiftedRowIndex, newRowIndex, c1, c2,
+                    sequenceIncrements);
         }
     }
 
@@ -480,41 +487,14 @@ public class CellSelectionShifter implements Serializable {
         Workbook workbook = spreadsheet.getWorkbook();
         final Sheet activeSheet = workbook
                 .getSheetAt(workbook.getActiveSheetIndex());
-        for (int shiftedRowIndex = r1; shiftedRowIndex <= r2; shiftedRowIndex++) {
-            final Row shiftedRow = activeSheet.getRow(shiftedRowIndex - 1);
-            int newRowIndex = r1 - 1 - (shiftedRowIndex - r1);
-            while (newRowIndex >= newFirstRow) {
-                if (shiftedRow != null) {
-                    Row newRow = activeSheet.getRow(newRowIndex - 1);
-                    if (newRow == null) {
-                        newRow = activeSheet.createRow(newRowIndex - 1);
-                    }
-                    for (int c = c1; c <= c2; c++) {
-                        Double sequenceIncrement = getColumnSequenceIncrement(c,
-                                r1, r2);
-                        Cell shiftedCell = shiftedRow.getCell(c - 1);
-                        Cell newCell = newRow.getCell(c - 1);
-                        if (shiftedCell != null) {
-                            if (newCell == null) {
-                                newCell = newRow.createCell(c - 1);
-                            }
-                            shiftCellValue(shiftedCell, newCell, false,
-                                    sequenceIncrement);
-                        } else if (newCell != null) {
-                            // update style to 0
-                            newCell.setCellStyle(null);
-                            spreadsheet.getSpreadsheetStyleFactory()
-                                    .cellStyleUpdated(newCell, true);
-                            newCell.setCellValue((String) null);
-                            getCellValueManager().cellDeleted(newCell);
-                        }
-                    }
-                } else {
-                    getCellValueManager().removeCells(newRowIndex, c1,
-                            newRowIndex, c2, true);
-                }
-                newRowIndex = newRowIndex - (r2 - r1) - 1;
-            }
+        final Double[] sequenceIncrements = getColumnSequenceIncrements(c1, c2,
+                r1, r2);
+        final int height = r2 - r1 + 1;
+        for (int newRowIndex = r1 - 1; newRowIndex >= newFirstRow; newRowIndex--) {
+            // the selection is mirrored upwards
+            int shiftedRowIndex = r1 + (r1 - 1 - newRowIndex) % height;
+            fillRow(activeSheet, shiftedRowIndex, newRowIndex, c1, c2,
+                    sequenceIncrements);
         }
     }
 
@@ -528,33 +508,16 @@ public class CellSelectionShifter implements Serializable {
         Workbook workbook = spreadsheet.getWorkbook();
         final Sheet activeSheet = workbook
                 .getSheetAt(workbook.getActiveSheetIndex());
+        final int width = c2 - c1 + 1;
         for (int rIndex = r1; rIndex <= r2; rIndex++) {
             final Row row = activeSheet.getRow(rIndex - 1);
             if (row != null) {
                 Double sequenceIncrement = getRowSequenceIncrement(rIndex, c1,
                         c2);
-                for (int shiftedCellIndex = c1; shiftedCellIndex <= c2; shiftedCellIndex++) {
-                    Cell shiftedCell = row.getCell(shiftedCellIndex - 1);
-                    int newCellIndex = c2 + 1 + (shiftedCellIndex - c1);
-                    while (newCellIndex <= newRightMostColumn) {
-                        Cell newCell = row.getCell(newCellIndex - 1);
-                        if (shiftedCell != null) {
-                            if (newCell == null) {
-                                newCell = row.createCell(newCellIndex - 1);
-                            }
-                            shiftCellValue(shiftedCell, newCell, false,
-                                    sequenceIncrement);
-
-                        } else if (newCell != null) {
-                            newCell.setCellValue((String) null);
-                            getCellValueManager().cellDeleted(newCell);
-                            // update style to 0
-                            newCell.setCellStyle(null);
-                            spreadsheet.getSpreadsheetStyleFactory()
-                                    .cellStyleUpdated(newCell, true);
-                        }
-                        newCellIndex += (c2 - c1) + 1;
-                    }
+                for (int newCellIndex = c2 + 1; newCellIndex <= newRightMostColumn; newCellIndex++) {
+                    int shiftedCellIndex = c1 + (newCellIndex - c2 - 1) % width;
+                    fillCell(row.getCell(shiftedCellIndex - 1), row,
+                            newCellIndex - 1, sequenceIncrement);
                 }
             }
         }
@@ -570,37 +533,124 @@ public class CellSelectionShifter implements Serializable {
         Workbook workbook = spreadsheet.getWorkbook();
         final Sheet activeSheet = workbook
                 .getSheetAt(workbook.getActiveSheetIndex());
+        final int width = c2 - c1 + 1;
         for (int rIndex = r1; rIndex <= r2; rIndex++) {
             final Row row = activeSheet.getRow(rIndex - 1);
             if (row != null) {
                 Double sequenceIncrement = getRowSequenceIncrement(rIndex, c1,
                         c2);
-                for (int shiftedCellIndex = c1; shiftedCellIndex <= c2; shiftedCellIndex++) {
-                    Cell shiftedCell = row.getCell(shiftedCellIndex - 1);
-                    int newCellIndex = c1 - (shiftedCellIndex - c1) - 1;
-                    while (newCellIndex >= newLeftMostColumn) {
-                        Cell newCell = row.getCell(newCellIndex - 1);
-                        if (shiftedCell != null) {
-                            if (newCell == null) {
-                                newCell = row.createCell(newCellIndex - 1);
-                            }
-                            shiftCellValue(shiftedCell, newCell, false,
-                                    sequenceIncrement);
-                        } else if (newCell != null) {
-                            newCell.setCellValue((String) null);
-                            getCellValueManager().cellDeleted(newCell);
-                            // update style to 0
-                            newCell.setCellStyle(null);
-                            spreadsheet.getSpreadsheetStyleFactory()
-                                    .cellStyleUpdated(newCell, true);
-                        }
-                        newCellIndex = newCellIndex - (c2 - c1) - 1;
-                    }
+                for (int newCellIndex = c1 - 1; newCellIndex >= newLeftMostColumn; newCellIndex--) {
+                    // the selection is mirrored to the left
+                    int shiftedCellIndex = c1 + (c1 - 1 - newCellIndex) % width;
+                    fillCell(row.getCell(shiftedCellIndex - 1), row,
+                            newCellIndex - 1, sequenceIncrement);
                 }
             }
         }
     }
 
+    /**
+     * Fills the cells of a row from the given columns of another row.
+     *
+     * @param activeSheet
+     *            Sheet of the rows
+     * @param shiftedRowIndex
+     *            Index of the source row, 1-based
+     * @param newRowIndex
+     *            Index of the filled row, 1-based
+     * @param c1
+     *            First column to fill, 1-based
+     * @param c2
+     *            Last column to fill, 1-based
+     * @param sequenceIncrements
+     *            Sequence increment for each column, or null
+     */
+    private void fillRow(Sheet activeSheet, int shiftedRowIndex,
+            int newRowIndex, int c1, int c2, Double[] sequenceIncrements) {
+        final Row shiftedRow = activeSheet.getRow(shiftedRowIndex - 1);
+        if (shiftedRow == null) {
+            getCellValueManager().removeCells(newRowIndex, c1, newRowIndex, c2,
+                    true);
+            return;
+        }
+        Row newRow = activeSheet.getRow(newRowIndex - 1);
+        if (newRow == null) {
+            newRow = activeSheet.createRow(newRowIndex - 1);
+        }
+        for (int c = c1; c <= c2; c++) {
+            fillCell(shiftedRow.getCell(c - 1), newRow, c - 1,
+                    sequenceIncrements[c - c1]);
+        }
+    }
+
+    /**
+     * Fills a cell from the given source cell, or clears it if there is no
+     * source cell.
+     *
+     * @param shiftedCell
+     *            Source cell, may be null
+     * @param newRow
+     *            Row of the filled cell
+     * @param newColumnIndex
+     *            Column of the filled cell, 0-based
+     * @param sequenceIncrement
+     *            increment added to shifted cell value, or null
+     */
+    private void fillCell(Cell shiftedCell, Row newRow, int newColumnIndex,
+            Double sequenceIncrement) {
+        Cell newCell = newRow.getCell(newColumnIndex);
+        if (shiftedCell != null) {
+            if (newCell == null) {
+                newCell = newRow.createCell(newColumnIndex);
+            }
+            shiftCellValue(shiftedCell, newCell, false, sequenceIncrement);
+        } else if (newCell != null) {
+            newCell.setCellValue((String) null);
+            getCellValueManager().cellDeleted(newCell);
+            // update style to 0
+            newCell.setCellStyle(null);
+            cellStyleUpdated(newCell);
+        }
+    }
+
+    /**
+     * Starts collecting the changes of a fill, so that the source formulas
+     * are parsed once and the styles are sent to the client side together by
+     * {@link #endFill()}.
+     */
+    private void beginFill() {
+        formulaTemplates = new HashMap<>();
+        styledCells = new ArrayList<>();
+    }
+
+    private void endFill() {
+        final List<Cell> cells = styledCells;
+        formulaTemplates = null;
+        styledCells = null;
+        spreadsheet.getSpreadsheetStyleFactory().cellStylesUpdated(cells, true);
+    }
+
+    private void cellStyleUpdated(Cell cell) {
+        if (styledCells != null) {
+            styledCells.add(cell);
+        } else {
+            spreadsheet.getSpreadsheetStyleFactory().cellStyleUpdated(cell,
+                    true);
+        }
+    }
+
+    private FormulaTemplate getFormulaTemplate(String formula) {
+        if (formulaTemplates == null) {
+            return new FormulaTemplate(formula);
+        }
+        FormulaTemplate template = formulaTemplates.get(formula);
+        if (template == null) {
+            template = new FormulaTemplate(formula);
+            formulaTemplates.put(formula, template);
+        }
+        return template;
+    }
+
     /**
      * Returns the increment between all consecutive cells in row with rIndex
      * from column c1 to column c2
@@ -876,6 +926,29 @@ public class CellSelectionShifter implements Serializable {
         return result;
     }
 
+    /**
+     * Returns the increments of the columns from c1 to c2, computed once for
+     * the whole fill.
+     *
+     * @param c1
+     *            First column, 1-based
+     * @param c2
+     *            Last column, 1-based
+     * @param r1
+     *            First row of the columns to be considered, 1-based
+     * @param r2
+     *            Last row of the columns to be considered, 1-based
+     * @return common difference or null for each column
+     */
+    private Double[] getColumnSequenceIncrements(int c1, int c2, int r1,
+            int r2) {
+        Double[] result = new Double[c2 - c1 + 1];
+        for (int c = c1; c <= c2; c++) {
+            result[c - c1] = getColumnSequenceIncrement(c, r1, r2);
+        }
+        return result;
+    }
+
     private CellValueManager getCellValueManager() {
         return spreadsheet.getCellValueManager();
     }
@@ -18,8 +18,6 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,7 +25,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
 
 import org.apache.poi.hssf.model.InternalSheet;
 import org.apache.poi.hssf.record.RecordBase;
@@ -60,7 +61,9 @@ import com.vaadin.flow.component.spreadsheet.Spreadsheet.CellDeletionHandler;
 import com.vaadin.flow.component.spreadsheet.Spreadsheet.CellValueChangeEvent;
 import com.vaadin.flow.component.spreadsheet.Spreadsheet.CellValueHandler;
 import com.vaadin.flow.component.spreadsheet.Spreadsheet.FormulaValueChangeEvent;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
 import com.vaadin.flow.component.spreadsheet.client.CellData;
+import com.vaadin.flow.component.spreadsheet.client.MergedRegion;
 import com.vaadin.flow.component.spreadsheet.command.CellValueCommand;
 
 /**
@@ -93,17 +96,52 @@ public class CellValueManager implements Serializable {
 
     private DataFormatter formatter = new CustomDataFormatter();
 
-    /** Cell keys that have values sent to client side and are cached there. */
-    private final HashSet<String> sentCells = new HashSet<String>();
+    /** Signature of content that the client side may not have cached */
+    private static final long UNKNOWN_CONTENT = 0;
+
+    /**
+     * Cells that have values sent to client side and are cached there. The
+     * value of each key is the signature of the sent cell data, or
+     * {@link #UNKNOWN_CONTENT} if the content cached on the client side is not
+     * known.
+     */
+    private final CellKeySet sentCells = new CellKeySet();
     /**
-     * Formula cell keys that have values sent to client side and are cached
-     * there.
+     * Formula cells that have values sent to client side and are cached there,
+     * with the signature of the sent cell data.
      */
-    private final HashSet<String> sentFormulaCells = new HashSet<String>();
+    private final CellKeySet sentFormulaCells = new CellKeySet();
     /** */
     private final HashSet<CellData> removedCells = new HashSet<CellData>();
     /** */
-    private final HashSet<String> markedCells = new HashSet<String>();
+    private final CellKeySet markedCells = new CellKeySet();
+
+    private final FormulaDependencyGraph formulaDependencies;
+
+    /**
+     * The formula cells depending on the changed cells, resolved once when an
+     * update of the marked cells begins and reused until the values are sent.
+     */
+    private long[] resolvedDependentFormulaCells;
+    private boolean dependentsResolved;
+
+    /**
+     * Formula cells of the active sheet evaluated in parallel, that have an up
+     * to date cached result.
+     */
+    private final CellKeySet precalculatedFormulaCells = new CellKeySet();
+    private boolean formulasPrecalculated;
+    /**
+     * Evaluator reusing the results of {@link #precalculatedFormulaCells},
+     * created once per parallel evaluation and shared by all formatted cells.
+     */
+    private CachedResultFormulaEvaluator cellFormattingEvaluator;
+
+    /**
+     * Incremented whenever cell values may have changed, used by
+     * {@link FilterColumnIndex} for detecting missed updates.
+     */
+    private int cellUpdateCount;
 
     private HashSet<CellReference> changedFormulaCells = new HashSet<CellReference>();
 
@@ -127,6 +165,7 @@ public class CellValueManager implements Serializable {
      */
     public CellValueManager(Spreadsheet spreadsheet) {
         this.spreadsheet = spreadsheet;
+        formulaDependencies = new FormulaDependencyGraph(spreadsheet);
 
         UI current = UI.getCurrent();
         if (current != null) {
@@ -146,8 +185,15 @@ public class CellValueManager implements Serializable {
         sentCells.clear();
         removedCells.clear();
         sentFormulaCells.clear();
+        formulaDependencies.clear();
+        resolvedDependentFormulaCells = null;
+        dependentsResolved = false;
+        precalculatedFormulaCells.clear();
+        cellFormattingEvaluator = null;
+        formulasPrecalculated = false;
         hyperlinkStyleIndex = -1;
         topLeftCellsLoaded = false;
+        cellUpdateCount++;
     }
 
     public DataFormatter getDataFormatter() {
@@ -156,6 +202,7 @@ public class CellValueManager implements Serializable {
 
     public void setDataFormatter(DataFormatter dataFormatter) {
         formatter = dataFormatter;
+        cellUpdateCount++;
     }
 
     public DecimalFormat getOriginalValueDecimalFormat() {
@@ -168,6 +215,14 @@ public class CellValueManager implements Serializable {
         originalValueDecimalFormat = new DecimalFormat(
                 EXCEL_FORMULA_BAR_DECIMAL_FORMAT, localeDecimalSymbols);
         cellValueFormatter.setLocaleDecimalSymbols(localeDecimalSymbols);
+        cellUpdateCount++;
+    }
+
+    /**
+     * @return a count that changes whenever cell values may have changed
+     */
+    int getCellUpdateCount() {
+        return cellUpdateCount;
     }
 
     /**
@@ -177,6 +232,47 @@ public class CellValueManager implements Serializable {
         return spreadsheet.getFormulaEvaluator();
     }
 
+    /**
+     * @return the evaluator to use when formatting cell values, which reuses
+     *         the results of formula cells evaluated in parallel
+     */
+    private FormulaEvaluator getCellFormattingEvaluator() {
+        if (cellFormattingEvaluator == null) {
+            return getFormulaEvaluator();
+        }
+        return cellFormattingEvaluator;
+    }
+
+    /**
+     * Evaluates all formula cells of the active sheet in parallel, if enabled
+     * with {@link Spreadsheet#setFormulaEvaluationParallelism(int)} and not
+     * done yet for the current sheet contents.
+     */
+    private void precalculateFormulaCells() {
+        final int parallelism = spreadsheet.getFormulaEvaluationParallelism();
+        if (formulasPrecalculated || parallelism <= 1
+                || spreadsheet.isReadOnlyMode()) {
+            return;
+        }
+        formulasPrecalculated = true;
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.PARALLEL_FORMULA_EVALUATION);
+        final CellKeySet evaluated = ParallelFormulaEvaluator
+                .evaluateActiveSheet(spreadsheet, formulaDependencies,
+                        parallelism);
+        if (evaluated == null) {
+            // evaluated sequentially when the cells are loaded, not measured
+            return;
+        }
+        spreadsheet.getMetrics().end(measurement);
+        evaluated.forEach(precalculatedFormulaCells::add);
+        if (!precalculatedFormulaCells.isEmpty()) {
+            cellFormattingEvaluator = new CachedResultFormulaEvaluator(
+                    getFormulaEvaluator(), spreadsheet.getActiveSheet(),
+                    precalculatedFormulaCells);
+        }
+    }
+
     /**
      * @return the common {@link ConditionalFormattingEvaluator} instance from
      *         {@link Spreadsheet}
@@ -226,7 +322,7 @@ public class CellValueManager implements Serializable {
                     try {
                         String oldValue = getCachedFormulaCellValue(cell);
                         String newValue = formatter.formatCellValue(cell,
-                                getFormulaEvaluator(),
+                                getCellFormattingEvaluator(),
                                 getConditionalFormattingEvaluator());
                         if (!newValue.equals(oldValue)) {
                             changedFormulaCells.add(new CellReference(cell));
@@ -249,7 +345,8 @@ public class CellValueManager implements Serializable {
             }
 
             String formattedCellValue = formatter.formatCellValue(cell,
-                    getFormulaEvaluator(), getConditionalFormattingEvaluator());
+                    getCellFormattingEvaluator(),
+                    getConditionalFormattingEvaluator());
 
             if (!spreadsheet.isCellHidden(cell)) {
                 if (cell.getCellType() == CellType.FORMULA
@@ -328,8 +425,6 @@ public class CellValueManager implements Serializable {
                 for (Integer i : cellFormattingIndexes) {
                     cellData.cellStyle = cellData.cellStyle + " cf" + i;
                 }
-
-                markedCells.add(SpreadsheetUtil.toKey(cell));
             }
 
             if (cell.getCellType() == CellType.NUMERIC
@@ -442,18 +537,32 @@ public class CellValueManager implements Serializable {
      * @return cell width, including widths of any merged columns
      */
     protected int getCellWidth(Cell cell) {
+        if (cell.getSheet() == spreadsheet.getActiveSheet()) {
+            // use the indexed regions instead of going through all of them
+            final MergedRegion region = spreadsheet.getMergedRegionContainer()
+                    .getMergedRegion(cell.getColumnIndex() + 1,
+                            cell.getRowIndex() + 1);
+            if (region != null) {
+                int w = 0;
+                for (int c = region.col1 - 1; c < region.col2; c++) {
+                    w += spreadsheet.getColWidth(c);
+                }
+                return w;
+            }
+            return spreadsheet.getColWidth(cell.getColumnIndex());
+        }
         for (CellRangeAddress range : cell.getSheet().getMergedRegions()) {
             if (range.isInRange(cell)) {
                 int w = 0;
                 for (int c = range.getFirstColumn(); c <= range
                         .getLastColumn(); c++) {
-                    w += spreadsheet.getColW()[c];
+                    w += spreadsheet.getColWidth(c);
                 }
                 return w;
             }
         }
         // if we get here, cell is not in a merged region
-        return spreadsheet.getColW()[cell.getColumnIndex()];
+        return spreadsheet.getColWidth(cell.getColumnIndex());
     }
 
     /**
@@ -515,7 +624,7 @@ public class CellValueManager implements Serializable {
      *            Cell to mark for updates
      */
     protected void markCellForUpdate(Cell cell) {
-        markedCells.add(SpreadsheetUtil.toKey(cell));
+        markedCells.add(cell.getColumnIndex() + 1, cell.getRowIndex() + 1);
     }
 
     /**
@@ -538,12 +647,11 @@ public class CellValueManager implements Serializable {
      *            Cell to mark for removal
      */
     protected void markCellForRemove(Cell cell) {
-        String cellKey = SpreadsheetUtil.toKey(cell);
         CellData cd = new CellData();
         cd.col = cell.getColumnIndex() + 1;
         cd.row = cell.getRowIndex() + 1;
         removedCells.add(cd);
-        clearCellCache(cellKey);
+        clearCellCache(cd.col, cd.row);
     }
 
     /**
@@ -553,8 +661,21 @@ public class CellValueManager implements Serializable {
      *            Key of target cell
      */
     protected void clearCellCache(String cellKey) {
-        if (!sentCells.remove(cellKey)) {
-            sentFormulaCells.remove(cellKey);
+        clearCellCache(SpreadsheetUtil.getColumnIndexFromKey(cellKey),
+                SpreadsheetUtil.getRowFromKey(cellKey));
+    }
+
+    /**
+     * Clears the cell at the given coordinates from the cache
+     *
+     * @param col
+     *            Column index of target cell, 1-based
+     * @param row
+     *            Row index of target cell, 1-based
+     */
+    protected void clearCellCache(int col, int row) {
+        if (!sentCells.remove(col, row)) {
+            sentFormulaCells.remove(col, row);
         }
     }
 
@@ -598,6 +719,14 @@ public class CellValueManager implements Serializable {
         Cell cell = r.getCell(col - 1);
         String formattedCellValue = null;
         CellType oldCellType = CellType._NONE;
+        // the client side shows the edited value now, make sure the cell is
+        // sent again when it is updated
+        final long key = CellKeySet.key(col, row);
+        if (sentCells.contains(key)) {
+            sentCells.put(key, UNKNOWN_CONTENT);
+        } else if (sentFormulaCells.contains(key)) {
+            sentFormulaCells.put(key, UNKNOWN_CONTENT);
+        }
 
         // capture cell value to history
         CellValueCommand command = new CellValueCommand(spreadsheet);
@@ -621,11 +750,8 @@ public class CellValueManager implements Serializable {
                 } else {
                     // modify existing cell, possibly switch type
                     formattedCellValue = getFormattedCellValue(cell);
-                    final String key = SpreadsheetUtil.toKey(col, row);
                     oldCellType = cell.getCellType();
-                    if (!sentCells.remove(key)) {
-                        sentFormulaCells.remove(key);
-                    }
+                    clearCellCache(col, row);
 
                     // Old value was hyperlink => needs refresh
                     if (cell.getCellType() == CellType.FORMULA
@@ -1051,7 +1177,10 @@ public class CellValueManager implements Serializable {
      */
     protected void loadCellData(int firstRow, int firstColumn, int lastRow,
             int lastColumn) {
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.CELL_DATA);
         try {
+            precalculateFormulaCells();
             int verticalSplitPosition = spreadsheet.getLastFrozenRow();
             int horizontalSplitPosition = spreadsheet.getLastFrozenColumn();
             if (verticalSplitPosition > 0 && horizontalSplitPosition > 0
@@ -1090,6 +1219,8 @@ public class CellValueManager implements Serializable {
             }
         } catch (NullPointerException npe) {
             LOGGER.trace(npe.getMessage(), npe);
+        } finally {
+            spreadsheet.getMetrics().end(measurement);
         }
     }
 
@@ -1112,30 +1243,41 @@ public class CellValueManager implements Serializable {
         Workbook workbook = spreadsheet.getWorkbook();
         final Sheet activeSheet = workbook
                 .getSheetAt(workbook.getActiveSheetIndex());
-        Map<String, String> componentIDtoCellKeysMap = spreadsheet
-                .getComponentIDtoCellKeysMap();
-        @SuppressWarnings("unchecked")
-        final Collection<String> customComponentCells = (Collection<String>) (componentIDtoCellKeysMap == null
-                ? Collections.emptyList()
-                : componentIDtoCellKeysMap.values());
+        final CellKeySet customComponentCells = getCustomComponentCells();
+        final WindowedCellStore readOnlyCellStore = spreadsheet
+                .getReadOnlyCellStore();
+        if (readOnlyCellStore != null) {
+            readOnlyCellStore.loadRows(activeSheet, firstRow - 1, lastRow - 1);
+        }
+        // creates the cells in the area that have conditional formatting
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.CONDITIONAL_FORMATTING);
+        try {
+            spreadsheet.getConditionalFormatter().evaluateCells(firstRow,
+                    firstColumn, lastRow, lastColumn);
+        } finally {
+            spreadsheet.getMetrics().end(measurement);
+        }
         for (int r = firstRow - 1; r < lastRow; r++) {
             Row row = activeSheet.getRow(r);
             if (row != null && row.getLastCellNum() != -1
                     && row.getLastCellNum() >= firstColumn) {
                 for (int c = firstColumn - 1; c < lastColumn; c++) {
-                    final String key = SpreadsheetUtil.toKey(c + 1, r + 1);
-                    if (!customComponentCells.contains(key)
-                            && !sentCells.contains(key)
-                            && !sentFormulaCells.contains(key)) {
+                    if (!customComponentCells.contains(c + 1, r + 1)
+                            && !sentCells.contains(c + 1, r + 1)
+                            && !sentFormulaCells.contains(c + 1, r + 1)) {
                         Cell cell = row.getCell(c);
                         if (cell != null) {
                             final CellData cd = createCellDataForCell(cell);
                             if (cd != null) {
                                 CellType cellType = cell.getCellType();
+                                final long key = CellKeySet.key(c + 1, r + 1);
                                 if (cellType == CellType.FORMULA) {
-                                    sentFormulaCells.add(key);
+                                    sentFormulaCells.put(key,
+                                            getContentSignature(cd));
                                 } else {
-                                    sentCells.add(key);
+                                    sentCells.put(key,
+                                            getContentSignature(cd));
                                 }
                                 cellData.add(cd);
                             }
@@ -1147,6 +1289,23 @@ public class CellValueManager implements Serializable {
         return cellData;
     }
 
+    /**
+     * @return the cells that contain a custom component
+     */
+    private CellKeySet getCustomComponentCells() {
+        final CellKeySet customComponentCells = new CellKeySet();
+        Map<String, String> componentIDtoCellKeysMap = spreadsheet
+                .getComponentIDtoCellKeysMap();
+        if (componentIDtoCellKeysMap != null) {
+            for (String key : componentIDtoCellKeysMap.values()) {
+                customComponentCells.add(
+                        SpreadsheetUtil.getColumnIndexFromKey(key),
+                        SpreadsheetUtil.getRowFromKey(key));
+            }
+        }
+        return customComponentCells;
+    }
+
     /**
      * Method for updating the spreadsheet client side visible cells and cached
      * data correctly.
@@ -1160,19 +1319,40 @@ public class CellValueManager implements Serializable {
      * Method for updating cells that are marked for update and formula cells.
      *
      * Iterates over the whole sheet (existing rows and columns) and updates
-     * client side cache for all sent formula cells, and cells that have been
-     * marked for updating.
+     * client side cache for all cells that have been marked for updating,
+     * unless the client side already has the same data cached for the cell.
+     * Sent formula cells that depend on the marked cells are re-evaluated in
+     * dependency order, and updated to the client side cache if their value
+     * has changed.
      *
      */
     protected void updateMarkedCellValues() {
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.CELL_UPDATES);
+        try {
+            sendMarkedCellValues();
+        } finally {
+            spreadsheet.getMetrics().end(measurement);
+        }
+    }
+
+    private void sendMarkedCellValues() {
         final ArrayList<CellData> updatedCellData = new ArrayList<CellData>();
         Sheet sheet = spreadsheet.getActiveSheet();
         // it is unnecessary to worry about having custom components in the cell
         // because the client side handles it -> it will not replace a custom
         // component with a cell value
 
-        // update all cached formula cell values on client side, because they
-        // might have changed. also make sure all marked cells are updated
+        // the formula cells that might have changed, null if dependencies
+        // can't be tracked and all sent formula cells need to be updated
+        final long[] dependentFormulaCells = getDependentFormulaCells();
+        resolvedDependentFormulaCells = null;
+        dependentsResolved = false;
+        // values may have changed, evaluate formulas normally from now on
+        precalculatedFormulaCells.clear();
+        cellFormattingEvaluator = null;
+
+        // make sure all marked cells are updated
         Iterator<Row> rows = sheet.rowIterator();
         while (rows.hasNext()) {
             final Row r = rows.next();
@@ -1181,42 +1361,27 @@ public class CellValueManager implements Serializable {
                 final Cell cell = cells.next();
                 int rowIndex = cell.getRowIndex();
                 int columnIndex = cell.getColumnIndex();
-                final String key = SpreadsheetUtil.toKey(columnIndex + 1,
-                        rowIndex + 1);
-
-                // Mark for update if there are formatting rules.
-                if (spreadsheet.getConditionalFormatter()
-                        .getCellFormattingIndex(cell) != null) {
-                    markedCells.add(key);
-                }
+                final long key = CellKeySet.key(columnIndex + 1, rowIndex + 1);
 
                 // update formula cells
                 if (cell.getCellType() == CellType.FORMULA) {
-                    if (sentFormulaCells.contains(key)
-                            || markedCells.contains(key)) {
-                        CellData cd = createCellDataForCell(cell);
-                        if (cd == null) {
-                            // in case the formula cell value has changed to
-                            // null or
-                            // empty; this case is probably quite rare, formula
-                            // cell
-                            // pointing to a cell that was removed or had its
-                            // value
-                            // cleared ???
-                            cd = new CellData();
-                            cd.col = columnIndex + 1;
-                            cd.row = rowIndex + 1;
-                            cd.cellStyle = "" + cell.getCellStyle().getIndex();
-                        }
-                        sentFormulaCells.add(key);
-                        updatedCellData.add(cd);
+                    if (markedCells.contains(key)
+                            || (dependentFormulaCells == null
+                                    && sentFormulaCells.contains(key))) {
+                        addIfNotCached(sentFormulaCells, key,
+                                createCellDataForFormulaCell(cell),
+                                updatedCellData);
                     }
                 } else if (markedCells.contains(key)) {
-                    sentCells.add(key);
-                    updatedCellData.add(createCellDataForCell(cell));
+                    addIfNotCached(sentCells, key, createCellDataForCell(cell),
+                            updatedCellData);
                 }
             }
         }
+        if (dependentFormulaCells != null) {
+            updateDependentFormulaCells(sheet, dependentFormulaCells,
+                    updatedCellData);
+        }
         if (!changedFormulaCells.isEmpty()) {
             fireFormulaValueChangeEvent(changedFormulaCells);
             changedFormulaCells = new HashSet<CellReference>();
@@ -1227,10 +1392,243 @@ public class CellValueManager implements Serializable {
             spreadsheet.getRpcProxy().cellsUpdated(updatedCellData);
             spreadsheet.getRpcProxy().refreshCellStyles();
         }
+        final CellKeySet updatedCells = new CellKeySet();
+        markedCells.forEach(updatedCells::add);
+        for (CellData cd : updatedCellData) {
+            if (cd != null) {
+                updatedCells.add(cd.col, cd.row);
+            }
+        }
+        if (!updatedCells.isEmpty()) {
+            spreadsheet.cellComponentsChanged(updatedCells);
+        }
+        if (dependentFormulaCells != null) {
+            // formula cells that are not in view don't have cell data
+            for (long key : dependentFormulaCells) {
+                updatedCells.add(key);
+            }
+        }
+        if (!updatedCells.isEmpty()) {
+            notifyFilterTables(updatedCells, dependentFormulaCells != null);
+        }
         markedCells.clear();
         removedCells.clear();
     }
 
+    /**
+     * Notifies the filtering tables of the active sheet about the marked and
+     * updated cells, so that they can update their value indexes.
+     *
+     * @param formulasIncluded
+     *            <code>true</code> if the updated cells include all dependent
+     *            formula cells of the marked cells
+     */
+    private void notifyFilterTables(CellKeySet updatedCells,
+            boolean formulasIncluded) {
+        cellUpdateCount++;
+        for (SpreadsheetTable table : spreadsheet.getTablesForActiveSheet()) {
+            if (table instanceof SpreadsheetFilterTable) {
+                ((SpreadsheetFilterTable) table).cellsUpdated(updatedCells,
+                        formulasIncluded);
+            }
+        }
+    }
+
+    private CellKeySet getMarkedAndRemovedCells() {
+        final CellKeySet cells = new CellKeySet();
+        markedCells.forEach(cells::add);
+        for (CellData cd : removedCells) {
+            cells.add(cd.col, cd.row);
+        }
+        return cells;
+    }
+
+    /**
+     * Gets the cells whose values may have changed since the last update: the
+     * cells marked for update or removal, and the formula cells that depend
+     * on them.
+     *
+     * @return the changed cells, or <code>null</code> if the dependent formula
+     *         cells can't be tracked
+     */
+    CellKeySet getChangedCells() {
+        final long[] dependentFormulaCells = getDependentFormulaCells();
+        if (dependentFormulaCells == null) {
+            return null;
+        }
+        final CellKeySet changedCells = getMarkedAndRemovedCells();
+        for (long key : dependentFormulaCells) {
+            changedCells.add(key);
+        }
+        return changedCells;
+    }
+
+    /**
+     * Marks the cells that have been sent to the client for update, if they
+     * match the given filter.
+     *
+     * @param filter
+     *            Filter for the keys of the cells to mark
+     */
+    void markSentCellsForUpdate(LongPredicate filter) {
+        final LongConsumer mark = key -> {
+            if (filter.test(key)) {
+                markedCells.add(key);
+            }
+        };
+        sentCells.forEach(mark);
+        sentFormulaCells.forEach(mark);
+    }
+
+    /**
+     * Begins an update of the marked cells. The formula cells that depend on
+     * the changed cells are resolved once, and reused by the conditional
+     * formatting and by {@link #updateMarkedCellValues()} until the values
+     * have been sent. Cells marked after this only for their formatting don't
+     * change the dependents.
+     */
+    void beginMarkedCellsUpdate() {
+        resolvedDependentFormulaCells = resolveDependentFormulaCells();
+        dependentsResolved = true;
+    }
+
+    /**
+     * Gets the formula cells that depend on the cells changed since the last
+     * update, resolving them unless an update has begun.
+     *
+     * @return keys of the dependent formula cells in evaluation order, or
+     *         <code>null</code> if the dependencies can't be tracked
+     */
+    private long[] getDependentFormulaCells() {
+        if (dependentsResolved) {
+            return resolvedDependentFormulaCells;
+        }
+        return resolveDependentFormulaCells();
+    }
+
+    /**
+     * Updates the dependency graph for the cells changed since the last update
+     * and gets the formula cells that depend on them.
+     *
+     * @return keys of the dependent formula cells in evaluation order, or
+     *         <code>null</code> if the dependencies can't be tracked
+     */
+    private long[] resolveDependentFormulaCells() {
+        final CellKeySet changedCells = getMarkedAndRemovedCells();
+        changedCells.forEach(key -> formulaDependencies.cellChanged(
+                CellKeySet.getColumn(key), CellKeySet.getRow(key)));
+        return formulaDependencies.getDependentsInEvaluationOrder(changedCells);
+    }
+
+    /**
+     * Re-evaluates the given formula cells in order, and adds the cell data of
+     * the ones that are cached on the client side and have changed to the
+     * given list.
+     */
+    private void updateDependentFormulaCells(Sheet sheet,
+            long[] dependentFormulaCells, List<CellData> updatedCellData) {
+        for (long key : dependentFormulaCells) {
+            // marked cells have been updated already, the rest will be loaded
+            // when they are scrolled into view
+            if (markedCells.contains(key) || !sentFormulaCells.contains(key)) {
+                continue;
+            }
+            final Row row = sheet.getRow(CellKeySet.getRow(key) - 1);
+            final Cell cell = row == null ? null
+                    : row.getCell(CellKeySet.getColumn(key) - 1);
+            if (cell == null || cell.getCellType() != CellType.FORMULA) {
+                continue;
+            }
+            final String oldValue = getCachedFormulaCellValue(cell);
+            boolean changed;
+            try {
+                getFormulaEvaluator().evaluateFormulaCell(cell);
+                changed = !Objects.equals(oldValue,
+                        getCachedFormulaCellValue(cell));
+            } catch (RuntimeException rte) {
+                // invalid formula, handled when creating the cell data
+                changed = true;
+            }
+            if (changed) {
+                changedFormulaCells.add(new CellReference(cell));
+                addIfNotCached(sentFormulaCells, key,
+                        createCellDataForFormulaCell(cell), updatedCellData);
+            }
+        }
+    }
+
+    /**
+     * Adds the given cell data to the list of updated cells, unless the client
+     * side already has identical data cached for the cell, and records the
+     * cell as sent. A cell without data is sent as an empty cell, which clears
+     * the cell on the client side.
+     */
+    private static void addIfNotCached(CellKeySet sent, long key, CellData cd,
+            List<CellData> updatedCellData) {
+        if (cd == null) {
+            cd = new CellData();
+            cd.col = CellKeySet.getColumn(key);
+            cd.row = CellKeySet.getRow(key);
+        }
+        final long signature = getContentSignature(cd);
+        if (!sent.contains(key) || sent.get(key) != signature) {
+            sent.put(key, signature);
+            updatedCellData.add(cd);
+        }
+    }
+
+    /**
+     * Computes a 64-bit signature of the content of the given cell data, so
+     * that only a <code>long</code> is kept for each sent cell. The chance of
+     * two different contents of a cell having the same signature is
+     * negligible.
+     *
+     * @return the signature, never {@link #UNKNOWN_CONTENT}
+     */
+    private static long getContentSignature(CellData cd) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, cd.value);
+        hash = hash(hash, cd.formulaValue);
+        hash = hash(hash, cd.originalValue);
+        hash = hash(hash, cd.cellStyle);
+        hash = hash(hash, (cd.locked ? 1 : 0) | (cd.needsMeasure ? 2 : 0)
+                | (cd.isPercentage ? 4 : 0));
+        return hash == UNKNOWN_CONTENT ? 1 : hash;
+    }
+
+    /**
+     * Adds the characters of the given string to a 64-bit FNV-1a hash. Null
+     * and the end of the string are hashed as values outside the character
+     * range, so that consecutive strings can't be confused.
+     */
+    private static long hash(long hash, String s) {
+        if (s == null) {
+            return hash(hash, 0x10001);
+        }
+        for (int i = 0; i < s.length(); i++) {
+            hash = hash(hash, s.charAt(i));
+        }
+        return hash(hash, 0x10000);
+    }
+
+    private static long hash(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    private CellData createCellDataForFormulaCell(Cell cell) {
+        CellData cd = createCellDataForCell(cell);
+        if (cd == null) {
+            // in case the formula cell value has changed to null or empty;
+            // this case is probably quite rare, formula cell pointing to a
+            // cell that was removed or had its value cleared ???
+            cd = new CellData();
+            cd.col = cell.getColumnIndex() + 1;
+            cd.row = cell.getRowIndex() + 1;
+            cd.cellStyle = "" + cell.getCellStyle().getIndex();
+        }
+        return cd;
+    }
+
     /**
      * Makes sure the next {@link Spreadsheet#updateMarkedCells()} call will
      * clear all removed rows from client cache.
@@ -1241,31 +1639,20 @@ public class CellValueManager implements Serializable {
      *            Index of the ending row, 1-based
      */
     protected void updateDeletedRowsInClientCache(int startRow, int endRow) {
-        for (int i = startRow; i <= endRow; i++) {
-            String rowKey = "row" + i;
-            for (Iterator<String> iterator = sentCells.iterator(); iterator
-                    .hasNext();) {
-                String key = iterator.next();
-                if (key.endsWith(rowKey)) {
-                    iterator.remove();
-                    CellData cd = new CellData();
-                    cd.col = SpreadsheetUtil.getColumnIndexFromKey(key);
-                    cd.row = i;
-                    removedCells.add(cd);
-                }
-            }
-            for (Iterator<String> iterator = sentFormulaCells
-                    .iterator(); iterator.hasNext();) {
-                String key = iterator.next();
-                if (key.endsWith(rowKey)) {
-                    iterator.remove();
-                    CellData cd = new CellData();
-                    cd.col = SpreadsheetUtil.getColumnIndexFromKey(key);
-                    cd.row = i;
-                    removedCells.add(cd);
-                }
-            }
-        }
+        final LongPredicate inDeletedRows = key -> {
+            int row = CellKeySet.getRow(key);
+            return row >= startRow && row <= endRow;
+        };
+        final LongConsumer markRemoved = key -> {
+            CellData cd = new CellData();
+            cd.col = CellKeySet.getColumn(key);
+            cd.row = CellKeySet.getRow(key);
+            removedCells.add(cd);
+        };
+        sentCells.removeIf(inDeletedRows, markRemoved);
+        sentFormulaCells.removeIf(inDeletedRows, markRemoved);
+        // references have been shifted
+        formulaDependencies.clear();
     }
 
     /**
@@ -1294,11 +1681,10 @@ public class CellValueManager implements Serializable {
                 for (int j = firstColumn - 1; j < lastColumn; j++) {
                     Cell cell = row.getCell(j);
                     if (cell != null) {
-                        final String key = SpreadsheetUtil.toKey(j + 1, i + 1);
                         if (cell.getCellType() == CellType.FORMULA) {
-                            sentFormulaCells.remove(key);
+                            sentFormulaCells.remove(j + 1, i + 1);
                         } else {
-                            sentCells.remove(key);
+                            sentCells.remove(j + 1, i + 1);
                         }
                         if (cell.getHyperlink() != null) {
                             removeHyperlink(cell, activeSheet);
@@ -1319,7 +1705,7 @@ public class CellValueManager implements Serializable {
                             cd.row = i + 1;
                             removedCells.add(cd);
                         } else {
-                            markedCells.add(key);
+                            markedCells.add(j + 1, i + 1);
                         }
                         cell.setCellValue((String) null);
                         getFormulaEvaluator().notifyUpdateCell(cell);
@@ -1356,17 +1742,16 @@ public class CellValueManager implements Serializable {
                 CellData cd = new CellData();
                 cd.col = colIndex;
                 cd.row = rowIndex;
-                final String key = SpreadsheetUtil.toKey(colIndex, rowIndex);
                 if (clearRemovedCellStyle
                         || cell.getCellStyle().getIndex() == 0) {
                     removedCells.add(cd);
                 } else {
-                    markedCells.add(key);
+                    markedCells.add(colIndex, rowIndex);
                 }
                 if (cell.getCellType() == CellType.FORMULA) {
-                    sentFormulaCells.remove(key);
+                    sentFormulaCells.remove(colIndex, rowIndex);
                 } else {
-                    sentCells.remove(key);
+                    sentCells.remove(colIndex, rowIndex);
                 }
                 // POI (3.9) doesn't have a method for removing a hyperlink !!!
                 if (cell.getHyperlink() != null) {
@@ -1449,21 +1834,10 @@ public class CellValueManager implements Serializable {
      *            Index of target column, 1-based
      */
     public void clearCacheForColumn(int indexColumn) {
-        final String columnKey = "col" + indexColumn + " r";
-        for (Iterator<String> iterator = sentCells.iterator(); iterator
-                .hasNext();) {
-            String key = iterator.next();
-            if (key.startsWith(columnKey)) {
-                iterator.remove();
-            }
-        }
-        for (Iterator<String> iterator = sentFormulaCells.iterator(); iterator
-                .hasNext();) {
-            String key = iterator.next();
-            if (key.startsWith(columnKey)) {
-                iterator.remove();
-            }
-        }
+        final LongPredicate inColumn = key -> CellKeySet
+                .getColumn(key) == indexColumn;
+        sentCells.removeIf(inColumn, null);
+        sentFormulaCells.removeIf(inColumn, null);
     }
 
 }
@@ -11,6 +11,7 @@ package com.vaadin.flow.component.spreadsheet;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -31,6 +32,7 @@ import org.apache.poi.ss.formula.eval.NumberEval;
 import org.apache.poi.ss.formula.eval.NumericValueEval;
 import org.apache.poi.ss.formula.eval.StringEval;
 import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
 import org.apache.poi.ss.formula.ptg.Ptg;
 import org.apache.poi.ss.formula.ptg.RefPtgBase;
 import org.apache.poi.ss.usermodel.Cell;
@@ -58,6 +60,7 @@ import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCfRule;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTFont;
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
 import com.vaadin.flow.component.spreadsheet.SpreadsheetStyleFactory.BorderStyle;
 
 /**
@@ -68,6 +71,10 @@ import com.vaadin.flow.component.spreadsheet.SpreadsheetStyleFactory.BorderStyle
  * each cell can then be fetched from this class.
  * <p>
  * For now, only XSSF formatting rules are supported because of bugs in POI.
+ * <p>
+ * The rules are evaluated lazily, only for the cells that are sent to the
+ * client and their neighbours. The results are cached per cell, and
+ * re-evaluated only for the cells whose precedents change.
  *
  * @author Thomas Mattsson / Vaadin Ltd.
  */
@@ -87,12 +94,162 @@ public class ConditionalFormatter implements Serializable {
      */
     private static String BORDER_STYLE_DEFAULT = "1pt solid #d6d6d6;";
 
+    /**
+     * A conditional formatting rule of the active sheet, with the information
+     * needed for evaluating it lazily. Row and column indexes are 0-based.
+     */
+    private static class FormattingRule implements Serializable {
+        private final ConditionalFormatting formatting;
+        private final ConditionalFormattingRule rule;
+        private final int cssIndex;
+        /** Index of the style for the cell to the left, or -1 */
+        private final int leftBorderIndex;
+        /** Index of the style for the cell above, or -1 */
+        private final int topBorderIndex;
+        /** The cell the relative references of the formulas refer from */
+        private final int firstRow;
+        private final int firstColumn;
+        /** Formatted areas as <code>{row1, col1, row2, col2}</code> */
+        private final List<int[]> ranges = new ArrayList<int[]>();
+        /**
+         * Cell references of the formulas as
+         * <code>{row, col, rowRelative, colRelative}</code>
+         */
+        private final List<int[]> references = new ArrayList<int[]>();
+        /** Absolute area references of the formulas */
+        private final List<int[]> areas = new ArrayList<int[]>();
+        /** Whether the precedents of the formulas can't be tracked */
+        private boolean untracked;
+
+        private FormattingRule(ConditionalFormatting formatting,
+                ConditionalFormattingRule rule, int cssIndex,
+                int leftBorderIndex, int topBorderIndex) {
+            this.formatting = formatting;
+            this.rule = rule;
+            this.cssIndex = cssIndex;
+            this.leftBorderIndex = leftBorderIndex;
+            this.topBorderIndex = topBorderIndex;
+            final CellRangeAddress[] formattingRanges = formatting
+                    .getFormattingRanges();
+            firstRow = formattingRanges[0].getFirstRow();
+            firstColumn = formattingRanges[0].getFirstColumn();
+            for (CellRangeAddress cra : formattingRanges) {
+                ranges.add(new int[] { cra.getFirstRow(), cra.getFirstColumn(),
+                        cra.getLastRow(), cra.getLastColumn() });
+            }
+        }
+
+        /**
+         * Adds the cells whose result for this rule may change when the cell
+         * at the given coordinates changes.
+         */
+        private void addDependents(int row, int col, CellKeySet cells,
+                List<int[]> dependentAreas) {
+            for (int[] area : areas) {
+                if (contains(area, row, col)) {
+                    dependentAreas.addAll(ranges);
+                    return;
+                }
+            }
+            for (int[] reference : references) {
+                final boolean rowRelative = reference[2] != 0;
+                final boolean colRelative = reference[3] != 0;
+                if ((!rowRelative && reference[0] != row)
+                        || (!colRelative && reference[1] != col)) {
+                    continue;
+                }
+                // the cells whose shifted reference points to the given cell
+                final int dependentRow = row - reference[0] + firstRow;
+                final int dependentCol = col - reference[1] + firstColumn;
+                if (rowRelative && colRelative) {
+                    if (dependentRow >= 0 && dependentCol >= 0) {
+                        cells.add(dependentCol + 1, dependentRow + 1);
+                    }
+                } else if (rowRelative) {
+                    dependentAreas.add(new int[] { dependentRow, 0,
+                            dependentRow, Integer.MAX_VALUE });
+                } else if (colRelative) {
+                    dependentAreas.add(new int[] { 0, dependentCol,
+                            Integer.MAX_VALUE, dependentCol });
+                } else {
+                    dependentAreas.addAll(ranges);
+                }
+            }
+        }
+
+        /**
+         * @return a description of the rule, equal for rules that format the
+         *         same cells in the same way
+         */
+        private String getSignature() {
+            final StringBuilder signature = new StringBuilder();
+            signature.append(cssIndex).append(':').append(leftBorderIndex)
+                    .append(':').append(topBorderIndex).append(':')
+                    .append(rule.getConditionType()).append(':')
+                    .append(rule.getComparisonOperation()).append(':')
+                    .append(rule.getFormula1()).append(':')
+                    .append(rule.getFormula2());
+            for (CellRangeAddress cra : formatting.getFormattingRanges()) {
+                signature.append(':').append(cra.formatAsString());
+            }
+            return signature.toString();
+        }
+    }
+
+    /**
+     * A formatted area of a rule, for indexing the rules by area.
+     */
+    private static class RuleRange implements Serializable {
+        /** Index of the rule in {@link ConditionalFormatter#rules} */
+        private final int rule;
+        private final int[] bounds;
+
+        private RuleRange(int rule, int[] bounds) {
+            this.rule = rule;
+            this.bounds = bounds;
+        }
+    }
+
     private Spreadsheet spreadsheet;
 
     /**
-     * Cache of styles for each cell. One cell may have several styles.
+     * Rules of the active sheet, up to the first rule of each formatting that
+     * stops the evaluation of the following rules.
+     */
+    private List<FormattingRule> rules = new ArrayList<FormattingRule>();
+
+    /** Formatting ranges of {@link #rules}, indexed by sheet area */
+    private RectangleIndex<RuleRange> ruleIndex = new RectangleIndex<RuleRange>(
+            Collections.emptyList(), range -> range.bounds);
+
+    /** Whether any of the rules adds borders to the neighbouring cells */
+    private boolean hasBorderRules;
+
+    /**
+     * Description of the active sheet and its rules, for detecting when the
+     * evaluated results can no longer be used.
+     */
+    private List<String> ruleSignatures = new ArrayList<String>();
+
+    /**
+     * Cache of the rules matching each evaluated cell. The value of a cell is
+     * the id of the set of matching rules in {@link #matchSets}, plus one.
+     * Cells that aren't covered by any rule are not stored.
+     */
+    private final CellKeySet evaluatedCells = new CellKeySet();
+
+    /**
+     * Evaluated cells whose precedents can't be tracked, and which are
+     * re-evaluated after any change
+     */
+    private final CellKeySet volatileCells = new CellKeySet();
+
+    /**
+     * The distinct sets of matching rules, by id. The id of the empty set is
+     * 0.
      */
-    private Map<String, Set<Integer>> cellToIndex = new HashMap<String, Set<Integer>>();
+    private final List<BitSet> matchSets = new ArrayList<BitSet>();
+    private final Map<BitSet, Integer> matchSetIds = new HashMap<BitSet, Integer>();
 
     private Map<ConditionalFormatting, Integer> topBorders = new HashMap<ConditionalFormatting, Integer>();
     private Map<ConditionalFormatting, Integer> leftBorders = new HashMap<ConditionalFormatting, Integer>();
@@ -114,11 +271,16 @@ public class ConditionalFormatter implements Serializable {
         } else {
             colorConverter = new XSSFColorConverter((XSSFWorkbook) workbook);
         }
+        clearCachedResults();
     }
 
     /**
      * Each cell can have multiple matching rules, hence a collection. Order
      * doesn't matter here, CSS is applied in correct order on the client side.
+     * <p>
+     * The rules are evaluated for the cell and its neighbours the first time
+     * they are needed, and the results are cached until the precedents of the
+     * cells change.
      *
      * @param cell
      *            Target cell
@@ -126,32 +288,66 @@ public class ConditionalFormatter implements Serializable {
      *         names)
      */
     public Set<Integer> getCellFormattingIndex(Cell cell) {
-        Set<Integer> index = cellToIndex.get(SpreadsheetUtil.toKey(cell));
-        return index;
+        if (rules.isEmpty()) {
+            return null;
+        }
+        final Set<Integer> index = new HashSet<Integer>();
+        final BitSet matches = matchSets.get(getMatchSetId(cell));
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches
+                .nextSetBit(i + 1)) {
+            index.add(rules.get(i).cssIndex);
+        }
+        if (hasBorderRules) {
+            // the left border of the cell to the right and the top border of
+            // the cell below are drawn by this cell
+            final int row = cell.getRowIndex();
+            final int col = cell.getColumnIndex();
+            addBorderIndexes(index, spreadsheet.getCell(row, col + 1), true);
+            addBorderIndexes(index, spreadsheet.getCell(row + 1, col), false);
+        }
+        return index.isEmpty() ? null : index;
+    }
+
+    private void addBorderIndexes(Set<Integer> index, Cell neighbour,
+            boolean leftBorder) {
+        if (neighbour == null) {
+            return;
+        }
+        final BitSet matches = matchSets.get(getMatchSetId(neighbour));
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches
+                .nextSetBit(i + 1)) {
+            final FormattingRule rule = rules.get(i);
+            final int borderIndex = leftBorder ? rule.leftBorderIndex
+                    : rule.topBorderIndex;
+            if (borderIndex >= 0) {
+                index.add(borderIndex);
+            }
+        }
     }
 
     /**
-     * Creates the necessary CSS rules and runs evaluations on all affected
-     * cells.
+     * Creates the necessary CSS rules. The rules are evaluated for the cells
+     * when they are needed. If the rules haven't changed, only the cells whose
+     * precedents have changed since the last call are re-evaluated.
      */
     public void createConditionalFormatterRules() {
-
-        // make sure old styles are cleared
-        if (cellToIndex != null) {
-            for (String key : cellToIndex.keySet()) {
-                int col = SpreadsheetUtil.getColumnIndexFromKey(key) - 1;
-                int row = SpreadsheetUtil.getRowFromKey(key) - 1;
-                Cell cell = spreadsheet.getCell(row, col);
-                if (cell != null) {
-                    spreadsheet.markCellAsUpdated(cell, true);
-                }
-            }
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.CONDITIONAL_FORMATTING);
+        try {
+            createRules();
+        } finally {
+            spreadsheet.getMetrics().end(measurement);
         }
+    }
 
-        cellToIndex.clear();
+    private void createRules() {
         topBorders.clear();
         leftBorders.clear();
         HashMap<Integer, String> conditionalFormattingStyles = new HashMap<>();
+        final List<FormattingRule> newRules = new ArrayList<FormattingRule>();
+        final List<String> newSignatures = new ArrayList<String>();
+        newSignatures.add(spreadsheet.getActiveSheetIndex() + ":"
+                + spreadsheet.getActiveSheet().getSheetName());
 
         SheetConditionalFormatting cfs = spreadsheet.getActiveSheet()
                 .getSheetConditionalFormatting();
@@ -159,6 +355,7 @@ public class ConditionalFormatter implements Serializable {
         if (cfs instanceof HSSFSheetConditionalFormatting) {
             // disable formatting for HSSF, since formulas are read incorrectly
             // and we would return incorrect results.
+            updateRules(newRules, newSignatures);
             return;
         }
 
@@ -245,8 +442,11 @@ public class ConditionalFormatter implements Serializable {
 
                 conditionalFormattingStyles.put(cssIndex, css.toString());
 
-                // check actual cells
-                runCellMatcher(cf, rule, cssIndex);
+                // the cells are evaluated when they are needed
+                FormattingRule formattingRule = createFormattingRule(cf, rule,
+                        cssIndex);
+                newRules.add(formattingRule);
+                newSignatures.add(formattingRule.getSignature());
 
                 // stop here if defined in rules
                 if (stopHere(rule)) {
@@ -254,10 +454,316 @@ public class ConditionalFormatter implements Serializable {
                 }
             }
         }
+        newSignatures.add(conditionalFormattingStyles.toString());
+        updateRules(newRules, newSignatures);
 
         spreadsheet.setConditionalFormattingStyles(conditionalFormattingStyles);
     }
 
+    /**
+     * Takes the given rules into use. If they differ from the previous rules,
+     * the cached results are discarded and the cells formatted by the old or
+     * the new rules are updated. Otherwise only the cells affected by changed
+     * cell values are re-evaluated.
+     */
+    private void updateRules(List<FormattingRule> newRules,
+            List<String> newSignatures) {
+        final boolean sameSheet = !ruleSignatures.isEmpty()
+                && ruleSignatures.get(0).equals(newSignatures.get(0));
+        final boolean rulesChanged = !ruleSignatures.equals(newSignatures);
+        if (rulesChanged && sameSheet) {
+            // clear the old styles
+            evaluatedCells.forEach(key -> {
+                if (evaluatedCells.get(key) > 1) {
+                    markFormattingUpdated(key);
+                }
+            });
+        }
+
+        rules = newRules;
+        final List<RuleRange> ranges = new ArrayList<RuleRange>();
+        hasBorderRules = false;
+        for (int i = 0; i < rules.size(); i++) {
+            final FormattingRule rule = rules.get(i);
+            for (int[] bounds : rule.ranges) {
+                ranges.add(new RuleRange(i, bounds));
+            }
+            hasBorderRules |= rule.leftBorderIndex >= 0
+                    || rule.topBorderIndex >= 0;
+        }
+        ruleIndex = new RectangleIndex<RuleRange>(ranges,
+                range -> range.bounds);
+
+        if (!rulesChanged) {
+            updateChangedCells();
+            return;
+        }
+        ruleSignatures = newSignatures;
+        clearCachedResults();
+        if (sameSheet && !rules.isEmpty()) {
+            // apply the new styles to the cells the client already has, and
+            // create the cells of the visible area
+            spreadsheet.getCellValueManager()
+                    .markSentCellsForUpdate(this::isFormattingAffected);
+            if (spreadsheet.getFirstRow() > 0) {
+                evaluateCells(spreadsheet.getFirstRow(),
+                        spreadsheet.getFirstColumn(), spreadsheet.getLastRow(),
+                        spreadsheet.getLastColumn());
+            }
+        }
+    }
+
+    /**
+     * Re-evaluates the cached cells whose values or precedents have changed
+     * since the last update, and marks the cells whose formatting changed for
+     * update.
+     */
+    private void updateChangedCells() {
+        if (evaluatedCells.isEmpty()) {
+            return;
+        }
+        final CellKeySet changedCells = spreadsheet.getCellValueManager()
+                .getChangedCells();
+        final CellKeySet dependentCells = new CellKeySet();
+        final List<int[]> dependentAreas = new ArrayList<int[]>();
+        if (changedCells != null) {
+            changedCells.forEach(key -> {
+                dependentCells.add(key);
+                for (FormattingRule rule : rules) {
+                    rule.addDependents(CellKeySet.getRow(key) - 1,
+                            CellKeySet.getColumn(key) - 1, dependentCells,
+                            dependentAreas);
+                }
+            });
+        }
+        final CellKeySet staleCells = new CellKeySet();
+        evaluatedCells.forEach(key -> {
+            if (changedCells == null || volatileCells.contains(key)
+                    || dependentCells.contains(key)
+                    || isInAnyArea(key, dependentAreas)) {
+                staleCells.put(key, evaluatedCells.get(key));
+            }
+        });
+        staleCells.forEach(key -> {
+            evaluatedCells.remove(key);
+            volatileCells.remove(key);
+            final Cell cell = spreadsheet.getCell(CellKeySet.getRow(key) - 1,
+                    CellKeySet.getColumn(key) - 1);
+            final int matchSetId = cell == null ? 0 : getMatchSetId(cell);
+            if (matchSetId != staleCells.get(key) - 1) {
+                markFormattingUpdated(key);
+            }
+        });
+    }
+
+    private static boolean isInAnyArea(long key, List<int[]> areas) {
+        final int row = CellKeySet.getRow(key) - 1;
+        final int col = CellKeySet.getColumn(key) - 1;
+        for (int[] area : areas) {
+            if (contains(area, row, col)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] area, int row, int col) {
+        return row >= area[0] && row <= area[2] && col >= area[1]
+                && col <= area[3];
+    }
+
+    /**
+     * @return <code>true</code> if the formatting of the cell with the given
+     *         key may be affected by the current rules
+     */
+    private boolean isFormattingAffected(long key) {
+        final int row = CellKeySet.getRow(key) - 1;
+        final int col = CellKeySet.getColumn(key) - 1;
+        // the cell itself, or the neighbours whose borders it draws
+        return !ruleIndex.findIntersecting(row, col, row + 1, col + 1)
+                .isEmpty();
+    }
+
+    /**
+     * Marks the cell with the given key for update, together with the cells
+     * drawing its borders.
+     */
+    private void markFormattingUpdated(long key) {
+        final int row = CellKeySet.getRow(key) - 1;
+        final int col = CellKeySet.getColumn(key) - 1;
+        markCellAsUpdated(row, col);
+        if (hasBorderRules) {
+            markCellAsUpdated(row, col - 1);
+            markCellAsUpdated(row - 1, col);
+        }
+    }
+
+    private void markCellAsUpdated(int row, int col) {
+        if (row < 0 || col < 0) {
+            return;
+        }
+        Cell cell = spreadsheet.getCell(row, col);
+        if (cell != null) {
+            spreadsheet.markCellAsUpdated(cell, true);
+        }
+    }
+
+    /**
+     * Evaluates the rules for the cells in the given area, and for the cells
+     * below and to the right of it whose borders are drawn by the area. Cells
+     * covered by the rules that don't exist yet are created.
+     *
+     * @param firstRow
+     *            Starting row index, 1-based
+     * @param firstColumn
+     *            Starting column index, 1-based
+     * @param lastRow
+     *            Ending row index, 1-based
+     * @param lastColumn
+     *            Ending column index, 1-based
+     */
+    void evaluateCells(int firstRow, int firstColumn, int lastRow,
+            int lastColumn) {
+        if (rules.isEmpty()) {
+            return;
+        }
+        // indexes from here on are 0-based
+        final int margin = hasBorderRules ? 1 : 0;
+        final int row1 = firstRow - 1;
+        final int col1 = firstColumn - 1;
+        final int row2 = lastRow - 1 + margin;
+        final int col2 = lastColumn - 1 + margin;
+        for (RuleRange range : ruleIndex.findIntersecting(row1, col1, row2,
+                col2)) {
+            final int startRow = Math.max(row1, range.bounds[0]);
+            final int startCol = Math.max(col1, range.bounds[1]);
+            final int endRow = Math.min(row2, range.bounds[2]);
+            final int endCol = Math.min(col2, range.bounds[3]);
+            for (int row = startRow; row <= endRow; row++) {
+                for (int col = startCol; col <= endCol; col++) {
+                    Cell cell = spreadsheet.getCell(row, col);
+                    if (cell == null) {
+                        cell = spreadsheet.createCell(row, col, "");
+                    }
+                    getMatchSetId(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards the cached results of the rules. The rules are evaluated again
+     * when the formatting of the cells is needed.
+     */
+    void clearCachedResults() {
+        evaluatedCells.clear();
+        volatileCells.clear();
+        matchSets.clear();
+        matchSetIds.clear();
+        getMatchSetId(new BitSet());
+    }
+
+    /**
+     * @return the id of the set of rules matching the given cell, evaluating
+     *         the rules if the result isn't cached
+     */
+    private int getMatchSetId(Cell cell) {
+        final int row = cell.getRowIndex();
+        final int col = cell.getColumnIndex();
+        final long key = CellKeySet.key(col + 1, row + 1);
+        final int value = evaluatedCells.get(key);
+        if (value != 0) {
+            return value - 1;
+        }
+        final List<RuleRange> ranges = ruleIndex.findIntersecting(row, col,
+                row, col);
+        if (ranges.isEmpty()) {
+            return 0;
+        }
+        final BitSet evaluated = new BitSet();
+        final BitSet matches = new BitSet();
+        boolean untracked = false;
+        for (RuleRange range : ranges) {
+            if (evaluated.get(range.rule)) {
+                continue;
+            }
+            evaluated.set(range.rule);
+            final FormattingRule rule = rules.get(range.rule);
+            untracked |= rule.untracked;
+            if (matches(cell, rule.rule, col - rule.firstColumn,
+                    row - rule.firstRow)) {
+                matches.set(range.rule);
+            }
+        }
+        final int id = getMatchSetId(matches);
+        evaluatedCells.put(key, id + 1);
+        if (untracked) {
+            volatileCells.add(key);
+        }
+        return id;
+    }
+
+    private int getMatchSetId(BitSet matches) {
+        Integer id = matchSetIds.get(matches);
+        if (id == null) {
+            id = matchSets.size();
+            matchSets.add(matches);
+            matchSetIds.put(matches, id);
+        }
+        return id;
+    }
+
+    private FormattingRule createFormattingRule(ConditionalFormatting cf,
+            ConditionalFormattingRule rule, int cssIndex) {
+        final FormattingRule formattingRule = new FormattingRule(cf, rule,
+                cssIndex, leftBorders.getOrDefault(cf, -1),
+                topBorders.getOrDefault(cf, -1));
+        addReferences(formattingRule, rule.getFormula1());
+        addReferences(formattingRule, rule.getFormula2());
+        return formattingRule;
+    }
+
+    /**
+     * Adds the cell and area references of the given formula to the rule, or
+     * marks the rule untracked if the precedents of the formula can't be
+     * tracked.
+     */
+    private void addReferences(FormattingRule rule, String formula) {
+        if (formula == null || formula.isEmpty()) {
+            return;
+        }
+        final String sheetName = spreadsheet.getActiveSheet().getSheetName();
+        try {
+            for (Ptg ptg : FormulaParser.parse(formula,
+                    WorkbookEvaluatorUtil.getEvaluationWorkbook(spreadsheet),
+                    FormulaType.CELL, spreadsheet.getActiveSheetIndex())) {
+                if (FormulaDependencyGraph.isUntracked(ptg, sheetName)) {
+                    rule.untracked = true;
+                } else if (ptg instanceof RefPtgBase) {
+                    final RefPtgBase ref = (RefPtgBase) ptg;
+                    rule.references.add(new int[] { ref.getRow(),
+                            ref.getColumn(), ref.isRowRelative() ? 1 : 0,
+                            ref.isColRelative() ? 1 : 0 });
+                } else if (ptg instanceof AreaPtgBase) {
+                    final AreaPtgBase area = (AreaPtgBase) ptg;
+                    if (area.isFirstRowRelative() || area.isLastRowRelative()
+                            || area.isFirstColRelative()
+                            || area.isLastColRelative()) {
+                        rule.untracked = true;
+                    } else {
+                        rule.areas.add(new int[] { area.getFirstRow(),
+                                area.getFirstColumn(), area.getLastRow(),
+                                area.getLastColumn() });
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // not a parseable formula, evaluated as before but not tracked
+            LOGGER.trace(e.getMessage(), e);
+            rule.untracked = true;
+        }
+    }
+
     /**
      * Get the common {@link FormulaEvaluator} instance from {@link Spreadsheet}
      */
@@ -520,9 +1026,8 @@ public class ConditionalFormatter implements Serializable {
     }
 
     /**
-     * Goes through the cells specified in the given formatting, and checks if
-     * each rule matches. Style ids from resulting matches are put in
-     * {@link #cellToIndex}.
+     * Goes through the cells specified in the given formatting, and evaluates
+     * the rules of each cell. Cells that don't exist yet are created.
      *
      * @param cf
      *            {@link ConditionalFormatting} that specifies the affected
@@ -530,82 +1035,17 @@ public class ConditionalFormatter implements Serializable {
      * @param rule
      *            The rule to be evaluated
      * @param classNameIndex
-     *            The index of the class name that was generated for this rule,
-     *            to be added to {@link #cellToIndex}
+     *            The index of the class name that was generated for this rule
+     * @deprecated The rules are evaluated lazily for the cells that are
+     *             needed, and this method is no longer called. All the rules
+     *             of the cells are evaluated.
      */
+    @Deprecated
     protected void runCellMatcher(ConditionalFormatting cf,
             ConditionalFormattingRule rule, int classNameIndex) {
-        final int firstColumn = cf.getFormattingRanges()[0].getFirstColumn();
-        final int firstRow = cf.getFormattingRanges()[0].getFirstRow();
         for (CellRangeAddress cra : cf.getFormattingRanges()) {
-
-            for (int row = cra.getFirstRow(); row <= cra.getLastRow(); row++) {
-                for (int col = cra.getFirstColumn(); col <= cra
-                        .getLastColumn(); col++) {
-
-                    Cell cell = spreadsheet.getCell(row, col);
-                    if (cell == null) {
-                        cell = spreadsheet.createCell(row, col, "");
-                    }
-                    if (matches(cell, rule, col - firstColumn,
-                            row - firstRow)) {
-                        Set<Integer> list = cellToIndex
-                                .get(SpreadsheetUtil.toKey(cell));
-                        if (list == null) {
-                            list = new HashSet<Integer>();
-                            cellToIndex.put(SpreadsheetUtil.toKey(cell), list);
-                        }
-                        list.add(classNameIndex);
-
-                        // if the rule contains borders, we need to add styles
-                        // to other cells too
-                        if (leftBorders.containsKey(cf)) {
-                            int ruleIndex = leftBorders.get(cf);
-
-                            // left border for col 0 isn't rendered
-                            if (col != 0) {
-                                Cell cellToLeft = spreadsheet.getCell(row,
-                                        col - 1);
-                                if (cellToLeft == null) {
-                                    cellToLeft = spreadsheet.createCell(row,
-                                            col - 1, "");
-                                }
-                                list = cellToIndex
-                                        .get(SpreadsheetUtil.toKey(cellToLeft));
-                                if (list == null) {
-                                    list = new HashSet<Integer>();
-                                    cellToIndex.put(
-                                            SpreadsheetUtil.toKey(cellToLeft),
-                                            list);
-                                }
-                                list.add(ruleIndex);
-                            }
-                        }
-                        if (topBorders.containsKey(cf)) {
-                            int ruleIndex = topBorders.get(cf);
-
-                            // top border for row 0 isn't rendered
-                            if (row != 0) {
-                                Cell cellOnTop = spreadsheet.getCell(row - 1,
-                                        col);
-                                if (cellOnTop == null) {
-                                    cellOnTop = spreadsheet.createCell(row - 1,
-                                            col, "");
-                                }
-                                list = cellToIndex
-                                        .get(SpreadsheetUtil.toKey(cellOnTop));
-                                if (list == null) {
-                                    list = new HashSet<Integer>();
-                                    cellToIndex.put(
-                                            SpreadsheetUtil.toKey(cellOnTop),
-                                            list);
-                                }
-                                list.add(ruleIndex);
-                            }
-                        }
-                    }
-                }
-            }
+            evaluateCells(cra.getFirstRow() + 1, cra.getFirstColumn() + 1,
+                    cra.getLastRow() + 1, cra.getLastColumn() + 1);
         }
     }
 
@@ -0,0 +1,212 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registry of the CSS generated for cell styles, shared by all Spreadsheet
+ * instances. When many users open the same workbook, the CSS of its styles is
+ * generated once, and each Spreadsheet only refers to the registered CSS.
+ * <p>
+ * The CSS of the styles loaded from a workbook is registered by a fingerprint
+ * of the styles of the workbook. Other CSS strings are interned by a hash of
+ * their content. The entries are softly referenced, so that they can be
+ * reclaimed under memory pressure, and the least recently used ones are
+ * dropped when the registry is full.
+ *
+ * @author Vaadin Ltd.
+ */
+final class CssStyleRegistry {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    private static final int MAX_WORKBOOKS = 100;
+
+    private static final CssStyleRegistry SHARED = new CssStyleRegistry(
+            MAX_ENTRIES);
+
+    /**
+     * The CSS generated for the cell styles of a workbook when it was loaded.
+     * Immutable, so that it can be shared by the spreadsheets showing the same
+     * workbook.
+     */
+    static final class WorkbookStyles {
+        private final Map<Integer, String> styles;
+        private final Map<Integer, String> shiftedBorderTopStyles;
+        private final Map<Integer, String> shiftedBorderLeftStyles;
+
+        /**
+         * @param styles
+         *            CSS of the cell styles by cell style index
+         * @param shiftedBorderTopStyles
+         *            CSS of the top borders drawn by the cells above, by cell
+         *            style index
+         * @param shiftedBorderLeftStyles
+         *            CSS of the left borders drawn by the cells on the left,
+         *            by cell style index
+         */
+        WorkbookStyles(Map<Integer, String> styles,
+                Map<Integer, String> shiftedBorderTopStyles,
+                Map<Integer, String> shiftedBorderLeftStyles) {
+            this.styles = Collections.unmodifiableMap(new HashMap<>(styles));
+            this.shiftedBorderTopStyles = Collections
+                    .unmodifiableMap(new HashMap<>(shiftedBorderTopStyles));
+            this.shiftedBorderLeftStyles = Collections
+                    .unmodifiableMap(new HashMap<>(shiftedBorderLeftStyles));
+        }
+
+        Map<Integer, String> getStyles() {
+            return styles;
+        }
+
+        Map<Integer, String> getShiftedBorderTopStyles() {
+            return shiftedBorderTopStyles;
+        }
+
+        Map<Integer, String> getShiftedBorderLeftStyles() {
+            return shiftedBorderLeftStyles;
+        }
+    }
+
+    private final Map<Long, SoftReference<String>> styles;
+
+    private final Map<String, SoftReference<WorkbookStyles>> workbooks;
+
+    private final ToLongFunction<String> hashFunction;
+
+    /**
+     * @param maxEntries
+     *            Maximum number of styles to keep
+     */
+    CssStyleRegistry(int maxEntries) {
+        this(maxEntries, CssStyleRegistry::hash);
+    }
+
+    /**
+     * @param maxEntries
+     *            Maximum number of styles to keep
+     * @param hashFunction
+     *            Function computing the key of a style
+     */
+    @SuppressWarnings("serial")
+    CssStyleRegistry(int maxEntries, ToLongFunction<String> hashFunction) {
+        this.hashFunction = hashFunction;
+        styles = new LinkedHashMap<Long, SoftReference<String>>(16, 0.75f,
+                true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Long, SoftReference<String>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        workbooks = new LinkedHashMap<String, SoftReference<WorkbookStyles>>(
+                16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, SoftReference<WorkbookStyles>> eldest) {
+                return size() > MAX_WORKBOOKS;
+            }
+        };
+    }
+
+    /**
+     * @return the registry shared by all Spreadsheet instances
+     */
+    static CssStyleRegistry getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the registered instance of the given CSS, registering it if
+     * there is none.
+     *
+     * @param css
+     *            CSS of a style, may be <code>null</code>
+     * @return a string equal to the given CSS
+     */
+    synchronized String intern(String css) {
+        if (css == null) {
+            return null;
+        }
+        final Long hash = hashFunction.applyAsLong(css);
+        final SoftReference<String> reference = styles.get(hash);
+        final String registered = reference == null ? null : reference.get();
+        if (registered == null) {
+            styles.put(hash, new SoftReference<>(css));
+            return css;
+        }
+        // on a hash collision the registered style is kept
+        return registered.equals(css) ? registered : css;
+    }
+
+    /**
+     * Gets the CSS registered for the styles of a workbook.
+     *
+     * @param fingerprint
+     *            Fingerprint of the styles of the workbook
+     * @return the registered CSS, or <code>null</code> if there is none
+     */
+    synchronized WorkbookStyles getWorkbookStyles(String fingerprint) {
+        final SoftReference<WorkbookStyles> reference = workbooks
+                .get(fingerprint);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Registers the CSS generated for the styles of a workbook. The CSS
+     * strings are interned.
+     *
+     * @param fingerprint
+     *            Fingerprint of the styles of the workbook
+     * @param workbookStyles
+     *            CSS generated for the styles
+     * @return the registered CSS
+     */
+    synchronized WorkbookStyles putWorkbookStyles(String fingerprint,
+            WorkbookStyles workbookStyles) {
+        final WorkbookStyles registered = new WorkbookStyles(
+                internValues(workbookStyles.getStyles()),
+                internValues(workbookStyles.getShiftedBorderTopStyles()),
+                internValues(workbookStyles.getShiftedBorderLeftStyles()));
+        workbooks.put(fingerprint, new SoftReference<>(registered));
+        return registered;
+    }
+
+    private Map<Integer, String> internValues(Map<Integer, String> css) {
+        final Map<Integer, String> interned = new HashMap<>(css.size());
+        css.forEach((index, value) -> interned.put(index, intern(value)));
+        return interned;
+    }
+
+    /**
+     * @return the number of registered styles, including the ones that may
+     *         have been reclaimed
+     */
+    synchronized int size() {
+        return styles.size();
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of the given string.
+     */
+    private static long hash(String css) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < css.length(); i++) {
+            hash ^= css.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
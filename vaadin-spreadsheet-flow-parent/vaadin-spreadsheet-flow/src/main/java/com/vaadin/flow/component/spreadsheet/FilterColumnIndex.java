@@ -0,0 +1,177 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellRangeAddress;
+
+/**
+ * Index of the formatted cell values of one column of a filtering table, used
+ * by {@link ItemFilter}. Maps every distinct value to the rows that have it,
+ * so that the values and the rows matching them can be found without
+ * formatting the cells again.
+ * <p>
+ * The index is built when it is first needed. Rows are updated incrementally
+ * when {@link CellValueManager} reports updated cells through
+ * {@link SpreadsheetFilterTable}, including the formula cells depending on
+ * the changed cells. The whole index is rebuilt if updates have been missed,
+ * or if the column contains formulas and their dependencies can't be
+ * tracked, as any update may then change their values.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class FilterColumnIndex implements Serializable {
+
+    private final Spreadsheet spreadsheet;
+    private final int column;
+    private final int firstRow;
+    private final int lastRow;
+
+    /** Row indexes (0-based) of each distinct value */
+    private final Map<String, BitSet> rowsByValue = new HashMap<>();
+    /** Value of each row, by offset from the first row; null if not built */
+    private String[] rowValues;
+    private boolean hasFormulas;
+    /** Cell update count of the value manager the index is up to date with */
+    private int cellUpdateCount;
+
+    /**
+     * @param spreadsheet
+     *            Target Spreadsheet
+     * @param range
+     *            Rows of the column to index, only the first column is used
+     */
+    FilterColumnIndex(Spreadsheet spreadsheet, CellRangeAddress range) {
+        this.spreadsheet = spreadsheet;
+        column = range.getFirstColumn();
+        firstRow = range.getFirstRow();
+        lastRow = range.getLastRow();
+    }
+
+    /**
+     * @return all distinct values of the column
+     */
+    Set<String> getValues() {
+        ensureBuilt();
+        return new HashSet<>(rowsByValue.keySet());
+    }
+
+    /**
+     * @param rows
+     *            Row indexes, 0-based
+     * @return the distinct values of the given rows
+     */
+    Set<String> getValues(BitSet rows) {
+        ensureBuilt();
+        final Set<String> values = new HashSet<>();
+        rowsByValue.forEach((value, valueRows) -> {
+            if (valueRows.intersects(rows)) {
+                values.add(value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * @param values
+     *            Cell values
+     * @return the indexes (0-based) of the rows that have one of the given
+     *         values
+     */
+    BitSet getRows(Collection<String> values) {
+        ensureBuilt();
+        final BitSet rows = new BitSet();
+        for (String value : values) {
+            final BitSet valueRows = rowsByValue.get(value);
+            if (valueRows != null) {
+                rows.or(valueRows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Updates the values of the given cells. Called right after the cell
+     * update count of the value manager has been incremented.
+     *
+     * @param cells
+     *            Updated cells
+     * @param formulasIncluded
+     *            <code>true</code> if the cells include all formula cells
+     *            whose values may have changed
+     */
+    void cellsUpdated(CellKeySet cells, boolean formulasIncluded) {
+        if (rowValues == null) {
+            return;
+        }
+        final int currentCount = getCellValueManager().getCellUpdateCount();
+        if ((hasFormulas && !formulasIncluded)
+                || cellUpdateCount != currentCount - 1) {
+            rowValues = null;
+            return;
+        }
+        cells.forEach(key -> {
+            final int row = CellKeySet.getRow(key) - 1;
+            if (CellKeySet.getColumn(key) - 1 == column && row >= firstRow
+                    && row <= lastRow) {
+                updateRow(row);
+            }
+        });
+        cellUpdateCount = currentCount;
+    }
+
+    private void ensureBuilt() {
+        final int currentCount = getCellValueManager().getCellUpdateCount();
+        if (rowValues != null && cellUpdateCount == currentCount) {
+            return;
+        }
+        rowsByValue.clear();
+        rowValues = new String[lastRow - firstRow + 1];
+        hasFormulas = false;
+        for (int r = firstRow; r <= lastRow; r++) {
+            updateRow(r);
+        }
+        cellUpdateCount = currentCount;
+    }
+
+    private void updateRow(int row) {
+        final Cell cell = spreadsheet.getCell(row, column);
+        if (cell != null && cell.getCellType() == CellType.FORMULA) {
+            hasFormulas = true;
+        }
+        final String value = spreadsheet.getCellValue(cell);
+        final String oldValue = rowValues[row - firstRow];
+        if (value.equals(oldValue)) {
+            return;
+        }
+        if (oldValue != null) {
+            final BitSet oldRows = rowsByValue.get(oldValue);
+            oldRows.clear(row);
+            if (oldRows.isEmpty()) {
+                rowsByValue.remove(oldValue);
+            }
+        }
+        rowValues[row - firstRow] = value;
+        rowsByValue.computeIfAbsent(value, key -> new BitSet()).set(row);
+    }
+
+    private CellValueManager getCellValueManager() {
+        return spreadsheet.getCellValueManager();
+    }
+}
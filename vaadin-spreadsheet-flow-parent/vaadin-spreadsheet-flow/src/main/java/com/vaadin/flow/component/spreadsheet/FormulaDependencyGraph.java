@@ -0,0 +1,479 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.WorkbookEvaluatorProvider;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.ExternSheetReferenceToken;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.NameXPxg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * Precedent/dependent graph of the formula cells of the active sheet. Used by
+ * {@link CellValueManager} to find the formula cells that may have changed
+ * after an edit, so that only those are re-evaluated and sent to the client.
+ * <p>
+ * The graph is built lazily from the parsed formulas the first time it is
+ * needed, and kept up to date for the cells marked for update. Formulas whose
+ * precedents can't be tracked (volatile functions, named ranges, references to
+ * other sheets or workbooks) are considered to depend on every cell.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class FormulaDependencyGraph implements Serializable {
+
+    /**
+     * Area references spanning more columns than this are not indexed by
+     * column
+     */
+    private static final int MAX_INDEXED_AREA_WIDTH = 64;
+
+    private static final Set<String> VOLATILE_FUNCTIONS = new HashSet<>(
+            Arrays.asList("NOW", "TODAY", "RAND", "RANDBETWEEN", "OFFSET",
+                    "INDIRECT", "CELL", "INFO"));
+
+    /**
+     * An area referenced by a formula cell. Row and column indexes are
+     * 1-based.
+     */
+    private static class AreaDependency implements Serializable {
+        private final int firstRow;
+        private final int lastRow;
+        private final int firstColumn;
+        private final int lastColumn;
+        private final long dependent;
+
+        private AreaDependency(AreaPtgBase area, long dependent) {
+            firstRow = area.getFirstRow() + 1;
+            lastRow = area.getLastRow() + 1;
+            firstColumn = area.getFirstColumn() + 1;
+            lastColumn = area.getLastColumn() + 1;
+            this.dependent = dependent;
+        }
+
+        private boolean contains(int column, int row) {
+            return row >= firstRow && row <= lastRow && column >= firstColumn
+                    && column <= lastColumn;
+        }
+
+        private boolean isIndexed() {
+            return lastColumn - firstColumn < MAX_INDEXED_AREA_WIDTH;
+        }
+    }
+
+    /**
+     * The references of a single formula cell.
+     */
+    private static class Precedents implements Serializable {
+        private final CellKeySet cells = new CellKeySet();
+        private final List<AreaDependency> areas = new ArrayList<>();
+    }
+
+    private final Spreadsheet spreadsheet;
+
+    private boolean built;
+    private boolean supported;
+
+    /** Dependent formula cells of single cell references */
+    private final Map<Long, CellKeySet> cellDependents = new HashMap<>();
+    /** Area references, indexed by each column they span */
+    private final Map<Integer, List<AreaDependency>> areaDependents = new HashMap<>();
+    /** Area references that span too many columns to be indexed */
+    private final List<AreaDependency> wideAreaDependents = new ArrayList<>();
+    /** References of each formula cell */
+    private final Map<Long, Precedents> precedents = new HashMap<>();
+    /** Formula cells that are re-evaluated after any change */
+    private final CellKeySet volatileCells = new CellKeySet();
+
+    /**
+     * Creates a new dependency graph for the active sheet of the given
+     * Spreadsheet.
+     *
+     * @param spreadsheet
+     *            Target Spreadsheet
+     */
+    FormulaDependencyGraph(Spreadsheet spreadsheet) {
+        this.spreadsheet = spreadsheet;
+    }
+
+    /**
+     * Discards the graph. It is rebuilt when it is needed the next time. Must
+     * be called whenever the active sheet or its structure changes.
+     */
+    void clear() {
+        built = false;
+        cellDependents.clear();
+        areaDependents.clear();
+        wideAreaDependents.clear();
+        precedents.clear();
+        volatileCells.clear();
+    }
+
+    /**
+     * Updates the references of the cell at the given coordinates, after its
+     * contents have changed.
+     *
+     * @param col
+     *            Column index of target cell, 1-based
+     * @param row
+     *            Row index of target cell, 1-based
+     */
+    void cellChanged(int col, int row) {
+        if (!built || !supported) {
+            return;
+        }
+        final long key = CellKeySet.key(col, row);
+        removeFormulaCell(key);
+        final Row r = spreadsheet.getActiveSheet().getRow(row - 1);
+        final Cell cell = r == null ? null : r.getCell(col - 1);
+        if (cell != null && cell.getCellType() == CellType.FORMULA) {
+            addFormulaCell(cell, getParsingWorkbook());
+        }
+    }
+
+    /**
+     * Gets all formula cells that depend on any of the given cells, directly
+     * or transitively, together with all volatile formula cells. The cells are
+     * ordered so that each cell comes after the cells it depends on.
+     *
+     * @param changedCells
+     *            The changed cells
+     * @return the keys of the dependent formula cells in evaluation order, or
+     *         <code>null</code> if the dependencies can't be tracked for the
+     *         current workbook
+     */
+    long[] getDependentsInEvaluationOrder(CellKeySet changedCells) {
+        build();
+        if (!supported) {
+            return null;
+        }
+        final Deque<Long> stack = new ArrayDeque<>();
+        volatileCells.forEach(stack::push);
+        changedCells.forEach(key -> forEachDependent(key, stack::push));
+
+        // iterative depth first search, the reverse post-order of which is a
+        // topological order. Exit markers are pushed as complements of the
+        // keys, which are always positive.
+        final CellKeySet visited = new CellKeySet();
+        long[] order = new long[16];
+        int count = 0;
+        while (!stack.isEmpty()) {
+            final long key = stack.pop();
+            if (key < 0) {
+                if (count == order.length) {
+                    order = Arrays.copyOf(order, count * 2);
+                }
+                order[count++] = ~key;
+            } else if (visited.add(key)) {
+                stack.push(~key);
+                forEachDependent(key, dependent -> {
+                    if (!visited.contains(dependent)) {
+                        stack.push(dependent);
+                    }
+                });
+            }
+        }
+        final long[] result = new long[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = order[count - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * Splits the tracked formula cells into groups that don't reference each
+     * other, so that each group can be evaluated independently. Volatile
+     * formula cells and the cells depending on them are not included, they
+     * are returned by {@link #getDependentsInEvaluationOrder(CellKeySet)}
+     * when called with an empty set.
+     *
+     * @return the groups of formula cell keys, or <code>null</code> if the
+     *         dependencies can't be tracked for the current workbook
+     */
+    List<long[]> getIndependentGroups() {
+        final long[] sequential = getDependentsInEvaluationOrder(
+                new CellKeySet());
+        if (sequential == null) {
+            return null;
+        }
+        final CellKeySet excluded = new CellKeySet();
+        for (long key : sequential) {
+            excluded.add(key);
+        }
+        final Map<Long, Integer> indexes = new HashMap<>();
+        final List<Long> keys = new ArrayList<>();
+        // formula cell rows by column, for finding the ones within areas
+        final Map<Integer, List<Integer>> rowsByColumn = new HashMap<>();
+        for (Long key : precedents.keySet()) {
+            if (!excluded.contains(key)) {
+                indexes.put(key, keys.size());
+                keys.add(key);
+                rowsByColumn.computeIfAbsent(CellKeySet.getColumn(key),
+                        k -> new ArrayList<>()).add(CellKeySet.getRow(key));
+            }
+        }
+        rowsByColumn.values().forEach(rows -> rows.sort(null));
+
+        final int[] parents = new int[keys.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int i = 0; i < parents.length; i++) {
+            final int index = i;
+            final Precedents cellPrecedents = precedents.get(keys.get(i));
+            cellPrecedents.cells.forEach(precedent -> {
+                final Integer other = indexes.get(precedent);
+                if (other != null) {
+                    union(parents, index, other);
+                }
+            });
+            for (AreaDependency area : cellPrecedents.areas) {
+                if (area.isIndexed()) {
+                    for (int c = area.firstColumn; c <= area.lastColumn; c++) {
+                        unionRowsInArea(parents, index, area, c,
+                                rowsByColumn.get(c), indexes);
+                    }
+                } else {
+                    rowsByColumn.forEach((c, rows) -> unionRowsInArea(parents,
+                            index, area, c, rows, indexes));
+                }
+            }
+        }
+
+        final Map<Integer, CellKeySet> groups = new HashMap<>();
+        for (int i = 0; i < parents.length; i++) {
+            groups.computeIfAbsent(find(parents, i), k -> new CellKeySet())
+                    .add(keys.get(i));
+        }
+        final List<long[]> result = new ArrayList<>(groups.size());
+        for (CellKeySet group : groups.values()) {
+            final long[] groupKeys = new long[group.size()];
+            final int[] count = new int[1];
+            group.forEach(key -> groupKeys[count[0]++] = key);
+            result.add(groupKeys);
+        }
+        return result;
+    }
+
+    /**
+     * Joins the group of the given cell with the groups of the formula cells
+     * on the given rows of a column, if they are within the given area.
+     */
+    private static void unionRowsInArea(int[] parents, int index,
+            AreaDependency area, int column, List<Integer> rows,
+            Map<Long, Integer> indexes) {
+        if (rows == null || column < area.firstColumn
+                || column > area.lastColumn) {
+            return;
+        }
+        int r = Collections.binarySearch(rows, area.firstRow);
+        for (r = r < 0 ? -r - 1 : r; r < rows.size()
+                && rows.get(r) <= area.lastRow; r++) {
+            union(parents, index,
+                    indexes.get(CellKeySet.key(column, rows.get(r))));
+        }
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            // path halving
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private static void union(int[] parents, int a, int b) {
+        final int rootA = find(parents, a);
+        final int rootB = find(parents, b);
+        if (rootA != rootB) {
+            parents[rootA] = rootB;
+        }
+    }
+
+    private void forEachDependent(long key, LongConsumer action) {
+        final CellKeySet dependents = cellDependents.get(key);
+        if (dependents != null) {
+            dependents.forEach(action);
+        }
+        final int col = CellKeySet.getColumn(key);
+        final int row = CellKeySet.getRow(key);
+        final List<AreaDependency> areas = areaDependents.get(col);
+        if (areas != null) {
+            for (AreaDependency area : areas) {
+                if (area.contains(col, row)) {
+                    action.accept(area.dependent);
+                }
+            }
+        }
+        for (AreaDependency area : wideAreaDependents) {
+            if (area.contains(col, row)) {
+                action.accept(area.dependent);
+            }
+        }
+    }
+
+    private void build() {
+        if (built) {
+            return;
+        }
+        built = true;
+        final FormulaParsingWorkbook parsingWorkbook = getParsingWorkbook();
+        supported = parsingWorkbook != null;
+        if (!supported) {
+            return;
+        }
+        for (Row row : spreadsheet.getActiveSheet()) {
+            for (Cell cell : row) {
+                if (cell.getCellType() == CellType.FORMULA) {
+                    addFormulaCell(cell, parsingWorkbook);
+                }
+            }
+        }
+    }
+
+    private FormulaParsingWorkbook getParsingWorkbook() {
+        if (!(spreadsheet
+                .getFormulaEvaluator() instanceof WorkbookEvaluatorProvider)) {
+            return null;
+        }
+        final EvaluationWorkbook evaluationWorkbook = ((WorkbookEvaluatorProvider) spreadsheet
+                .getFormulaEvaluator())._getWorkbookEvaluator().getWorkbook();
+        if (evaluationWorkbook instanceof FormulaParsingWorkbook) {
+            return (FormulaParsingWorkbook) evaluationWorkbook;
+        }
+        return null;
+    }
+
+    private void addFormulaCell(Cell cell, FormulaParsingWorkbook workbook) {
+        final long key = CellKeySet.key(cell.getColumnIndex() + 1,
+                cell.getRowIndex() + 1);
+        final Sheet sheet = cell.getSheet();
+        final Workbook poiWorkbook = sheet.getWorkbook();
+        final Ptg[] ptgs;
+        try {
+            ptgs = FormulaParser.parse(cell.getCellFormula(), workbook,
+                    FormulaType.CELL, poiWorkbook.getSheetIndex(sheet),
+                    cell.getRowIndex());
+        } catch (RuntimeException e) {
+            // can't tell what the formula refers to
+            volatileCells.add(key);
+            return;
+        }
+        final Precedents cellPrecedents = new Precedents();
+        for (Ptg ptg : ptgs) {
+            if (isUntracked(ptg, sheet.getSheetName())) {
+                volatileCells.add(key);
+                return;
+            }
+            if (ptg instanceof RefPtgBase) {
+                final RefPtgBase ref = (RefPtgBase) ptg;
+                cellPrecedents.cells.add(ref.getColumn() + 1, ref.getRow() + 1);
+            } else if (ptg instanceof AreaPtgBase) {
+                cellPrecedents.areas
+                        .add(new AreaDependency((AreaPtgBase) ptg, key));
+            }
+        }
+        precedents.put(key, cellPrecedents);
+        cellPrecedents.cells.forEach(precedent -> cellDependents
+                .computeIfAbsent(precedent, k -> new CellKeySet()).add(key));
+        for (AreaDependency area : cellPrecedents.areas) {
+            if (area.isIndexed()) {
+                for (int c = area.firstColumn; c <= area.lastColumn; c++) {
+                    areaDependents.computeIfAbsent(c, k -> new ArrayList<>())
+                            .add(area);
+                }
+            } else {
+                wideAreaDependents.add(area);
+            }
+        }
+    }
+
+    private void removeFormulaCell(long key) {
+        volatileCells.remove(key);
+        final Precedents cellPrecedents = precedents.remove(key);
+        if (cellPrecedents == null) {
+            return;
+        }
+        cellPrecedents.cells.forEach(precedent -> {
+            final CellKeySet dependents = cellDependents.get(precedent);
+            if (dependents != null && dependents.remove(key)
+                    && dependents.isEmpty()) {
+                cellDependents.remove(precedent);
+            }
+        });
+        for (AreaDependency area : cellPrecedents.areas) {
+            if (area.isIndexed()) {
+                for (int c = area.firstColumn; c <= area.lastColumn; c++) {
+                    final List<AreaDependency> areas = areaDependents.get(c);
+                    areas.remove(area);
+                    if (areas.isEmpty()) {
+                        areaDependents.remove(c);
+                    }
+                }
+            } else {
+                wideAreaDependents.remove(area);
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the given token makes it impossible to
+     *         track the precedents of a formula on the given sheet
+     */
+    static boolean isUntracked(Ptg ptg, String sheetName) {
+        if (ptg instanceof AbstractFunctionPtg) {
+            return VOLATILE_FUNCTIONS
+                    .contains(((AbstractFunctionPtg) ptg).getName());
+        }
+        if (ptg instanceof NamePtg || ptg instanceof NameXPtg
+                || ptg instanceof NameXPxg
+                || ptg instanceof ExternSheetReferenceToken) {
+            return true;
+        }
+        if (ptg instanceof Pxg) {
+            // reference qualified with a sheet name
+            final Pxg pxg = (Pxg) ptg;
+            return pxg.getExternalWorkbookNumber() > 0
+                    || !sheetName.equalsIgnoreCase(pxg.getSheetName())
+                    || (pxg instanceof Pxg3D
+                            && ((Pxg3D) pxg).getLastSheetName() != null);
+        }
+        return false;
+    }
+}
@@ -8,7 +8,10 @@
  */
 package com.vaadin.flow.component.spreadsheet;
 
+import java.io.Serializable;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -16,6 +19,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import com.vaadin.flow.component.checkbox.CheckboxGroupVariant;
@@ -36,6 +40,14 @@ import com.vaadin.flow.data.provider.ListDataProvider;
  * <p>
  * Has a check box for selecting all items (cell values), and one check box per
  * unique cell value that can be found within the cells of the table column.
+ * <p>
+ * The formatted cell values of the column are kept in an index that maps each
+ * value to its rows, so that the cells are not formatted again whenever the
+ * pop-up is opened or the filter is changed. The index is updated when cells
+ * are changed through the Spreadsheet, or refreshed with
+ * {@link Spreadsheet#refreshCells(org.apache.poi.ss.usermodel.Cell...)} or
+ * {@link Spreadsheet#refreshAllCellValues()}. Changes made directly to the
+ * POI cells are not seen by the filter until the cells are refreshed.
  */
 @SuppressWarnings("serial")
 public class ItemFilter extends Div implements SpreadsheetFilter {
@@ -53,6 +65,8 @@ public class ItemFilter extends Div implements SpreadsheetFilter {
     private boolean firstUpdate = true;
     private boolean cancelValueChangeUpdate;
     private SpreadsheetFilterTable filterTable;
+    private FilterColumnIndex index;
+    private BitSet filteredRowBits;
     private Set<Integer> filteredRows;
 
     /**
@@ -76,7 +90,9 @@ public class ItemFilter extends Div implements SpreadsheetFilter {
         this.filterTable = filterTable;
 
         allCellValues = new ArrayList<>();
-        filteredRows = new HashSet<>();
+        index = new FilterColumnIndex(spreadsheet, filterRange);
+        filteredRowBits = new BitSet();
+        filteredRows = new RowSet(filteredRowBits);
         latestFilteredValues = new LinkedHashSet<>();
         initComponents();
         updateOptions();
@@ -252,15 +268,14 @@ public class ItemFilter extends Div implements SpreadsheetFilter {
      *         column
      */
     protected Set<String> getVisibleValues() {
-        Set<String> values = new HashSet<>();
+        BitSet visibleRows = new BitSet();
         for (int r = filterRange.getFirstRow(); r <= filterRange
                 .getLastRow(); r++) {
-            if (!filteredRows.contains(r) && !spreadsheet.isRowHidden(r)) {
-                values.add(spreadsheet.getCellValue(
-                        spreadsheet.getCell(r, filterRange.getFirstColumn())));
+            if (!filteredRowBits.get(r) && !spreadsheet.isRowHidden(r)) {
+                visibleRows.set(r);
             }
         }
-        return values;
+        return index.getValues(visibleRows);
     }
 
     /**
@@ -269,13 +284,7 @@ public class ItemFilter extends Div implements SpreadsheetFilter {
      * @return All unique values within this column
      */
     protected Set<String> getAllValues() {
-        Set<String> values = new HashSet<>();
-        for (int r = filterRange.getFirstRow(); r <= filterRange
-                .getLastRow(); r++) {
-            values.add(spreadsheet.getCellValue(
-                    spreadsheet.getCell(r, filterRange.getFirstColumn())));
-        }
-        return values;
+        return index.getValues();
     }
 
     /**
@@ -285,23 +294,43 @@ public class ItemFilter extends Div implements SpreadsheetFilter {
      *            the values that are NOT filtered
      */
     protected void updateFilteredItems(Collection<String> visibleValues) {
-        filteredRows.clear();
-        for (int r = filterRange.getFirstRow(); r <= filterRange
-                .getLastRow(); r++) {
-            String cellValue = spreadsheet.getCellValue(
-                    spreadsheet.getCell(r, filterRange.getFirstColumn()));
-            if (!visibleValues.contains(cellValue)) {
-                filteredRows.add(r);
-            }
-        }
+        filteredRowBits.clear();
+        filteredRowBits.set(filterRange.getFirstRow(),
+                filterRange.getLastRow() + 1);
+        filteredRowBits.andNot(index.getRows(visibleValues));
         latestFilteredValues = new ArrayList<>(visibleValues);
 
         filterTable.onFiltersUpdated();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned set is a copy, changing it doesn't affect the filter.
+     */
     @Override
     public Set<Integer> getFilteredRows() {
-        return filteredRows;
+        return new HashSet<>(filteredRows);
+    }
+
+    /**
+     * @return the indexes of the filtered rows, 0-based
+     */
+    BitSet getFilteredRowBits() {
+        return filteredRowBits;
+    }
+
+    /**
+     * Updates the value index for the given updated cells.
+     *
+     * @param cells
+     *            Updated cells of the active sheet
+     * @param formulasIncluded
+     *            <code>true</code> if the cells include all formula cells
+     *            whose values may have changed
+     */
+    void cellsUpdated(CellKeySet cells, boolean formulasIncluded) {
+        index.cellsUpdated(cells, formulasIncluded);
     }
 
     @Override
@@ -309,7 +338,52 @@ public class ItemFilter extends Div implements SpreadsheetFilter {
         cancelValueChangeUpdate = true;
         allItems.setValue(true);
         filterCheckbox.setValue(new HashSet<>(allCellValues));
-        filteredRows.clear();
+        filteredRowBits.clear();
         cancelValueChangeUpdate = false;
     }
+
+    /**
+     * Read-only set view of the filtered row bits.
+     */
+    private static class RowSet extends AbstractSet<Integer>
+            implements Serializable {
+        private final BitSet rows;
+
+        private RowSet(BitSet rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer && (Integer) o >= 0
+                    && rows.get((Integer) o);
+        }
+
+        @Override
+        public int size() {
+            return rows.cardinality();
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int next = rows.nextSetBit(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public Integer next() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int current = next;
+                    next = rows.nextSetBit(current + 1);
+                    return current;
+                }
+            };
+        }
+    }
 }
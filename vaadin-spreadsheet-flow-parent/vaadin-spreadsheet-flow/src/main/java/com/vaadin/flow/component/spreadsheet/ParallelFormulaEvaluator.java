@@ -0,0 +1,212 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.CellValue;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates all formula cells of the active sheet using multiple threads. The
+ * formula cells are split into groups that don't reference each other with
+ * {@link FormulaDependencyGraph#getIndependentGroups()}, and the groups are
+ * evaluated in a {@link ForkJoinPool}.
+ * <p>
+ * POI formula evaluators are not thread-safe, so every task uses an evaluator
+ * of its own and only reads the workbook. The results are written to the
+ * cached formula results of the cells on the calling thread. Volatile formula
+ * cells and the cells depending on them are evaluated sequentially with the
+ * common evaluator of the Spreadsheet after the parallel evaluation.
+ * <p>
+ * XMLBeans synchronizes access to the documents of an XSSF workbook, so the
+ * tasks contend on reading the shared cells and the speedup is limited to the
+ * time spent computing the formulas.
+ *
+ * @author Vaadin Ltd.
+ */
+class ParallelFormulaEvaluator {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ParallelFormulaEvaluator.class);
+
+    /** Groups are not split further once they have fewer cells than this */
+    private static final int MIN_CELLS_PER_TASK = 512;
+
+    private final Spreadsheet spreadsheet;
+    private final Sheet sheet;
+    private final List<long[]> groups;
+    private final CellValue[][] results;
+
+    private ParallelFormulaEvaluator(Spreadsheet spreadsheet,
+            List<long[]> groups) {
+        this.spreadsheet = spreadsheet;
+        sheet = spreadsheet.getActiveSheet();
+        this.groups = groups;
+        results = new CellValue[groups.size()][];
+    }
+
+    /**
+     * Evaluates all formula cells of the active sheet and stores the results
+     * as the cached formula results of the cells.
+     *
+     * @param spreadsheet
+     *            Target Spreadsheet
+     * @param dependencies
+     *            Dependency graph of the active sheet
+     * @param parallelism
+     *            Number of threads to use
+     * @return the keys of the formula cells that have been evaluated, or
+     *         <code>null</code> if the dependencies of the workbook can't be
+     *         tracked and the cells have to be evaluated sequentially
+     */
+    static CellKeySet evaluateActiveSheet(Spreadsheet spreadsheet,
+            FormulaDependencyGraph dependencies, int parallelism) {
+        final List<long[]> groups = dependencies.getIndependentGroups();
+        if (groups == null) {
+            return null;
+        }
+        final ParallelFormulaEvaluator evaluator = new ParallelFormulaEvaluator(
+                spreadsheet, groups);
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(evaluator.new EvaluationTask(0, groups.size()));
+        } finally {
+            pool.shutdown();
+        }
+
+        final CellKeySet evaluated = new CellKeySet();
+        evaluator.storeResults(evaluated);
+        evaluator.evaluateSequentially(
+                dependencies.getDependentsInEvaluationOrder(new CellKeySet()),
+                evaluated);
+        return evaluated;
+    }
+
+    /**
+     * Evaluates a range of groups, splitting it in half while there is enough
+     * work for more than one task.
+     */
+    @SuppressWarnings("serial")
+    private class EvaluationTask extends RecursiveAction {
+        private final int firstGroup;
+        private final int endGroup;
+
+        private EvaluationTask(int firstGroup, int endGroup) {
+            this.firstGroup = firstGroup;
+            this.endGroup = endGroup;
+        }
+
+        @Override
+        protected void compute() {
+            int cells = 0;
+            for (int i = firstGroup; i < endGroup; i++) {
+                cells += groups.get(i).length;
+            }
+            if (endGroup - firstGroup > 1 && cells > MIN_CELLS_PER_TASK) {
+                final int middle = (firstGroup + endGroup) >>> 1;
+                invokeAll(new EvaluationTask(firstGroup, middle),
+                        new EvaluationTask(middle, endGroup));
+            } else {
+                evaluateGroups(firstGroup, endGroup);
+            }
+        }
+    }
+
+    private void evaluateGroups(int firstGroup, int endGroup) {
+        final Workbook workbook = sheet.getWorkbook();
+        // evaluators are not thread-safe, use one per task
+        final FormulaEvaluator evaluator = workbook.getCreationHelper()
+                .createFormulaEvaluator();
+        for (int i = firstGroup; i < endGroup; i++) {
+            final long[] keys = groups.get(i);
+            final CellValue[] values = new CellValue[keys.length];
+            for (int j = 0; j < keys.length; j++) {
+                final Cell cell = getCell(keys[j]);
+                if (cell != null && cell.getCellType() == CellType.FORMULA) {
+                    try {
+                        values[j] = evaluator.evaluate(cell);
+                    } catch (RuntimeException e) {
+                        // invalid formulas are handled when the cell is
+                        // evaluated on the request thread
+                        LOGGER.trace(e.getMessage(), e);
+                    }
+                }
+            }
+            results[i] = values;
+        }
+    }
+
+    private void storeResults(CellKeySet evaluated) {
+        for (int i = 0; i < results.length; i++) {
+            final long[] keys = groups.get(i);
+            for (int j = 0; j < keys.length; j++) {
+                final CellValue value = results[i][j];
+                final Cell cell = getCell(keys[j]);
+                if (value != null && cell != null && storeResult(cell, value)) {
+                    evaluated.add(keys[j]);
+                }
+            }
+        }
+    }
+
+    private void evaluateSequentially(long[] keys, CellKeySet evaluated) {
+        final FormulaEvaluator evaluator = spreadsheet.getFormulaEvaluator();
+        for (long key : keys) {
+            final Cell cell = getCell(key);
+            if (cell != null && cell.getCellType() == CellType.FORMULA) {
+                try {
+                    evaluator.evaluateFormulaCell(cell);
+                    evaluated.add(key);
+                } catch (RuntimeException e) {
+                    LOGGER.trace(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the given value as the cached formula result of the given cell.
+     *
+     * @return <code>true</code> if the value was stored
+     */
+    private static boolean storeResult(Cell cell, CellValue value) {
+        // setting the value of a formula cell only updates the cached result
+        switch (value.getCellType()) {
+        case NUMERIC:
+            cell.setCellValue(value.getNumberValue());
+            return true;
+        case STRING:
+            cell.setCellValue(value.getStringValue());
+            return true;
+        case BOOLEAN:
+            cell.setCellValue(value.getBooleanValue());
+            return true;
+        case ERROR:
+            cell.setCellErrorValue(value.getErrorValue());
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private Cell getCell(long key) {
+        final Row row = sheet.getRow(CellKeySet.getRow(key) - 1);
+        return row == null ? null : row.getCell(CellKeySet.getColumn(key) - 1);
+    }
+}
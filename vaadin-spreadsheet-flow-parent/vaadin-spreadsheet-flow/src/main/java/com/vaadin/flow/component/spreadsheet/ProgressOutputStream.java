@@ -0,0 +1,70 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.WriteProgressListener;
+
+/**
+ * Output stream that counts the bytes passed through it and reports them to a
+ * {@link WriteProgressListener} every {@value #REPORT_INTERVAL} bytes.
+ *
+ * @author Vaadin Ltd.
+ */
+class ProgressOutputStream extends FilterOutputStream {
+
+    private static final int REPORT_INTERVAL = 64 * 1024;
+
+    private final WriteProgressListener listener;
+
+    private long bytesWritten;
+    private long nextReport = REPORT_INTERVAL;
+
+    /**
+     * @param out
+     *            Target stream
+     * @param listener
+     *            Listener to report the progress to
+     */
+    ProgressOutputStream(OutputStream out, WriteProgressListener listener) {
+        super(out);
+        this.listener = listener;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        written(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // FilterOutputStream would write the array one byte at a time
+        out.write(b, off, len);
+        written(len);
+    }
+
+    /**
+     * Notifies the listener that writing has completed.
+     */
+    void complete() {
+        listener.onComplete(bytesWritten);
+    }
+
+    private void written(int len) {
+        bytesWritten += len;
+        if (bytesWritten >= nextReport) {
+            listener.onProgress(bytesWritten);
+            nextReport = bytesWritten + REPORT_INTERVAL;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable spatial index of items that cover a rectangular area of a sheet,
+ * such as merged regions and overlays. Finds the items intersecting a given
+ * area in logarithmic time instead of going through all of them.
+ * <p>
+ * The index is a packed R-tree built with the Sort-Tile-Recursive algorithm:
+ * the items are sorted into tiles of neighbouring items, and every level of
+ * the tree stores the bounds of groups of {@value #NODE_SIZE} entries of the
+ * level below. The index is rebuilt when the items change.
+ *
+ * @param <T>
+ *            the item type
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class RectangleIndex<T> implements Serializable {
+
+    /**
+     * Gives the area covered by an item.
+     *
+     * @param <T>
+     *            the item type
+     */
+    @FunctionalInterface
+    interface BoundsProvider<T> {
+        /**
+         * @param item
+         *            Indexed item
+         * @return the inclusive bounds of the item as
+         *         <code>{row1, col1, row2, col2}</code>
+         */
+        int[] getBounds(T item);
+    }
+
+    private static final int NODE_SIZE = 16;
+
+    /** Items in the order of the bottom level of the tree */
+    private final Object[] items;
+
+    /**
+     * Bounds of the entries on each level of the tree, four values per entry.
+     * Level 0 holds the bounds of the items.
+     */
+    private final int[][] levels;
+
+    /**
+     * Builds an index of the given items.
+     *
+     * @param items
+     *            Items to index
+     * @param boundsProvider
+     *            Gives the area covered by each item
+     */
+    RectangleIndex(Collection<? extends T> items,
+            BoundsProvider<? super T> boundsProvider) {
+        final int count = items.size();
+        final List<Entry> entries = new ArrayList<>(count);
+        for (T item : items) {
+            entries.add(new Entry(item, boundsProvider.getBounds(item)));
+        }
+        sortIntoTiles(entries);
+
+        this.items = new Object[count];
+        final int[] itemBounds = new int[count * 4];
+        for (int i = 0; i < count; i++) {
+            final Entry entry = entries.get(i);
+            this.items[i] = entry.item;
+            System.arraycopy(entry.bounds, 0, itemBounds, i * 4, 4);
+        }
+        final List<int[]> levelList = new ArrayList<>();
+        levelList.add(itemBounds);
+        int[] level = itemBounds;
+        while (level.length / 4 > NODE_SIZE) {
+            level = createParentLevel(level);
+            levelList.add(level);
+        }
+        levels = levelList.toArray(new int[levelList.size()][]);
+    }
+
+    /**
+     * @return the number of indexed items
+     */
+    int size() {
+        return items.length;
+    }
+
+    /**
+     * Finds the items intersecting the given area.
+     *
+     * @param row1
+     *            First row of the area
+     * @param col1
+     *            First column of the area
+     * @param row2
+     *            Last row of the area
+     * @param col2
+     *            Last column of the area
+     * @return the intersecting items, in no particular order
+     */
+    List<T> findIntersecting(int row1, int col1, int row2, int col2) {
+        final List<T> result = new ArrayList<>();
+        final int top = levels.length - 1;
+        for (int i = 0; i < levels[top].length / 4; i++) {
+            search(top, i, row1, col1, row2, col2, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds an item covering the given cell.
+     *
+     * @param row
+     *            Row of the cell
+     * @param col
+     *            Column of the cell
+     * @return an item covering the cell, or <code>null</code> if there is
+     *         none
+     */
+    T findAt(int row, int col) {
+        final List<T> result = findIntersecting(row, col, row, col);
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void search(int level, int index, int row1, int col1, int row2,
+            int col2, List<T> result) {
+        if (!intersects(levels[level], index, row1, col1, row2, col2)) {
+            return;
+        }
+        if (level == 0) {
+            result.add((T) items[index]);
+            return;
+        }
+        final int childCount = levels[level - 1].length / 4;
+        final int end = Math.min((index + 1) * NODE_SIZE, childCount);
+        for (int child = index * NODE_SIZE; child < end; child++) {
+            search(level - 1, child, row1, col1, row2, col2, result);
+        }
+    }
+
+    private static boolean intersects(int[] bounds, int index, int row1,
+            int col1, int row2, int col2) {
+        final int i = index * 4;
+        return bounds[i] <= row2 && bounds[i + 2] >= row1
+                && bounds[i + 1] <= col2 && bounds[i + 3] >= col1;
+    }
+
+    private static int[] createParentLevel(int[] level) {
+        final int count = level.length / 4;
+        final int parentCount = (count + NODE_SIZE - 1) / NODE_SIZE;
+        final int[] parent = new int[parentCount * 4];
+        for (int p = 0; p < parentCount; p++) {
+            final int start = p * NODE_SIZE;
+            final int end = Math.min(start + NODE_SIZE, count);
+            parent[p * 4] = Integer.MAX_VALUE;
+            parent[p * 4 + 1] = Integer.MAX_VALUE;
+            parent[p * 4 + 2] = Integer.MIN_VALUE;
+            parent[p * 4 + 3] = Integer.MIN_VALUE;
+            for (int c = start; c < end; c++) {
+                parent[p * 4] = Math.min(parent[p * 4], level[c * 4]);
+                parent[p * 4 + 1] = Math.min(parent[p * 4 + 1],
+                        level[c * 4 + 1]);
+                parent[p * 4 + 2] = Math.max(parent[p * 4 + 2],
+                        level[c * 4 + 2]);
+                parent[p * 4 + 3] = Math.max(parent[p * 4 + 3],
+                        level[c * 4 + 3]);
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Sorts the entries by row into vertical slices, and each slice by
+     * column, so that consecutive groups of entries cover compact areas.
+     */
+    private static void sortIntoTiles(List<Entry> entries) {
+        final int count = entries.size();
+        if (count <= NODE_SIZE) {
+            return;
+        }
+        entries.sort(Comparator.comparingLong(Entry::rowCenter));
+        final int leafCount = (count + NODE_SIZE - 1) / NODE_SIZE;
+        final int sliceCount = (int) Math.ceil(Math.sqrt(leafCount));
+        final int sliceSize = NODE_SIZE
+                * ((leafCount + sliceCount - 1) / sliceCount);
+        for (int start = 0; start < count; start += sliceSize) {
+            entries.subList(start, Math.min(start + sliceSize, count))
+                    .sort(Comparator.comparingLong(Entry::columnCenter));
+        }
+    }
+
+    private static class Entry {
+        private final Object item;
+        private final int[] bounds;
+
+        private Entry(Object item, int[] bounds) {
+            this.item = item;
+            this.bounds = Arrays.copyOf(bounds, 4);
+        }
+
+        private long rowCenter() {
+            return (long) bounds[0] + bounds[2];
+        }
+
+        private long columnCenter() {
+            return (long) bounds[1] + bounds[3];
+        }
+    }
+}
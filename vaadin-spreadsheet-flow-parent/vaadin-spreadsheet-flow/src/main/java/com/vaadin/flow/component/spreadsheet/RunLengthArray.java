@@ -0,0 +1,276 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Array of numbers stored as runs of equal values, used for the row heights
+ * and column widths of a sheet. Most rows of a sheet have the default height,
+ * so the memory used, and the size of the value sent to the client side,
+ * depends on the number of rows that differ from their neighbours instead of
+ * the number of rows in the sheet.
+ * <p>
+ * The client side receives the array in the format of {@link #encode()}.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class RunLengthArray implements Serializable {
+
+    /** Exclusive end index of each run, in ascending order */
+    private int[] ends;
+    /** Value of each run */
+    private float[] values;
+    private int runCount;
+
+    /**
+     * Creates an empty array.
+     */
+    RunLengthArray() {
+        ends = new int[4];
+        values = new float[4];
+    }
+
+    /**
+     * Creates an array with all items having the same value.
+     *
+     * @param length
+     *            Number of items
+     * @param value
+     *            Value of the items
+     */
+    RunLengthArray(int length, float value) {
+        this();
+        append(length, value);
+    }
+
+    /**
+     * Creates a copy of the given array.
+     *
+     * @param other
+     *            the array to copy
+     */
+    RunLengthArray(RunLengthArray other) {
+        ends = Arrays.copyOf(other.ends, Math.max(4, other.runCount));
+        values = Arrays.copyOf(other.values, ends.length);
+        runCount = other.runCount;
+    }
+
+    /**
+     * @return the number of items
+     */
+    int length() {
+        return runCount == 0 ? 0 : ends[runCount - 1];
+    }
+
+    /**
+     * @param index
+     *            Index of the item, 0-based
+     * @return the value of the item
+     * @throws IndexOutOfBoundsException
+     *             if the index is not within the array
+     */
+    float get(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException(
+                    "Index " + index + " is out of bounds for length "
+                            + length() + ".");
+        }
+        return values[findRun(index)];
+    }
+
+    /**
+     * Sets the value of an item.
+     *
+     * @param index
+     *            Index of the item, 0-based
+     * @param value
+     *            New value
+     */
+    void set(int index, float value) {
+        fill(index, index + 1, value);
+    }
+
+    /**
+     * Sets the value of a range of items. The runs are split and merged in
+     * place, so setting the items one by one only moves the runs after the
+     * changed ones.
+     *
+     * @param from
+     *            First item, inclusive
+     * @param to
+     *            Last item, exclusive
+     * @param value
+     *            New value
+     * @throws IndexOutOfBoundsException
+     *             if the range is not within the array
+     */
+    void fill(int from, int to, float value) {
+        if (from < 0 || to > length() || from > to) {
+            throw new IndexOutOfBoundsException("Range " + from + "-" + to
+                    + " is out of bounds for length " + length() + ".");
+        }
+        if (from == to) {
+            return;
+        }
+        final int first = findRun(from);
+        final int last = findRun(to - 1);
+        if (first == last && values[first] == value) {
+            return;
+        }
+        final int firstStart = first == 0 ? 0 : ends[first - 1];
+        final float firstValue = values[first];
+        final int lastEnd = ends[last];
+        final float lastValue = values[last];
+        // The runs from removeFrom to removeTo, exclusive, are replaced with
+        // the remainder of the first run, the new run and the remainder of
+        // the last run. The new run absorbs the neighbours with an equal value
+        int removeFrom = first;
+        int removeTo = last + 1;
+        final boolean leftRemainder = from > firstStart
+                && firstValue != value;
+        final boolean rightRemainder = to < lastEnd && lastValue != value;
+        int newEnd = rightRemainder ? to : lastEnd;
+        if (!leftRemainder && removeFrom > 0
+                && values[removeFrom - 1] == value) {
+            removeFrom--;
+        }
+        if (!rightRemainder && removeTo < runCount
+                && values[removeTo] == value) {
+            newEnd = ends[removeTo];
+            removeTo++;
+        }
+        final int newRuns = 1 + (leftRemainder ? 1 : 0)
+                + (rightRemainder ? 1 : 0);
+        final int newRunCount = runCount - (removeTo - removeFrom) + newRuns;
+        ensureCapacity(newRunCount);
+        System.arraycopy(ends, removeTo, ends, removeFrom + newRuns,
+                runCount - removeTo);
+        System.arraycopy(values, removeTo, values, removeFrom + newRuns,
+                runCount - removeTo);
+        int run = removeFrom;
+        if (leftRemainder) {
+            ends[run] = from;
+            values[run] = firstValue;
+            run++;
+        }
+        ends[run] = newEnd;
+        values[run] = value;
+        if (rightRemainder) {
+            ends[run + 1] = lastEnd;
+            values[run + 1] = lastValue;
+        }
+        runCount = newRunCount;
+    }
+
+    /**
+     * Changes the number of items. Added items get the given value.
+     *
+     * @param length
+     *            New number of items
+     * @param value
+     *            Value of the added items
+     */
+    void setLength(int length, float value) {
+        if (length >= length()) {
+            append(length - length(), value);
+            return;
+        }
+        runCount = length == 0 ? 0 : findRun(length - 1) + 1;
+        if (runCount > 0) {
+            ends[runCount - 1] = length;
+        }
+    }
+
+    /**
+     * Adds items to the end of the array.
+     *
+     * @param count
+     *            Number of items to add
+     * @param value
+     *            Value of the added items
+     */
+    void append(int count, float value) {
+        if (count <= 0) {
+            return;
+        }
+        if (runCount > 0 && values[runCount - 1] == value) {
+            ends[runCount - 1] += count;
+            return;
+        }
+        ensureCapacity(runCount + 1);
+        ends[runCount] = length() + count;
+        values[runCount] = value;
+        runCount++;
+    }
+
+    /**
+     * Copies the first items to a plain array.
+     *
+     * @param limit
+     *            Maximum number of items to copy
+     * @return the values of the first items
+     */
+    float[] toArray(int limit) {
+        final float[] result = new float[Math.max(0,
+                Math.min(limit, length()))];
+        int start = 0;
+        for (int i = 0; i < runCount && start < result.length; i++) {
+            final int end = Math.min(ends[i], result.length);
+            Arrays.fill(result, start, end, values[i]);
+            start = end;
+        }
+        return result;
+    }
+
+    /**
+     * Encodes the array for the client side as pairs of a run length and the
+     * value of the run, <code>[count, value, count, value, ...]</code>.
+     *
+     * @return the encoded array
+     */
+    float[] encode() {
+        final float[] result = new float[runCount * 2];
+        int start = 0;
+        for (int i = 0; i < runCount; i++) {
+            result[i * 2] = ends[i] - start;
+            result[i * 2 + 1] = values[i];
+            start = ends[i];
+        }
+        return result;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ends.length) {
+            final int newCapacity = Math.max(capacity,
+                    Math.max(4, ends.length * 2));
+            ends = Arrays.copyOf(ends, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    /**
+     * @return the index of the run containing the given item
+     */
+    private int findRun(int index) {
+        int low = 0;
+        int high = runCount - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (ends[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import com.vaadin.flow.component.spreadsheet.client.MergedRegion;
+import com.vaadin.flow.component.spreadsheet.shared.GroupingData;
+
+/**
+ * Keeps the loaded state of the most recently active sheets, so that
+ * activating one of them again does not need to load the sizes, merged
+ * regions, grouping, overlays and cell styles of the sheet from the POI model.
+ * <p>
+ * The state of a sheet is put to the cache when another sheet is activated,
+ * and taken out of it when the sheet is activated again. When the cache is
+ * full, the least recently used sheet is removed from it.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class SheetDataCache implements Serializable {
+
+    /** Default number of sheets kept in the cache */
+    static final int DEFAULT_SIZE = 8;
+
+    /**
+     * Loaded state of a sheet that is not active.
+     */
+    static class SheetData implements Serializable {
+        int rows;
+        int cols;
+        float defRowH;
+        int defColW;
+        RunLengthArray rowH;
+        RunLengthArray colW;
+        ArrayList<Integer> hiddenRowIndexes;
+        ArrayList<Integer> hiddenColumnIndexes;
+        ArrayList<MergedRegion> mergedRegions;
+        int mergedRegionCounter;
+        int verticalSplitPosition;
+        int horizontalSplitPosition;
+        List<GroupingData> colGroupingData;
+        List<GroupingData> rowGroupingData;
+        int colGroupingMax;
+        int rowGroupingMax;
+        boolean colGroupingInversed;
+        boolean rowGroupingInversed;
+        boolean lockFormatColumns;
+        boolean lockFormatRows;
+        List<SheetOverlayWrapper> overlays;
+        SpreadsheetStyleFactory.SheetCellStyles cellStyles;
+    }
+
+    /** Sheets in the order of use, the least recently used first */
+    private final LinkedHashMap<Sheet, SheetData> sheets = new LinkedHashMap<Sheet, SheetData>(
+            16, 0.75f, true);
+
+    private int size = DEFAULT_SIZE;
+
+    /**
+     * Puts the state of a sheet to the cache, removing the least recently used
+     * sheet if the cache is full.
+     *
+     * @param sheet
+     *            Sheet that is no longer active
+     * @param data
+     *            State of the sheet
+     */
+    void put(Sheet sheet, SheetData data) {
+        if (size > 0) {
+            sheets.put(sheet, data);
+            trim();
+        }
+    }
+
+    /**
+     * Takes the state of a sheet out of the cache.
+     *
+     * @param sheet
+     *            Sheet that is being activated
+     * @return the state of the sheet, or <code>null</code> if it is not cached
+     */
+    SheetData take(Sheet sheet) {
+        return sheets.remove(sheet);
+    }
+
+    /**
+     * Removes all sheets from the cache.
+     */
+    void clear() {
+        sheets.clear();
+    }
+
+    /**
+     * @return the maximum number of sheets kept in the cache
+     */
+    int getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the maximum number of sheets kept in the cache. Zero disables the
+     * cache.
+     *
+     * @param size
+     *            Maximum number of sheets, zero or more
+     */
+    void setSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException(
+                    "Cache size cannot be negative.");
+        }
+        this.size = size;
+        trim();
+    }
+
+    private void trim() {
+        final Iterator<Sheet> iterator = sheets.keySet().iterator();
+        while (sheets.size() > size) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
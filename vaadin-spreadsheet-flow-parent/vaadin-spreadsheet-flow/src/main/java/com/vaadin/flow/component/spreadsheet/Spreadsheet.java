@@ -15,14 +15,18 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -33,6 +37,8 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.UUID;
 import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import com.vaadin.flow.component.charts.Chart;
 import com.vaadin.flow.component.dependency.Uses;
@@ -50,6 +56,8 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.SheetVisibility;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.usermodel.ClientAnchor;
 import org.apache.poi.ss.usermodel.ClientAnchor.AnchorType;
 import org.apache.poi.ss.util.CellAddress;
 import org.apache.poi.ss.util.CellRangeAddress;
@@ -58,6 +66,7 @@ import org.apache.poi.ss.util.CellReference;
 import org.apache.poi.ss.util.PaneInformation;
 import org.apache.poi.ss.util.WorkbookUtil;
 import org.apache.poi.util.Units;
+import org.apache.poi.xssf.usermodel.XSSFChart;
 import org.apache.poi.xssf.usermodel.XSSFClientAnchor;
 import org.apache.poi.xssf.usermodel.XSSFHyperlink;
 import org.apache.poi.xssf.usermodel.XSSFRow;
@@ -79,10 +88,12 @@ import com.vaadin.flow.component.HasSize;
 import com.vaadin.flow.component.HasStyle;
 import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.spreadsheet.SheetOverlayWrapper.OverlayChangeListener;
 import com.vaadin.flow.component.spreadsheet.action.SpreadsheetDefaultActionHandler;
 import com.vaadin.flow.component.spreadsheet.client.CellData;
+import com.vaadin.flow.component.spreadsheet.client.CompactCellData;
 import com.vaadin.flow.component.spreadsheet.client.MergedRegion;
 import com.vaadin.flow.component.spreadsheet.client.MergedRegionUtil.MergedRegionContainer;
 import com.vaadin.flow.component.spreadsheet.client.OverlayInfo;
@@ -94,6 +105,7 @@ import com.vaadin.flow.component.spreadsheet.framework.ReflectTools;
 import com.vaadin.flow.component.spreadsheet.rpc.SpreadsheetClientRpc;
 import com.vaadin.flow.component.spreadsheet.shared.GroupingData;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableRunnable;
 import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.shared.Registration;
@@ -159,11 +171,14 @@ public class Spreadsheet extends Component
 
     private int columnBufferSize = 200;
 
+    private int cellPoolSize = 1000;
+
     private int rows;
 
     private int cols;
 
     private List<GroupingData> colGroupingData;
+    private List<GroupingData> rowGroupingData;
 
     private int colGroupingMax;
     private int rowGroupingMax;
@@ -171,11 +186,14 @@ public class Spreadsheet extends Component
     private boolean colGroupingInversed;
     private boolean rowGroupingInversed;
 
+    private boolean lockFormatColumns;
+    private boolean lockFormatRows;
+
     private float defRowH;
     private int defColW;
 
-    private float[] rowH;
-    private int[] colW;
+    private RunLengthArray rowH;
+    private RunLengthArray colW;
 
     /** should the sheet be reloaded on client side */
     private boolean reload;
@@ -228,6 +246,9 @@ public class Spreadsheet extends Component
 
     private ArrayList<MergedRegion> mergedRegions;
 
+    /** Index of the merged regions, null if there are none */
+    private RectangleIndex<MergedRegion> mergedRegionIndex;
+
     private int verticalSplitPosition = 0;
     private int horizontalSplitPosition = 0;
 
@@ -269,12 +290,29 @@ public class Spreadsheet extends Component
         return defColW;
     }
 
-    private float[] getRowH() {
-        return rowH;
+    /**
+     * @return a copy of the row heights, to be changed and set with
+     *         {@link #setRowH(RunLengthArray)}
+     */
+    private RunLengthArray getRowH() {
+        return new RunLengthArray(rowH);
     }
 
-    int[] getColW() {
-        return colW;
+    /**
+     * @return a copy of the column widths, to be changed and set with
+     *         {@link #setColW(RunLengthArray)}
+     */
+    RunLengthArray getColW() {
+        return new RunLengthArray(colW);
+    }
+
+    /**
+     * @param columnIndex
+     *            Index of the column, 0-based
+     * @return the width of the column in pixels
+     */
+    int getColWidth(int columnIndex) {
+        return (int) colW.get(columnIndex);
     }
 
     private int getSheetIndex() {
@@ -402,6 +440,7 @@ public class Spreadsheet extends Component
     }
 
     void setRowGroupingData(List<GroupingData> rowGroupingData) {
+        this.rowGroupingData = rowGroupingData;
         getElement().setProperty("rowGroupingData",
                 Serializer.serialize(rowGroupingData));
     }
@@ -436,14 +475,22 @@ public class Spreadsheet extends Component
         getElement().setProperty("defColW", defColW);
     }
 
-    void setRowH(float[] rowH) {
+    /**
+     * Sets the row heights and sends them to the client side. The given array
+     * is not copied, and must not be changed after this.
+     */
+    void setRowH(RunLengthArray rowH) {
         this.rowH = rowH;
-        getElement().setProperty("rowH", Serializer.serialize(rowH));
+        statePatches.set("rowH", rowH.encode());
     }
 
-    void setColW(int[] colW) {
+    /**
+     * Sets the column widths and sends them to the client side. The given
+     * array is not copied, and must not be changed after this.
+     */
+    void setColW(RunLengthArray colW) {
         this.colW = colW;
-        getElement().setProperty("colW", Serializer.serialize(colW));
+        statePatches.set("colW", colW.encode());
     }
 
     private void setReload(boolean reload) {
@@ -464,8 +511,7 @@ public class Spreadsheet extends Component
 
     void setCellStyleToCSSStyle(HashMap<Integer, String> cellStyleToCSSStyle) {
         this.cellStyleToCSSStyle = cellStyleToCSSStyle;
-        getElement().setProperty("cellStyleToCSSStyle",
-                Serializer.serialize(cellStyleToCSSStyle));
+        statePatches.set("cellStyleToCSSStyle", cellStyleToCSSStyle);
     }
 
     void setRowIndexToStyleIndex(
@@ -496,39 +542,38 @@ public class Spreadsheet extends Component
 
     void setShiftedCellBorderStyles(ArrayList<String> shiftedCellBorderStyles) {
         this.shiftedCellBorderStyles = shiftedCellBorderStyles;
-        getElement().setProperty("shiftedCellBorderStyles",
-                Serializer.serialize(shiftedCellBorderStyles));
+        final String json = Serializer.serialize(shiftedCellBorderStyles);
+        metrics.addPayload(json.length());
+        getElement().setProperty("shiftedCellBorderStyles", json);
     }
 
     void setConditionalFormattingStyles(
             HashMap<Integer, String> conditionalFormattingStyles) {
         this.conditionalFormattingStyles = conditionalFormattingStyles;
-        getElement().setProperty("conditionalFormattingStyles",
-                Serializer.serialize(conditionalFormattingStyles));
+        final String json = Serializer.serialize(conditionalFormattingStyles);
+        metrics.addPayload(json.length());
+        getElement().setProperty("conditionalFormattingStyles", json);
     }
 
     void setHiddenColumnIndexes(ArrayList<Integer> hiddenColumnIndexes) {
         this.hiddenColumnIndexes = hiddenColumnIndexes;
-        getElement().setProperty("hiddenColumnIndexes",
-                Serializer.serialize(hiddenColumnIndexes));
+        statePatches.set("hiddenColumnIndexes", hiddenColumnIndexes);
     }
 
     void setHiddenRowIndexes(ArrayList<Integer> hiddenRowIndexes) {
         this.hiddenRowIndexes = hiddenRowIndexes;
-        getElement().setProperty("hiddenRowIndexes",
-                Serializer.serialize(hiddenRowIndexes));
+        statePatches.set("hiddenRowIndexes", hiddenRowIndexes);
     }
 
     void setVerticalScrollPositions(int[] verticalScrollPositions) {
         this.verticalScrollPositions = verticalScrollPositions;
-        getElement().setProperty("verticalScrollPositions",
-                Serializer.serialize(verticalScrollPositions));
+        statePatches.set("verticalScrollPositions", verticalScrollPositions);
     }
 
     void setHorizontalScrollPositions(int[] horizontalScrollPositions) {
         this.horizontalScrollPositions = horizontalScrollPositions;
-        getElement().setProperty("horizontalScrollPositions",
-                Serializer.serialize(horizontalScrollPositions));
+        statePatches.set("horizontalScrollPositions",
+                horizontalScrollPositions);
     }
 
     private void setSheetProtected(boolean sheetProtected) {
@@ -543,15 +588,14 @@ public class Spreadsheet extends Component
     private void setCellKeysToEditorIdMap(
             HashMap<String, String> cellKeysToEditorIdMap) {
         this.cellKeysToEditorIdMap = cellKeysToEditorIdMap;
-        getElement().setProperty("cellKeysToEditorIdMap",
-                Serializer.serialize(cellKeysToEditorIdMap));
+        statePatches.set("cellKeysToEditorIdMap", cellKeysToEditorIdMap);
     }
 
     private void setComponentIDtoCellKeysMap(
             HashMap<String, String> componentIDtoCellKeysMap) {
         this.componentIDtoCellKeysMap = componentIDtoCellKeysMap;
-        getElement().setProperty("componentIDtoCellKeysMap",
-                Serializer.serialize(componentIDtoCellKeysMap));
+        statePatches.set("componentIDtoCellKeysMap",
+                componentIDtoCellKeysMap);
     }
 
     private void setHyperlinksTooltips(
@@ -597,6 +641,9 @@ public class Spreadsheet extends Component
 
     void setMergedRegions(ArrayList<MergedRegion> mergedRegions) {
         this.mergedRegions = mergedRegions;
+        mergedRegionIndex = mergedRegions == null ? null
+                : new RectangleIndex<>(mergedRegions, region -> new int[] {
+                        region.row1, region.col1, region.row2, region.col2 });
         getElement().setProperty("mergedRegions",
                 Serializer.serialize(mergedRegions));
     }
@@ -633,10 +680,12 @@ public class Spreadsheet extends Component
     }
 
     void setLockFormatColumns(boolean lockFormatColumns) {
+        this.lockFormatColumns = lockFormatColumns;
         getElement().setProperty("lockFormatColumns", lockFormatColumns);
     }
 
     void setLockFormatRows(boolean lockFormatRows) {
+        this.lockFormatRows = lockFormatRows;
         getElement().setProperty("lockFormatRows", lockFormatRows);
     }
 
@@ -716,6 +765,8 @@ public class Spreadsheet extends Component
      */
     private FormulaEvaluator formulaEvaluator;
 
+    private int formulaEvaluationParallelism = 1;
+
     /**
      * A common conditional formatting formula evaluator for this Spreadsheet
      * needed for proper value string conversions
@@ -738,29 +789,38 @@ public class Spreadsheet extends Component
      */
     private Map<CellReference, Integer> autofittedColumnWidths = new WeakHashMap<>();
 
+    /** Reports the time spent in the phases of handling requests */
+    private final SpreadsheetMetrics metrics = new SpreadsheetMetrics();
+
+    /**
+     * Sends the row and column geometry to the client side as patches.
+     */
+    private final StatePatchChannel statePatches = new StatePatchChannel(
+            this, metrics);
+
     private SpreadsheetClientRpc clientRpc = new SpreadsheetClientRpc() {
         @Override
         public void updateBottomRightCellValues(ArrayList<CellData> cellData) {
             getElement().callJsFunction("updateBottomRightCellValues",
-                    Serializer.serialize(cellData));
+                    serializeCellData(cellData));
         }
 
         @Override
         public void updateTopLeftCellValues(ArrayList<CellData> cellData) {
             getElement().callJsFunction("updateTopLeftCellValues",
-                    Serializer.serialize(cellData));
+                    serializeCellData(cellData));
         }
 
         @Override
         public void updateTopRightCellValues(ArrayList<CellData> cellData) {
             getElement().callJsFunction("updateTopRightCellValues",
-                    Serializer.serialize(cellData));
+                    serializeCellData(cellData));
         }
 
         @Override
         public void updateBottomLeftCellValues(ArrayList<CellData> cellData) {
             getElement().callJsFunction("updateBottomLeftCellValues",
-                    Serializer.serialize(cellData));
+                    serializeCellData(cellData));
         }
 
         @Override
@@ -800,7 +860,7 @@ public class Spreadsheet extends Component
         @Override
         public void cellsUpdated(ArrayList<CellData> cellData) {
             getElement().callJsFunction("cellsUpdated",
-                    Serializer.serialize(cellData));
+                    serializeCellData(cellData));
         }
 
         @Override
@@ -812,6 +872,13 @@ public class Spreadsheet extends Component
         public void editCellComment(int col, int row) {
             getElement().callJsFunction("editCellComment", col, row);
         }
+
+        private String serializeCellData(ArrayList<CellData> cellData) {
+            final String json = Serializer
+                    .serialize(CompactCellData.encode(cellData));
+            metrics.addPayload(json.length());
+            return json;
+        }
     };
 
     /**
@@ -1016,6 +1083,9 @@ public class Spreadsheet extends Component
 
     private SheetState sheetState = new SheetState(this);
 
+    /** Loaded state of the recently active sheets */
+    private final SheetDataCache sheetDataCache = new SheetDataCache();
+
     /** image sizes need to be recalculated on column/row resizing */
     private boolean reloadImageSizesFromPOI;
 
@@ -1025,6 +1095,12 @@ public class Spreadsheet extends Component
 
     private Set<Component> customComponents = new HashSet<Component>();
 
+    /**
+     * Custom components of the cells that were visible on the last load, keyed
+     * by the cell key. Reused when the cells stay visible after a scroll.
+     */
+    private HashMap<String, CellComponents> loadedCellComponents = new HashMap<>();
+
     private Map<CellReference, PopupButton> sheetPopupButtons = new HashMap<CellReference, PopupButton>();
 
     private HashSet<PopupButton> attachedPopupButtons = new HashSet<PopupButton>();
@@ -1034,12 +1110,33 @@ public class Spreadsheet extends Component
      */
     private HashSet<SheetOverlayWrapper> sheetOverlays;
 
+    /**
+     * Chart overlays of the current workbook by chart id. Charts are converted
+     * once per workbook, not again on every sheet change or overlay reload.
+     */
+    private final Map<String, SheetChartWrapper> chartWrappers = new HashMap<>();
+
+    /** Index of the overlays of the active sheet, null if not up to date */
+    private RectangleIndex<SheetOverlayWrapper> overlayIndex;
+
+    /** Overlays that are checked on every update, as they can't be indexed */
+    private List<SheetOverlayWrapper> unindexedOverlays;
+
+    /** Overlays currently marked as visible */
+    private final Set<SheetOverlayWrapper> visibleOverlays = new HashSet<>();
+
     private Set<Component> overlayComponents = new HashSet<Component>();
 
     private HashSet<SpreadsheetTable> tables;
 
     private final Map<Integer, HashSet<String>> invalidFormulas = new HashMap<Integer, HashSet<String>>();
 
+    /**
+     * Cell stores of the sheets when the workbook has been loaded in read-only
+     * mode, indexed by POI sheet index. <code>null</code> otherwise.
+     */
+    private List<WindowedCellStore> readOnlyCellStores;
+
     /**
      * Container for merged regions for the currently active sheet.
      */
@@ -1053,9 +1150,9 @@ public class Spreadsheet extends Component
          */
         @Override
         public MergedRegion getMergedRegionStartingFrom(int column, int row) {
-            List<MergedRegion> mergedRegions = getMergedRegions();
-            if (mergedRegions != null) {
-                for (MergedRegion region : mergedRegions) {
+            if (mergedRegionIndex != null) {
+                for (MergedRegion region : mergedRegionIndex
+                        .findIntersecting(row, column, row, column)) {
                     if (region.col1 == column && region.row1 == row) {
                         return region;
                     }
@@ -1072,16 +1169,8 @@ public class Spreadsheet extends Component
          */
         @Override
         public MergedRegion getMergedRegion(int column, int row) {
-            List<MergedRegion> mergedRegions = getMergedRegions();
-            if (mergedRegions != null) {
-                for (MergedRegion region : mergedRegions) {
-                    if (region.col1 <= column && region.row1 <= row
-                            && region.col2 >= column && region.row2 >= row) {
-                        return region;
-                    }
-                }
-            }
-            return null;
+            return mergedRegionIndex == null ? null
+                    : mergedRegionIndex.findAt(row, column);
         }
     };
 
@@ -1463,10 +1552,42 @@ public class Spreadsheet extends Component
      */
     public void setChartsEnabled(boolean chartsEnabled) {
         this.chartsEnabled = chartsEnabled;
+        // the overlays of the cached sheets depend on this setting
+        sheetDataCache.clear();
         clearSheetOverlays();
         loadOrUpdateOverlays();
     }
 
+    /**
+     * Gets the maximum number of recently active sheets whose loaded state is
+     * kept. See {@link #setSheetCacheSize(int)}.
+     *
+     * @return the maximum number of cached sheets
+     */
+    public int getSheetCacheSize() {
+        return sheetDataCache.getSize();
+    }
+
+    /**
+     * Sets the maximum number of recently active sheets whose loaded state is
+     * kept, so that switching back to one of them does not load its row and
+     * column sizes, merged regions, grouping, overlays and cell styles again.
+     * The least recently used sheets are dropped when there are more sheets.
+     * Zero disables the cache. The default is
+     * {@value SheetDataCache#DEFAULT_SIZE}.
+     * <p>
+     * The cache is cleared when the workbook is changed with
+     * {@link #setWorkbook(Workbook)} or {@link #reload()}. Call
+     * {@link #reload()} after modifying an inactive sheet directly through the
+     * POI model.
+     *
+     * @param sheetCacheSize
+     *            Maximum number of cached sheets, zero or more
+     */
+    public void setSheetCacheSize(int sheetCacheSize) {
+        sheetDataCache.setSize(sheetCacheSize);
+    }
+
     /**
      * Returns true if the component is being fully re-rendered after this
      * round-trip (sheet change etc.)
@@ -1504,22 +1625,30 @@ public class Spreadsheet extends Component
      */
     protected void onSheetScroll(int firstRow, int firstColumn, int lastRow,
             int lastColumn) {
-        if (reloadCellDataOnNextScroll || this.firstRow != firstRow
-                || this.lastRow != lastRow || this.firstColumn != firstColumn
-                || this.lastColumn != lastColumn) {
-            this.firstRow = firstRow;
-            this.lastRow = lastRow;
-            this.firstColumn = firstColumn;
-            this.lastColumn = lastColumn;
-            loadCells(firstRow, firstColumn, lastRow, lastColumn);
-        }
-        if (initialSheetSelection != null) {
-            selectionManager.onSheetAddressChanged(initialSheetSelection, true);
-            initialSheetSelection = null;
-        } else if (reloadCellDataOnNextScroll) {
-            selectionManager.reloadCurrentSelection();
+        final SpreadsheetMetrics.Measurement measurement = metrics
+                .start(MetricsPhase.SHEET_SCROLL);
+        try {
+            if (reloadCellDataOnNextScroll || this.firstRow != firstRow
+                    || this.lastRow != lastRow
+                    || this.firstColumn != firstColumn
+                    || this.lastColumn != lastColumn) {
+                this.firstRow = firstRow;
+                this.lastRow = lastRow;
+                this.firstColumn = firstColumn;
+                this.lastColumn = lastColumn;
+                loadCells(firstRow, firstColumn, lastRow, lastColumn);
+            }
+            if (initialSheetSelection != null) {
+                selectionManager.onSheetAddressChanged(initialSheetSelection,
+                        true);
+                initialSheetSelection = null;
+            } else if (reloadCellDataOnNextScroll) {
+                selectionManager.reloadCurrentSelection();
+            }
+            reloadCellDataOnNextScroll = false;
+        } finally {
+            metrics.end(measurement);
         }
-        reloadCellDataOnNextScroll = false;
     }
 
     /**
@@ -1671,6 +1800,7 @@ public class Spreadsheet extends Component
     protected void onAttach(AttachEvent attachEvent) {
         super.onAttach(attachEvent);
         valueManager.updateLocale(getLocale());
+        statePatches.resendAll();
 
         updateAppId();
 
@@ -1942,6 +2072,7 @@ public class Spreadsheet extends Component
                     "A workbook must contain at least one visible worksheet");
         }
         int removedVisibleIndex = getSpreadsheetSheetIndex(poiSheetIndex);
+        sheetDataCache.take(workbook.getSheetAt(poiSheetIndex));
         workbook.removeSheetAt(poiSheetIndex);
 
         // POI doesn't seem to shift the active sheet index ...
@@ -2074,6 +2205,8 @@ public class Spreadsheet extends Component
                     "Cannot set a hidden or very hidden sheet as the active sheet. Given index: "
                             + sheetIndex);
         }
+        final Sheet previousSheet = getActiveSheet();
+        final SheetDataCache.SheetData previousData = saveActiveSheetData();
         workbook.setActiveSheet(sheetIndex);
         // assume since the UI doesn't allow multiple sheet selections
         // active sheet == selected tab
@@ -2084,9 +2217,17 @@ public class Spreadsheet extends Component
         getConditionalFormattingEvaluator().clearAllCachedValues();
 
         reloadActiveSheetData();
-        SpreadsheetFactory.reloadSpreadsheetData(this,
-                workbook.getSheetAt(sheetIndex));
-        reloadActiveSheetStyles();
+        final Sheet sheet = workbook.getSheetAt(sheetIndex);
+        final SheetDataCache.SheetData data = sheetDataCache.take(sheet);
+        if (data != null) {
+            restoreActiveSheetData(data);
+        } else {
+            SpreadsheetFactory.reloadSpreadsheetData(this, sheet);
+            reloadActiveSheetStyles();
+        }
+        if (previousSheet != sheet) {
+            sheetDataCache.put(previousSheet, previousData);
+        }
         loadPopupButtons();
     }
 
@@ -2406,6 +2547,9 @@ public class Spreadsheet extends Component
      * cells. For that, use {@link #reloadVisibleCellContents()}
      */
     void updateMarkedCells() {
+        // resolve the formula cells depending on the changed cells once for
+        // both the conditional formatting and the value update
+        valueManager.beginMarkedCellsUpdate();
         // update conditional formatting in case styling has changed. New values
         // are fetched in ValueManager (below).
         conditionalFormatter.createConditionalFormatterRules();
@@ -2453,8 +2597,7 @@ public class Spreadsheet extends Component
         if (cell == null) {
             cell = r.createCell(col, CellType.FORMULA);
         } else {
-            final String key = SpreadsheetUtil.toKey(col + 1, row + 1);
-            valueManager.clearCellCache(key);
+            valueManager.clearCellCache(col + 1, row + 1);
         }
         cell.setCellFormula(formula);
         valueManager.cellUpdated(cell);
@@ -2496,8 +2639,7 @@ public class Spreadsheet extends Component
         if (cell == null) {
             cell = r.createCell(col);
         } else {
-            final String key = SpreadsheetUtil.toKey(col + 1, row + 1);
-            valueManager.clearCellCache(key);
+            valueManager.clearCellCache(col + 1, row + 1);
         }
         if (value instanceof Double) {
             cell.setCellValue((Double) value);
@@ -2529,6 +2671,7 @@ public class Spreadsheet extends Component
 
         getFormulaEvaluator().clearAllCachedResultValues();
         getConditionalFormattingEvaluator().clearAllCachedValues();
+        conditionalFormatter.clearCachedResults();
         valueManager.clearCachedContent();
 
         // only reload if the cells have been loaded once previously
@@ -2536,7 +2679,13 @@ public class Spreadsheet extends Component
             // client will request cells soon, no need for reload now
             return;
         }
-        updateRowAndColumnRangeCellData(1, 1, getRows(), getColumns());
+        if (isReadOnlyMode()) {
+            // the rest of the sheet is sent when scrolled into view
+            updateRowAndColumnRangeCellData(firstRow, firstColumn, lastRow,
+                    lastColumn);
+        } else {
+            updateRowAndColumnRangeCellData(1, 1, getRows(), getColumns());
+        }
         // if the selected cell is of type formula, there is a change that the
         // formula has been changed.
         selectionManager.reSelectSelectedCell();
@@ -2687,8 +2836,8 @@ public class Spreadsheet extends Component
         int columnPixelWidth = getColumnAutofitPixelWidth(columnIndex,
                 (int) activeSheet.getColumnWidthInPixels(columnIndex));
 
-        int[] _colW = Arrays.copyOf(getColW(), getColW().length);
-        _colW[columnIndex] = columnPixelWidth;
+        final RunLengthArray _colW = getColW();
+        _colW.set(columnIndex, columnPixelWidth);
         setColW(_colW);
 
         getCellValueManager().clearCacheForColumn(columnIndex + 1);
@@ -2762,22 +2911,21 @@ public class Spreadsheet extends Component
         int lastAffectedRow = n < 0 ? endRow : endRow + n;
         if (copyRowHeight || resetOriginalRowHeight) {
             // might need to increase the size of the row heights array
-            int oldLength = getRowH().length;
+            RunLengthArray _rowH = getRowH();
             int neededLength = endRow + n + 1;
-            float[] _rowH = Arrays.copyOf(getRowH(), getRowH().length);
-            if (n > 0 && oldLength < neededLength) {
-                _rowH = Arrays.copyOf(_rowH, neededLength);
+            if (n > 0 && _rowH.length() < neededLength) {
+                _rowH.setLength(neededLength, 0f);
             }
             for (int i = firstAffectedRow; i <= lastAffectedRow; i++) {
                 Row row = sheet.getRow(i);
                 if (row != null) {
                     if (row.getZeroHeight()) {
-                        _rowH[i] = 0f;
+                        _rowH.set(i, 0f);
                     } else {
-                        _rowH[i] = row.getHeightInPoints();
+                        _rowH.set(i, row.getHeightInPoints());
                     }
                 } else {
-                    _rowH[i] = sheet.getDefaultRowHeightInPoints();
+                    _rowH.set(i, sheet.getDefaultRowHeightInPoints());
                 }
             }
             setRowH(_rowH);
@@ -2829,6 +2977,8 @@ public class Spreadsheet extends Component
             setHiddenRowIndexes(_hiddenRowIndexes);
         }
         rowsMoved(firstAffectedRow, lastAffectedRow, n);
+        // the loaded components are keyed by the pre-shift cell positions
+        loadedCellComponents.clear();
 
         for (Cell cell : cellsToUpdate) {
             styler.cellStyleUpdated(cell, false);
@@ -2976,6 +3126,133 @@ public class Spreadsheet extends Component
         return formulaEvaluator;
     }
 
+    /**
+     * Sets the number of threads used for evaluating the formula cells of the
+     * active sheet when its cells are loaded, or when all cell values are
+     * refreshed with {@link #refreshAllCellValues()}.
+     * <p>
+     * When set to more than one, all formula cells of the sheet are evaluated
+     * up front, with formulas that don't reference each other evaluated in
+     * parallel. Formulas using volatile functions such as NOW() or
+     * INDIRECT(), or referencing other sheets, are always evaluated
+     * sequentially. The default value is 1, which evaluates formula cells one
+     * by one as they are sent to the client.
+     * <p>
+     * The threads share the workbook and only read it, but reading the cells
+     * and styles of an XSSF workbook goes through XMLBeans, which serializes
+     * concurrent access to the same document. The speedup is therefore
+     * limited, and mostly gained for sheets with many formulas that are
+     * expensive to compute compared to reading the cells they reference.
+     *
+     * @param parallelism
+     *            Number of threads to use, 1 or more
+     * @throws IllegalArgumentException
+     *             If parallelism is less than 1
+     */
+    public void setFormulaEvaluationParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(
+                    "Formula evaluation parallelism must be at least 1.");
+        }
+        formulaEvaluationParallelism = parallelism;
+    }
+
+    /**
+     * Gets the number of threads used for evaluating formula cells.
+     *
+     * @return Number of threads, 1 if formula cells are evaluated sequentially
+     * @see #setFormulaEvaluationParallelism(int)
+     */
+    public int getFormulaEvaluationParallelism() {
+        return formulaEvaluationParallelism;
+    }
+
+    /**
+     * Sets a listener that is notified of the time spent in the phases of
+     * handling a request, such as loading the cells shown after a scroll, and
+     * of the size of the data sent to the client side in each phase. The
+     * listener can be used to report the values to a metrics library, for
+     * example as Micrometer timers and distribution summaries tagged with the
+     * phase. Nothing is measured when no listener is set, which is the
+     * default.
+     *
+     * @param listener
+     *            Listener to notify, or <code>null</code> to stop measuring
+     */
+    public void setMetricsListener(MetricsListener listener) {
+        metrics.setListener(listener);
+    }
+
+    /**
+     * Gets the listener notified of the time spent in the phases of handling a
+     * request.
+     *
+     * @return the listener, or <code>null</code> if none has been set
+     * @see #setMetricsListener(MetricsListener)
+     */
+    public MetricsListener getMetricsListener() {
+        return metrics.getListener();
+    }
+
+    SpreadsheetMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Phases of handling a request reported to a {@link MetricsListener}.
+     * Phases can be nested, for example {@link #CELL_DATA} is part of
+     * {@link #SHEET_SCROLL}.
+     */
+    public enum MetricsPhase {
+        /** Handling a scroll of the client side, including loading cells */
+        SHEET_SCROLL,
+        /** Creating and sending the data of the cells in view */
+        CELL_DATA,
+        /** Sending the values of changed cells and dependent formulas */
+        CELL_UPDATES,
+        /**
+         * Converting the cell styles of the workbook or sheet to CSS. The
+         * payload only includes the border styles, the CSS of the cell styles
+         * is sent in {@link #STATE_PATCHES}.
+         */
+        CELL_STYLES,
+        /** Creating and evaluating conditional formatting rules */
+        CONDITIONAL_FORMATTING,
+        /**
+         * Evaluating the formula cells of the active sheet in parallel, see
+         * {@link Spreadsheet#setFormulaEvaluationParallelism(int)}
+         */
+        PARALLEL_FORMULA_EVALUATION,
+        /**
+         * Sending the changes of the cell style CSS, the row and column sizes
+         * and the other patched properties, before the response is written
+         */
+        STATE_PATCHES
+    }
+
+    /**
+     * Listener for the time spent in the phases of handling a request. See
+     * {@link Spreadsheet#setMetricsListener(MetricsListener)}.
+     */
+    @FunctionalInterface
+    public interface MetricsListener extends Serializable {
+
+        /**
+         * Called when a phase has been completed.
+         *
+         * @param phase
+         *            The completed phase
+         * @param nanos
+         *            Time spent in the phase, in nanoseconds
+         * @param payloadSize
+         *            Size of the cell data, cell styles and state patches
+         *            sent to the client side during the phase, in characters
+         *            of JSON
+         */
+        public void onPhaseCompleted(MetricsPhase phase, long nanos,
+                long payloadSize);
+    }
+
     /**
      * POI, as of 4.0.0, now accepts this as an argument to formula evaluation.
      * Some conditional formats can modify the display text of a cell.
@@ -3050,13 +3327,14 @@ public class Spreadsheet extends Component
                 getActiveSheet().removeRow(row);
             }
         }
-        float[] _rowH = Arrays.copyOf(getRowH(), getRowH().length);
-        for (int i = startRow; i <= endRow; i++) {
-            _rowH[i] = sheet.getDefaultRowHeightInPoints();
-        }
+        final RunLengthArray _rowH = getRowH();
+        _rowH.fill(startRow, endRow + 1, sheet.getDefaultRowHeightInPoints());
         setRowH(_rowH);
         updateMergedRegions();
         valueManager.updateDeletedRowsInClientCache(startRow + 1, endRow + 1);
+        loadedCellComponents.values().removeIf(
+                components -> components.row >= startRow
+                        && components.row <= endRow);
 
         if (hasSheetOverlays()) {
             reloadImageSizesFromPOI = true;
@@ -3270,15 +3548,15 @@ public class Spreadsheet extends Component
         getActiveSheet().setColumnHidden(columnIndex, hidden);
         ArrayList<Integer> _hiddenColumnIndexes = new ArrayList<>(
                 getHiddenColumnIndexes());
-        int[] _colW = Arrays.copyOf(getColW(), getColW().length);
+        RunLengthArray _colW = getColW();
         if (hidden && !_hiddenColumnIndexes.contains(columnIndex + 1)) {
             _hiddenColumnIndexes.add(columnIndex + 1);
-            _colW[columnIndex] = 0;
+            _colW.set(columnIndex, 0);
         } else if (!hidden && _hiddenColumnIndexes.contains(columnIndex + 1)) {
             _hiddenColumnIndexes
                     .remove(_hiddenColumnIndexes.indexOf(columnIndex + 1));
-            _colW[columnIndex] = (int) getActiveSheet()
-                    .getColumnWidthInPixels(columnIndex);
+            _colW.set(columnIndex, (int) getActiveSheet()
+                    .getColumnWidthInPixels(columnIndex));
             getCellValueManager().clearCacheForColumn(columnIndex + 1);
             getCellValueManager().loadCellData(firstRow, columnIndex + 1,
                     lastRow, columnIndex + 1);
@@ -3308,6 +3586,11 @@ public class Spreadsheet extends Component
 
     /**
      * Hides or shows the given row, see {@link Row#setZeroHeight(boolean)}.
+     * <p>
+     * Filtering tables ({@link SpreadsheetFilterTable}) hide and show the
+     * rows of their filtering region at once and don't call this method for
+     * each row, so overriding it doesn't intercept the rows hidden by
+     * filters.
      *
      * @param rowIndex
      *            Index of the target row, 0-based
@@ -3315,15 +3598,53 @@ public class Spreadsheet extends Component
      *            True to hide the target row, false to show it.
      */
     public void setRowHidden(int rowIndex, boolean hidden) {
+        setZeroHeight(rowIndex, hidden);
+        onRowVisibilityChanged();
+    }
+
+    /**
+     * Hides the given rows of a range and shows the rest. Only rows whose
+     * visibility changes are modified, and the sheet sizes and styles are
+     * updated once for all of them. Doesn't call
+     * {@link #setRowHidden(int, boolean)}.
+     *
+     * @param firstRow
+     *            Index of the first row of the range, 0-based
+     * @param lastRow
+     *            Index of the last row of the range, 0-based
+     * @param hiddenRows
+     *            Indexes of the rows to hide, 0-based
+     */
+    void setRowsHidden(int firstRow, int lastRow, BitSet hiddenRows) {
+        boolean changed = false;
+        for (int r = firstRow; r <= lastRow; r++) {
+            final boolean hidden = hiddenRows.get(r);
+            if (isRowHidden(r) != hidden) {
+                setZeroHeight(r, hidden);
+                changed = true;
+            }
+        }
+        if (changed) {
+            onRowVisibilityChanged();
+        }
+    }
+
+    private void setZeroHeight(int rowIndex, boolean hidden) {
         final Sheet activeSheet = getActiveSheet();
         Row row = activeSheet.getRow(rowIndex);
         if (row == null) {
             row = activeSheet.createRow(rowIndex);
         }
         row.setZeroHeight(hidden);
+    }
 
-        // can't assume the state already had room for the row in its
-        // arrays, it may have been created above. This avoids
+    /**
+     * Updates the sheet sizes, overlays and styles after the visibility of
+     * rows has changed.
+     */
+    private void onRowVisibilityChanged() {
+        // can't assume the state already had room for the rows in its
+        // arrays, they may have been created. This avoids
         // ArrayIndexOutOfBoundsException
         SpreadsheetFactory.calculateSheetSizes(this, getActiveSheet());
 
@@ -3375,6 +3696,160 @@ public class Spreadsheet extends Component
         SpreadsheetFactory.reloadSpreadsheetComponent(this, inputStream);
     }
 
+    /**
+     * Reinitializes the component from the given input stream without
+     * blocking the UI. The expected format is that of an Excel file.
+     * <p>
+     * The stream is parsed with the given executor, without holding the
+     * session lock. The workbook is then loaded in two steps with
+     * {@link UI#access(com.vaadin.flow.server.Command)}: first everything that
+     * is needed to show the cells of the active sheet, and then the overlays,
+     * tables, named ranges and the styles specific to single cells. With
+     * server push enabled, the cells are shown before the second step.
+     * <p>
+     * The component must be attached, or the method must be called from a
+     * thread where {@link UI#getCurrent()} is available. The stream is not
+     * closed.
+     *
+     * @param inputStream
+     *            Data source input stream. Excel format is expected.
+     * @param executor
+     *            Executor for parsing the stream
+     * @return a future that is completed when the workbook has been fully
+     *         loaded, or completed exceptionally if the stream can not be
+     *         read, the data is in an invalid format or the UI is detached
+     *         before the workbook has been loaded
+     */
+    public CompletableFuture<Void> loadAsync(InputStream inputStream,
+            Executor executor) {
+        Objects.requireNonNull(inputStream, "Input stream cannot be null");
+        Objects.requireNonNull(executor, "Executor cannot be null");
+        final UI ui = getUI().orElseGet(UI::getCurrent);
+        if (ui == null) {
+            throw new IllegalStateException(
+                    "The spreadsheet must be attached, or the current UI must "
+                            + "be available, to load a workbook "
+                            + "asynchronously.");
+        }
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        // the access tasks are never run if the UI is detached in between
+        final Registration detachRegistration = ui.addDetachListener(
+                event -> result.completeExceptionally(
+                        new UIDetachedException()));
+        result.whenComplete((value, error) -> {
+            try {
+                ui.access(detachRegistration::remove);
+            } catch (UIDetachedException e) {
+                // the listener is not needed for a detached UI
+            }
+        });
+        executor.execute(() -> {
+            final Workbook parsedWorkbook;
+            try {
+                parsedWorkbook = WorkbookFactory.create(inputStream);
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            access(ui, result, () -> {
+                SpreadsheetFactory.reloadSpreadsheetLayout(this,
+                        parsedWorkbook);
+                // a separate access lets the first step be pushed to the
+                // client before the rest is loaded
+                executor.execute(() -> access(ui, result, () -> {
+                    if (workbook == parsedWorkbook) {
+                        SpreadsheetFactory.loadDeferredSheetData(this);
+                        loadOrUpdateOverlays();
+                        loadTables();
+                    }
+                    result.complete(null);
+                }));
+            });
+        });
+        return result;
+    }
+
+    private static void access(UI ui, CompletableFuture<?> result,
+            SerializableRunnable task) {
+        try {
+            ui.access(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (UIDetachedException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Reinitializes the component from the given Excel file in read-only
+     * mode. Only the XLSX format is supported.
+     * <p>
+     * In read-only mode the file is parsed with a streaming reader and the
+     * cell contents are kept in a compact store. Only the cells of the rows
+     * around the visible area are loaded into the {@link Workbook}, which
+     * keeps the memory usage low for very large files. All sheets are
+     * protected, formulas are not evaluated (the results cached in the file
+     * are shown instead), and the workbook can not be written.
+     *
+     * @param file
+     *            Data source file. XLSX format is expected.
+     * @throws IOException
+     *             If the file can't be read, or the file is of an invalid
+     *             format.
+     */
+    public void readInReadOnlyMode(File file) throws IOException {
+        SpreadsheetFactory.reloadSpreadsheetComponentInReadOnlyMode(this,
+                file);
+    }
+
+    /**
+     * Reinitializes the component from the given input stream in read-only
+     * mode. The expected format is that of an XLSX file.
+     *
+     * @param inputStream
+     *            Data source input stream. XLSX format is expected.
+     * @throws IOException
+     *             If handling the stream fails, or the data is in an invalid
+     *             format.
+     * @see #readInReadOnlyMode(File)
+     */
+    public void readInReadOnlyMode(InputStream inputStream) throws IOException {
+        SpreadsheetFactory.reloadSpreadsheetComponentInReadOnlyMode(this,
+                inputStream);
+    }
+
+    /**
+     * Gets whether the current workbook has been loaded in read-only mode.
+     *
+     * @return <code>true</code> if the workbook was loaded with
+     *         {@link #readInReadOnlyMode(File)} or
+     *         {@link #readInReadOnlyMode(InputStream)}
+     */
+    public boolean isReadOnlyMode() {
+        return readOnlyCellStores != null;
+    }
+
+    void setReadOnlyCellStores(List<WindowedCellStore> readOnlyCellStores) {
+        this.readOnlyCellStores = readOnlyCellStores;
+    }
+
+    /**
+     * Gets the cell store of the active sheet in read-only mode.
+     *
+     * @return the cell store or <code>null</code> if the workbook has not been
+     *         loaded in read-only mode
+     */
+    WindowedCellStore getReadOnlyCellStore() {
+        if (readOnlyCellStores == null) {
+            return null;
+        }
+        return readOnlyCellStores.get(workbook.getActiveSheetIndex());
+    }
+
     /**
      * Exports current spreadsheet into a File with the given name.
      *
@@ -3405,6 +3880,67 @@ public class Spreadsheet extends Component
         SpreadsheetFactory.write(this, outputStream);
     }
 
+    /**
+     * Exports current spreadsheet as an output stream, notifying the given
+     * listener of the progress. The workbook is streamed to the target as it
+     * is serialized, without being buffered in memory or re-read afterwards.
+     * The stream will be closed after writing.
+     *
+     * @param outputStream
+     *            The target stream
+     * @param listener
+     *            Listener notified of the written bytes, or <code>null</code>
+     * @throws IOException
+     *             If writing to the stream fails
+     */
+    public void write(OutputStream outputStream,
+            WriteProgressListener listener) throws IOException {
+        SpreadsheetFactory.write(this, outputStream, listener);
+    }
+
+    /**
+     * Exports current spreadsheet to a channel, notifying the given listener
+     * of the progress. The channel will be closed after writing.
+     *
+     * @param channel
+     *            The target channel
+     * @param listener
+     *            Listener notified of the written bytes, or <code>null</code>
+     * @throws IOException
+     *             If writing to the channel fails
+     */
+    public void write(WritableByteChannel channel,
+            WriteProgressListener listener) throws IOException {
+        SpreadsheetFactory.write(this, Channels.newOutputStream(channel),
+                listener);
+    }
+
+    /**
+     * Listener for following the progress of exporting a spreadsheet with
+     * {@link Spreadsheet#write(OutputStream, WriteProgressListener)}.
+     */
+    @FunctionalInterface
+    public interface WriteProgressListener extends Serializable {
+
+        /**
+         * Called periodically while the workbook is being written.
+         *
+         * @param bytesWritten
+         *            Number of bytes written so far
+         */
+        public void onProgress(long bytesWritten);
+
+        /**
+         * Called once after the workbook has been completely written and the
+         * target closed.
+         *
+         * @param totalBytes
+         *            Total number of bytes written
+         */
+        public default void onComplete(long totalBytes) {
+        }
+    }
+
     /**
      * The row buffer size determines the amount of content rendered outside the
      * top and bottom edges of the visible cell area, for smoother scrolling.
@@ -3463,6 +3999,43 @@ public class Spreadsheet extends Component
         getElement().setProperty("columnBufferSize", columnBufferSize);
     }
 
+    /**
+     * The cell pool size determines how many cells that have been scrolled
+     * out of view are kept in the browser for displaying other cells, instead
+     * of creating new elements for them.
+     * <p>
+     * The default is 1000.
+     *
+     * @return The current cell pool size
+     */
+    public int getCellPoolSize() {
+        return cellPoolSize;
+    }
+
+    /**
+     * Sets the cell pool size. A larger pool makes scrolling smoother when
+     * many cells are visible, for example with large row and column buffer
+     * sizes or on high resolution displays, at the cost of memory in the
+     * browser.
+     * <p>
+     * The cell pool size determines how many cells that have been scrolled
+     * out of view are kept in the browser for displaying other cells, instead
+     * of creating new elements for them.
+     *
+     * @param cellPoolSize
+     *            The maximum number of pooled cells, 0 to disable pooling
+     * @throws IllegalArgumentException
+     *             if the size is negative
+     */
+    public void setCellPoolSize(int cellPoolSize) {
+        if (cellPoolSize < 0) {
+            throw new IllegalArgumentException(
+                    "Cell pool size cannot be negative.");
+        }
+        this.cellPoolSize = cellPoolSize;
+        getElement().setProperty("cellPoolSize", cellPoolSize);
+    }
+
     /**
      * Gets the default row count for new sheets.
      *
@@ -3540,6 +4113,8 @@ public class Spreadsheet extends Component
         workbook = null;
         styler = null;
 
+        readOnlyCellStores = null;
+
         valueManager.clearCachedContent();
         selectionManager.clear();
         historyManager.clear();
@@ -3547,6 +4122,98 @@ public class Spreadsheet extends Component
         sheetPopupButtons.clear();
         sheetState.clear();
         clearSheetOverlays();
+        chartWrappers.clear();
+        sheetDataCache.clear();
+    }
+
+    /**
+     * Puts the loaded state of the active sheet to the cache before another
+     * sheet is activated.
+     */
+    void cacheActiveSheetData() {
+        sheetDataCache.put(getActiveSheet(), saveActiveSheetData());
+    }
+
+    /**
+     * Saves the loaded state of the active sheet, so that it does not need to
+     * be loaded again when the sheet is activated again. See
+     * {@link #restoreActiveSheetData(SheetDataCache.SheetData)}.
+     */
+    private SheetDataCache.SheetData saveActiveSheetData() {
+        final SheetDataCache.SheetData data = new SheetDataCache.SheetData();
+        data.rows = rows;
+        data.cols = cols;
+        data.defRowH = defRowH;
+        data.defColW = defColW;
+        data.rowH = rowH;
+        data.colW = colW;
+        data.hiddenRowIndexes = hiddenRowIndexes;
+        data.hiddenColumnIndexes = hiddenColumnIndexes;
+        data.mergedRegions = mergedRegions;
+        data.mergedRegionCounter = mergedRegionCounter;
+        data.verticalSplitPosition = verticalSplitPosition;
+        data.horizontalSplitPosition = horizontalSplitPosition;
+        data.colGroupingData = colGroupingData;
+        data.rowGroupingData = rowGroupingData;
+        data.colGroupingMax = colGroupingMax;
+        data.rowGroupingMax = rowGroupingMax;
+        data.colGroupingInversed = colGroupingInversed;
+        data.rowGroupingInversed = rowGroupingInversed;
+        data.lockFormatColumns = lockFormatColumns;
+        data.lockFormatRows = lockFormatRows;
+        data.overlays = new ArrayList<SheetOverlayWrapper>(sheetOverlays);
+        data.cellStyles = styler.saveActiveSheetCellStyles();
+        return data;
+    }
+
+    /**
+     * Restores the state of the active sheet saved with
+     * {@link #saveActiveSheetData()}, instead of loading it with
+     * {@link SpreadsheetFactory#reloadSpreadsheetData(Spreadsheet, Sheet)}
+     * and {@link #reloadActiveSheetStyles()}. The named ranges are loaded
+     * again, as they are defined in the workbook.
+     */
+    private void restoreActiveSheetData(SheetDataCache.SheetData data) {
+        setDefRowH(data.defRowH);
+        setDefColW(data.defColW);
+        setRows(data.rows);
+        setCols(data.cols);
+        setHiddenRowIndexes(data.hiddenRowIndexes);
+        setRowH(data.rowH);
+        setHiddenColumnIndexes(data.hiddenColumnIndexes);
+        setColW(data.colW);
+        setMergedRegions(data.mergedRegions);
+        mergedRegionCounter = data.mergedRegionCounter;
+        setVerticalSplitPosition(data.verticalSplitPosition);
+        setHorizontalSplitPosition(data.horizontalSplitPosition);
+        setLockFormatColumns(data.lockFormatColumns);
+        setLockFormatRows(data.lockFormatRows);
+        setColGroupingMax(data.colGroupingMax);
+        setRowGroupingMax(data.rowGroupingMax);
+        setColGroupingInversed(data.colGroupingInversed);
+        setRowGroupingInversed(data.rowGroupingInversed);
+        setColGroupingData(data.colGroupingData);
+        setRowGroupingData(data.rowGroupingData);
+        for (SheetOverlayWrapper overlay : data.overlays) {
+            addSheetOverlay(overlay);
+        }
+        SpreadsheetFactory.loadNamedRanges(this);
+        styler.restoreActiveSheetCellStyles(data.cellStyles);
+    }
+
+    /**
+     * Gets the overlay for the given chart, creating it if the chart has not
+     * been loaded before from the current workbook.
+     *
+     * @param chartXml
+     *            Chart of the current workbook
+     * @return the chart overlay
+     */
+    SheetChartWrapper getChartWrapper(XSSFChart chartXml) {
+        final String chartId = chartXml.getPackagePart().getPartName()
+                .getName();
+        return chartWrappers.computeIfAbsent(chartId,
+                id -> new SheetChartWrapper(chartXml, this));
     }
 
     private void clearSheetOverlays() {
@@ -3554,10 +4221,14 @@ public class Spreadsheet extends Component
             removeOverlayData(image);
         }
         sheetOverlays.clear();
+        visibleOverlays.clear();
+        overlayIndex = null;
     }
 
     void setInternalWorkbook(Workbook workbook) {
         this.workbook = workbook;
+        chartWrappers.clear();
+        sheetDataCache.clear();
         formulaEvaluator = workbook.getCreationHelper()
                 .createFormulaEvaluator();
         // currently all formula implementations extend BaseFormulaEvaluator
@@ -3642,6 +4313,7 @@ public class Spreadsheet extends Component
             unRegisterCustomComponent(c);
         }
         customComponents.clear();
+        loadedCellComponents.clear();
 
         if (attachedPopupButtons != null && !attachedPopupButtons.isEmpty()) {
             for (PopupButton sf : new ArrayList<PopupButton>(
@@ -3919,17 +4591,33 @@ public class Spreadsheet extends Component
      */
     protected void loadCells(int firstRow, int firstColumn, int lastRow,
             int lastColumn) {
-        loadCustomComponents();
+        loadViewportCustomComponents();
         loadHyperLinks();
         loadCellComments();
         loadOrUpdateOverlays();
         loadTables();
         loadPopupButtons();
         valueManager.loadCellData(firstRow, firstColumn, lastRow, lastColumn);
+        releaseReadOnlyRowsOutside(firstRow, lastRow);
 
         loadCustomEditorOnSelectedCell();
     }
 
+    /**
+     * In read-only mode, removes the cells of rows that are far enough from
+     * the given visible area from the workbook. One visible area worth of
+     * rows is kept loaded above and below it.
+     */
+    private void releaseReadOnlyRowsOutside(int firstRow, int lastRow) {
+        WindowedCellStore cellStore = getReadOnlyCellStore();
+        if (cellStore != null) {
+            int visibleRows = lastRow - firstRow + 1;
+            cellStore.releaseRowsOutside(getActiveSheet(),
+                    firstRow - 1 - visibleRows, lastRow - 1 + visibleRows,
+                    getLastFrozenRow());
+        }
+    }
+
     void onLinkCellClick(int row, int column) {
         Cell cell = getActiveSheet().getRow(row - 1).getCell(column - 1);
         if (hyperlinkCellClickHandler != null) {
@@ -4023,14 +4711,14 @@ public class Spreadsheet extends Component
         } else {
             ArrayList<Integer> _hiddenColumnIndexes = new ArrayList<>(
                     getHiddenColumnIndexes());
-            int[] _colW = Arrays.copyOf(getColW(), getColW().length);
             if (_hiddenColumnIndexes.contains(Integer.valueOf(index + 1))) {
                 _hiddenColumnIndexes.remove(Integer.valueOf(index + 1));
             }
             if (getActiveSheet().isColumnHidden(index)) {
                 getActiveSheet().setColumnHidden(index, false);
             }
-            _colW[index] = width;
+            final RunLengthArray _colW = getColW();
+            _colW.set(index, width);
             setColW(_colW);
             setHiddenColumnIndexes(_hiddenColumnIndexes);
             getActiveSheet().setColumnWidth(index,
@@ -4137,16 +4825,18 @@ public class Spreadsheet extends Component
                 reloadImageSizesFromPOI = false;
             }
 
-            for (final SheetOverlayWrapper overlay : sheetOverlays) {
+            for (final SheetOverlayWrapper overlay : getOverlayCandidates()) {
                 if (isOverlayVisible(overlay)) {
                     addOverlayData(overlay);
                     overlay.setVisible(true);
+                    visibleOverlays.add(overlay);
                 } else {
                     // was visible but went out of visibility
                     if (overlay.isVisible()) {
                         removeOverlayData(overlay);
                         overlay.setVisible(false);
                     }
+                    visibleOverlays.remove(overlay);
                 }
             }
         }
@@ -4175,6 +4865,8 @@ public class Spreadsheet extends Component
             overlay.setOverlayChangeListener(new OverlayChangeListener() {
                 @Override
                 public void overlayChanged() {
+                    // the anchor may have changed
+                    overlayIndex = null;
                     loadOrUpdateOverlays();
                 }
             });
@@ -4200,6 +4892,65 @@ public class Spreadsheet extends Component
         }
     }
 
+    /**
+     * Gets the overlays that may be visible in the current view, and the ones
+     * that were visible before. Uses an index of the overlay positions, so
+     * that overlays far from the view are not checked at all.
+     */
+    private Set<SheetOverlayWrapper> getOverlayCandidates() {
+        if (overlayIndex == null) {
+            unindexedOverlays = new ArrayList<>();
+            final List<SheetOverlayWrapper> indexed = new ArrayList<>();
+            for (SheetOverlayWrapper overlay : sheetOverlays) {
+                final ClientAnchor anchor = overlay.getAnchor();
+                // see isOverlayVisible
+                if (anchor == null || (AnchorType.DONT_MOVE_AND_RESIZE
+                        .equals(anchor.getAnchorType())
+                        && anchor instanceof XSSFClientAnchor)) {
+                    unindexedOverlays.add(overlay);
+                } else {
+                    indexed.add(overlay);
+                }
+            }
+            overlayIndex = new RectangleIndex<>(indexed,
+                    Spreadsheet::getOverlayBounds);
+        }
+        final Set<SheetOverlayWrapper> candidates = new LinkedHashSet<>(
+                unindexedOverlays);
+        candidates.addAll(visibleOverlays);
+        final int horizontalSplitPosition = getLastFrozenColumn();
+        final int verticalSplitPosition = getLastFrozenRow();
+        if (horizontalSplitPosition > 0 && verticalSplitPosition > 0) {
+            candidates.addAll(overlayIndex.findIntersecting(1, 1,
+                    verticalSplitPosition, horizontalSplitPosition));
+        }
+        if (horizontalSplitPosition > 0) {
+            candidates.addAll(overlayIndex.findIntersecting(firstRow, 1,
+                    lastRow, horizontalSplitPosition));
+        }
+        if (verticalSplitPosition > 0) {
+            candidates.addAll(overlayIndex.findIntersecting(1, firstColumn,
+                    verticalSplitPosition, lastColumn));
+        }
+        candidates.addAll(overlayIndex.findIntersecting(firstRow, firstColumn,
+                lastRow, lastColumn));
+        return candidates;
+    }
+
+    /**
+     * Gets the area of the given overlay's anchor cells, 1-based. The
+     * overlay can only be visible in a view intersecting the area.
+     */
+    private static int[] getOverlayBounds(SheetOverlayWrapper overlay) {
+        final ClientAnchor anchor = overlay.getAnchor();
+        final int row1 = anchor.getRow1() + 1;
+        final int row2 = anchor.getRow2() + 1;
+        final int col1 = anchor.getCol1() + 1;
+        final int col2 = anchor.getCol2() + 1;
+        return new int[] { Math.min(row1, row2), Math.min(col1, col2),
+                Math.max(row1, row2), Math.max(col1, col2) };
+    }
+
     /**
      * Decides if overlay is visible in the current view.
      */
@@ -4320,8 +5071,15 @@ public class Spreadsheet extends Component
         info.col = col + 1; // 1-based
         info.row = row + 1; // 1-based
 
-        info.height = overlayWrapper.getHeight(sheet, getRowH());
-        info.width = overlayWrapper.getWidth(sheet, getColW(), getDefColW());
+        // only the sizes up to the end of the overlay are needed
+        info.height = overlayWrapper.getHeight(sheet,
+                rowH.toArray(anchor.getRow2()));
+        final float[] columnWidths = colW.toArray(anchor.getCol2());
+        final int[] _colW = new int[columnWidths.length];
+        for (int i = 0; i < _colW.length; i++) {
+            _colW[i] = (int) columnWidths[i];
+        }
+        info.width = overlayWrapper.getWidth(sheet, _colW, getDefColW());
 
         // FIXME: height and width can be -1, it is never handled anywhere
 
@@ -4460,63 +5218,82 @@ public class Spreadsheet extends Component
 
     /**
      * Loads the custom components for the currently viewed cells and clears
-     * previous components that are not currently visible.
+     * previous components that are not currently visible. The components of
+     * all the cells are requested again from the component factory.
      */
     private void loadCustomComponents() {
+        loadedCellComponents.clear();
+        loadViewportCustomComponents();
+    }
+
+    /**
+     * Loads the custom components for the currently viewed cells and clears
+     * previous components that are not currently visible. Only the cells that
+     * were not visible on the previous load are requested from the component
+     * factory, the components of the other cells are reused.
+     */
+    private void loadViewportCustomComponents() {
         if (customComponentFactory != null) {
-            HashMap<String, String> _cellKeysToEditorIdMap = getCellKeysToEditorIdMap() != null
-                    ? new HashMap<>(getCellKeysToEditorIdMap())
-                    : null;
-            if (_cellKeysToEditorIdMap == null) {
-                _cellKeysToEditorIdMap = new HashMap<String, String>();
-            } else {
-                _cellKeysToEditorIdMap.clear();
-            }
-            setCellKeysToEditorIdMap(_cellKeysToEditorIdMap);
-            HashMap<String, String> _componentIDtoCellKeysMap = getComponentIDtoCellKeysMap() != null
-                    ? new HashMap<>(getComponentIDtoCellKeysMap())
-                    : null;
-            if (_componentIDtoCellKeysMap == null) {
-                _componentIDtoCellKeysMap = new HashMap<String, String>();
-            } else {
-                _componentIDtoCellKeysMap.clear();
-            }
-            setComponentIDtoCellKeysMap(_componentIDtoCellKeysMap);
             if (customComponents == null) {
                 customComponents = new HashSet<Component>();
             }
-            HashSet<Component> newCustomComponents = new HashSet<Component>();
-            Set<Integer> rowsWithComponents = new HashSet<Integer>();
+            HashMap<String, CellComponents> newCellComponents = new HashMap<>();
             // iteration indexes 0-based
             int verticalSplitPosition = getLastFrozenRow();
             int horizontalSplitPosition = getLastFrozenColumn();
             if (verticalSplitPosition > 0 && horizontalSplitPosition > 0) {
                 // top left pane
-                loadRangeComponents(newCustomComponents, rowsWithComponents, 1,
-                        1, verticalSplitPosition, horizontalSplitPosition);
+                loadRangeComponents(newCellComponents, 1, 1,
+                        verticalSplitPosition, horizontalSplitPosition);
             }
             if (verticalSplitPosition > 0) {
                 // top right pane
-                loadRangeComponents(newCustomComponents, rowsWithComponents, 1,
-                        firstColumn, verticalSplitPosition, lastColumn);
+                loadRangeComponents(newCellComponents, 1, firstColumn,
+                        verticalSplitPosition, lastColumn);
             }
             if (horizontalSplitPosition > 0) {
                 // bottom left pane
-                loadRangeComponents(newCustomComponents, rowsWithComponents,
-                        firstRow, 1, lastRow, horizontalSplitPosition);
+                loadRangeComponents(newCellComponents, firstRow, 1, lastRow,
+                        horizontalSplitPosition);
+            }
+            loadRangeComponents(newCellComponents, firstRow, firstColumn,
+                    lastRow, lastColumn);
+
+            HashMap<String, String> _cellKeysToEditorIdMap = new HashMap<>();
+            HashMap<String, String> _componentIDtoCellKeysMap = new HashMap<>();
+            HashSet<Component> newCustomComponents = new HashSet<Component>();
+            Set<Integer> rowsWithComponents = new HashSet<Integer>();
+            for (Entry<String, CellComponents> entry : newCellComponents
+                    .entrySet()) {
+                final CellComponents components = entry.getValue();
+                if (components.component != null) {
+                    _componentIDtoCellKeysMap.put(
+                            getComponentNodeId(components.component),
+                            entry.getKey());
+                    newCustomComponents.add(components.component);
+                    rowsWithComponents.add(components.row);
+                } else if (components.editor != null) {
+                    _cellKeysToEditorIdMap.put(entry.getKey(),
+                            getComponentNodeId(components.editor));
+                    newCustomComponents.add(components.editor);
+                    rowsWithComponents.add(components.row);
+                }
             }
-            loadRangeComponents(newCustomComponents, rowsWithComponents,
-                    firstRow, firstColumn, lastRow, lastColumn);
-            // unregister old
-            for (Iterator<Component> i = customComponents.iterator(); i
-                    .hasNext();) {
-                Component c = i.next();
+            // register new and unregister old
+            for (Component c : newCustomComponents) {
+                if (!customComponents.contains(c)) {
+                    registerCustomComponent(c);
+                }
+            }
+            for (Component c : customComponents) {
                 if (!newCustomComponents.contains(c)) {
                     unRegisterCustomComponent(c);
-                    i.remove();
                 }
             }
             customComponents = newCustomComponents;
+            loadedCellComponents = newCellComponents;
+            setCellKeysToEditorIdMap(_cellKeysToEditorIdMap);
+            setComponentIDtoCellKeysMap(_componentIDtoCellKeysMap);
 
             if (!rowsWithComponents.isEmpty()) {
                 handleRowSizes(rowsWithComponents);
@@ -4525,6 +5302,7 @@ public class Spreadsheet extends Component
         } else {
             setCellKeysToEditorIdMap(null);
             setComponentIDtoCellKeysMap(null);
+            loadedCellComponents.clear();
             if (customComponents != null && !customComponents.isEmpty()) {
                 for (Component c : customComponents) {
                     unRegisterCustomComponent(c);
@@ -4535,64 +5313,88 @@ public class Spreadsheet extends Component
         }
     }
 
-    void loadRangeComponents(HashSet<Component> newCustomComponents,
-            Set<Integer> rowsWithComponents, int row1, int col1, int row2,
-            int col2) {
-        HashMap<String, String> _componentIDtoCellKeysMap = getComponentIDtoCellKeysMap();
-        HashMap<String, String> _cellKeysToEditorIdMap = getCellKeysToEditorIdMap();
+    /**
+     * Discards the loaded custom components of the given cells, so that they
+     * are requested again from the component factory on the next load. Called
+     * when the values, styles or locking of the cells have changed.
+     *
+     * @param cells
+     *            the changed cells, not <code>null</code>
+     */
+    void cellComponentsChanged(CellKeySet cells) {
+        if (loadedCellComponents.isEmpty()) {
+            return;
+        }
+        cells.forEach(key -> loadedCellComponents.remove(SpreadsheetUtil
+                .toKey(CellKeySet.getColumn(key), CellKeySet.getRow(key))));
+    }
+
+    /**
+     * Collects the custom components of the cells in the given range. The
+     * components of the cells loaded previously are reused, the components of
+     * other cells are requested from the component factory.
+     */
+    void loadRangeComponents(HashMap<String, CellComponents> newCellComponents,
+            int row1, int col1, int row2, int col2) {
         for (int r = row1 - 1; r < row2; r++) {
-            final Row row = getActiveSheet().getRow(r);
+            Row row = null;
+            boolean rowRead = false;
             for (int c = col1 - 1; c < col2; c++) {
                 // Cells that are inside a merged region are skipped:
                 MergedRegion region = mergedRegionContainer
                         .getMergedRegion(c + 1, r + 1);
                 if (region == null
                         || (region.col1 == (c + 1) && region.row1 == (r + 1))) {
-                    Cell cell = null;
-                    if (row != null) {
-                        cell = row.getCell(c);
-                    }
-                    // check if the cell has a custom component
-                    Component customComponent = customComponentFactory
-                            .getCustomComponentForCell(cell, r, c, this,
-                                    getActiveSheet());
-                    if (customComponent != null) {
-                        final String key = SpreadsheetUtil.toKey(c + 1, r + 1);
-                        if (!customComponents.contains(customComponent)) {
-                            registerCustomComponent(customComponent);
-                        }
-                        _componentIDtoCellKeysMap
-                                .put(getComponentNodeId(customComponent), key);
-                        newCustomComponents.add(customComponent);
-                        rowsWithComponents.add(r);
-                    } else if (!isCellLocked(cell)) {
-                        // no custom component and not locked, check if
-                        // the cell has a custom editor
-                        Component customEditor = customComponentFactory
-                                .getCustomEditorForCell(cell, r, c, this,
-                                        getActiveSheet());
-                        if (customEditor != null) {
-                            final String key = SpreadsheetUtil.toKey(c + 1,
-                                    r + 1);
-                            if (!newCustomComponents.contains(customEditor)
-                                    && !customComponents
-                                            .contains(customEditor)) {
-                                registerCustomComponent(customEditor);
-                            }
-                            _cellKeysToEditorIdMap.put(key,
-                                    getComponentNodeId(customEditor));
-                            newCustomComponents.add(customEditor);
-                            rowsWithComponents.add(r);
+                    final String key = SpreadsheetUtil.toKey(c + 1, r + 1);
+                    CellComponents components = loadedCellComponents.get(key);
+                    if (components == null) {
+                        if (!rowRead) {
+                            row = getActiveSheet().getRow(r);
+                            rowRead = true;
                         }
+                        components = createCellComponents(row, r, c);
                     }
+                    newCellComponents.put(key, components);
                 }
                 if (region != null) {
                     c = region.col2 - 1;
                 }
             }
         }
-        setCellKeysToEditorIdMap(_cellKeysToEditorIdMap);
-        setComponentIDtoCellKeysMap(_componentIDtoCellKeysMap);
+    }
+
+    private CellComponents createCellComponents(Row row, int r, int c) {
+        Cell cell = null;
+        if (row != null) {
+            cell = row.getCell(c);
+        }
+        final CellComponents components = new CellComponents(r);
+        // check if the cell has a custom component
+        components.component = customComponentFactory
+                .getCustomComponentForCell(cell, r, c, this, getActiveSheet());
+        if (components.component == null && !isCellLocked(cell)) {
+            // no custom component and not locked, check if the cell has a
+            // custom editor
+            components.editor = customComponentFactory
+                    .getCustomEditorForCell(cell, r, c, this, getActiveSheet());
+        }
+        return components;
+    }
+
+    /**
+     * The custom component and editor given by the component factory for a
+     * cell, both may be <code>null</code>.
+     */
+    @SuppressWarnings("serial")
+    static class CellComponents implements Serializable {
+        /** Row of the cell, 0-based */
+        private final int row;
+        private Component component;
+        private Component editor;
+
+        private CellComponents(int row) {
+            this.row = row;
+        }
     }
 
     private String getComponentNodeId(Component component) {
@@ -4601,14 +5403,14 @@ public class Spreadsheet extends Component
 
     private void handleRowSizes(Set<Integer> rowsWithComponents) {
         // Set larger height for new rows with components
-        float[] _rowH = Arrays.copyOf(getRowH(), getRowH().length);
+        RunLengthArray _rowH = getRowH();
         for (Integer row : rowsWithComponents) {
             if (isRowHidden(row)) {
                 continue;
             }
-            float currentHeight = _rowH[row];
+            float currentHeight = _rowH.get(row);
             if (currentHeight < getMinimumRowHeightForComponents()) {
-                _rowH[row] = getMinimumRowHeightForComponents();
+                _rowH.set(row, getMinimumRowHeightForComponents());
             }
         }
         // Reset row height for rows which no longer have components
@@ -4617,14 +5419,14 @@ public class Spreadsheet extends Component
             for (Integer row : this.rowsWithComponents) {
                 if (!rowsWithComponents.contains(row)) {
                     if (isRowHidden(row)) {
-                        _rowH[row] = 0;
+                        _rowH.set(row, 0);
                     } else {
                         Row r = activeSheet.getRow(row);
                         if (r == null) {
-                            _rowH[row] = activeSheet
-                                    .getDefaultRowHeightInPoints();
+                            _rowH.set(row, activeSheet
+                                    .getDefaultRowHeightInPoints());
                         } else {
-                            _rowH[row] = r.getHeightInPoints();
+                            _rowH.set(row, r.getHeightInPoints());
                         }
                     }
                 }
@@ -4714,6 +5516,7 @@ public class Spreadsheet extends Component
             loadCustomEditorOnSelectedCell();
         } else {
             setCellKeysToEditorIdMap(null);
+            loadedCellComponents.clear();
             if (customComponents != null && !customComponents.isEmpty()) {
                 for (Component c : customComponents) {
                     unRegisterCustomComponent(c);
@@ -5940,6 +6743,7 @@ public class Spreadsheet extends Component
 
     public void addSheetOverlay(SheetOverlayWrapper image) {
         sheetOverlays.add(image);
+        overlayIndex = null;
     }
 
     /**
@@ -8,6 +8,7 @@
  */
 package com.vaadin.flow.component.spreadsheet;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -30,6 +31,10 @@ import org.apache.poi.hssf.usermodel.HSSFShape;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ooxml.POIXMLException;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.NotOfficeXmlFileException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.Drawing;
 import org.apache.poi.ss.usermodel.Name;
 import org.apache.poi.ss.usermodel.Row;
@@ -191,6 +196,7 @@ public class SpreadsheetFactory implements Serializable {
             sheet = workbook.createSheet(sheetName);
         }
         int sheetIndex = workbook.getSheetIndex(sheet);
+        spreadsheet.cacheActiveSheetData();
         workbook.setActiveSheet(sheetIndex);
         spreadsheet.reloadActiveSheetData();
         spreadsheet.reloadActiveSheetStyles();
@@ -241,6 +247,68 @@ public class SpreadsheetFactory implements Serializable {
                 WorkbookFactory.create(inputStream));
     }
 
+    /**
+     * Reloads the Spreadsheet component from the given XLSX file in read-only
+     * mode. The file is parsed with a streaming reader and the cell contents
+     * are kept in a compact store, from which only the visible rows are
+     * loaded into the workbook.
+     *
+     * @param spreadsheet
+     *            Target Spreadsheet
+     * @param spreadsheetFile
+     *            Source file. Should be of XLSX format.
+     * @throws IOException
+     *             If file has invalid format
+     */
+    static void reloadSpreadsheetComponentInReadOnlyMode(
+            Spreadsheet spreadsheet, final File spreadsheetFile)
+            throws IOException {
+        final OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(spreadsheetFile, PackageAccess.READ);
+        } catch (InvalidFormatException | NotOfficeXmlFileException e) {
+            throw new IOException(e);
+        }
+        reloadSpreadsheetComponentInReadOnlyMode(spreadsheet, pkg);
+    }
+
+    /**
+     * Reloads the Spreadsheet component from the given InputStream in
+     * read-only mode.
+     *
+     * @param spreadsheet
+     *            Target Spreadsheet
+     * @param inputStream
+     *            Source stream. Stream content be of XLSX format.
+     * @throws IOException
+     *             If data in the stream has invalid format
+     * @see #reloadSpreadsheetComponentInReadOnlyMode(Spreadsheet, File)
+     */
+    static void reloadSpreadsheetComponentInReadOnlyMode(
+            Spreadsheet spreadsheet, final InputStream inputStream)
+            throws IOException {
+        final OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(inputStream);
+        } catch (InvalidFormatException | NotOfficeXmlFileException e) {
+            throw new IOException(e);
+        }
+        reloadSpreadsheetComponentInReadOnlyMode(spreadsheet, pkg);
+    }
+
+    private static void reloadSpreadsheetComponentInReadOnlyMode(
+            Spreadsheet spreadsheet, OPCPackage pkg) throws IOException {
+        final StreamingWorkbookReader reader;
+        try {
+            reader = StreamingWorkbookReader.read(pkg);
+        } finally {
+            // all data has been copied, discard the package without saving
+            pkg.revert();
+        }
+        reloadSpreadsheetComponent(spreadsheet, reader.getWorkbook());
+        spreadsheet.setReadOnlyCellStores(reader.getCellStores());
+    }
+
     /**
      * Reloads the Spreadsheet component using the given Workbook as data
      * source.
@@ -252,6 +320,67 @@ public class SpreadsheetFactory implements Serializable {
      */
     static void reloadSpreadsheetComponent(Spreadsheet spreadsheet,
             final Workbook workbook) {
+        disposeWorkbook(spreadsheet);
+        final Sheet sheet = workbook.getSheetAt(workbook.getActiveSheetIndex());
+        spreadsheet.setInternalWorkbook(workbook);
+        reloadSpreadsheetData(spreadsheet, sheet);
+        loadWorkbookStyles(spreadsheet);
+    }
+
+    /**
+     * Reloads the Spreadsheet component using the given Workbook as data
+     * source, loading only what is needed to show the cells of the active
+     * sheet. The overlays, tables, named ranges and the styles specific to
+     * single cells are loaded afterwards with
+     * {@link #loadDeferredSheetData(Spreadsheet)}.
+     *
+     * @param spreadsheet
+     *            Target Spreadsheet
+     * @param workbook
+     *            Source Workbook
+     */
+    static void reloadSpreadsheetLayout(Spreadsheet spreadsheet,
+            final Workbook workbook) {
+        disposeWorkbook(spreadsheet);
+        final Sheet sheet = workbook.getSheetAt(workbook.getActiveSheetIndex());
+        spreadsheet.setInternalWorkbook(workbook);
+        logMemoryUsage();
+        try {
+            setDefaultRowHeight(spreadsheet, sheet);
+            setDefaultColumnWidth(spreadsheet, sheet);
+            calculateSheetSizes(spreadsheet, sheet);
+            loadMergedRegions(spreadsheet);
+            loadFreezePane(spreadsheet);
+            loadGrouping(spreadsheet);
+        } catch (NullPointerException npe) {
+            LOGGER.warn(npe.getMessage(), npe);
+        }
+        spreadsheet.getSpreadsheetStyleFactory().reloadWorkbookStyles();
+        logMemoryUsage();
+    }
+
+    /**
+     * Loads the tables, named ranges and the styles specific to single cells
+     * of the active sheet, which were left out by
+     * {@link #reloadSpreadsheetLayout(Spreadsheet, Workbook)}. The overlays
+     * are loaded by the Spreadsheet when it next updates them.
+     *
+     * @param spreadsheet
+     *            Target Spreadsheet
+     */
+    static void loadDeferredSheetData(Spreadsheet spreadsheet) {
+        logMemoryUsage();
+        try {
+            loadSheetTables(spreadsheet);
+            loadNamedRanges(spreadsheet);
+        } catch (NullPointerException npe) {
+            LOGGER.warn(npe.getMessage(), npe);
+        }
+        spreadsheet.getSpreadsheetStyleFactory().reloadActiveSheetCellStyles();
+        logMemoryUsage();
+    }
+
+    private static void disposeWorkbook(Spreadsheet spreadsheet) {
         Workbook oldWorkbook = spreadsheet.getWorkbook();
         if (oldWorkbook != null) {
             spreadsheet.clearSheetServerSide();
@@ -259,10 +388,6 @@ public class SpreadsheetFactory implements Serializable {
                 ((SXSSFWorkbook) oldWorkbook).dispose();
             }
         }
-        final Sheet sheet = workbook.getSheetAt(workbook.getActiveSheetIndex());
-        spreadsheet.setInternalWorkbook(workbook);
-        reloadSpreadsheetData(spreadsheet, sheet);
-        loadWorkbookStyles(spreadsheet);
     }
 
     /**
@@ -281,6 +406,7 @@ public class SpreadsheetFactory implements Serializable {
      */
     static File write(Spreadsheet spreadsheet, String fileName)
             throws FileNotFoundException, IOException {
+        checkNotReadOnly(spreadsheet);
         final Workbook workbook = spreadsheet.getWorkbook();
         if (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls")) {
             if (workbook instanceof HSSFWorkbook) {
@@ -294,23 +420,13 @@ public class SpreadsheetFactory implements Serializable {
             // If the file exists beforehand, it needs to be deleted first
             file.delete();
         }
-        FileOutputStream fos = null;
-        try {
-            fos = new FileOutputStream(file);
-            workbook.write(fos);
-            fos.close();
-            if (workbook instanceof SXSSFWorkbook) {
-                ((SXSSFWorkbook) workbook).dispose();
-            }
-        } catch (Exception e) {
-            LOGGER.warn(e.getMessage(), e);
-        } finally {
-            if (fos != null) {
-                fos.close();
-            }
+        write(spreadsheet,
+                new BufferedOutputStream(new FileOutputStream(file)), null);
+        if (workbook instanceof SXSSFWorkbook) {
+            // Disposing the streaming workbook drops the rows already flushed
+            // to disk, so the written file is the only complete copy left
+            spreadsheet.setInternalWorkbook(WorkbookFactory.create(file));
         }
-        Workbook wb = WorkbookFactory.create(file);
-        spreadsheet.setInternalWorkbook(wb);
         return file;
     }
 
@@ -327,7 +443,33 @@ public class SpreadsheetFactory implements Serializable {
      */
     static void write(Spreadsheet spreadsheet, OutputStream stream)
             throws IOException {
+        write(spreadsheet, stream, null);
+    }
+
+    /**
+     * Writes the current Workbook state from the given Spreadsheet to the given
+     * output stream, reporting the progress to the given listener. The
+     * workbook is streamed to the output as it is serialized, and the stream
+     * will be closed after writing.
+     *
+     * @param spreadsheet
+     *            Source Spreadsheet
+     * @param stream
+     *            Output stream to write to
+     * @param listener
+     *            Listener notified of the written bytes, or <code>null</code>
+     * @throws IOException
+     *             If there was an error handling the stream.
+     */
+    static void write(Spreadsheet spreadsheet, OutputStream stream,
+            Spreadsheet.WriteProgressListener listener) throws IOException {
+        checkNotReadOnly(spreadsheet);
         final Workbook workbook = spreadsheet.getWorkbook();
+        ProgressOutputStream progressStream = null;
+        if (listener != null) {
+            progressStream = new ProgressOutputStream(stream, listener);
+            stream = progressStream;
+        }
         try {
             workbook.write(stream);
             stream.close();
@@ -340,6 +482,16 @@ public class SpreadsheetFactory implements Serializable {
                 stream.close();
             }
         }
+        if (progressStream != null) {
+            progressStream.complete();
+        }
+    }
+
+    private static void checkNotReadOnly(Spreadsheet spreadsheet) {
+        if (spreadsheet.isReadOnlyMode()) {
+            throw new IllegalStateException(
+                    "A workbook loaded in read-only mode can not be written");
+        }
     }
 
     /**
@@ -522,21 +674,21 @@ public class SpreadsheetFactory implements Serializable {
         }
         spreadsheet.setRows(rows);
 
-        final float[] rowHeights = new float[rows];
+        // rows are iterated in ascending order, so the heights can be
+        // appended as they are
+        final RunLengthArray rowHeights = new RunLengthArray();
         int cols = 0;
-        int tempRowIndex = -1;
         final ArrayList<Integer> hiddenRowIndexes = new ArrayList<Integer>();
         for (Row row : sheet) {
             int rIndex = row.getRowNum();
             // set the empty rows to have the default row width
-            while (++tempRowIndex != rIndex) {
-                rowHeights[tempRowIndex] = spreadsheet.getDefRowH();
-            }
+            rowHeights.append(rIndex - rowHeights.length(),
+                    spreadsheet.getDefRowH());
             if (row.getZeroHeight()) {
-                rowHeights[rIndex] = 0.0F;
+                rowHeights.append(1, 0.0F);
                 hiddenRowIndexes.add(rIndex + 1);
             } else {
-                rowHeights[rIndex] = row.getHeightInPoints();
+                rowHeights.append(1, row.getHeightInPoints());
             }
             int c = row.getLastCellNum();
             if (c > cols) {
@@ -551,13 +703,13 @@ public class SpreadsheetFactory implements Serializable {
             // if sheet is empty, also set height for 'last row' (index
             // zero)
             if (lastRowNum == 0) {
-                rowHeights[0] = defaultRowHeightInPoints;
+                rowHeights.setLength(Math.max(rowHeights.length(), 1),
+                        defaultRowHeightInPoints);
+                rowHeights.set(0, defaultRowHeightInPoints);
             }
 
             // set default height for the rest
-            for (int i = lastRowNum + 1; i < rows; i++) {
-                rowHeights[i] = defaultRowHeightInPoints;
-            }
+            rowHeights.setLength(rows, defaultRowHeightInPoints);
         }
         spreadsheet.setHiddenRowIndexes(hiddenRowIndexes);
         spreadsheet.setRowH(rowHeights);
@@ -568,14 +720,14 @@ public class SpreadsheetFactory implements Serializable {
         }
         spreadsheet.setCols(cols);
 
-        final int[] colWidths = new int[cols];
+        final RunLengthArray colWidths = new RunLengthArray();
         final ArrayList<Integer> hiddenColumnIndexes = new ArrayList<Integer>();
         for (int i = 0; i < cols; i++) {
             if (sheet.isColumnHidden(i)) {
-                colWidths[i] = 0;
+                colWidths.append(1, 0);
                 hiddenColumnIndexes.add(i + 1);
             } else {
-                colWidths[i] = (int) sheet.getColumnWidthInPixels(i);
+                colWidths.append(1, (int) sheet.getColumnWidthInPixels(i));
             }
         }
         spreadsheet.setHiddenColumnIndexes(hiddenColumnIndexes);
@@ -933,7 +1085,7 @@ public class SpreadsheetFactory implements Serializable {
                 // removed old anchor lookup, as it was wrong for some Excel
                 // files.
                 // anchor can be referenced directly from XSSFChart.
-                return new SheetChartWrapper(chartXml, spreadsheet);
+                return spreadsheet.getChartWrapper(chartXml);
             }
         } catch (NullPointerException e) {
             // means we did not find any chart for this drawing (not an error,
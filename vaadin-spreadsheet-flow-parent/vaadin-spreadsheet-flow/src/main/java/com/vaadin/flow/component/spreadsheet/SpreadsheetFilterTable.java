@@ -8,11 +8,11 @@
  */
 package com.vaadin.flow.component.spreadsheet;
 
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.util.CellRangeAddress;
@@ -134,7 +134,8 @@ public class SpreadsheetFilterTable extends SpreadsheetTable {
 
     /**
      * Clears all filters for this table. Does not remove the actual filter
-     * components.
+     * components. The rows of the filtering region are shown at once, without
+     * calling {@link Spreadsheet#setRowHidden(int, boolean)} for each row.
      */
     public void clearAllFilters() {
         for (Entry<PopupButton, HashSet<SpreadsheetFilter>> entry : popupButtonToFiltersMap
@@ -147,11 +148,8 @@ public class SpreadsheetFilterTable extends SpreadsheetTable {
             popupButtonToClearButtonMap.get(popupButton).setEnabled(false);
             popupButton.markActive(false);
         }
-        Spreadsheet spreadsheet = getSpreadsheet();
-        for (int r = filteringRegion.getFirstRow(); r <= filteringRegion
-                .getLastRow(); r++) {
-            spreadsheet.setRowHidden(r, false);
-        }
+        getSpreadsheet().setRowsHidden(filteringRegion.getFirstRow(),
+                filteringRegion.getLastRow(), new BitSet());
     }
 
     /**
@@ -233,26 +231,55 @@ public class SpreadsheetFilterTable extends SpreadsheetTable {
      * NOTE: The default ItemFilters will call this method automatically on
      * change. You only need to call this method when you have implemented and
      * added your own SpreadsheetFilter.
+     * <p>
+     * The rows of the filtering region are hidden and shown at once, without
+     * calling {@link Spreadsheet#setRowHidden(int, boolean)} for each row.
      */
     public void onFiltersUpdated() {
-        Set<Integer> filteredRows = new HashSet<>();
+        BitSet filteredRows = new BitSet();
         for (Entry<PopupButton, HashSet<SpreadsheetFilter>> entry : popupButtonToFiltersMap
                 .entrySet()) {
             PopupButton popupButton = entry.getKey();
             HashSet<SpreadsheetFilter> filters = entry.getValue();
-            HashSet<Integer> temp = new HashSet<Integer>();
+            BitSet temp = new BitSet();
             for (SpreadsheetFilter filter : filters) {
-                temp.addAll(filter.getFilteredRows());
+                if (filter instanceof ItemFilter) {
+                    temp.or(((ItemFilter) filter).getFilteredRowBits());
+                } else {
+                    for (Integer row : filter.getFilteredRows()) {
+                        temp.set(row);
+                    }
+                }
             }
             popupButtonToClearButtonMap.get(popupButton)
                     .setEnabled(!temp.isEmpty());
             popupButton.markActive(!temp.isEmpty());
-            filteredRows.addAll(temp);
+            filteredRows.or(temp);
         }
-        Spreadsheet spreadsheet = getSpreadsheet();
-        for (int r = filteringRegion.getFirstRow(); r <= filteringRegion
-                .getLastRow(); r++) {
-            spreadsheet.setRowHidden(r, filteredRows.contains(r));
+        getSpreadsheet().setRowsHidden(filteringRegion.getFirstRow(),
+                filteringRegion.getLastRow(), filteredRows);
+    }
+
+    /**
+     * Called when the values of the given cells have been updated, so that
+     * the item filters can update their value indexes.
+     *
+     * @param cells
+     *            Updated cells of the active sheet
+     * @param formulasIncluded
+     *            <code>true</code> if the cells include all formula cells
+     *            whose values may have changed, <code>false</code> if the
+     *            dependent formula cells can't be tracked
+     */
+    void cellsUpdated(CellKeySet cells, boolean formulasIncluded) {
+        for (HashSet<SpreadsheetFilter> filters : popupButtonToFiltersMap
+                .values()) {
+            for (SpreadsheetFilter filter : filters) {
+                if (filter instanceof ItemFilter) {
+                    ((ItemFilter) filter).cellsUpdated(cells,
+                            formulasIncluded);
+                }
+            }
         }
     }
 
@@ -16,7 +16,9 @@ import org.apache.poi.ss.util.CellReference;
 
 import com.vaadin.flow.component.spreadsheet.Spreadsheet.CellValueChangeEvent;
 import com.vaadin.flow.component.spreadsheet.command.Command;
+import com.vaadin.flow.component.spreadsheet.command.MemoryAwareCommand;
 import com.vaadin.flow.component.spreadsheet.command.ValueChangeCommand;
+import com.vaadin.flow.shared.Registration;
 
 /**
  * SpreadsheetHistoryManager is an utility class of the Spreadsheet add-on. This
@@ -30,6 +32,16 @@ public class SpreadsheetHistoryManager implements Serializable {
 
     private int historySize = 20;
 
+    private long historyMemoryLimit = 0;
+
+    private boolean historySpillEnabled = false;
+
+    /**
+     * Clears the history when the spreadsheet is detached, so that the
+     * temporary files of the spilled commands are deleted
+     */
+    private Registration detachRegistration;
+
     /**
      * Current index within the history
      */
@@ -60,7 +72,12 @@ public class SpreadsheetHistoryManager implements Serializable {
      */
     public void clear() {
         historyIndex = -1;
+        commands.forEach(this::dispose);
         commands.clear();
+        if (detachRegistration != null) {
+            detachRegistration.remove();
+            detachRegistration = null;
+        }
     }
 
     /**
@@ -75,10 +92,11 @@ public class SpreadsheetHistoryManager implements Serializable {
         discardAllAfter(historyIndex);
         commands.add(command);
         if (commands.size() > historySize) {
-            commands.removeFirst();
+            dispose(commands.removeFirst());
         } else {
             historyIndex++;
         }
+        enforceMemoryLimit();
         SpreadsheetFactory.logMemoryUsage();
     }
 
@@ -122,6 +140,7 @@ public class SpreadsheetHistoryManager implements Serializable {
             Command command = commands.get(++historyIndex);
             makeSureCorrectSheetActive(command);
             command.execute();
+            enforceMemoryLimit();
             changeSelection(command);
             fireCellValueChangeEvent(command);
         }
@@ -136,6 +155,7 @@ public class SpreadsheetHistoryManager implements Serializable {
             Command command = commands.get(historyIndex--);
             makeSureCorrectSheetActive(command);
             command.execute();
+            enforceMemoryLimit();
             changeSelection(command);
             fireCellValueChangeEvent(command);
         }
@@ -171,6 +191,77 @@ public class SpreadsheetHistoryManager implements Serializable {
         return historySize;
     }
 
+    /**
+     * Sets the maximum estimated amount of memory used by the Command history.
+     * When the history uses more memory, the oldest commands that can be
+     * undone are discarded until the history fits the limit. If spilling is
+     * enabled with {@link #setHistorySpillEnabled(boolean)}, the data of the
+     * commands is moved to temporary files before any commands are discarded.
+     * The latest command is always kept.
+     * <p>
+     * Only commands implementing {@link MemoryAwareCommand}, such as the ones
+     * changing cell values, are counted towards the limit.
+     *
+     * @param historyMemoryLimit
+     *            Memory limit in bytes, 0 or less for no limit
+     */
+    public void setHistoryMemoryLimit(long historyMemoryLimit) {
+        this.historyMemoryLimit = historyMemoryLimit;
+        enforceMemoryLimit();
+    }
+
+    /**
+     * Gets the maximum estimated amount of memory used by the Command history.
+     * The history has no memory limit by default.
+     *
+     * @return Memory limit in bytes, 0 or less for no limit
+     */
+    public long getHistoryMemoryLimit() {
+        return historyMemoryLimit;
+    }
+
+    /**
+     * Sets whether the data of the commands is moved to temporary files when
+     * the history exceeds the memory limit set with
+     * {@link #setHistoryMemoryLimit(long)}. The data is read back from the
+     * files when the commands are undone or redone. Once the history has
+     * exceeded the limit with spilling enabled, it is cleared when the
+     * Spreadsheet is detached, so that the files are deleted. Disabled by
+     * default.
+     *
+     * @param historySpillEnabled
+     *            <code>true</code> to move data to temporary files,
+     *            <code>false</code> to discard commands right away
+     */
+    public void setHistorySpillEnabled(boolean historySpillEnabled) {
+        this.historySpillEnabled = historySpillEnabled;
+        enforceMemoryLimit();
+    }
+
+    /**
+     * Gets whether the data of the commands is moved to temporary files when
+     * the history exceeds the memory limit.
+     *
+     * @return <code>true</code> if data is moved to temporary files,
+     *         <code>false</code> otherwise
+     */
+    public boolean isHistorySpillEnabled() {
+        return historySpillEnabled;
+    }
+
+    /**
+     * Gets the estimated amount of memory used by the Command history.
+     *
+     * @return Memory usage in bytes
+     */
+    public long getHistoryMemoryUsage() {
+        long usage = 0;
+        for (Command command : commands) {
+            usage += getMemoryUsage(command);
+        }
+        return usage;
+    }
+
     /**
      * Gets the current index within the Command history.
      *
@@ -241,7 +332,55 @@ public class SpreadsheetHistoryManager implements Serializable {
      */
     protected void discardAllAfter(int index) {
         while (commands.size() > (index + 1)) {
-            commands.removeLast();
+            dispose(commands.removeLast());
+        }
+    }
+
+    private void enforceMemoryLimit() {
+        if (historyMemoryLimit <= 0) {
+            return;
+        }
+        long usage = getHistoryMemoryUsage();
+        if (historySpillEnabled) {
+            clearOnDetach();
+            for (Command command : commands) {
+                if (usage <= historyMemoryLimit) {
+                    return;
+                }
+                if (command instanceof MemoryAwareCommand) {
+                    long before = getMemoryUsage(command);
+                    ((MemoryAwareCommand) command).spill();
+                    usage -= before - getMemoryUsage(command);
+                }
+            }
+        }
+        // only commands that can be undone are discarded, as the ones after
+        // the current index depend on the ones before them
+        while (usage > historyMemoryLimit && historyIndex >= 0
+                && commands.size() > 1) {
+            Command command = commands.removeFirst();
+            historyIndex--;
+            usage -= getMemoryUsage(command);
+            dispose(command);
+        }
+    }
+
+    private void clearOnDetach() {
+        if (detachRegistration == null) {
+            detachRegistration = spreadsheet
+                    .addDetachListener(event -> clear());
+        }
+    }
+
+    private static long getMemoryUsage(Command command) {
+        return command instanceof MemoryAwareCommand
+                ? ((MemoryAwareCommand) command).getMemoryUsage()
+                : 0;
+    }
+
+    private static void dispose(Command command) {
+        if (command instanceof MemoryAwareCommand) {
+            ((MemoryAwareCommand) command).dispose();
         }
     }
 }
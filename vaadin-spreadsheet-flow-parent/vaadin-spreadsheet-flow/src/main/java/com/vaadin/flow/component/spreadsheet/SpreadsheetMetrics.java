@@ -0,0 +1,94 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsListener;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
+
+/**
+ * Measures the phases of handling a request for a
+ * {@link Spreadsheet.MetricsListener}. Nothing is measured when no listener
+ * has been set.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class SpreadsheetMetrics implements Serializable {
+
+    /**
+     * A phase that has been started with
+     * {@link SpreadsheetMetrics#start(MetricsPhase)}.
+     */
+    static final class Measurement {
+        private final MetricsPhase phase;
+        private final long startTime;
+        private final long startPayloadSize;
+
+        private Measurement(MetricsPhase phase, long startPayloadSize) {
+            this.phase = phase;
+            this.startPayloadSize = startPayloadSize;
+            startTime = System.nanoTime();
+        }
+    }
+
+    private MetricsListener listener;
+
+    /** Total size of the data sent to the client side while measuring */
+    private long payloadSize;
+
+    MetricsListener getListener() {
+        return listener;
+    }
+
+    void setListener(MetricsListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Starts measuring a phase. Phases can be nested.
+     *
+     * @param phase
+     *            Phase to measure
+     * @return the started measurement to pass to {@link #end(Measurement)}, or
+     *         <code>null</code> if there is no listener
+     */
+    Measurement start(MetricsPhase phase) {
+        return listener == null ? null : new Measurement(phase, payloadSize);
+    }
+
+    /**
+     * Ends measuring a phase and reports it to the listener.
+     *
+     * @param measurement
+     *            Measurement returned by {@link #start(MetricsPhase)}, may be
+     *            <code>null</code>
+     */
+    void end(Measurement measurement) {
+        if (measurement != null && listener != null) {
+            listener.onPhaseCompleted(measurement.phase,
+                    System.nanoTime() - measurement.startTime,
+                    payloadSize - measurement.startPayloadSize);
+        }
+    }
+
+    /**
+     * Adds to the size of the data sent to the client side during the phases
+     * being measured.
+     *
+     * @param size
+     *            Size of the sent data, in characters
+     */
+    void addPayload(int size) {
+        if (listener != null) {
+            payloadSize += size;
+        }
+    }
+}
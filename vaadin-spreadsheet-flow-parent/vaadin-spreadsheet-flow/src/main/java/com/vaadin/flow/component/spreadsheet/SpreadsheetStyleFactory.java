@@ -8,8 +8,15 @@
  */
 package com.vaadin.flow.component.spreadsheet;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -38,6 +45,7 @@ import org.openxmlformats.schemas.spreadsheetml.x2006.main.STBorderStyle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
 import com.vaadin.flow.component.spreadsheet.client.MergedRegion;
 
 /**
@@ -100,6 +108,23 @@ public class SpreadsheetStyleFactory implements Serializable {
 
     }
 
+    /**
+     * The custom border styles of a sheet that is not active, see
+     * {@link SpreadsheetStyleFactory#saveActiveSheetCellStyles()}.
+     */
+    static class SheetCellStyles implements Serializable {
+
+        /** CellStyle index to the selectors of the shifted left borders */
+        private final HashMap<Integer, String> borderLeftSelectors = new HashMap<Integer, String>();
+        /** CellStyle index to the selectors of the shifted top borders */
+        private final HashMap<Integer, String> borderTopSelectors = new HashMap<Integer, String>();
+        private final HashMap<String, String> mergedCellBorders;
+
+        private SheetCellStyles(HashMap<String, String> mergedCellBorders) {
+            this.mergedCellBorders = mergedCellBorders;
+        }
+    }
+
     private static final Map<HorizontalAlignment, String> ALIGN = mapFor(
             HorizontalAlignment.LEFT, "left", HorizontalAlignment.CENTER,
             "center", HorizontalAlignment.RIGHT, "right",
@@ -185,6 +210,16 @@ public class SpreadsheetStyleFactory implements Serializable {
      * Reloads all sheet and cell styles from the current Workbook.
      */
     public void reloadWorkbookStyles() {
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.CELL_STYLES);
+        try {
+            loadWorkbookStyles();
+        } finally {
+            spreadsheet.getMetrics().end(measurement);
+        }
+    }
+
+    private void loadWorkbookStyles() {
         final Workbook workbook = spreadsheet.getWorkbook();
         spreadsheet.cellStyleToCSSStyle = spreadsheet.getCellStyleToCSSStyle();
         if (spreadsheet.cellStyleToCSSStyle == null) {
@@ -208,12 +243,33 @@ public class SpreadsheetStyleFactory implements Serializable {
         defaultFontStyle(cellStyle, sb);
         colorConverter.defaultColorStyles(cellStyle, sb);
         spreadsheet.cellStyleToCSSStyle.put((int) cellStyle.getIndex(),
-                sb.toString());
-
-        // 0 is default style, create all styles indexed from 1 and upwards
-        for (short i = 1; i < workbook.getNumCellStyles(); i++) {
-            cellStyle = workbook.getCellStyleAt(i);
-            addCellStyleCSS(cellStyle);
+                CssStyleRegistry.getShared().intern(sb.toString()));
+
+        // 0 is default style, create all styles indexed from 1 and upwards,
+        // unless they have been created for an equal workbook already
+        final CssStyleRegistry registry = CssStyleRegistry.getShared();
+        final String fingerprint = getStylesFingerprint(workbook);
+        final CssStyleRegistry.WorkbookStyles registered = fingerprint == null
+                ? null
+                : registry.getWorkbookStyles(fingerprint);
+        if (registered != null) {
+            spreadsheet.cellStyleToCSSStyle.putAll(registered.getStyles());
+            shiftedBorderTopStyles
+                    .putAll(registered.getShiftedBorderTopStyles());
+            shiftedBorderLeftStyles
+                    .putAll(registered.getShiftedBorderLeftStyles());
+        } else {
+            for (short i = 1; i < workbook.getNumCellStyles(); i++) {
+                cellStyle = workbook.getCellStyleAt(i);
+                addCellStyleCSS(cellStyle);
+            }
+            if (fingerprint != null) {
+                registry.putWorkbookStyles(fingerprint,
+                        new CssStyleRegistry.WorkbookStyles(
+                                spreadsheet.cellStyleToCSSStyle,
+                                shiftedBorderTopStyles,
+                                shiftedBorderLeftStyles));
+            }
         }
         spreadsheet.setCellStyleToCSSStyle(spreadsheet.cellStyleToCSSStyle);
         reloadActiveSheetColumnRowStyles();
@@ -409,14 +465,44 @@ public class SpreadsheetStyleFactory implements Serializable {
      *            true to also update custom borders
      */
     public void cellStyleUpdated(Cell cell, boolean updateCustomBorders) {
+        ArrayList<String> _shiftedCellBorderStyles = spreadsheet
+                .getShiftedCellBorderStyles();
+        updateCellStyle(cell, updateCustomBorders, _shiftedCellBorderStyles);
+        spreadsheet.setShiftedCellBorderStyles(_shiftedCellBorderStyles);
+    }
+
+    /**
+     * Same as {@link #cellStyleUpdated(Cell, boolean)} for several cells at
+     * once. The custom border styles are sent to the client side only once,
+     * after all the cells have been updated.
+     *
+     * @param cells
+     *            Target cells
+     * @param updateCustomBorders
+     *            true to also update custom borders
+     */
+    void cellStylesUpdated(Collection<Cell> cells,
+            boolean updateCustomBorders) {
+        if (cells.isEmpty()) {
+            return;
+        }
+        ArrayList<String> _shiftedCellBorderStyles = spreadsheet
+                .getShiftedCellBorderStyles();
+        for (Cell cell : cells) {
+            updateCellStyle(cell, updateCustomBorders,
+                    _shiftedCellBorderStyles);
+        }
+        spreadsheet.setShiftedCellBorderStyles(_shiftedCellBorderStyles);
+    }
+
+    private void updateCellStyle(Cell cell, boolean updateCustomBorders,
+            ArrayList<String> _shiftedCellBorderStyles) {
         final String cssSelector = ".col" + (cell.getColumnIndex() + 1) + ".row"
                 + (cell.getRowIndex() + 1);
         final Integer key = (int) cell.getCellStyle().getIndex();
         // remove/modify all possible old custom styles that the cell had (can
         // be found from state)
         ArrayList<String> add = new ArrayList<String>();
-        ArrayList<String> _shiftedCellBorderStyles = spreadsheet
-                .getShiftedCellBorderStyles();
         Iterator<String> iterator = _shiftedCellBorderStyles.iterator();
         while (iterator.hasNext()) {
             String style = iterator.next();
@@ -485,7 +571,6 @@ public class SpreadsheetStyleFactory implements Serializable {
                         cssSelector, mergedCellBorders.get(cssSelector)));
             }
         }
-        spreadsheet.setShiftedCellBorderStyles(_shiftedCellBorderStyles);
     }
 
     /**
@@ -522,6 +607,16 @@ public class SpreadsheetStyleFactory implements Serializable {
      * Reloads all styles for the currently active sheet.
      */
     public void reloadActiveSheetCellStyles() {
+        final SpreadsheetMetrics.Measurement measurement = spreadsheet
+                .getMetrics().start(MetricsPhase.CELL_STYLES);
+        try {
+            loadActiveSheetCellStyles();
+        } finally {
+            spreadsheet.getMetrics().end(measurement);
+        }
+    }
+
+    private void loadActiveSheetCellStyles() {
         // need to remove the cell identifiers (css selectors from the shifted
         // border style rules
         for (Entry<Integer, String> entry : shiftedBorderLeftStyles
@@ -582,6 +677,65 @@ public class SpreadsheetStyleFactory implements Serializable {
         spreadsheet.setShiftedCellBorderStyles(_shiftedCellBorderStyles);
     }
 
+    /**
+     * Saves the custom border styles of the active sheet, so that they can be
+     * restored with {@link #restoreActiveSheetCellStyles(SheetCellStyles)}
+     * when the sheet is activated again, instead of styling all of its cells
+     * again with {@link #reloadActiveSheetCellStyles()}.
+     *
+     * @return the custom border styles of the active sheet
+     */
+    SheetCellStyles saveActiveSheetCellStyles() {
+        final SheetCellStyles styles = new SheetCellStyles(
+                new HashMap<String, String>(mergedCellBorders));
+        saveSelectors(shiftedBorderLeftStyles, styles.borderLeftSelectors);
+        saveSelectors(shiftedBorderTopStyles, styles.borderTopSelectors);
+        return styles;
+    }
+
+    /**
+     * Restores the custom border styles of the active sheet, saved with
+     * {@link #saveActiveSheetCellStyles()}, and sends them to the client side.
+     * The rules of the cell styles are taken from the current styles, in case
+     * they have changed after the styles were saved.
+     *
+     * @param styles
+     *            Saved custom border styles of the active sheet
+     */
+    void restoreActiveSheetCellStyles(SheetCellStyles styles) {
+        restoreSelectors(shiftedBorderLeftStyles, styles.borderLeftSelectors);
+        restoreSelectors(shiftedBorderTopStyles, styles.borderTopSelectors);
+        mergedCellBorders.clear();
+        mergedCellBorders.putAll(styles.mergedCellBorders);
+        shiftedBorderTopStylesMap.clear();
+        shiftedBorderLeftStylesMap.clear();
+        loadCustomBorderStylesToState();
+
+        // conditional formatting
+        spreadsheet.getConditionalFormatter().createConditionalFormatterRules();
+    }
+
+    private static void saveSelectors(HashMap<Integer, String> styles,
+            HashMap<Integer, String> selectors) {
+        for (Entry<Integer, String> entry : styles.entrySet()) {
+            String value = entry.getValue();
+            if (value.startsWith(".col")) {
+                selectors.put(entry.getKey(),
+                        value.substring(0, value.indexOf("{")));
+            }
+        }
+    }
+
+    private static void restoreSelectors(HashMap<Integer, String> styles,
+            HashMap<Integer, String> selectors) {
+        for (Entry<Integer, String> entry : styles.entrySet()) {
+            String value = entry.getValue();
+            String rules = value.substring(value.indexOf("{"));
+            String selector = selectors.get(entry.getKey());
+            entry.setValue(selector == null ? rules : selector + rules);
+        }
+    }
+
     @SuppressWarnings({ "unchecked" })
     private static <K, V> Map<K, V> mapFor(Object... mapping) {
         Map<K, V> map = new HashMap<K, V>();
@@ -628,7 +782,8 @@ public class SpreadsheetStyleFactory implements Serializable {
 
         HashMap<Integer, String> _cellStyleToCSSStyle = spreadsheet
                 .getCellStyleToCSSStyle();
-        _cellStyleToCSSStyle.put((int) cellStyle.getIndex(), sb.toString());
+        _cellStyleToCSSStyle.put((int) cellStyle.getIndex(),
+                CssStyleRegistry.getShared().intern(sb.toString()));
         spreadsheet.setCellStyleToCSSStyle(_cellStyleToCSSStyle);
     }
 
@@ -1079,6 +1234,36 @@ public class SpreadsheetStyleFactory implements Serializable {
         }
     }
 
+    /**
+     * Computes a fingerprint of everything the CSS of the cell styles is
+     * generated from: the styles, fonts, fills, borders and colors of the
+     * workbook, and its theme.
+     *
+     * @return the fingerprint, or <code>null</code> if the CSS of the workbook
+     *         can't be shared
+     */
+    private static String getStylesFingerprint(Workbook workbook) {
+        if (!(workbook instanceof XSSFWorkbook)) {
+            return null;
+        }
+        final XSSFWorkbook xssfWorkbook = (XSSFWorkbook) workbook;
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(
+                    OutputStream.nullOutputStream(), digest)) {
+                xssfWorkbook.getStylesSource().writeTo(out);
+                if (xssfWorkbook.getTheme() != null) {
+                    xssfWorkbook.getTheme().getCTTheme().save(out);
+                }
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            LOGGER.debug("Could not compute the fingerprint of the styles, "
+                    + "the CSS of the styles is not shared", e);
+            return null;
+        }
+    }
+
     private <K> void styleOut(StringBuilder sb, String attr, K key,
             Map<K, String> mapping) {
         String value = mapping.get(key);
@@ -0,0 +1,275 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
+
+/**
+ * Sends array and map valued state properties of a component to the client
+ * side as patches. Changes to the properties are recorded during a round trip,
+ * and before the response is written they are flushed with a single
+ * <code>patchState</code> call on the client side element. Every property is
+ * sent at most once per round trip, and only the changed range of it, or the
+ * changed entries of a map, are sent if the client side already has an
+ * earlier value of the property.
+ * <p>
+ * The patches are applied to the corresponding properties of the client side
+ * element, so the client side sees the same property values as if they had
+ * been set from the server side. Supported property values are primitive
+ * arrays, lists, maps and <code>null</code>.
+ * <p>
+ * The flush is reported to the metrics as {@link MetricsPhase#STATE_PATCHES},
+ * including the size of the sent patches.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class StatePatchChannel implements Serializable {
+
+    private final Component component;
+
+    /** Values changed during the current round trip */
+    private final Map<String, Object> pending = new LinkedHashMap<>();
+
+    /** Copies of the values the client side has */
+    private final Map<String, Object> sent = new LinkedHashMap<>();
+
+    private final SpreadsheetMetrics metrics;
+
+    private boolean flushScheduled;
+
+    StatePatchChannel(Component component, SpreadsheetMetrics metrics) {
+        this.component = component;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the value of a property. The value is sent to the client side
+     * before the response of the current round trip, or when the component is
+     * attached.
+     *
+     * @param property
+     *            Name of the property
+     * @param value
+     *            New value, may be <code>null</code>; the content of the value
+     *            is read when it is sent
+     */
+    void set(String property, Object value) {
+        pending.put(property, value);
+        scheduleFlush();
+    }
+
+    /**
+     * Sends the full values of all properties again. Should be called when the
+     * component is attached, as a new client side element doesn't have any of
+     * the patched properties.
+     */
+    void resendAll() {
+        sent.forEach(pending::putIfAbsent);
+        sent.clear();
+        // a flush may have been skipped if the component was detached
+        flushScheduled = false;
+        if (!pending.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        component.getElement().getNode()
+                .runWhenAttached(ui -> ui.beforeClientResponse(component,
+                        context -> flush()));
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+        final SpreadsheetMetrics.Measurement measurement = metrics
+                .start(MetricsPhase.STATE_PATCHES);
+        try {
+            sendPatches();
+        } finally {
+            metrics.end(measurement);
+        }
+    }
+
+    private void sendPatches() {
+        final List<PropertyPatch> patches = new ArrayList<>(pending.size());
+        pending.forEach((property, value) -> {
+            final PropertyPatch patch = sent.containsKey(property)
+                    ? createPatch(property, sent.get(property), value)
+                    : createFullPatch(property, value);
+            if (patch != null) {
+                patches.add(patch);
+            }
+            sent.put(property, copyOf(value));
+        });
+        pending.clear();
+        if (!patches.isEmpty()) {
+            final String json = Serializer.serialize(patches);
+            metrics.addPayload(json.length());
+            component.getElement().callJsFunction("patchState", json);
+        }
+    }
+
+    /**
+     * @param property
+     *            Name of the property
+     * @param oldValue
+     *            Value the client side has
+     * @param newValue
+     *            Value to send
+     * @return a patch that changes the old value to the new one, or
+     *         <code>null</code> if the values are equal
+     */
+    static PropertyPatch createPatch(String property, Object oldValue,
+            Object newValue) {
+        if (oldValue == null || newValue == null) {
+            return oldValue == newValue ? null
+                    : createFullPatch(property, newValue);
+        }
+        if (newValue instanceof Map) {
+            return createMapPatch(property, (Map<?, ?>) oldValue,
+                    (Map<?, ?>) newValue);
+        }
+        final int oldLength = length(oldValue);
+        final int newLength = length(newValue);
+        int prefix = 0;
+        final int maxPrefix = Math.min(oldLength, newLength);
+        while (prefix < maxPrefix && Objects.equals(get(oldValue, prefix),
+                get(newValue, prefix))) {
+            prefix++;
+        }
+        if (prefix == oldLength && prefix == newLength) {
+            return null;
+        }
+        int suffix = 0;
+        final int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && Objects.equals(get(oldValue, oldLength - 1 - suffix),
+                        get(newValue, newLength - 1 - suffix))) {
+            suffix++;
+        }
+        final int insertCount = newLength - prefix - suffix;
+        if (insertCount * 2 >= newLength) {
+            // most of the value has changed, send it as a whole
+            return createFullPatch(property, newValue);
+        }
+        final PropertyPatch patch = new PropertyPatch();
+        patch.property = property;
+        patch.start = prefix;
+        patch.deleteCount = oldLength - prefix - suffix;
+        patch.items = new ArrayList<>(insertCount);
+        for (int i = prefix; i < prefix + insertCount; i++) {
+            patch.items.add(get(newValue, i));
+        }
+        return patch;
+    }
+
+    private static PropertyPatch createMapPatch(String property,
+            Map<?, ?> oldValue, Map<?, ?> newValue) {
+        final Map<Object, Object> entries = new LinkedHashMap<>();
+        newValue.forEach((key, value) -> {
+            if (!oldValue.containsKey(key)
+                    || !Objects.equals(oldValue.get(key), value)) {
+                entries.put(key, value);
+            }
+        });
+        final List<Object> removedKeys = new ArrayList<>();
+        for (Object key : oldValue.keySet()) {
+            if (!newValue.containsKey(key)) {
+                removedKeys.add(key);
+            }
+        }
+        if (entries.isEmpty() && removedKeys.isEmpty()) {
+            return null;
+        }
+        if ((entries.size() + removedKeys.size()) * 2 >= newValue.size()) {
+            // most of the value has changed, send it as a whole
+            return createFullPatch(property, newValue);
+        }
+        final PropertyPatch patch = new PropertyPatch();
+        patch.property = property;
+        patch.entries = entries;
+        patch.removedKeys = removedKeys;
+        return patch;
+    }
+
+    private static PropertyPatch createFullPatch(String property,
+            Object value) {
+        final PropertyPatch patch = new PropertyPatch();
+        patch.property = property;
+        patch.value = Serializer.serialize(value);
+        return patch;
+    }
+
+    private static int length(Object value) {
+        return value instanceof List ? ((List<?>) value).size()
+                : Array.getLength(value);
+    }
+
+    private static Object get(Object value, int index) {
+        return value instanceof List ? ((List<?>) value).get(index)
+                : Array.get(value, index);
+    }
+
+    private static Object copyOf(Object value) {
+        if (value instanceof List) {
+            return new ArrayList<>((List<?>) value);
+        } else if (value instanceof Map) {
+            return new HashMap<>((Map<?, ?>) value);
+        } else if (value instanceof float[]) {
+            return ((float[]) value).clone();
+        } else if (value instanceof int[]) {
+            return ((int[]) value).clone();
+        } else if (value instanceof Object[]) {
+            return Arrays.copyOf((Object[]) value, ((Object[]) value).length);
+        }
+        return value;
+    }
+
+    /**
+     * A change to a property. Either the full serialized value, a range of
+     * items to replace, or the entries of a map to change.
+     */
+    static class PropertyPatch implements Serializable {
+        @JsonInclude
+        public String property;
+        /** Full value of the property, <code>null</code> for a range patch */
+        @JsonInclude
+        public String value;
+        @JsonInclude
+        public int start;
+        @JsonInclude
+        public int deleteCount;
+        @JsonInclude
+        public List<Object> items;
+        /** Added and changed map entries, also the empty values */
+        @JsonInclude(content = JsonInclude.Include.ALWAYS)
+        public Map<Object, Object> entries;
+        public List<Object> removedKeys;
+    }
+}
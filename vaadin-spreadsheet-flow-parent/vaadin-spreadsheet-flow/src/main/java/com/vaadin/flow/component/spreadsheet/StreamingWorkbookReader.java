@@ -0,0 +1,398 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Reads an XLSX package with a SAX parser for the read-only mode of
+ * {@link Spreadsheet}. Instead of building the full XSSF object model, the
+ * cell contents of each sheet are collected into a {@link WindowedCellStore}.
+ * The resulting {@link XSSFWorkbook} only contains the sheets, cell styles,
+ * column widths, custom row heights and merged regions; cells are materialized
+ * into it on demand for the rows that are visible.
+ * <p>
+ * Formulas are not evaluated in read-only mode, the cached results stored in
+ * the file are shown instead.
+ *
+ * @author Vaadin Ltd.
+ */
+class StreamingWorkbookReader {
+
+    private static final int MAX_COLUMN_DEFINITION_SPAN = 1024;
+
+    private final XSSFWorkbook workbook = new XSSFWorkbook();
+    private final List<WindowedCellStore> cellStores = new ArrayList<>();
+    private final Map<Integer, Short> styleIndexMap = new HashMap<>();
+
+    private StylesTable sourceStyles;
+    private ReadOnlySharedStringsTable sharedStrings;
+
+    private StreamingWorkbookReader() {
+    }
+
+    /**
+     * Reads the given package.
+     *
+     * @param pkg
+     *            XLSX package to read
+     * @return the reader holding the skeleton workbook and the cell stores
+     * @throws IOException
+     *             If the package can't be read or has an invalid format
+     */
+    static StreamingWorkbookReader read(OPCPackage pkg) throws IOException {
+        StreamingWorkbookReader reader = new StreamingWorkbookReader();
+        try {
+            reader.readPackage(pkg);
+        } catch (OpenXML4JException | SAXException
+                | ParserConfigurationException e) {
+            throw new IOException(e);
+        }
+        return reader;
+    }
+
+    /**
+     * @return the workbook containing the sheet structure and styles, but no
+     *         cell contents
+     */
+    XSSFWorkbook getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * @return the cell stores, indexed by POI sheet index
+     */
+    List<WindowedCellStore> getCellStores() {
+        return cellStores;
+    }
+
+    private void readPackage(OPCPackage pkg) throws IOException,
+            OpenXML4JException, SAXException, ParserConfigurationException {
+        XSSFReader xssfReader = new XSSFReader(pkg);
+        sourceStyles = xssfReader.getStylesTable();
+        sharedStrings = new ReadOnlySharedStringsTable(pkg);
+
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader
+                .getSheetsData();
+        while (sheets.hasNext()) {
+            try (InputStream sheetData = sheets.next()) {
+                XSSFSheet sheet = workbook.createSheet(sheets.getSheetName());
+                WindowedCellStore cellStore = new WindowedCellStore();
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new SheetHandler(sheet, cellStore));
+                parser.parse(new InputSource(sheetData));
+                cellStore.complete();
+                markSheetSize(sheet, cellStore);
+                // read-only mode, prevent all editing
+                sheet.protectSheet("");
+                cellStores.add(cellStore);
+            }
+        }
+        if (workbook.getNumberOfSheets() == 0) {
+            throw new IOException("The file does not contain any sheets");
+        }
+    }
+
+    /**
+     * Creates an empty cell in the last row and column so that the sheet size
+     * is calculated correctly, without loading any cell contents.
+     */
+    private static void markSheetSize(XSSFSheet sheet,
+            WindowedCellStore cellStore) {
+        int lastRow = cellStore.getLastRow();
+        int lastColumn = cellStore.getLastColumn();
+        if (lastRow < 0 || lastColumn < 0) {
+            return;
+        }
+        XSSFRow row = sheet.getRow(lastRow);
+        if (row == null) {
+            row = sheet.createRow(lastRow);
+        }
+        row.createCell(lastColumn);
+        cellStore.markSizeCell(lastRow, lastColumn);
+    }
+
+    /**
+     * Converts an ISO 8601 value of a date cell (<code>t="d"</code>) to an
+     * Excel date value. The time zone designator is ignored, as Excel dates
+     * don't have a time zone.
+     */
+    static double parseIsoDate(String value) {
+        String local = value.endsWith("Z")
+                ? value.substring(0, value.length() - 1)
+                : value;
+        int timeStart = local.indexOf('T');
+        if (timeStart < 0) {
+            return DateUtil.getExcelDate(LocalDate.parse(local).atStartOfDay());
+        }
+        LocalTime time = LocalTime.parse(local.substring(timeStart + 1));
+        if (timeStart == 0) {
+            // time only, stored as the fraction of a day
+            return time.toNanoOfDay() / (double) TimeUnit.DAYS.toNanos(1);
+        }
+        return DateUtil.getExcelDate(LocalDateTime
+                .of(LocalDate.parse(local.substring(0, timeStart)), time));
+    }
+
+    private short getStyleIndex(int sourceIndex) {
+        if (sourceIndex <= 0
+                || sourceIndex >= sourceStyles.getNumCellStyles()) {
+            return 0;
+        }
+        return styleIndexMap.computeIfAbsent(sourceIndex, index -> {
+            XSSFCellStyle style = workbook.createCellStyle();
+            style.cloneStyleFrom(sourceStyles.getStyleAt(index));
+            return style.getIndex();
+        });
+    }
+
+    /**
+     * Collects the cells of a single sheet XML part into a cell store. Sheet
+     * level formatting is applied directly to the skeleton sheet.
+     */
+    private class SheetHandler extends DefaultHandler {
+
+        private final XSSFSheet sheet;
+        private final WindowedCellStore cellStore;
+
+        private final StringBuilder text = new StringBuilder();
+        private boolean collectText;
+        private boolean inInlineString;
+
+        private int rowIndex = -1;
+        private int columnIndex;
+        private String cellType;
+        private short cellStyle;
+        private String cellValue;
+
+        private SheetHandler(XSSFSheet sheet, WindowedCellStore cellStore) {
+            this.sheet = sheet;
+            this.cellStore = cellStore;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            switch (localName) {
+            case "sheetFormatPr":
+                String defaultRowHeight = attributes
+                        .getValue("defaultRowHeight");
+                if (defaultRowHeight != null) {
+                    sheet.setDefaultRowHeightInPoints(
+                            Float.parseFloat(defaultRowHeight));
+                }
+                break;
+            case "col":
+                startColumn(attributes);
+                break;
+            case "row":
+                startRow(attributes);
+                break;
+            case "c":
+                startCell(attributes);
+                break;
+            case "is":
+                inInlineString = true;
+                break;
+            case "v":
+                text.setLength(0);
+                collectText = true;
+                break;
+            case "t":
+                if (inInlineString) {
+                    collectText = true;
+                }
+                break;
+            case "mergeCell":
+                sheet.addMergedRegionUnsafe(
+                        CellRangeAddress.valueOf(attributes.getValue("ref")));
+                break;
+            default:
+                break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+            case "v":
+                cellValue = text.toString();
+                collectText = false;
+                break;
+            case "t":
+                collectText = false;
+                break;
+            case "is":
+                cellValue = text.toString();
+                inInlineString = false;
+                break;
+            case "c":
+                endCell();
+                break;
+            default:
+                break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collectText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void startColumn(Attributes attributes) {
+            int min = Integer.parseInt(attributes.getValue("min")) - 1;
+            int max = Integer.parseInt(attributes.getValue("max")) - 1;
+            String width = attributes.getValue("width");
+            boolean hidden = isTrue(attributes.getValue("hidden"));
+            // definitions spanning the whole sheet end at the last possible
+            // column, only apply them to a sensible amount of columns
+            max = Math.min(max, min + MAX_COLUMN_DEFINITION_SPAN);
+            for (int i = min; i <= max; i++) {
+                if (width != null) {
+                    sheet.setColumnWidth(i,
+                            (int) (Double.parseDouble(width) * 256));
+                }
+                if (hidden) {
+                    sheet.setColumnHidden(i, true);
+                }
+            }
+        }
+
+        private void startRow(Attributes attributes) {
+            String r = attributes.getValue("r");
+            rowIndex = r == null ? rowIndex + 1 : Integer.parseInt(r) - 1;
+            columnIndex = -1;
+            boolean customHeight = isTrue(attributes.getValue("customHeight"));
+            boolean hidden = isTrue(attributes.getValue("hidden"));
+            if (customHeight || hidden) {
+                XSSFRow row = sheet.createRow(rowIndex);
+                String height = attributes.getValue("ht");
+                if (customHeight && height != null) {
+                    row.setHeightInPoints(Float.parseFloat(height));
+                }
+                row.setZeroHeight(hidden);
+                cellStore.markSkeletonRow(rowIndex);
+            }
+        }
+
+        private void startCell(Attributes attributes) {
+            String reference = attributes.getValue("r");
+            columnIndex = reference == null ? columnIndex + 1
+                    : new CellReference(reference).getCol();
+            cellType = attributes.getValue("t");
+            String style = attributes.getValue("s");
+            cellStyle = style == null ? 0
+                    : getStyleIndex(Integer.parseInt(style));
+            cellValue = null;
+            text.setLength(0);
+        }
+
+        private void endCell() {
+            if (cellValue == null || cellValue.isEmpty()) {
+                if (cellStyle != 0) {
+                    cellStore.addCell(rowIndex, columnIndex,
+                            WindowedCellStore.BLANK, 0, null, cellStyle);
+                }
+                return;
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                cellStore.addCell(rowIndex, columnIndex,
+                        WindowedCellStore.NUMERIC,
+                        Double.parseDouble(cellValue), null, cellStyle);
+            } else if ("s".equals(cellType)) {
+                cellStore.addCell(rowIndex, columnIndex,
+                        WindowedCellStore.STRING, 0,
+                        sharedStrings.getItemAt(Integer.parseInt(cellValue))
+                                .getString(),
+                        cellStyle);
+            } else if ("b".equals(cellType)) {
+                cellStore.addCell(rowIndex, columnIndex,
+                        WindowedCellStore.BOOLEAN, isTrue(cellValue) ? 1 : 0,
+                        null, cellStyle);
+            } else if ("e".equals(cellType)) {
+                addErrorCell();
+            } else if ("d".equals(cellType)) {
+                addDateCell();
+            } else {
+                // "str" (formula result) and "inlineStr"
+                cellStore.addCell(rowIndex, columnIndex,
+                        WindowedCellStore.STRING, 0, cellValue, cellStyle);
+            }
+        }
+
+        private void addErrorCell() {
+            FormulaError error;
+            try {
+                error = FormulaError.forString(cellValue);
+            } catch (IllegalArgumentException e) {
+                // unknown error, show it as text
+                cellStore.addCell(rowIndex, columnIndex,
+                        WindowedCellStore.STRING, 0, cellValue, cellStyle);
+                return;
+            }
+            cellStore.addCell(rowIndex, columnIndex, WindowedCellStore.ERROR,
+                    error.getCode(), null, cellStyle);
+        }
+
+        /**
+         * Adds a cell with an ISO 8601 date, time or date-time value as the
+         * numeric date value used by the other cells of the workbook.
+         */
+        private void addDateCell() {
+            double date;
+            try {
+                date = parseIsoDate(cellValue);
+            } catch (DateTimeParseException e) {
+                cellStore.addCell(rowIndex, columnIndex,
+                        WindowedCellStore.STRING, 0, cellValue, cellStyle);
+                return;
+            }
+            cellStore.addCell(rowIndex, columnIndex, WindowedCellStore.NUMERIC,
+                    date, null, cellStyle);
+        }
+
+        private boolean isTrue(String value) {
+            return "1".equals(value) || "true".equals(value);
+        }
+    }
+}
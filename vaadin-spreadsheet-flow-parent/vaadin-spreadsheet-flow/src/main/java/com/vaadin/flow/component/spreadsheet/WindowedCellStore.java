@@ -0,0 +1,299 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+
+/**
+ * A compact, row-indexed store for the cell values of a single sheet that has
+ * been loaded in read-only mode. Only the rows within the currently requested
+ * window are materialized as POI cells into the backing {@link Sheet}; the
+ * rest of the sheet is kept in primitive arrays.
+ *
+ * @author Vaadin Ltd.
+ * @see StreamingWorkbookReader
+ */
+@SuppressWarnings("serial")
+class WindowedCellStore implements Serializable {
+
+    static final byte BLANK = 0;
+    static final byte NUMERIC = 1;
+    static final byte STRING = 2;
+    static final byte BOOLEAN = 3;
+    static final byte ERROR = 4;
+
+    /**
+     * Cell data of a single row, columns in ascending order.
+     */
+    private static class StoredRow implements Serializable {
+        private int size;
+        private int[] columns = new int[8];
+        private byte[] types = new byte[8];
+        private short[] styles = new short[8];
+        private double[] numbers = new double[8];
+        private String[] strings = new String[8];
+
+        private void add(int column, byte type, double number, String string,
+                short style) {
+            if (size == columns.length) {
+                int capacity = size * 2;
+                columns = Arrays.copyOf(columns, capacity);
+                types = Arrays.copyOf(types, capacity);
+                styles = Arrays.copyOf(styles, capacity);
+                numbers = Arrays.copyOf(numbers, capacity);
+                strings = Arrays.copyOf(strings, capacity);
+            }
+            columns[size] = column;
+            types[size] = type;
+            styles[size] = style;
+            numbers[size] = number;
+            strings[size] = string;
+            size++;
+        }
+
+        private void trim() {
+            columns = Arrays.copyOf(columns, size);
+            types = Arrays.copyOf(types, size);
+            styles = Arrays.copyOf(styles, size);
+            numbers = Arrays.copyOf(numbers, size);
+            strings = Arrays.copyOf(strings, size);
+        }
+    }
+
+    private int rowCount;
+    private int[] rowIndexes = new int[64];
+    private StoredRow[] rows = new StoredRow[64];
+
+    private int lastColumn = -1;
+
+    /** Rows that exist in the backing sheet regardless of the window */
+    private final BitSet skeletonRows = new BitSet();
+
+    /** Rows that currently have their cells materialized in the sheet */
+    private final BitSet materializedRows = new BitSet();
+
+    /** Cell that defines the size of the sheet, never removed; -1 if none */
+    private int sizeMarkerRow = -1;
+    private int sizeMarkerColumn = -1;
+
+    /**
+     * Appends a cell to the store. Cells must be added in ascending row and
+     * column order, which is the order they appear in the sheet XML.
+     *
+     * @param row
+     *            Row index, 0-based
+     * @param column
+     *            Column index, 0-based
+     * @param type
+     *            One of the type constants of this class
+     * @param number
+     *            Numeric value, used for {@link #NUMERIC} and {@link #BOOLEAN}
+     *            cells, and the error code of {@link #ERROR} cells
+     * @param string
+     *            String value, used for {@link #STRING} cells
+     * @param style
+     *            Index of the cell style in the backing workbook
+     */
+    void addCell(int row, int column, byte type, double number, String string,
+            short style) {
+        StoredRow storedRow;
+        if (rowCount > 0 && rowIndexes[rowCount - 1] == row) {
+            storedRow = rows[rowCount - 1];
+        } else {
+            if (rowCount > 0) {
+                rows[rowCount - 1].trim();
+            }
+            if (rowCount == rowIndexes.length) {
+                rowIndexes = Arrays.copyOf(rowIndexes, rowCount * 2);
+                rows = Arrays.copyOf(rows, rowCount * 2);
+            }
+            storedRow = new StoredRow();
+            rowIndexes[rowCount] = row;
+            rows[rowCount] = storedRow;
+            rowCount++;
+        }
+        storedRow.add(column, type, number, string, style);
+        lastColumn = Math.max(lastColumn, column);
+    }
+
+    /**
+     * Finishes adding cells and releases any unused capacity.
+     */
+    void complete() {
+        if (rowCount > 0) {
+            rows[rowCount - 1].trim();
+        }
+        rowIndexes = Arrays.copyOf(rowIndexes, rowCount);
+        rows = Arrays.copyOf(rows, rowCount);
+    }
+
+    /**
+     * Marks the given row as one that exists in the backing sheet on its own,
+     * e.g. because it has a custom height. Such rows are never removed from
+     * the sheet when the window moves, only their cells are.
+     *
+     * @param row
+     *            Row index, 0-based
+     */
+    void markSkeletonRow(int row) {
+        skeletonRows.set(row);
+    }
+
+    /**
+     * Marks the given cell as the one that defines the size of the sheet. The
+     * row is kept in the backing sheet like skeleton rows, and the cell itself
+     * is only cleared, not removed, when the window moves.
+     *
+     * @param row
+     *            Row index, 0-based
+     * @param column
+     *            Column index, 0-based
+     */
+    void markSizeCell(int row, int column) {
+        markSkeletonRow(row);
+        sizeMarkerRow = row;
+        sizeMarkerColumn = column;
+    }
+
+    /**
+     * @return the index of the last row that has cell data, 0-based, or -1 if
+     *         the store is empty
+     */
+    int getLastRow() {
+        return rowCount == 0 ? -1 : rowIndexes[rowCount - 1];
+    }
+
+    /**
+     * @return the index of the last column that has cell data, 0-based, or -1
+     *         if the store is empty
+     */
+    int getLastColumn() {
+        return lastColumn;
+    }
+
+    /**
+     * Ensures that the cells of all rows within the given range exist in the
+     * given sheet.
+     *
+     * @param sheet
+     *            The backing sheet
+     * @param firstRow
+     *            Index of the first row, 0-based
+     * @param lastRow
+     *            Index of the last row, 0-based
+     */
+    void loadRows(Sheet sheet, int firstRow, int lastRow) {
+        final Workbook workbook = sheet.getWorkbook();
+        for (int i = findFirstRowAtOrAfter(firstRow); i < rowCount
+                && rowIndexes[i] <= lastRow; i++) {
+            final int rowIndex = rowIndexes[i];
+            if (materializedRows.get(rowIndex)) {
+                continue;
+            }
+            Row row = sheet.getRow(rowIndex);
+            if (row == null) {
+                row = sheet.createRow(rowIndex);
+            }
+            final StoredRow storedRow = rows[i];
+            for (int j = 0; j < storedRow.size; j++) {
+                Cell cell = row.createCell(storedRow.columns[j]);
+                if (storedRow.styles[j] != 0) {
+                    cell.setCellStyle(
+                            workbook.getCellStyleAt(storedRow.styles[j]));
+                }
+                switch (storedRow.types[j]) {
+                case NUMERIC:
+                    cell.setCellValue(storedRow.numbers[j]);
+                    break;
+                case BOOLEAN:
+                    cell.setCellValue(storedRow.numbers[j] != 0);
+                    break;
+                case STRING:
+                    cell.setCellValue(storedRow.strings[j]);
+                    break;
+                case ERROR:
+                    cell.setCellErrorValue((byte) storedRow.numbers[j]);
+                    break;
+                default:
+                    // blank cell with style only
+                    break;
+                }
+            }
+            materializedRows.set(rowIndex);
+        }
+    }
+
+    /**
+     * Removes the cells of all materialized rows outside the given range from
+     * the given sheet. Rows above the frozen row split are always kept.
+     *
+     * @param sheet
+     *            The backing sheet
+     * @param firstRow
+     *            Index of the first row to keep, 0-based
+     * @param lastRow
+     *            Index of the last row to keep, 0-based
+     * @param frozenRows
+     *            Number of frozen rows at the top of the sheet
+     */
+    void releaseRowsOutside(Sheet sheet, int firstRow, int lastRow,
+            int frozenRows) {
+        for (int rowIndex = materializedRows.nextSetBit(
+                frozenRows); rowIndex >= 0; rowIndex = materializedRows
+                        .nextSetBit(rowIndex + 1)) {
+            if (rowIndex >= firstRow && rowIndex <= lastRow) {
+                continue;
+            }
+            final Row row = sheet.getRow(rowIndex);
+            if (row != null) {
+                if (skeletonRows.get(rowIndex)) {
+                    final StoredRow storedRow = rows[findFirstRowAtOrAfter(
+                            rowIndex)];
+                    for (int j = 0; j < storedRow.size; j++) {
+                        Cell cell = row.getCell(storedRow.columns[j]);
+                        if (cell == null) {
+                            continue;
+                        }
+                        if (rowIndex == sizeMarkerRow
+                                && storedRow.columns[j] == sizeMarkerColumn) {
+                            // keep the sheet size, only drop the contents
+                            cell.setBlank();
+                            cell.setCellStyle(null);
+                        } else {
+                            row.removeCell(cell);
+                        }
+                    }
+                } else {
+                    sheet.removeRow(row);
+                }
+            }
+            materializedRows.clear(rowIndex);
+        }
+    }
+
+    /**
+     * @return the number of rows that currently have their cells materialized
+     *         in the backing sheet
+     */
+    int getMaterializedRowCount() {
+        return materializedRows.cardinality();
+    }
+
+    private int findFirstRowAtOrAfter(int row) {
+        int index = Arrays.binarySearch(rowIndexes, 0, rowCount, row);
+        return index >= 0 ? index : -index - 1;
+    }
+}
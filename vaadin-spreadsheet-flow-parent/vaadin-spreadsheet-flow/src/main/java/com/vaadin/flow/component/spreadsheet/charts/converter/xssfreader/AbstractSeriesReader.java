@@ -11,11 +11,14 @@ package com.vaadin.flow.component.spreadsheet.charts.converter.xssfreader;
 import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.AreaReference;
 import org.apache.poi.ss.util.CellReference;
 import org.apache.xmlbeans.XmlObject;
@@ -32,6 +35,7 @@ import com.vaadin.flow.component.spreadsheet.charts.converter.Utils;
 import com.vaadin.flow.component.spreadsheet.charts.converter.chartdata.AbstractSeriesData;
 import com.vaadin.flow.component.spreadsheet.charts.converter.chartdata.AbstractSeriesData.DataSelectListener;
 import com.vaadin.flow.component.spreadsheet.charts.converter.chartdata.AbstractSeriesData.SeriesPoint;
+import com.vaadin.flow.shared.Registration;
 
 public abstract class AbstractSeriesReader<CT_SER_TYPE extends XmlObject, SERIES_DATA_TYPE extends AbstractSeriesData> {
 
@@ -286,7 +290,7 @@ public abstract class AbstractSeriesReader<CT_SER_TYPE extends XmlObject, SERIES
         return decimalCount;
     }
 
-    void onValueChange(final List<CellReference> referencedCells,
+    void onValueChange(final Map<CellReference, Integer> referencedCells,
             final SERIES_DATA_TYPE seriesData, final ValueUpdateMode updateMode,
             Spreadsheet.ValueChangeEvent event) {
         if (seriesData.dataUpdateListener == null) {
@@ -302,41 +306,33 @@ public abstract class AbstractSeriesReader<CT_SER_TYPE extends XmlObject, SERIES
         }
     }
 
-    @SuppressWarnings("serial")
+    /**
+     * Updates the series when the referenced cells change. Only the changed
+     * points are pushed to the chart.
+     */
     protected void handleReferencedValueUpdates(
             final List<CellReference> referencedCells,
             final SERIES_DATA_TYPE seriesData,
             final ValueUpdateMode updateMode) {
-
-        spreadsheet.addCellValueChangeListener(new CellValueChangeListener() {
-            @Override
-            public void onCellValueChange(CellValueChangeEvent event) {
-                onValueChange(referencedCells, seriesData, updateMode, event);
-            }
-        });
-
-        spreadsheet.addFormulaValueChangeListener(
-                new Spreadsheet.FormulaValueChangeListener() {
-                    @Override
-                    public void onFormulaValueChange(
-                            Spreadsheet.FormulaValueChangeEvent event) {
-                        onValueChange(referencedCells, seriesData, updateMode,
-                                event);
-                    }
-                });
+        // index of the first point of each cell, so that a change does not
+        // need to go through all the referenced cells
+        final Map<CellReference, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < referencedCells.size(); i++) {
+            indexes.putIfAbsent(referencedCells.get(i), i);
+        }
+        new ReferencedValueListener(indexes, seriesData, updateMode);
     }
 
-    private void updatePoint(List<CellReference> referencedCells,
+    private void updatePoint(Map<CellReference, Integer> referencedCells,
             SERIES_DATA_TYPE seriesData, ValueUpdateMode updateMode,
             CellReference changedCell) {
         CellReference absoluteChangedCell = SpreadsheetUtil
                 .relativeToAbsolute(spreadsheet, changedCell);
-        if (!referencedCells.contains(absoluteChangedCell)) {
+        final Integer index = referencedCells.get(absoluteChangedCell);
+        if (index == null) {
             return;
         }
 
-        final int index = referencedCells.indexOf(absoluteChangedCell);
-
         if (updateMode != ValueUpdateMode.CATEGORIES) {
             final SeriesPoint item = seriesData.seriesData.get(index);
             final Double cellValue = Utils.getNumericValue(absoluteChangedCell,
@@ -360,6 +356,55 @@ public abstract class AbstractSeriesReader<CT_SER_TYPE extends XmlObject, SERIES
         }
     }
 
+    /**
+     * Listens to the value changes of the cells referenced by a series while
+     * the workbook the series was read from is open.
+     */
+    @SuppressWarnings("serial")
+    private class ReferencedValueListener implements CellValueChangeListener,
+            Spreadsheet.FormulaValueChangeListener {
+        private final Map<CellReference, Integer> referencedCells;
+        private final SERIES_DATA_TYPE seriesData;
+        private final ValueUpdateMode updateMode;
+        private final Workbook workbook;
+        private final Registration cellValueRegistration;
+        private final Registration formulaValueRegistration;
+
+        private ReferencedValueListener(
+                Map<CellReference, Integer> referencedCells,
+                SERIES_DATA_TYPE seriesData, ValueUpdateMode updateMode) {
+            this.referencedCells = referencedCells;
+            this.seriesData = seriesData;
+            this.updateMode = updateMode;
+            workbook = spreadsheet.getWorkbook();
+            cellValueRegistration = spreadsheet
+                    .addCellValueChangeListener(this);
+            formulaValueRegistration = spreadsheet
+                    .addFormulaValueChangeListener(this);
+        }
+
+        @Override
+        public void onCellValueChange(CellValueChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void onFormulaValueChange(
+                Spreadsheet.FormulaValueChangeEvent event) {
+            onChange(event);
+        }
+
+        private void onChange(Spreadsheet.ValueChangeEvent event) {
+            if (spreadsheet.getWorkbook() != workbook) {
+                // the chart belongs to a workbook that is no longer shown
+                cellValueRegistration.remove();
+                formulaValueRegistration.remove();
+                return;
+            }
+            onValueChange(referencedCells, seriesData, updateMode, event);
+        }
+    }
+
     protected String tryGetSeriesName(CTSerTx tx) {
         try {
             if (tx.isSetV()) {
@@ -0,0 +1,122 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.client;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar form of a list of {@link CellData}, used for sending cell values to
+ * the client. Instead of an object per cell, every property is sent as an
+ * array with one entry per cell:
+ * <ul>
+ * <li>The row and column of a cell are sent as the difference to the previous
+ * cell, which keeps the numbers short as cells are sent row by row.</li>
+ * <li>Values, formulas and styles are sent as indexes to a string table that
+ * contains each distinct string of the payload only once. A missing string is
+ * sent as <code>-1</code>.</li>
+ * <li>The boolean properties are sent as bit flags.</li>
+ * </ul>
+ * The arrays for formulas, original values and flags are left out if no cell
+ * has a value for them.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+public class CompactCellData implements Serializable {
+
+    public static final int LOCKED = 1;
+    public static final int NEEDS_MEASURE = 2;
+    public static final int PERCENTAGE = 4;
+
+    /** String table */
+    public String[] s;
+    /** Row differences */
+    public int[] r;
+    /** Column differences */
+    public int[] c;
+    /** Value indexes */
+    public int[] v;
+    /** Formula value indexes */
+    public int[] f;
+    /** Original value indexes */
+    public int[] o;
+    /** Cell style indexes */
+    public int[] st;
+    /** Flags */
+    public int[] b;
+
+    /**
+     * Creates the columnar form of the given cells.
+     *
+     * @param cellData
+     *            Cells to encode, not <code>null</code>; an empty cell is
+     *            sent as a cell data with only the row and column set
+     * @return the encoded cells
+     * @throws NullPointerException
+     *             if the list contains a <code>null</code> item
+     */
+    public static CompactCellData encode(List<CellData> cellData) {
+        final int size = cellData.size();
+        final CompactCellData data = new CompactCellData();
+        final Map<String, Integer> strings = new HashMap<>();
+        data.r = new int[size];
+        data.c = new int[size];
+        data.v = new int[size];
+        data.f = new int[size];
+        data.o = new int[size];
+        data.st = new int[size];
+        data.b = new int[size];
+        boolean hasFormulas = false;
+        boolean hasOriginalValues = false;
+        boolean hasFlags = false;
+        int row = 0;
+        int col = 0;
+        for (int i = 0; i < size; i++) {
+            final CellData cell = Objects.requireNonNull(cellData.get(i),
+                    "Cell data cannot contain null items.");
+            data.r[i] = cell.row - row;
+            data.c[i] = cell.col - col;
+            row = cell.row;
+            col = cell.col;
+            data.v[i] = indexOf(strings, cell.value);
+            data.f[i] = indexOf(strings, cell.formulaValue);
+            data.o[i] = indexOf(strings, cell.originalValue);
+            data.st[i] = indexOf(strings, cell.cellStyle);
+            data.b[i] = (cell.locked ? LOCKED : 0)
+                    | (cell.needsMeasure ? NEEDS_MEASURE : 0)
+                    | (cell.isPercentage ? PERCENTAGE : 0);
+            hasFormulas |= data.f[i] != -1;
+            hasOriginalValues |= data.o[i] != -1;
+            hasFlags |= data.b[i] != 0;
+        }
+        data.s = new String[strings.size()];
+        strings.forEach((string, index) -> data.s[index] = string);
+        if (!hasFormulas) {
+            data.f = null;
+        }
+        if (!hasOriginalValues) {
+            data.o = null;
+        }
+        if (!hasFlags) {
+            data.b = null;
+        }
+        return data;
+    }
+
+    private static int indexOf(Map<String, Integer> strings, String string) {
+        if (string == null) {
+            return -1;
+        }
+        return strings.computeIfAbsent(string, key -> strings.size());
+    }
+}
@@ -30,7 +30,10 @@ import com.vaadin.flow.component.spreadsheet.Spreadsheet;
  */
 @SuppressWarnings("serial")
 public class CellValueCommand extends SpreadsheetCommand
-        implements ValueChangeCommand {
+        implements ValueChangeCommand, MemoryAwareCommand {
+
+    /** Estimated memory used by a captured value besides its content */
+    private static final int VALUE_OVERHEAD = 40;
 
     /**
      * Represents the coordinates and value of a single cell.
@@ -48,14 +51,16 @@ public class CellValueCommand extends SpreadsheetCommand
     }
 
     /**
-     * Represents the coordinates and values of a range of cells.
+     * Represents the coordinates and values of a range of cells. The values
+     * are kept in a compact encoded form, as a range may contain a large
+     * number of cells.
      */
     class CellRangeValue implements Serializable {
         public final int row1;
         public final int row2;
         public final int col1;
         public final int col2;
-        public final Object[] values;
+        private CompactCellValues values;
 
         public CellRangeValue(int row1, int row2, int col1, int col2,
                 Object[] values) {
@@ -63,7 +68,23 @@ public class CellValueCommand extends SpreadsheetCommand
             this.row2 = row2;
             this.col1 = col1;
             this.col2 = col2;
-            this.values = values;
+            this.values = CompactCellValues.encode(values);
+        }
+
+        /**
+         * @return the values of the range, row by row
+         */
+        public Object[] getValues() {
+            return values.decode();
+        }
+
+        /**
+         * @param values
+         *            New values of the range, row by row
+         */
+        public void setValues(Object[] values) {
+            this.values.release();
+            this.values = CompactCellValues.encode(values);
         }
     }
 
@@ -104,6 +125,7 @@ public class CellValueCommand extends SpreadsheetCommand
      * Clears all values captured by this command.
      */
     public void clearValues() {
+        dispose();
         values.clear();
     }
 
@@ -174,14 +196,16 @@ public class CellValueCommand extends SpreadsheetCommand
                         cellValue.value, cellsToUpdate);
             } else {
                 CellRangeValue cellRangeValue = (CellRangeValue) o;
+                Object[] rangeValues = cellRangeValue.getValues();
                 int i = 0;
                 for (int r = cellRangeValue.row1; r <= cellRangeValue.row2; r++) {
                     for (int c = cellRangeValue.col1; c <= cellRangeValue.col2; c++) {
-                        cellRangeValue.values[i] = updateCellValue(r, c,
-                                cellRangeValue.values[i], cellsToUpdate);
+                        rangeValues[i] = updateCellValue(r, c, rangeValues[i],
+                                cellsToUpdate);
                         i++;
                     }
                 }
+                cellRangeValue.setValues(rangeValues);
             }
         }
         if (!spreadsheet.isRerenderPending()) {
@@ -353,4 +377,38 @@ public class CellValueCommand extends SpreadsheetCommand
         return changedCells;
     }
 
+    @Override
+    public long getMemoryUsage() {
+        long usage = 0;
+        for (Object o : values) {
+            usage += VALUE_OVERHEAD;
+            if (o instanceof CellValue) {
+                Object value = ((CellValue) o).value;
+                if (value instanceof String) {
+                    usage += VALUE_OVERHEAD + 2L * ((String) value).length();
+                }
+            } else {
+                usage += ((CellRangeValue) o).values.getMemoryUsage();
+            }
+        }
+        return usage;
+    }
+
+    @Override
+    public void spill() {
+        for (Object o : values) {
+            if (o instanceof CellRangeValue) {
+                ((CellRangeValue) o).values.spill();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        for (Object o : values) {
+            if (o instanceof CellRangeValue) {
+                ((CellRangeValue) o).values.release();
+            }
+        }
+    }
 }
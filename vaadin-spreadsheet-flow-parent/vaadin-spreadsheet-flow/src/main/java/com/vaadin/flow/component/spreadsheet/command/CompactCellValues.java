@@ -0,0 +1,325 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.command;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compact binary form of the cell values captured by a
+ * {@link CellValueCommand}. Consecutive equal values are stored as runs, and
+ * every distinct string is stored only once. The encoded data can be moved to
+ * a temporary file to free the memory used by it.
+ * <p>
+ * Supported values are the ones returned by
+ * {@link CellValueCommand#getCellValue(org.apache.poi.ss.usermodel.Cell)}:
+ * <code>null</code>, strings, doubles, booleans and error code bytes. Values
+ * of other types, such as the ones returned by an overridden
+ * <code>getCellValue</code>, are kept as they are, outside the encoded data.
+ *
+ * @author Vaadin Ltd.
+ */
+@SuppressWarnings("serial")
+class CompactCellValues implements Serializable {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(CompactCellValues.class);
+
+    /** Estimated memory used by an instance besides the encoded data */
+    private static final int OVERHEAD = 48;
+
+    /** Estimated memory used by a value of an unsupported type */
+    private static final int OTHER_VALUE_SIZE = 32;
+
+    /** Smaller data isn't worth a file of its own */
+    private static final int MIN_SPILL_SIZE = 4096;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte STRING_REFERENCE = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte INTEGER = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte ERROR = 7;
+    private static final byte OTHER = 8;
+
+    private final int size;
+    /** Values of unsupported types, referenced by index from the data */
+    private final Object[] others;
+    /** Encoded values, null if moved to the spill file */
+    private transient byte[] data;
+    private transient File spillFile;
+
+    private CompactCellValues(int size, byte[] data, Object[] others) {
+        this.size = size;
+        this.data = data;
+        this.others = others;
+    }
+
+    /**
+     * Encodes the given cell values.
+     *
+     * @param values
+     *            Cell values to encode
+     * @return the encoded values
+     */
+    static CompactCellValues encode(Object[] values) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        final Map<String, Integer> stringIndexes = new HashMap<>();
+        final List<Object> others = new ArrayList<>();
+        try {
+            int i = 0;
+            while (i < values.length) {
+                int runLength = 1;
+                while (i + runLength < values.length
+                        && Objects.equals(values[i], values[i + runLength])) {
+                    runLength++;
+                }
+                writeVarInt(out, runLength);
+                writeValue(out, values[i], stringIndexes, others);
+                i += runLength;
+            }
+        } catch (IOException e) {
+            // writing to a byte array doesn't fail
+            throw new UncheckedIOException(e);
+        }
+        return new CompactCellValues(values.length, bytes.toByteArray(),
+                others.toArray());
+    }
+
+    /**
+     * Decodes the values, reading them from the spill file if they have been
+     * moved there.
+     *
+     * @return the values in the order they were encoded
+     */
+    Object[] decode() {
+        final Object[] values = new Object[size];
+        final List<String> strings = new ArrayList<>();
+        final DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(getData()));
+        try {
+            int i = 0;
+            while (i < size) {
+                final int runLength = readVarInt(in);
+                final Object value = readValue(in, strings);
+                for (int end = i + runLength; i < end; i++) {
+                    values[i] = value;
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupted cell value data.", e);
+        }
+        return values;
+    }
+
+    /**
+     * @return the estimated number of bytes of memory used by the values
+     */
+    long getMemoryUsage() {
+        return OVERHEAD + (data == null ? 0 : data.length)
+                + others.length * OTHER_VALUE_SIZE;
+    }
+
+    /**
+     * @return <code>true</code> if the values have been moved to a temporary
+     *         file
+     */
+    boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * Moves the encoded values to a temporary file, unless they are small. If
+     * the file can't be written, the values are kept in memory. The file is
+     * deleted by {@link #release()}.
+     */
+    void spill() {
+        if (isSpilled() || data.length < MIN_SPILL_SIZE) {
+            return;
+        }
+        try {
+            final File file = File.createTempFile("spreadsheet-history",
+                    ".bin");
+            Files.write(file.toPath(), data);
+            spillFile = file;
+            data = null;
+        } catch (IOException e) {
+            LOGGER.warn("Could not move undo history data to a temporary "
+                    + "file, keeping it in memory.", e);
+        }
+    }
+
+    /**
+     * Deletes the temporary file of the values, if any. The values can't be
+     * decoded after this if they had been moved to the file.
+     */
+    void release() {
+        if (spillFile != null) {
+            try {
+                Files.deleteIfExists(spillFile.toPath());
+            } catch (IOException e) {
+                LOGGER.debug("Could not delete " + spillFile, e);
+            }
+            spillFile = null;
+        }
+    }
+
+    private byte[] getData() {
+        if (data != null) {
+            return data;
+        }
+        if (spillFile == null) {
+            throw new IllegalStateException(
+                    "The cell values have already been released.");
+        }
+        try {
+            return Files.readAllBytes(spillFile.toPath());
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Could not read undo history data from " + spillFile, e);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // the spill file is local to this machine, so write the data itself
+        out.defaultWriteObject();
+        if (data != null) {
+            out.writeInt(data.length);
+            out.write(data);
+        } else if (spillFile != null) {
+            out.writeInt(Math.toIntExact(spillFile.length()));
+            Files.copy(spillFile.toPath(), out);
+        } else {
+            throw new IllegalStateException(
+                    "The cell values have already been released.");
+        }
+    }
+
+    private void readObject(ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        data = new byte[in.readInt()];
+        in.readFully(data);
+    }
+
+    private static void writeValue(DataOutputStream out, Object value,
+            Map<String, Integer> stringIndexes, List<Object> others)
+            throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            final Integer index = stringIndexes.get(value);
+            if (index != null) {
+                out.writeByte(STRING_REFERENCE);
+                writeVarInt(out, index);
+            } else {
+                stringIndexes.put((String) value, stringIndexes.size());
+                final byte[] utf8 = ((String) value)
+                        .getBytes(StandardCharsets.UTF_8);
+                out.writeByte(STRING);
+                writeVarInt(out, utf8.length);
+                out.write(utf8);
+            }
+        } else if (value instanceof Double) {
+            final double d = (Double) value;
+            // Double.compare tells 0.0 and -0.0 apart
+            if (Double.compare(d, (int) d) == 0) {
+                out.writeByte(INTEGER);
+                final int i = (int) d;
+                writeVarInt(out, (i << 1) ^ (i >> 31));
+            } else {
+                out.writeByte(DOUBLE);
+                out.writeDouble(d);
+            }
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Byte) {
+            out.writeByte(ERROR);
+            out.writeByte((Byte) value);
+        } else {
+            out.writeByte(OTHER);
+            writeVarInt(out, others.size());
+            others.add(value);
+        }
+    }
+
+    private Object readValue(DataInputStream in, List<String> strings)
+            throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+        case NULL:
+            return null;
+        case STRING:
+            final byte[] utf8 = new byte[readVarInt(in)];
+            in.readFully(utf8);
+            final String string = new String(utf8, StandardCharsets.UTF_8);
+            strings.add(string);
+            return string;
+        case STRING_REFERENCE:
+            return strings.get(readVarInt(in));
+        case DOUBLE:
+            return in.readDouble();
+        case INTEGER:
+            final int zigZag = readVarInt(in);
+            return (double) ((zigZag >>> 1) ^ -(zigZag & 1));
+        case TRUE:
+            return Boolean.TRUE;
+        case FALSE:
+            return Boolean.FALSE;
+        case ERROR:
+            return in.readByte();
+        case OTHER:
+            return others[readVarInt(in)];
+        default:
+            throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value)
+            throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
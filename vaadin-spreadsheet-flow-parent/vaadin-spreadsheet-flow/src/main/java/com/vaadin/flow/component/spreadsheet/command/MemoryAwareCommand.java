@@ -0,0 +1,40 @@
+/**
+ * Copyright 2000-2024 Vaadin Ltd.
+ *
+ * This program is available under Vaadin Commercial License and Service Terms.
+ *
+ * See <https://vaadin.com/commercial-license-and-service-terms> for the full
+ * license.
+ */
+package com.vaadin.flow.component.spreadsheet.command;
+
+/**
+ * Common interface for Spreadsheet commands that can report the memory used
+ * by their captured data, so that the history can be kept within a memory
+ * limit.
+ *
+ * @author Vaadin Ltd.
+ */
+public interface MemoryAwareCommand extends Command {
+
+    /**
+     * Returns the estimated number of bytes of memory used by the data this
+     * command has captured.
+     *
+     * @return estimated memory usage in bytes
+     */
+    public long getMemoryUsage();
+
+    /**
+     * Moves the captured data of this command to temporary files, where
+     * possible. The data is read back when the command is executed.
+     */
+    public void spill();
+
+    /**
+     * Releases the resources held by this command, such as temporary files.
+     * Called when the command is removed from the history, after which it
+     * isn't executed anymore.
+     */
+    public void dispose();
+}
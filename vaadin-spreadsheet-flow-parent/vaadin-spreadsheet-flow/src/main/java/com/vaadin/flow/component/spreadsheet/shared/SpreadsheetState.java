@@ -68,6 +68,9 @@ public class SpreadsheetState {
     // @DelegateToWidget
     public int columnBufferSize = 200;
 
+    // @DelegateToWidget
+    public int cellPoolSize = 1000;
+
     // @DelegateToWidget
     public int rows;
 
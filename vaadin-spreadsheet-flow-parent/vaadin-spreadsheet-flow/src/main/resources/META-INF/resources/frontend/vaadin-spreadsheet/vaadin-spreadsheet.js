@@ -44,6 +44,8 @@ export class VaadinSpreadsheet extends LitElement {
 
       columnBufferSize: { type: Number },
 
+      cellPoolSize: { type: Number },
+
       rows: { type: Number },
 
       cols: { type: Number },
@@ -193,6 +195,8 @@ export class VaadinSpreadsheet extends LitElement {
         this.api.setRowBufferSize(newVal);
       } else if ('columnBufferSize' == name) {
         this.api.setColumnBufferSize(newVal);
+      } else if ('cellPoolSize' == name) {
+        this.api.setCellPoolSize(newVal);
       } else if ('rows' == name) {
         this.api.setRows(newVal);
       } else if ('cols' == name) {
@@ -356,6 +360,32 @@ export class VaadinSpreadsheet extends LitElement {
     this.api.editCellComment(col, row);
   }
 
+  /**
+   * Applies the property patches sent by the server. A patch either carries
+   * the full serialized value of a property, replaces a range of items in
+   * the current value, or changes entries of the current map value. The
+   * patched properties are handled in updated() like any other property
+   * change.
+   */
+  patchState(patches) {
+    JSON.parse(patches).forEach((patch) => {
+      const name = patch.property;
+      if (patch.value !== null) {
+        this[name] = patch.value;
+      } else if (patch.entries) {
+        const value = this[name] ? JSON.parse(this[name]) : {};
+        (patch.removedKeys || []).forEach((key) => delete value[key]);
+        this[name] = JSON.stringify(Object.assign(value, patch.entries));
+      } else {
+        const value = this[name] ? JSON.parse(this[name]) : [];
+        const start = patch.start;
+        this[name] = JSON.stringify(
+          value.slice(0, start).concat(patch.items, value.slice(start + patch.deleteCount))
+        );
+      }
+    });
+  }
+
   onPopupButtonOpen(row, column, contentId, appId) {
     this.api.onPopupButtonOpened(row, column, contentId, appId);
   }
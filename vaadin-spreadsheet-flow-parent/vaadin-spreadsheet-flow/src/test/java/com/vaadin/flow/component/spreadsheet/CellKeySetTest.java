@@ -0,0 +1,163 @@
+package com.vaadin.flow.component.spreadsheet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CellKeySetTest {
+
+    @Test
+    public void key_rowAndColumn_roundTrip() {
+        int[][] cells = { { 1, 1 }, { 2, 1 }, { 1, 2 }, { 16384, 1048576 },
+                { Integer.MAX_VALUE, Integer.MAX_VALUE }, { -1, 1 },
+                { 1, -1 }, { Integer.MIN_VALUE, Integer.MIN_VALUE },
+                { 0, 1 } };
+        for (int[] cell : cells) {
+            long key = CellKeySet.key(cell[0], cell[1]);
+
+            Assert.assertEquals(cell[0], CellKeySet.getColumn(key));
+            Assert.assertEquals(cell[1], CellKeySet.getRow(key));
+        }
+    }
+
+    @Test
+    public void key_swappedRowAndColumn_differentKeys() {
+        Assert.assertNotEquals(CellKeySet.key(1, 2), CellKeySet.key(2, 1));
+        Assert.assertNotEquals(CellKeySet.key(-1, 1), CellKeySet.key(1, -1));
+    }
+
+    @Test
+    public void add_boundaryCoordinates_contained() {
+        CellKeySet set = new CellKeySet();
+        set.add(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        set.add(-1, 1);
+        set.add(1, -1);
+
+        Assert.assertTrue(set.contains(Integer.MAX_VALUE, Integer.MAX_VALUE));
+        Assert.assertTrue(set.contains(-1, 1));
+        Assert.assertTrue(set.contains(1, -1));
+        Assert.assertFalse(set.contains(1, 1));
+        Assert.assertEquals(3, set.size());
+    }
+
+    @Test
+    public void add_existingKey_notAddedAgain() {
+        CellKeySet set = new CellKeySet();
+
+        Assert.assertTrue(set.add(3, 4));
+        Assert.assertFalse(set.add(3, 4));
+        Assert.assertEquals(1, set.size());
+    }
+
+    @Test
+    public void put_collidingKeys_valuesKept() {
+        CellKeySet set = new CellKeySet();
+        List<Long> keys = findKeysInSlot(0, 4);
+        for (int i = 0; i < keys.size(); i++) {
+            set.put(keys.get(i), i + 1);
+        }
+
+        for (int i = 0; i < keys.size(); i++) {
+            Assert.assertTrue(set.contains(keys.get(i)));
+            Assert.assertEquals(i + 1, set.get(keys.get(i)));
+        }
+        Assert.assertEquals(0, set.get(CellKeySet.key(1, 1)));
+    }
+
+    @Test
+    public void remove_wrappedProbeChain_otherKeysFound() {
+        CellKeySet set = new CellKeySet();
+        // the chain starts at the last slot and wraps to the first slots, and
+        // a key of the first slot is pushed after it
+        List<Long> lastSlotKeys = findKeysInSlot(
+                CellKeySet.MIN_CAPACITY - 1, 3);
+        long firstSlotKey = findKeysInSlot(0, 1).get(0);
+        for (long key : lastSlotKeys) {
+            set.put(key, key);
+        }
+        set.put(firstSlotKey, firstSlotKey);
+
+        Assert.assertTrue(set.remove(lastSlotKeys.get(0)));
+
+        Assert.assertFalse(set.contains(lastSlotKeys.get(0)));
+        Assert.assertEquals(lastSlotKeys.get(1).longValue(),
+                set.get(lastSlotKeys.get(1)));
+        Assert.assertEquals(lastSlotKeys.get(2).longValue(),
+                set.get(lastSlotKeys.get(2)));
+        Assert.assertEquals(firstSlotKey, set.get(firstSlotKey));
+        Assert.assertEquals(3, set.size());
+
+        Assert.assertTrue(set.remove(lastSlotKeys.get(2)));
+        Assert.assertTrue(set.contains(lastSlotKeys.get(1)));
+        Assert.assertTrue(set.contains(firstSlotKey));
+        Assert.assertFalse(set.remove(lastSlotKeys.get(2)));
+    }
+
+    @Test
+    public void add_manyKeys_resizedAndAllFound() {
+        CellKeySet set = new CellKeySet();
+        for (int row = 1; row <= 100; row++) {
+            for (int col = 1; col <= 20; col++) {
+                set.put(CellKeySet.key(col, row), row * 100 + col);
+            }
+        }
+
+        Assert.assertEquals(2000, set.size());
+        for (int row = 1; row <= 100; row++) {
+            for (int col = 1; col <= 20; col++) {
+                Assert.assertEquals(row * 100 + col,
+                        set.get(CellKeySet.key(col, row)));
+            }
+        }
+    }
+
+    @Test
+    public void removeIf_evenRows_otherRowsKept() {
+        CellKeySet set = new CellKeySet();
+        for (int row = 1; row <= 50; row++) {
+            set.add(1, row);
+        }
+        List<Long> removed = new ArrayList<>();
+
+        set.removeIf(key -> CellKeySet.getRow(key) % 2 == 0, removed::add);
+
+        Assert.assertEquals(25, removed.size());
+        Assert.assertEquals(25, set.size());
+        for (int row = 1; row <= 50; row++) {
+            Assert.assertEquals(row % 2 == 1, set.contains(1, row));
+        }
+    }
+
+    @Test
+    public void clear_afterResize_emptyAndUsable() {
+        CellKeySet set = new CellKeySet();
+        for (int row = 1; row <= 100; row++) {
+            set.add(1, row);
+        }
+
+        set.clear();
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(1, 1));
+        set.add(1, 1);
+        Assert.assertTrue(set.contains(1, 1));
+    }
+
+    /**
+     * Finds cell keys whose probe sequence starts at the given slot of a set
+     * with the initial capacity.
+     */
+    private static List<Long> findKeysInSlot(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        int mask = CellKeySet.MIN_CAPACITY - 1;
+        for (int row = 1; keys.size() < count; row++) {
+            long key = CellKeySet.key(1, row);
+            if ((CellKeySet.hash(key) & mask) == slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
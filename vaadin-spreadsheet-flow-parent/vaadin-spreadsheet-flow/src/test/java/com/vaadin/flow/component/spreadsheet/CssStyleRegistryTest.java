@@ -0,0 +1,98 @@
+package com.vaadin.flow.component.spreadsheet;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CssStyleRegistryTest {
+
+    @Test
+    public void intern_equalStyle_registeredInstanceReturned() {
+        CssStyleRegistry registry = new CssStyleRegistry(10);
+        String registered = new String("color:red;");
+
+        Assert.assertSame(registered, registry.intern(registered));
+        Assert.assertSame(registered,
+                registry.intern(new String("color:red;")));
+        Assert.assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void intern_null_nullReturned() {
+        CssStyleRegistry registry = new CssStyleRegistry(10);
+
+        Assert.assertNull(registry.intern(null));
+        Assert.assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void intern_hashCollision_registeredStyleKept() {
+        CssStyleRegistry registry = new CssStyleRegistry(10, css -> 0);
+        String registered = new String("color:red;");
+        registry.intern(registered);
+
+        String colliding = "color:blue;";
+        Assert.assertSame(colliding, registry.intern(colliding));
+        Assert.assertSame(registered,
+                registry.intern(new String("color:red;")));
+    }
+
+    @Test
+    public void intern_registryFull_leastRecentlyUsedDropped() {
+        CssStyleRegistry registry = new CssStyleRegistry(2);
+        String first = registry.intern(new String("a"));
+        registry.intern("b");
+        registry.intern(first);
+        registry.intern("c");
+
+        Assert.assertEquals(2, registry.size());
+        Assert.assertSame(first, registry.intern(new String("a")));
+    }
+
+    @Test
+    public void putWorkbookStyles_sameFingerprint_registeredStylesReturned() {
+        CssStyleRegistry registry = new CssStyleRegistry(10);
+        Map<Integer, String> styles = new HashMap<>();
+        styles.put(1, new String("color:red;"));
+        Map<Integer, String> top = Collections.singletonMap(1,
+                new String("{border-bottom:1px solid;}"));
+
+        CssStyleRegistry.WorkbookStyles registered = registry.putWorkbookStyles(
+                "fingerprint", new CssStyleRegistry.WorkbookStyles(styles, top,
+                        Collections.emptyMap()));
+        styles.put(2, "color:blue;");
+
+        CssStyleRegistry.WorkbookStyles found = registry
+                .getWorkbookStyles("fingerprint");
+        Assert.assertSame(registered, found);
+        Assert.assertEquals(Collections.singletonMap(1, "color:red;"),
+                found.getStyles());
+        Assert.assertSame(registry.intern(new String("color:red;")),
+                found.getStyles().get(1));
+        Assert.assertEquals("{border-bottom:1px solid;}",
+                found.getShiftedBorderTopStyles().get(1));
+        Assert.assertTrue(found.getShiftedBorderLeftStyles().isEmpty());
+    }
+
+    @Test
+    public void getWorkbookStyles_unknownFingerprint_nullReturned() {
+        CssStyleRegistry registry = new CssStyleRegistry(10);
+
+        Assert.assertNull(registry.getWorkbookStyles("fingerprint"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void getWorkbookStyles_stylesChanged_throws() {
+        CssStyleRegistry registry = new CssStyleRegistry(10);
+        registry.putWorkbookStyles("fingerprint",
+                new CssStyleRegistry.WorkbookStyles(
+                        Collections.singletonMap(1, "color:red;"),
+                        Collections.emptyMap(), Collections.emptyMap()));
+
+        registry.getWorkbookStyles("fingerprint").getStyles().put(2,
+                "color:blue;");
+    }
+}
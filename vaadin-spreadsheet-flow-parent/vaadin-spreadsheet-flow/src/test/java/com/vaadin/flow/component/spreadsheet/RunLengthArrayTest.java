@@ -0,0 +1,160 @@
+package com.vaadin.flow.component.spreadsheet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RunLengthArrayTest {
+
+    @Test
+    public void newArray_singleRunEncoded() {
+        RunLengthArray array = new RunLengthArray(5, 15f);
+
+        Assert.assertEquals(5, array.length());
+        Assert.assertArrayEquals(new float[] { 5, 15 }, array.encode(), 0);
+    }
+
+    @Test
+    public void set_middleOfRun_runSplit() {
+        RunLengthArray array = new RunLengthArray(5, 15f);
+
+        array.set(2, 20f);
+
+        Assert.assertArrayEquals(new float[] { 2, 15, 1, 20, 2, 15 },
+                array.encode(), 0);
+    }
+
+    @Test
+    public void fill_runBoundaries_runsReplaced() {
+        RunLengthArray array = new RunLengthArray(2, 1f);
+        array.append(2, 2f);
+        array.append(2, 3f);
+
+        array.fill(2, 4, 5f);
+
+        Assert.assertArrayEquals(new float[] { 2, 1, 2, 5, 2, 3 },
+                array.encode(), 0);
+    }
+
+    @Test
+    public void fill_acrossRunBoundaries_remaindersKept() {
+        RunLengthArray array = new RunLengthArray(3, 1f);
+        array.append(3, 2f);
+
+        array.fill(2, 4, 5f);
+
+        Assert.assertArrayEquals(new float[] { 2, 1, 2, 5, 2, 2 },
+                array.encode(), 0);
+    }
+
+    @Test
+    public void fill_sameValueAsNeighbours_runsMerged() {
+        RunLengthArray array = new RunLengthArray(2, 1f);
+        array.append(2, 2f);
+        array.append(2, 1f);
+
+        array.fill(2, 4, 1f);
+
+        Assert.assertArrayEquals(new float[] { 6, 1 }, array.encode(), 0);
+    }
+
+    @Test
+    public void set_sameValueAsLeftNeighbour_mergedWithLeftRun() {
+        RunLengthArray array = new RunLengthArray(2, 1f);
+        array.append(2, 2f);
+
+        array.set(2, 1f);
+
+        Assert.assertArrayEquals(new float[] { 3, 1, 1, 2 }, array.encode(),
+                0);
+    }
+
+    @Test
+    public void set_sameValueAsRightNeighbour_mergedWithRightRun() {
+        RunLengthArray array = new RunLengthArray(2, 1f);
+        array.append(2, 2f);
+
+        array.set(1, 2f);
+
+        Assert.assertArrayEquals(new float[] { 1, 1, 3, 2 }, array.encode(),
+                0);
+    }
+
+    @Test
+    public void set_itemsOneByOne_valuesRead() {
+        RunLengthArray array = new RunLengthArray(100, 15f);
+
+        for (int i = 0; i < 100; i += 2) {
+            array.set(i, i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(i % 2 == 0 ? i : 15f, array.get(i), 0);
+        }
+        Assert.assertEquals(100, array.length());
+    }
+
+    @Test
+    public void encode_toArray_valuesRoundTrip() {
+        RunLengthArray array = new RunLengthArray(3, 15f);
+        array.append(1, 0f);
+        array.append(2, 20f);
+
+        float[] runs = array.encode();
+        float[] decoded = new float[array.length()];
+        int index = 0;
+        for (int i = 0; i < runs.length; i += 2) {
+            for (int j = 0; j < runs[i]; j++) {
+                decoded[index++] = runs[i + 1];
+            }
+        }
+
+        Assert.assertArrayEquals(array.toArray(Integer.MAX_VALUE), decoded,
+                0);
+        Assert.assertArrayEquals(new float[] { 15, 15, 15, 0, 20, 20 },
+                decoded, 0);
+    }
+
+    @Test
+    public void toArray_limit_firstItemsCopied() {
+        RunLengthArray array = new RunLengthArray(2, 1f);
+        array.append(2, 2f);
+
+        Assert.assertArrayEquals(new float[] { 1, 1, 2 }, array.toArray(3),
+                0);
+    }
+
+    @Test
+    public void setLength_shorterAndLonger_runsAdjusted() {
+        RunLengthArray array = new RunLengthArray(2, 1f);
+        array.append(2, 2f);
+
+        array.setLength(3, 0f);
+        Assert.assertArrayEquals(new float[] { 2, 1, 1, 2 }, array.encode(),
+                0);
+
+        array.setLength(5, 2f);
+        Assert.assertArrayEquals(new float[] { 2, 1, 3, 2 }, array.encode(),
+                0);
+    }
+
+    @Test
+    public void copy_changed_originalUnchanged() {
+        RunLengthArray array = new RunLengthArray(4, 1f);
+
+        RunLengthArray copy = new RunLengthArray(array);
+        copy.set(1, 2f);
+
+        Assert.assertArrayEquals(new float[] { 4, 1 }, array.encode(), 0);
+        Assert.assertEquals(2f, copy.get(1), 0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_indexOutOfBounds_throws() {
+        new RunLengthArray(4, 1f).get(4);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void fill_rangeOutOfBounds_throws() {
+        new RunLengthArray(4, 1f).fill(2, 5, 2f);
+    }
+}
@@ -0,0 +1,108 @@
+package com.vaadin.flow.component.spreadsheet;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.spreadsheet.StatePatchChannel.PropertyPatch;
+
+public class StatePatchChannelTest {
+
+    @Test
+    public void createPatch_arrayItemChanged_rangeSent() {
+        PropertyPatch patch = StatePatchChannel.createPatch("rowH",
+                new float[] { 1, 2, 3, 4 }, new float[] { 1, 5, 3, 4 });
+
+        Assert.assertNull(patch.value);
+        Assert.assertEquals(1, patch.start);
+        Assert.assertEquals(1, patch.deleteCount);
+        Assert.assertEquals(Arrays.asList(5f), patch.items);
+    }
+
+    @Test
+    public void createPatch_arrayItemInserted_insertSent() {
+        PropertyPatch patch = StatePatchChannel.createPatch("rowH",
+                new float[] { 1, 2, 3, 4, 5, 6 },
+                new float[] { 1, 2, 9, 3, 4, 5, 6 });
+
+        Assert.assertNull(patch.value);
+        Assert.assertEquals(2, patch.start);
+        Assert.assertEquals(0, patch.deleteCount);
+        Assert.assertEquals(Arrays.asList(9f), patch.items);
+    }
+
+    @Test
+    public void createPatch_mostOfArrayChanged_fullValueSent() {
+        float[] newValue = new float[] { 3, 4 };
+        PropertyPatch patch = StatePatchChannel.createPatch("rowH",
+                new float[] { 1, 2 }, newValue);
+
+        Assert.assertEquals(Serializer.serialize(newValue), patch.value);
+        Assert.assertNull(patch.items);
+    }
+
+    @Test
+    public void createPatch_arrayUnchanged_noPatch() {
+        Assert.assertNull(StatePatchChannel.createPatch("rowH",
+                new int[] { 1, 2 }, new int[] { 1, 2 }));
+    }
+
+    @Test
+    public void createPatch_noOldValue_fullValueSent() {
+        int[] newValue = new int[] { 1, 2 };
+        PropertyPatch patch = StatePatchChannel.createPatch("hiddenRows",
+                null, newValue);
+
+        Assert.assertEquals(Serializer.serialize(newValue), patch.value);
+    }
+
+    @Test
+    public void createPatch_mapEntryChanged_onlyEntrySent() {
+        PropertyPatch patch = StatePatchChannel.createPatch("styles",
+                map(1, "a", 2, "b", 3, "c"), map(1, "a", 2, "x", 3, "c"));
+
+        Assert.assertNull(patch.value);
+        Assert.assertEquals(map(2, "x"), patch.entries);
+        Assert.assertEquals(Collections.emptyList(), patch.removedKeys);
+    }
+
+    @Test
+    public void createPatch_mapEntryRemoved_removedKeySent() {
+        PropertyPatch patch = StatePatchChannel.createPatch("styles",
+                map(1, "a", 2, "b", 3, "c", 4, "d"),
+                map(1, "a", 2, "b", 3, "c"));
+
+        Assert.assertNull(patch.value);
+        Assert.assertEquals(Collections.emptyMap(), patch.entries);
+        Assert.assertEquals(Arrays.asList(4), patch.removedKeys);
+    }
+
+    @Test
+    public void createPatch_halfOfMapChanged_fullValueSent() {
+        Map<Object, Object> newValue = map(1, "x", 2, "b", 3, "c", 4, "y");
+        PropertyPatch patch = StatePatchChannel.createPatch("styles",
+                map(1, "a", 2, "b", 3, "c", 4, "d"), newValue);
+
+        Assert.assertEquals(Serializer.serialize(newValue), patch.value);
+        Assert.assertNull(patch.entries);
+        Assert.assertNull(patch.removedKeys);
+    }
+
+    @Test
+    public void createPatch_mapUnchanged_noPatch() {
+        Assert.assertNull(StatePatchChannel.createPatch("styles",
+                map(1, "a", 2, "b"), map(1, "a", 2, "b")));
+    }
+
+    private static Map<Object, Object> map(Object... keysAndValues) {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
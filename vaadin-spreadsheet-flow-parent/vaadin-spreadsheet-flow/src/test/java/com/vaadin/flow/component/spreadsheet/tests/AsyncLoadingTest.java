@@ -0,0 +1,91 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.DetachEvent;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+import com.vaadin.flow.server.Command;
+
+public class AsyncLoadingTest {
+
+    private UI ui;
+    private Spreadsheet spreadsheet;
+
+    @Before
+    public void init() {
+        // runs access tasks right away, as there is no session to lock
+        ui = new UI() {
+            @Override
+            public Future<Void> access(Command command) {
+                command.execute();
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        UI.setCurrent(ui);
+        spreadsheet = new Spreadsheet();
+    }
+
+    @Test
+    public void loadAsync_workbookLoaded() throws Exception {
+        try (InputStream stream = new FileInputStream(
+                TestHelper.getTestSheetFile("Groupingtest.xlsx"))) {
+            CompletableFuture<Void> future = spreadsheet.loadAsync(stream,
+                    Runnable::run);
+
+            Assert.assertTrue(future.isDone());
+            future.get();
+        }
+        Spreadsheet expected = TestHelper
+                .createSpreadsheet("Groupingtest.xlsx");
+        Assert.assertEquals(expected.getNumberOfSheets(),
+                spreadsheet.getNumberOfSheets());
+        Assert.assertEquals(expected.getActiveSheet().getSheetName(),
+                spreadsheet.getActiveSheet().getSheetName());
+        Assert.assertEquals(expected.getRows(), spreadsheet.getRows());
+    }
+
+    @Test
+    public void loadAsync_invalidData_completedExceptionally() {
+        CompletableFuture<Void> future = spreadsheet.loadAsync(
+                new ByteArrayInputStream(new byte[] { 1, 2, 3 }),
+                Runnable::run);
+
+        Assert.assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void loadAsync_uiDetachedBeforeLoading_completedExceptionally()
+            throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        try (InputStream stream = new FileInputStream(
+                TestHelper.getTestSheetFile("Groupingtest.xlsx"))) {
+            CompletableFuture<Void> future = spreadsheet.loadAsync(stream,
+                    tasks::add);
+
+            ComponentUtil.fireEvent(ui, new DetachEvent(ui));
+
+            Assert.assertTrue(future.isCompletedExceptionally());
+            try {
+                future.get();
+                Assert.fail("The future should have failed");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(
+                        e.getCause() instanceof UIDetachedException);
+            }
+        }
+    }
+}
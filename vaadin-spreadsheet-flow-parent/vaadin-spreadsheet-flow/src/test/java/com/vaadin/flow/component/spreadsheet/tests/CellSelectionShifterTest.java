@@ -0,0 +1,73 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+
+public class CellSelectionShifterTest {
+
+    private Spreadsheet spreadsheet;
+
+    @Before
+    public void init() {
+        spreadsheet = new Spreadsheet();
+        UI.setCurrent(new UI());
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 10, 10]");
+
+        spreadsheet.createCell(0, 0, 1d);
+        spreadsheet.createCell(1, 0, 3d);
+        spreadsheet.createFormulaCell(0, 1, "A1*2+$A$1");
+        spreadsheet.createFormulaCell(1, 1, "A2*2+$A$1");
+        spreadsheet.createCell(0, 2, "Item1");
+        spreadsheet.createCell(1, 2, "Item2");
+    }
+
+    @Test
+    public void fillDown_seriesAndFormulasExtended() {
+        selectAndFill("[1, 1, 2, 3]", "[1, 1, 6, 3]");
+
+        Assert.assertEquals(11, getCell(5, 0).getNumericCellValue(), 0);
+        Assert.assertEquals("A6*2+$A$1", getCell(5, 1).getCellFormula());
+        Assert.assertEquals("A5*2+$A$1", getCell(4, 1).getCellFormula());
+        Assert.assertEquals("Item6", getCell(5, 2).getStringCellValue());
+    }
+
+    @Test
+    public void fillUp_selectionMirrored() {
+        spreadsheet.createCell(3, 0, 1d);
+        spreadsheet.createCell(4, 0, 3d);
+        spreadsheet.createFormulaCell(3, 1, "A4*2");
+        spreadsheet.createFormulaCell(4, 1, "A5*2");
+
+        selectAndFill("[4, 1, 5, 2]", "[1, 1, 5, 2]");
+
+        Assert.assertEquals(-1, getCell(2, 0).getNumericCellValue(), 0);
+        Assert.assertEquals(-3, getCell(1, 0).getNumericCellValue(), 0);
+        Assert.assertEquals("A3*2", getCell(2, 1).getCellFormula());
+        Assert.assertEquals("A1*2", getCell(0, 1).getCellFormula());
+    }
+
+    @Test
+    public void fillRight_formulaColumnsShifted() {
+        selectAndFill("[1, 2, 2, 2]", "[1, 2, 2, 5]");
+
+        Assert.assertEquals("D1*2+$A$1", getCell(0, 4).getCellFormula());
+        Assert.assertEquals("D2*2+$A$1", getCell(1, 4).getCellFormula());
+    }
+
+    private void selectAndFill(String selection, String filled) {
+        TestHelper.fireClientEvent(spreadsheet, "cellRangeSelected",
+                selection);
+        TestHelper.fireClientEvent(spreadsheet, "selectionIncreasePainted",
+                filled);
+    }
+
+    private Cell getCell(int row, int col) {
+        return spreadsheet.getActiveSheet().getRow(row).getCell(col);
+    }
+}
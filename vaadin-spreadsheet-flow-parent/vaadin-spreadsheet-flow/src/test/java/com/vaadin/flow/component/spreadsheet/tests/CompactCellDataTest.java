@@ -0,0 +1,66 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.component.spreadsheet.client.CellData;
+import com.vaadin.flow.component.spreadsheet.client.CompactCellData;
+
+public class CompactCellDataTest {
+
+    @Test
+    public void encode_rowsAndColumnsAsDifferences() {
+        CompactCellData data = CompactCellData.encode(Arrays.asList(
+                cell(3, 2, "a"), cell(3, 3, "b"), cell(4, 1, "c")));
+
+        Assert.assertArrayEquals(new int[] { 3, 0, 1 }, data.r);
+        Assert.assertArrayEquals(new int[] { 2, 1, -2 }, data.c);
+    }
+
+    @Test
+    public void encode_stringsDeduplicated() {
+        CellData withNullValue = cell(1, 3, null);
+        CompactCellData data = CompactCellData.encode(Arrays
+                .asList(cell(1, 1, "x"), cell(1, 2, "x"), withNullValue));
+
+        Assert.assertArrayEquals(new String[] { "x", "cs0" }, data.s);
+        Assert.assertArrayEquals(new int[] { 0, 0, -1 }, data.v);
+        Assert.assertArrayEquals(new int[] { 1, 1, 1 }, data.st);
+    }
+
+    @Test
+    public void encode_noFormulasOrFlags_arraysOmitted() {
+        CompactCellData data = CompactCellData
+                .encode(Arrays.asList(cell(1, 1, "1")));
+
+        Assert.assertNull(data.f);
+        Assert.assertNull(data.o);
+        Assert.assertNull(data.b);
+    }
+
+    @Test
+    public void encode_flags() {
+        CellData cell = cell(1, 1, "10%");
+        cell.locked = true;
+        cell.isPercentage = true;
+        CompactCellData data = CompactCellData.encode(Arrays.asList(cell));
+
+        Assert.assertArrayEquals(new int[] {
+                CompactCellData.LOCKED | CompactCellData.PERCENTAGE }, data.b);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void encode_nullItem_throws() {
+        CompactCellData.encode(Arrays.asList(cell(1, 1, "a"), null));
+    }
+
+    private static CellData cell(int row, int col, String value) {
+        CellData cell = new CellData();
+        cell.row = row;
+        cell.col = col;
+        cell.value = value;
+        return cell;
+    }
+}
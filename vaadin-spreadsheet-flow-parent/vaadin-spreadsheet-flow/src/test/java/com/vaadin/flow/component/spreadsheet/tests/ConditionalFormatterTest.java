@@ -6,6 +6,11 @@ import elemental.json.impl.JreJsonObject;
 import elemental.json.impl.JsonUtil;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.ClientAnchor;
+import org.apache.poi.ss.usermodel.ComparisonOperator;
+import org.apache.poi.ss.usermodel.ConditionalFormattingRule;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.SheetConditionalFormatting;
+import org.apache.poi.ss.util.CellRangeAddress;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -118,6 +123,53 @@ public class ConditionalFormatterTest {
                 "conditionalformater_nobackground.xlsx");
     }
 
+    @Test
+    public void ruleForLargeRange_onlyRequestedCellsEvaluated() {
+        var sheet = new Spreadsheet();
+        var formatting = sheet.getActiveSheet()
+                .getSheetConditionalFormatting();
+        addRule(formatting, formatting.createConditionalFormattingRule(
+                ComparisonOperator.GT, "5"), "A1:A100000");
+        sheet.reloadActiveSheetStyles();
+
+        var cell = sheet.createCell(1, 0, 10.0);
+        sheet.refreshCells(cell);
+
+        Assert.assertNotNull(
+                sheet.getConditionalFormatter().getCellFormattingIndex(cell));
+        Assert.assertNull(sheet.getCell(50000, 0));
+    }
+
+    @Test
+    public void ruleWithAbsoluteReference_referencedCellChanged_cellsReevaluated() {
+        var sheet = new Spreadsheet();
+        var formatting = sheet.getActiveSheet()
+                .getSheetConditionalFormatting();
+        addRule(formatting,
+                formatting.createConditionalFormattingRule("$A$1>5"),
+                "B1:B10");
+        var referencedCell = sheet.createCell(0, 0, 1.0);
+        var cell = sheet.createCell(4, 1, "value");
+        sheet.reloadActiveSheetStyles();
+        Assert.assertNull(
+                sheet.getConditionalFormatter().getCellFormattingIndex(cell));
+
+        referencedCell.setCellValue(10.0);
+        sheet.refreshCells(referencedCell);
+
+        Assert.assertNotNull(
+                sheet.getConditionalFormatter().getCellFormattingIndex(cell));
+    }
+
+    private static void addRule(SheetConditionalFormatting formatting,
+            ConditionalFormattingRule rule, String range) {
+        rule.createPatternFormatting()
+                .setFillBackgroundColor(IndexedColors.RED.index);
+        formatting.addConditionalFormatting(
+                new CellRangeAddress[] { CellRangeAddress.valueOf(range) },
+                rule);
+    }
+
     private void createConditionalFormatterRulesForSheet(String fileName) {
         createConditionalFormatterRulesForSheet(fileName, null);
     }
@@ -14,6 +14,7 @@ import org.junit.Test;
 public class CustomComponentsTest {
     private Spreadsheet spreadsheet;
     private Component customComponent;
+    private int requestedCells;
 
     @Before
     public void init() {
@@ -40,6 +41,7 @@ public class CustomComponentsTest {
                     public Component getCustomComponentForCell(Cell cell,
                             int rowIndex, int columnIndex,
                             Spreadsheet spreadsheet, Sheet sheet) {
+                        requestedCells++;
                         if (rowIndex == 1 && columnIndex == 1) {
                             return customComponent;
                         }
@@ -69,4 +71,24 @@ public class CustomComponentsTest {
         Assert.assertFalse(customComponent.getParent().isPresent());
     }
 
+    @Test
+    public void scroll_onlyCellsEnteringViewportRequested() {
+        requestedCells = 0;
+
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[2, 1, 11, 10]");
+
+        Assert.assertEquals(10, requestedCells);
+        Assert.assertEquals(spreadsheet, customComponent.getParent().get());
+    }
+
+    @Test
+    public void reloadVisibleCellContents_allCellsRequested() {
+        requestedCells = 0;
+
+        spreadsheet.reloadVisibleCellContents();
+
+        Assert.assertEquals(100, requestedCells);
+        Assert.assertEquals(spreadsheet, customComponent.getParent().get());
+    }
 }
@@ -31,7 +31,11 @@ public class EmptyFileTest {
             method = s.getClass().getDeclaredMethod("getRowH");
             method.setAccessible(true);
             Object val = method.invoke(s);
-            return (float[]) val;
+            // row heights are stored as runs of equal heights
+            Method toArray = val.getClass().getDeclaredMethod("toArray",
+                    int.class);
+            toArray.setAccessible(true);
+            return (float[]) toArray.invoke(val, Integer.MAX_VALUE);
         } catch (NoSuchMethodException e) {
             e.printStackTrace();
         } catch (SecurityException e) {
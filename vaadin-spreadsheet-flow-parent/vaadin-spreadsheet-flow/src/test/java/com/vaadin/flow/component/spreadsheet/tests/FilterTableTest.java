@@ -3,6 +3,7 @@ package com.vaadin.flow.component.spreadsheet.tests;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.junit.Assert;
 import org.junit.Before;
@@ -148,6 +149,49 @@ public class FilterTableTest {
         Assert.assertFalse(spreadsheet.isRowHidden(3));
     }
 
+    @Test
+    public void editFilteredColumn_openPopup_optionsUpdated() {
+        Cell cell = spreadsheet.getCell(2, 1);
+        cell.setCellValue(100);
+        spreadsheet.refreshCells(cell);
+        getPopupButton().openPopup();
+
+        List<String> options = getFilterCheckboxGroup().getListDataView()
+                .getItems().collect(Collectors.toList());
+        Assert.assertTrue(options.contains("100"));
+        Assert.assertFalse(options.contains("3"));
+    }
+
+    @Test
+    public void editFilteredColumn_filter_editedRowHidden() {
+        Cell cell = spreadsheet.getCell(2, 1);
+        cell.setCellValue(4);
+        spreadsheet.refreshCells(cell);
+        getFilterCheckboxGroup().deselect("4");
+
+        Assert.assertTrue(spreadsheet.isRowHidden(2));
+        Assert.assertTrue(spreadsheet.isRowHidden(3));
+        Assert.assertEquals(2, getItemFilter().getFilteredRows().size());
+    }
+
+    @Test
+    public void editFormulaReference_openPopup_optionsUpdated() {
+        Cell reference = spreadsheet.createCell(2, 6, 7);
+        Cell formula = spreadsheet.createFormulaCell(2, 1, "G3*2");
+        spreadsheet.refreshCells(reference, formula);
+        getPopupButton().openPopup();
+        getPopupButton().closePopup();
+
+        reference.setCellValue(50);
+        spreadsheet.refreshCells(reference);
+        getPopupButton().openPopup();
+
+        List<String> options = getFilterCheckboxGroup().getListDataView()
+                .getItems().collect(Collectors.toList());
+        Assert.assertTrue(options.contains("100"));
+        Assert.assertFalse(options.contains("14"));
+    }
+
     private CheckboxGroup<String> getFilterCheckboxGroup() {
         return (CheckboxGroup<String>) getItemFilter().getChildren()
                 .filter(component -> component instanceof CheckboxGroup)
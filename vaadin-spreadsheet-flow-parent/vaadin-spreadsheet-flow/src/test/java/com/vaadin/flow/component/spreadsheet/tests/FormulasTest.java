@@ -1,5 +1,6 @@
 package com.vaadin.flow.component.spreadsheet.tests;
 
+import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Assert;
 import org.junit.Before;
@@ -9,6 +10,7 @@ import org.junit.Test;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.spreadsheet.Spreadsheet;
 import com.vaadin.flow.component.spreadsheet.Spreadsheet.FormulaValueChangeEvent;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
 
 public class FormulasTest {
 
@@ -75,6 +77,73 @@ public class FormulasTest {
         Assert.assertEquals(2.0, A1.getNumericCellValue(), 0.0);
     }
 
+    @Test
+    public void formulaValueChangeListener_onlyDependentFormulasChanged() {
+        var A1 = spreadsheet.createCell(0, 0, 1.0);
+        var B1 = spreadsheet.createFormulaCell(0, 1, "A1*2");
+        var C1 = spreadsheet.createFormulaCell(0, 2, "B1+1");
+        var D1 = spreadsheet.createFormulaCell(0, 3, "SUM(A2:A3)");
+        var A2 = spreadsheet.createCell(1, 0, 1.0);
+        spreadsheet.refreshCells(A1, B1, C1, D1, A2);
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 10, 10]");
+
+        var event = new AtomicReference<FormulaValueChangeEvent>();
+        spreadsheet.addFormulaValueChangeListener(e -> event.set(e));
+        spreadsheet.getCellValueManager().onCellValueChange(1, 1, "5");
+
+        var changedCells = event.get().getChangedCells().stream()
+                .map(ref -> ref.formatAsString()).toList();
+        Assert.assertEquals(2, changedCells.size());
+        Assert.assertTrue(changedCells.contains("Sheet1!B1"));
+        Assert.assertTrue(changedCells.contains("Sheet1!C1"));
+        Assert.assertEquals(11.0, C1.getNumericCellValue(), 0.0);
+    }
+
+    @Test
+    public void formulaValueChangeListener_areaReferenceChanged() {
+        var A2 = spreadsheet.createCell(1, 0, 1.0);
+        var D1 = spreadsheet.createFormulaCell(0, 3, "SUM(A2:A3)");
+        spreadsheet.refreshCells(A2, D1);
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 10, 10]");
+
+        var event = new AtomicReference<FormulaValueChangeEvent>();
+        spreadsheet.addFormulaValueChangeListener(e -> event.set(e));
+        spreadsheet.getCellValueManager().onCellValueChange(1, 3, "2");
+
+        Assert.assertEquals("Sheet1!D1", event.get().getChangedCells()
+                .iterator().next().formatAsString());
+        Assert.assertEquals(3.0, D1.getNumericCellValue(), 0.0);
+    }
+
+    @Test
+    public void formulaEvaluationParallelism_refreshAllCellValues_formulasEvaluated() {
+        spreadsheet.createCell(0, 0, 2.0);
+        var B1 = spreadsheet.createFormulaCell(0, 1, "A1*3");
+        var C1 = spreadsheet.createFormulaCell(0, 2, "10+1");
+        var D1 = spreadsheet.createFormulaCell(0, 3, "NOW()-NOW()+B1");
+        var E1 = spreadsheet.createFormulaCell(0, 4, "SUM(A1:C1)");
+
+        var phases = new ArrayList<MetricsPhase>();
+        spreadsheet.setMetricsListener(
+                (phase, nanos, payloadSize) -> phases.add(phase));
+        spreadsheet.setFormulaEvaluationParallelism(4);
+        spreadsheet.refreshAllCellValues();
+
+        Assert.assertTrue("Formulas should be evaluated in parallel",
+                phases.contains(MetricsPhase.PARALLEL_FORMULA_EVALUATION));
+        Assert.assertEquals(6.0, B1.getNumericCellValue(), 0.0);
+        Assert.assertEquals(11.0, C1.getNumericCellValue(), 0.0);
+        Assert.assertEquals(6.0, D1.getNumericCellValue(), 0.0);
+        Assert.assertEquals(19.0, E1.getNumericCellValue(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setFormulaEvaluationParallelism_zero_throws() {
+        spreadsheet.setFormulaEvaluationParallelism(0);
+    }
+
     @Ignore("Test ignored since it always passes locally but randomly fails on CI")
     @Test
     public void setInvalidFormula_invalidFormulaCellsSet() {
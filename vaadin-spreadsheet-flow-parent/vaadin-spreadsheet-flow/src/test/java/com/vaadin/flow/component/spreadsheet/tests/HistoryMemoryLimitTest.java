@@ -0,0 +1,97 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import java.util.Date;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+import com.vaadin.flow.component.spreadsheet.SpreadsheetHistoryManager;
+import com.vaadin.flow.component.spreadsheet.command.CellValueCommand;
+
+public class HistoryMemoryLimitTest {
+
+    private static final int ROWS = 1000;
+
+    private Spreadsheet spreadsheet;
+    private SpreadsheetHistoryManager historyManager;
+
+    @Before
+    public void init() {
+        UI.setCurrent(new UI());
+        spreadsheet = new Spreadsheet();
+        historyManager = spreadsheet.getSpreadsheetHistoryManager();
+    }
+
+    @Test
+    public void memoryLimitExceeded_oldestCommandsDiscarded() {
+        clearCellsWithHistory();
+        historyManager.setHistoryMemoryLimit(
+                historyManager.getHistoryMemoryUsage());
+        clearCellsWithHistory();
+        clearCellsWithHistory();
+
+        Assert.assertEquals(0, historyManager.getHistoryIndex());
+        Assert.assertTrue(historyManager.canUndo());
+    }
+
+    @Test
+    public void spillEnabled_memoryLimitExceeded_undoRestoresValues() {
+        for (int row = 0; row < ROWS; row++) {
+            spreadsheet.createCell(row, 0, "value " + row);
+        }
+        spreadsheet.createCell(0, 1, 1.5);
+        spreadsheet.createCell(1, 1, true);
+        historyManager.setHistorySpillEnabled(true);
+        historyManager.setHistoryMemoryLimit(1);
+
+        clearCellsWithHistory();
+        Assert.assertTrue(historyManager.getHistoryMemoryUsage() < 1000);
+        historyManager.undo();
+
+        for (int row = 0; row < ROWS; row++) {
+            Assert.assertEquals("value " + row,
+                    spreadsheet.getCell(row, 0).getStringCellValue());
+        }
+        Assert.assertEquals(1.5,
+                spreadsheet.getCell(0, 1).getNumericCellValue(), 0.0);
+        Assert.assertTrue(spreadsheet.getCell(1, 1).getBooleanCellValue());
+        Assert.assertNull(spreadsheet.getCell(2, 1));
+    }
+
+    @Test
+    public void cellValueOfOtherType_captured_undoRestoresValues() {
+        spreadsheet.createCell(0, 0, "value");
+        spreadsheet.createCell(0, 1, 1.5);
+        CellValueCommand command = new CellValueCommand(spreadsheet) {
+            @Override
+            protected Object getCellValue(Cell cell) {
+                return cell != null && cell.getColumnIndex() == 1
+                        ? new Date(0)
+                        : super.getCellValue(cell);
+            }
+        };
+        command.captureCellRangeValues(new CellRangeAddress(0, 0, 0, 1));
+        spreadsheet.deleteCell(0, 0);
+        historyManager.addCommand(command);
+
+        historyManager.undo();
+
+        Assert.assertEquals("value",
+                spreadsheet.getCell(0, 0).getStringCellValue());
+    }
+
+    private void clearCellsWithHistory() {
+        CellValueCommand command = new CellValueCommand(spreadsheet);
+        command.captureCellRangeValues(new CellRangeAddress(0, ROWS - 1, 0, 1));
+        for (int row = 0; row < ROWS; row++) {
+            spreadsheet.deleteCell(row, 0);
+            spreadsheet.deleteCell(row, 1);
+        }
+        historyManager.addCommand(command);
+    }
+}
@@ -0,0 +1,74 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+import com.vaadin.flow.component.spreadsheet.client.MergedRegion;
+import com.vaadin.flow.component.spreadsheet.client.MergedRegionUtil.MergedRegionContainer;
+
+public class MergedRegionLookupTest {
+
+    private static final int GRID_SIZE = 12;
+
+    private TestSpreadsheet spreadsheet;
+
+    @Before
+    public void init() {
+        UI.setCurrent(new UI());
+        spreadsheet = new TestSpreadsheet();
+        // 2x2 regions with an unmerged row and column between them
+        for (int i = 0; i < GRID_SIZE; i++) {
+            for (int j = 0; j < GRID_SIZE; j++) {
+                spreadsheet.addMergedRegion(i * 3, j * 3, i * 3 + 1,
+                        j * 3 + 1);
+            }
+        }
+    }
+
+    @Test
+    public void getMergedRegion_cellInRegion_regionFound() {
+        MergedRegion region = spreadsheet.getContainer().getMergedRegion(8,
+                11);
+
+        Assert.assertNotNull(region);
+        Assert.assertEquals(10, region.row1);
+        Assert.assertEquals(11, region.row2);
+        Assert.assertEquals(7, region.col1);
+        Assert.assertEquals(8, region.col2);
+    }
+
+    @Test
+    public void getMergedRegion_cellBetweenRegions_noRegion() {
+        Assert.assertNull(spreadsheet.getContainer().getMergedRegion(9, 11));
+        Assert.assertNull(spreadsheet.getContainer().getMergedRegion(8, 12));
+        Assert.assertNull(spreadsheet.getContainer()
+                .getMergedRegion(GRID_SIZE * 3 + 1, 1));
+    }
+
+    @Test
+    public void getMergedRegionStartingFrom_onlyTopLeftCellMatches() {
+        MergedRegionContainer container = spreadsheet.getContainer();
+
+        Assert.assertNotNull(container.getMergedRegionStartingFrom(7, 10));
+        Assert.assertNull(container.getMergedRegionStartingFrom(8, 11));
+    }
+
+    @Test
+    public void removeMergedRegion_regionNotFound() {
+        Assert.assertNotNull(spreadsheet.getContainer().getMergedRegion(1, 1));
+
+        spreadsheet.removeMergedRegion(0);
+
+        Assert.assertNull(spreadsheet.getContainer().getMergedRegion(1, 1));
+        Assert.assertNotNull(spreadsheet.getContainer().getMergedRegion(4, 1));
+    }
+
+    private static class TestSpreadsheet extends Spreadsheet {
+        MergedRegionContainer getContainer() {
+            return getMergedRegionContainer();
+        }
+    }
+}
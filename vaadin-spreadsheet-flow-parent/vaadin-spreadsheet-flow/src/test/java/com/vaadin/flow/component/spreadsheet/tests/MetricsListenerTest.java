@@ -0,0 +1,55 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet.MetricsPhase;
+
+public class MetricsListenerTest {
+
+    private Spreadsheet spreadsheet;
+    private final Map<MetricsPhase, Long> payloads = new EnumMap<>(
+            MetricsPhase.class);
+
+    @Before
+    public void init() {
+        spreadsheet = new Spreadsheet();
+        UI.setCurrent(new UI());
+        spreadsheet.createCell(0, 0, "value");
+    }
+
+    @Test
+    public void scroll_phasesReported() {
+        spreadsheet.setMetricsListener(this::record);
+
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 10, 10]");
+
+        Assert.assertTrue(payloads.containsKey(MetricsPhase.SHEET_SCROLL));
+        Assert.assertTrue(payloads.get(MetricsPhase.CELL_DATA) > 0);
+        Assert.assertTrue(payloads.get(MetricsPhase.SHEET_SCROLL) >= payloads
+                .get(MetricsPhase.CELL_DATA));
+    }
+
+    @Test
+    public void noListener_nothingReported() {
+        spreadsheet.setMetricsListener(this::record);
+        spreadsheet.setMetricsListener(null);
+
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 10, 10]");
+
+        Assert.assertTrue(payloads.isEmpty());
+    }
+
+    private void record(MetricsPhase phase, long nanos, long payloadSize) {
+        Assert.assertTrue(nanos >= 0);
+        payloads.merge(phase, payloadSize, Long::sum);
+    }
+}
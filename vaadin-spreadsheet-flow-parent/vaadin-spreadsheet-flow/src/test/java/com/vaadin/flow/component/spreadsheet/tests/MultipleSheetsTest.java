@@ -172,6 +172,34 @@ public class MultipleSheetsTest {
         Assert.assertTrue(listenerInvoked.get());
     }
 
+    @Test
+    public void switchBackToSheet_stateRestored() {
+        spreadsheet.addMergedRegion("A1:B2");
+        var mergedRegions = getProperty("mergedRegions");
+
+        spreadsheet.setActiveSheetIndex(1);
+        Assert.assertNotEquals(mergedRegions, getProperty("mergedRegions"));
+
+        spreadsheet.setActiveSheetIndex(0);
+        Assert.assertEquals(mergedRegions, getProperty("mergedRegions"));
+    }
+
+    @Test
+    public void switchBackToSheet_cacheDisabled_stateReloaded() {
+        spreadsheet.setSheetCacheSize(0);
+        spreadsheet.addMergedRegion("A1:B2");
+        var mergedRegions = getProperty("mergedRegions");
+
+        spreadsheet.setActiveSheetIndex(1);
+        spreadsheet.setActiveSheetIndex(0);
+        Assert.assertEquals(mergedRegions, getProperty("mergedRegions"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setSheetCacheSize_negative_throws() {
+        spreadsheet.setSheetCacheSize(-1);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void setSheetProtected_invalidSheetIndex_throws() {
         spreadsheet.setSheetProtected(-1, "password");
@@ -189,4 +217,8 @@ public class MultipleSheetsTest {
         Assert.assertTrue(spreadsheet.isSheetProtected(0));
         Assert.assertTrue(spreadsheet.isActiveSheetProtected());
     }
+
+    private String getProperty(String name) {
+        return spreadsheet.getElement().getProperty(name);
+    }
 }
@@ -0,0 +1,124 @@
+package com.vaadin.flow.component.spreadsheet.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+
+public class ReadOnlyModeTest {
+
+    private static final int ROWS = 1000;
+
+    private Spreadsheet spreadsheet;
+
+    @Before
+    public void init() throws IOException {
+        UI.setCurrent(new UI());
+        spreadsheet = new Spreadsheet();
+        spreadsheet.readInReadOnlyMode(
+                new ByteArrayInputStream(createWorkbookBytes()));
+    }
+
+    @Test
+    public void readInReadOnlyMode_sheetSizeAndProtection() {
+        Assert.assertTrue(spreadsheet.isReadOnlyMode());
+        Assert.assertEquals(ROWS, spreadsheet.getRows());
+        Assert.assertTrue(spreadsheet.getActiveSheet().getProtect());
+    }
+
+    @Test
+    public void readInReadOnlyMode_onlyVisibleRowsLoaded() {
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 20, 3]");
+
+        Sheet sheet = spreadsheet.getActiveSheet();
+        Assert.assertEquals("row 5",
+                sheet.getRow(4).getCell(0).getStringCellValue());
+        Assert.assertEquals(4, sheet.getRow(4).getCell(1).getNumericCellValue(),
+                0);
+        Assert.assertNull(sheet.getRow(500));
+    }
+
+    @Test
+    public void readInReadOnlyMode_scroll_rowsOutsideWindowReleased() {
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 20, 3]");
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[501, 1, 520, 3]");
+
+        Sheet sheet = spreadsheet.getActiveSheet();
+        Row row = sheet.getRow(500);
+        Assert.assertNotNull(row);
+        Assert.assertEquals("row 501", row.getCell(0).getStringCellValue());
+        Assert.assertNull(sheet.getRow(4));
+    }
+
+    @Test
+    public void readInReadOnlyMode_errorCell_loadedAsError() {
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 20, 3]");
+
+        Sheet sheet = spreadsheet.getActiveSheet();
+        Assert.assertEquals(CellType.ERROR,
+                sheet.getRow(1).getCell(2).getCellType());
+        Assert.assertEquals(FormulaError.DIV0.getCode(),
+                sheet.getRow(1).getCell(2).getErrorCellValue());
+    }
+
+    @Test
+    public void readInReadOnlyMode_scrollAwayFromLastRow_sizeCellKept() {
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[981, 1, 1000, 3]");
+        TestHelper.fireClientEvent(spreadsheet, "onSheetScroll",
+                "[1, 1, 20, 3]");
+
+        Row lastRow = spreadsheet.getActiveSheet().getRow(ROWS - 1);
+        Assert.assertNotNull(lastRow);
+        Assert.assertNotNull(lastRow.getCell(2));
+        Assert.assertNull(lastRow.getCell(0));
+        Assert.assertEquals(ROWS, spreadsheet.getRows());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void readInReadOnlyMode_write_throws() throws IOException {
+        spreadsheet.write(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void read_afterReadOnlyMode_readOnlyModeCleared()
+            throws IOException {
+        spreadsheet.read(new ByteArrayInputStream(createWorkbookBytes()));
+
+        Assert.assertFalse(spreadsheet.isReadOnlyMode());
+    }
+
+    private static byte[] createWorkbookBytes() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < ROWS; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("row " + (i + 1));
+                row.createCell(1).setCellValue(i);
+                if (i == 1) {
+                    row.createCell(2).setCellErrorValue(FormulaError.DIV0);
+                } else {
+                    row.createCell(2).setCellValue(i % 2 == 0);
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.vaadin.flow.component.spreadsheet.tests;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -13,6 +17,8 @@ import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.Test;
 
+import com.vaadin.flow.component.spreadsheet.Spreadsheet;
+
 /*
  * Tests are performed with pure POI and Spreadsheet to find differences and bugs
  */
@@ -62,6 +68,37 @@ public class SpreadsheetReadWriteTest {
         // no exceptions, everything ok
     }
 
+    @Test
+    public void writeFile_workbookNotReloaded() throws IOException {
+        var sheet = TestHelper.createSpreadsheet("empty.xlsx");
+        var workbook = sheet.getWorkbook();
+
+        var tempFile = sheet.write("resultEmptyFile.xlsx");
+        tempFile.delete();
+
+        assertSame(workbook, sheet.getWorkbook());
+    }
+
+    @Test
+    public void writeWithListener_completionReported() throws IOException {
+        var sheet = TestHelper.createSpreadsheet("empty.xlsx");
+        var completed = new AtomicLong(-1);
+
+        var stream = new ByteArrayOutputStream();
+        sheet.write(stream, new Spreadsheet.WriteProgressListener() {
+            @Override
+            public void onProgress(long bytesWritten) {
+            }
+
+            @Override
+            public void onComplete(long totalBytes) {
+                completed.set(totalBytes);
+            }
+        });
+
+        assertEquals(stream.size(), completed.get());
+    }
+
     @Test
     public void openAndSaveFile_emptyXLSXFile_FileDoesNotContainAdditionalDrawing()
             throws IOException {
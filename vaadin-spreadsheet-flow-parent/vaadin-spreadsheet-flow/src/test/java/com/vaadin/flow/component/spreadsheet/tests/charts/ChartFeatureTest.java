@@ -315,4 +315,17 @@ public class ChartFeatureTest extends ChartTestBase {
                 .getConfiguration();
         Assert.assertEquals(AxisType.CATEGORY, conf.getxAxis().getType());
     }
+
+    @Test
+    public void chartOverlaysReloaded_chartNotConvertedAgain()
+            throws Exception {
+        Spreadsheet spreadsheet = TestHelper
+                .createSpreadsheet("FeatureSample - Legend Position.xlsx");
+        var chart = getChart(spreadsheet, "A7");
+
+        spreadsheet.setChartsEnabled(false);
+        spreadsheet.setChartsEnabled(true);
+
+        Assert.assertSame(chart, getChart(spreadsheet, "A7"));
+    }
 }
@@ -44,6 +44,11 @@ public class ChartTestBase {
 
         Spreadsheet spreadsheet = TestHelper.createSpreadsheet(filename);
 
+        return getChart(spreadsheet, cell);
+    }
+
+    protected Chart getChart(Spreadsheet spreadsheet, String cell)
+            throws Exception {
         CellReference cellRef = new CellReference(cell);
 
         Set<SheetOverlayWrapper> sheetOverlays = getSheetOverlays(spreadsheet);